@@ -0,0 +1,71 @@
+#!/usr/bin/env python3
+"""Compare two JMH JSON result files and fail when a benchmark regressed beyond a threshold.
+
+Usage: compare-benchmarks.py <baseline.json> <results.json> [max-regression]
+
+A benchmark regresses when its score got worse by more than max-regression (0.15 by default, i.e. 15%) and the
+confidence intervals of both runs do not overlap. Benchmarks present in one file only are listed but not compared.
+"""
+
+import json
+import math
+import sys
+
+# Modes whose score is a time per operation, where higher is worse; the other modes are throughputs
+TIME_MODES = {"avgt", "sample", "ss"}
+
+
+def load(path):
+    with open(path) as file:
+        results = json.load(file)
+    benchmarks = {}
+    for result in results:
+        params = ",".join(f"{name}={value}" for name, value in sorted(result.get("params", {}).items()))
+        name = result["benchmark"] + (f"({params})" if params else "")
+        benchmarks[name] = result
+    return benchmarks
+
+
+def score_error(metric):
+    # JMH reports the error of a single iteration as "NaN", counted as no error
+    error = float(metric["scoreError"])
+    return 0.0 if math.isnan(error) else error
+
+
+def main():
+    if len(sys.argv) not in (3, 4):
+        sys.exit(__doc__)
+    baseline = load(sys.argv[1])
+    current = load(sys.argv[2])
+    max_regression = float(sys.argv[3]) if len(sys.argv) == 4 else 0.15
+
+    regressions = []
+    for name in sorted(current):
+        if name not in baseline:
+            print(f"NEW       {name}")
+            continue
+        before = baseline[name]["primaryMetric"]
+        after = current[name]["primaryMetric"]
+        time_mode = current[name]["mode"] in TIME_MODES
+        change = (after["score"] - before["score"]) / before["score"]
+        worse = change if time_mode else -change
+        before_error = score_error(before)
+        after_error = score_error(after)
+        if time_mode:
+            overlap = after["score"] - after_error <= before["score"] + before_error
+        else:
+            overlap = after["score"] + after_error >= before["score"] - before_error
+        regressed = worse > max_regression and not overlap
+        status = "REGRESSED" if regressed else "OK"
+        print(f"{status:<10}{name}: {before['score']:.3f} -> {after['score']:.3f} {after['scoreUnit']} ({change:+.1%})")
+        if regressed:
+            regressions.append(name)
+    for name in sorted(set(baseline) - set(current)):
+        print(f"REMOVED   {name}")
+
+    if regressions:
+        sys.exit(f"{len(regressions)} benchmark(s) regressed by more than {max_regression:.0%}")
+
+
+if __name__ == "__main__":
+    main()
@@ -0,0 +1,54 @@
+package ru.zavanton.booker.config;
+
+import ch.qos.logback.classic.spi.LoggingEvent;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+/**
+ * Benchmarks of {@link CRLFLogConverter#transform}, which runs on every log line written by the console appender.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class CRLFLogConverterBenchmark {
+
+    private static final String CLEAN_MESSAGE = "REST request to get a page of Books with criteria BookCriteria{title=Dune, language=en}";
+
+    private static final String CRLF_MESSAGE = "REST request to get Book : 1\r\n\tat ru.zavanton.booker.web.rest.BookResource.getBook";
+
+    private CRLFLogConverter converter;
+
+    private LoggingEvent applicationEvent;
+
+    private LoggingEvent safeEvent;
+
+    @Setup
+    public void setup() {
+        converter = new CRLFLogConverter();
+        applicationEvent = new LoggingEvent();
+        applicationEvent.setLoggerName("ru.zavanton.booker.web.rest.BookResource");
+        safeEvent = new LoggingEvent();
+        safeEvent.setLoggerName("org.hibernate.SQL");
+    }
+
+    @Benchmark
+    public String cleanMessage() {
+        return converter.transform(applicationEvent, CLEAN_MESSAGE);
+    }
+
+    @Benchmark
+    public String crlfMessage() {
+        return converter.transform(applicationEvent, CRLF_MESSAGE);
+    }
+
+    @Benchmark
+    public String safeLogger() {
+        return converter.transform(safeEvent, CRLF_MESSAGE);
+    }
+}
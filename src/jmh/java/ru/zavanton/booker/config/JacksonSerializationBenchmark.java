@@ -0,0 +1,133 @@
+package ru.zavanton.booker.config;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import ru.zavanton.booker.domain.BookEntity;
+import ru.zavanton.booker.domain.PublisherEntity;
+import ru.zavanton.booker.domain.ReviewEntity;
+import ru.zavanton.booker.domain.UserEntity;
+import ru.zavanton.booker.service.dto.BookDto;
+import ru.zavanton.booker.service.dto.PublisherDto;
+
+/**
+ * Benchmarks of the serialization of pages of entities and DTOs, as written by the REST resources,
+ * with an {@link ObjectMapper} set up with the modules of {@link JacksonConfiguration}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class JacksonSerializationBenchmark {
+
+    @Param({ "20", "100" })
+    private int pageSize;
+
+    private ObjectMapper objectMapper;
+
+    private List<BookEntity> books;
+
+    private List<BookDto> bookDtos;
+
+    private List<ReviewEntity> reviews;
+
+    @Setup
+    public void setup() {
+        JacksonConfiguration jacksonConfiguration = new JacksonConfiguration();
+        objectMapper = Jackson2ObjectMapperBuilder.json()
+            .modules(jacksonConfiguration.javaTimeModule(), jacksonConfiguration.jdk8TimeModule(), jacksonConfiguration.hibernate6Module())
+            .featuresToDisable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS)
+            .build();
+
+        PublisherEntity publisher = new PublisherEntity();
+        publisher.setId(1L);
+        publisher.setName("Publisher");
+        UserEntity user = new UserEntity();
+        user.setId(1L);
+        user.setLogin("reader");
+
+        books = new ArrayList<>();
+        bookDtos = new ArrayList<>();
+        reviews = new ArrayList<>();
+        for (long i = 1; i <= pageSize; i++) {
+            BookEntity book = new BookEntity()
+                .id(i)
+                .isbn("978-0-00-000000-" + i)
+                .title("Title " + i)
+                .description("A description of book " + i + " which is a few sentences long. ".repeat(10))
+                .coverImageUrl("https://covers.example.com/" + i + ".jpg")
+                .pageCount(300)
+                .publicationDate(LocalDate.of(2000, 1, 1).plusDays(i))
+                .language("en")
+                .averageRating(BigDecimal.valueOf(4.25))
+                .totalRatings(120)
+                .totalReviews(12)
+                .createdAt(Instant.EPOCH)
+                .updatedAt(Instant.EPOCH)
+                .publisher(publisher);
+            books.add(book);
+            bookDtos.add(toDto(book));
+            reviews.add(
+                new ReviewEntity()
+                    .id(i)
+                    .content("A review of book " + i + " which is a few paragraphs long.\n".repeat(20))
+                    .rating(4)
+                    .containsSpoilers(false)
+                    .helpfulCount(3)
+                    .createdAt(Instant.EPOCH)
+                    .updatedAt(Instant.EPOCH)
+                    .user(user)
+                    .book(book)
+            );
+        }
+    }
+
+    @Benchmark
+    public byte[] bookEntities() throws JsonProcessingException {
+        return objectMapper.writeValueAsBytes(books);
+    }
+
+    @Benchmark
+    public byte[] bookDtos() throws JsonProcessingException {
+        return objectMapper.writeValueAsBytes(bookDtos);
+    }
+
+    @Benchmark
+    public byte[] reviewEntities() throws JsonProcessingException {
+        return objectMapper.writeValueAsBytes(reviews);
+    }
+
+    private static BookDto toDto(BookEntity book) {
+        BookDto bookDto = new BookDto();
+        bookDto.setId(book.getId());
+        bookDto.setIsbn(book.getIsbn());
+        bookDto.setTitle(book.getTitle());
+        bookDto.setCoverImageUrl(book.getCoverImageUrl());
+        bookDto.setPageCount(book.getPageCount());
+        bookDto.setPublicationDate(book.getPublicationDate());
+        bookDto.setLanguage(book.getLanguage());
+        bookDto.setAverageRating(book.getAverageRating());
+        bookDto.setTotalRatings(book.getTotalRatings());
+        bookDto.setTotalReviews(book.getTotalReviews());
+        bookDto.setCreatedAt(book.getCreatedAt());
+        bookDto.setUpdatedAt(book.getUpdatedAt());
+        PublisherDto publisherDto = new PublisherDto();
+        publisherDto.setId(book.getPublisher().getId());
+        bookDto.setPublisher(publisherDto);
+        return bookDto;
+    }
+}
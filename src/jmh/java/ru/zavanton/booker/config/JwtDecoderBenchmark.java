@@ -0,0 +1,81 @@
+package ru.zavanton.booker.config;
+
+import static ru.zavanton.booker.security.SecurityUtils.AUTHORITIES_KEY;
+import static ru.zavanton.booker.security.SecurityUtils.JWT_ALGORITHM;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.springframework.security.oauth2.jwt.JwsHeader;
+import org.springframework.security.oauth2.jwt.Jwt;
+import org.springframework.security.oauth2.jwt.JwtClaimsSet;
+import org.springframework.security.oauth2.jwt.JwtDecoder;
+import org.springframework.security.oauth2.jwt.JwtEncoderParameters;
+import org.springframework.security.oauth2.jwt.JwtException;
+import org.springframework.util.ReflectionUtils;
+import ru.zavanton.booker.management.SecurityMetersService;
+
+/**
+ * Benchmarks of the {@link JwtDecoder} of {@link SecurityJwtConfiguration}, which checks the token of every
+ * authenticated request.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class JwtDecoderBenchmark {
+
+    // The secret of the test configuration
+    private static final String JWT_KEY =
+        "ODlhZTA3M2U5Mjg2YWY3M2E2YzA3Y2EwZmI3ZjA0M2M2YTQzNDhlZjY0ZWU0NzM1YzZiNWU5ZjQ4YWIyN2Q0NGY3N2I2NmJjNDYyYjViMTk3OGUyNDcyZGE5YjNmZGI4MTdmODVmMGYyYzZmNmI4MGU3MmY1YjQxZDBjYzI3Mjg=";
+
+    private JwtDecoder jwtDecoder;
+
+    private String validToken;
+
+    private String invalidToken;
+
+    @Setup
+    public void setup() {
+        SecurityJwtConfiguration configuration = new SecurityJwtConfiguration();
+        var jwtKeyField = ReflectionUtils.findField(SecurityJwtConfiguration.class, "jwtKey");
+        ReflectionUtils.makeAccessible(jwtKeyField);
+        ReflectionUtils.setField(jwtKeyField, configuration, JWT_KEY);
+        jwtDecoder = configuration.jwtDecoder(new SecurityMetersService(new SimpleMeterRegistry()));
+
+        Instant now = Instant.now();
+        JwtClaimsSet claims = JwtClaimsSet.builder()
+            .issuedAt(now)
+            .expiresAt(now.plus(1, ChronoUnit.DAYS))
+            .subject("user")
+            .claim(AUTHORITIES_KEY, "ROLE_USER")
+            .build();
+        JwsHeader jwsHeader = JwsHeader.with(JWT_ALGORITHM).build();
+        validToken = configuration.jwtEncoder().encode(JwtEncoderParameters.from(jwsHeader, claims)).getTokenValue();
+        // Same header and claims, with the last character of the signature changed
+        char last = validToken.charAt(validToken.length() - 1);
+        invalidToken = validToken.substring(0, validToken.length() - 1) + (last == 'A' ? 'B' : 'A');
+    }
+
+    @Benchmark
+    public Jwt validToken() {
+        return jwtDecoder.decode(validToken);
+    }
+
+    @Benchmark
+    public JwtException invalidSignature() {
+        try {
+            jwtDecoder.decode(invalidToken);
+            throw new IllegalStateException("The token should have been rejected");
+        } catch (JwtException e) {
+            return e;
+        }
+    }
+}
@@ -0,0 +1,144 @@
+package ru.zavanton.booker.service;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import org.hibernate.boot.model.naming.CamelCaseToUnderscoresNamingStrategy;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.springframework.boot.orm.jpa.hibernate.SpringImplicitNamingStrategy;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.orm.jpa.LocalContainerEntityManagerFactoryBean;
+import org.springframework.orm.jpa.vendor.HibernateJpaVendorAdapter;
+import ru.zavanton.booker.config.ApplicationProperties;
+import ru.zavanton.booker.domain.BookEntity;
+import ru.zavanton.booker.repository.BookSummaryProjection;
+import ru.zavanton.booker.repository.SpecificationProjectionRepository;
+import ru.zavanton.booker.service.criteria.BookCriteria;
+
+/**
+ * Benchmarks of a page of the book list endpoints for a {@link BookCriteria}, through {@link BookQueryService} and an
+ * {@link EntityManager} on an empty H2 database: the criteria query is built, translated to SQL and run, so that the
+ * time is mostly the one spent by the application and Hibernate rather than by the database.
+ * <p>
+ * {@code specification} builds and translates the criteria query on every call, {@code plan} reuses the one built for
+ * the shape of the criteria.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class BookQueryServiceBenchmark {
+
+    private static final Pageable PAGE = PageRequest.of(0, 20, Sort.by("id"));
+
+    @Param({ "empty", "typical", "relationship" })
+    private String criteriaName;
+
+    private EntityManagerFactory entityManagerFactory;
+
+    private EntityManager entityManager;
+
+    private SpecificationProjectionRepository specificationProjectionRepository;
+
+    private BookQueryService bookQueryService;
+
+    private BookCriteria criteria;
+
+    @Setup
+    public void setup() {
+        DriverManagerDataSource dataSource = new DriverManagerDataSource("jdbc:h2:mem:benchmark;DB_CLOSE_DELAY=-1");
+        LocalContainerEntityManagerFactoryBean factory = new LocalContainerEntityManagerFactoryBean();
+        factory.setDataSource(dataSource);
+        factory.setPackagesToScan(BookEntity.class.getPackageName());
+        factory.setJpaVendorAdapter(new HibernateJpaVendorAdapter());
+        factory.setJpaPropertyMap(
+            Map.of(
+                "hibernate.hbm2ddl.auto",
+                "create",
+                "hibernate.physical_naming_strategy",
+                CamelCaseToUnderscoresNamingStrategy.class.getName(),
+                "hibernate.implicit_naming_strategy",
+                SpringImplicitNamingStrategy.class.getName(),
+                "hibernate.cache.use_second_level_cache",
+                "false",
+                "hibernate.query.in_clause_parameter_padding",
+                "true"
+            )
+        );
+        factory.afterPropertiesSet();
+        entityManagerFactory = factory.getObject();
+        entityManager = entityManagerFactory.createEntityManager();
+
+        ApplicationProperties applicationProperties = new ApplicationProperties();
+        specificationProjectionRepository = new SpecificationProjectionRepository(
+            entityManager,
+            new SimpleMeterRegistry(),
+            applicationProperties
+        );
+        bookQueryService = new BookQueryService(specificationProjectionRepository, null, null);
+        criteria = createCriteria(criteriaName);
+    }
+
+    @TearDown
+    public void tearDown() {
+        entityManager.close();
+        entityManagerFactory.close();
+    }
+
+    @Benchmark
+    public Page<BookSummaryProjection> specification() {
+        return specificationProjectionRepository.findAll(
+            BookEntity.class,
+            bookQueryService.createSpecification(criteria),
+            PAGE,
+            BookSummaryProjection.class
+        );
+    }
+
+    @Benchmark
+    public Page<BookSummaryProjection> plan() {
+        return specificationProjectionRepository.findAll(
+            BookEntity.class,
+            bookQueryService.createPlan(criteria),
+            PAGE,
+            BookSummaryProjection.class
+        );
+    }
+
+    private static BookCriteria createCriteria(String name) {
+        BookCriteria typicalCriteria = new BookCriteria();
+        typicalCriteria.title().setContains("dune");
+        typicalCriteria.language().setEquals("en");
+        typicalCriteria.publicationDate().setGreaterThanOrEqual(LocalDate.of(1960, 1, 1));
+        typicalCriteria.averageRating().setGreaterThan(BigDecimal.valueOf(3.5));
+        return switch (name) {
+            case "empty" -> new BookCriteria();
+            case "typical" -> typicalCriteria;
+            case "relationship" -> {
+                BookCriteria relationshipCriteria = typicalCriteria.copy();
+                relationshipCriteria.bookAuthorId().setEquals(1L);
+                relationshipCriteria.bookGenreId().setEquals(2L);
+                relationshipCriteria.bookTagId().setEquals(3L);
+                relationshipCriteria.publisherId().setEquals(4L);
+                relationshipCriteria.setDistinct(true);
+                yield relationshipCriteria;
+            }
+            default -> throw new IllegalArgumentException("Unknown criteria: " + name);
+        };
+    }
+}
@@ -0,0 +1,82 @@
+package ru.zavanton.booker.service.mapper;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import ru.zavanton.booker.domain.Authority;
+import ru.zavanton.booker.domain.UserEntity;
+import ru.zavanton.booker.security.AuthoritiesConstants;
+import ru.zavanton.booker.service.dto.AdminUserDto;
+import ru.zavanton.booker.service.dto.UserDto;
+
+/**
+ * Benchmarks of the mapping of pages of users by {@link UserMapper}, as done by the user resources.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class UserMapperBenchmark {
+
+    @Param({ "20", "100" })
+    private int pageSize;
+
+    private UserMapper userMapper;
+
+    private List<UserEntity> users;
+
+    private List<AdminUserDto> adminUserDtos;
+
+    @Setup
+    public void setup() {
+        userMapper = new UserMapper();
+        Authority userAuthority = new Authority();
+        userAuthority.setName(AuthoritiesConstants.USER);
+        Authority adminAuthority = new Authority();
+        adminAuthority.setName(AuthoritiesConstants.ADMIN);
+
+        users = new ArrayList<>();
+        for (long i = 1; i <= pageSize; i++) {
+            UserEntity user = new UserEntity();
+            user.setId(i);
+            user.setLogin("user" + i);
+            user.setActivated(true);
+            user.setEmail("user" + i + "@localhost");
+            user.setFirstName("First" + i);
+            user.setLastName("Last" + i);
+            user.setImageUrl("image_url");
+            user.setCreatedBy("system");
+            user.setCreatedDate(Instant.EPOCH);
+            user.setLastModifiedBy("system");
+            user.setLastModifiedDate(Instant.EPOCH);
+            user.setLangKey("en");
+            user.setAuthorities(i % 10 == 0 ? Set.of(userAuthority, adminAuthority) : Set.of(userAuthority));
+            users.add(user);
+        }
+        adminUserDtos = userMapper.usersToAdminUserDTOs(users);
+    }
+
+    @Benchmark
+    public List<UserDto> usersToUserDTOs() {
+        return userMapper.usersToUserDTOs(users);
+    }
+
+    @Benchmark
+    public List<AdminUserDto> usersToAdminUserDTOs() {
+        return userMapper.usersToAdminUserDTOs(users);
+    }
+
+    @Benchmark
+    public List<UserEntity> userDTOsToUsers() {
+        return userMapper.userDTOsToUsers(adminUserDtos);
+    }
+}
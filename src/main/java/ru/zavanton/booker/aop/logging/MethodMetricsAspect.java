@@ -0,0 +1,165 @@
+package ru.zavanton.booker.aop.logging;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.util.Arrays;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.aspectj.lang.reflect.MethodSignature;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.core.annotation.AnnotationUtils;
+import org.springframework.util.ClassUtils;
+import ru.zavanton.booker.config.ApplicationProperties;
+
+/**
+ * Aspect timing the execution of service and repository Spring components, and of the Web REST endpoints,
+ * matched by the pointcuts of {@link LoggingAspect}.
+ * <p>
+ * Each method records its latency into the {@code booker.method} timer, tagged by its class, its name and whether it threw.
+ * The timers and loggers are created on the first call of each method of each bean, so that the other calls do not allocate.
+ * Calls taking longer than {@code application.method-metrics.slow-call-threshold-ms} are logged as warnings with their
+ * duration only, and a {@code application.method-metrics.argument-sample-rate} share of the calls is logged with their
+ * arguments when the debug level is enabled for their class. The arguments of the methods and types annotated with
+ * {@link SensitiveArguments} are never logged.
+ * <p>
+ * It runs when {@code application.method-metrics.enabled} is set, which is the default with the "prod" profile.
+ */
+@Aspect
+public class MethodMetricsAspect {
+
+    static final String TIMER_NAME = "booker.method";
+
+    private final ClassValue<ConcurrentMap<Method, MethodMeters>> meters = new ClassValue<>() {
+        @Override
+        protected ConcurrentMap<Method, MethodMeters> computeValue(Class<?> type) {
+            return new ConcurrentHashMap<>();
+        }
+    };
+
+    private final MeterRegistry meterRegistry;
+
+    private final boolean percentileHistogram;
+
+    private final long slowCallThresholdNanos;
+
+    private final double argumentSampleRate;
+
+    public MethodMetricsAspect(MeterRegistry meterRegistry, ApplicationProperties applicationProperties) {
+        this.meterRegistry = meterRegistry;
+        ApplicationProperties.MethodMetrics properties = applicationProperties.getMethodMetrics();
+        this.percentileHistogram = properties.isPercentileHistogram();
+        this.slowCallThresholdNanos = TimeUnit.MILLISECONDS.toNanos(properties.getSlowCallThresholdMs());
+        this.argumentSampleRate = properties.getArgumentSampleRate();
+    }
+
+    /**
+     * Advice that times a method, and logs it when it is sampled or slow.
+     *
+     * @param joinPoint join point for advice.
+     * @return result.
+     * @throws Throwable the exception thrown by the method.
+     */
+    @Around(
+        "ru.zavanton.booker.aop.logging.LoggingAspect.applicationPackagePointcut()" +
+        " && ru.zavanton.booker.aop.logging.LoggingAspect.springBeanPointcut()"
+    )
+    public Object timeAround(ProceedingJoinPoint joinPoint) throws Throwable {
+        MethodMeters methodMeters = meters(joinPoint);
+        if (
+            methodMeters.logArguments &&
+            argumentSampleRate > 0 &&
+            methodMeters.log.isDebugEnabled() &&
+            ThreadLocalRandom.current().nextDouble() < argumentSampleRate
+        ) {
+            methodMeters.log.debug("Enter: {}() with argument[s] = {}", methodMeters.methodName, Arrays.toString(joinPoint.getArgs()));
+        }
+        long start = System.nanoTime();
+        boolean failed = true;
+        try {
+            Object result = joinPoint.proceed();
+            failed = false;
+            return result;
+        } finally {
+            long duration = System.nanoTime() - start;
+            (failed ? methodMeters.failure : methodMeters.success).record(duration, TimeUnit.NANOSECONDS);
+            if (duration > slowCallThresholdNanos) {
+                methodMeters.log.warn("Slow call: {}() took {} ms", methodMeters.methodName, TimeUnit.NANOSECONDS.toMillis(duration));
+            }
+        }
+    }
+
+    private MethodMeters meters(ProceedingJoinPoint joinPoint) {
+        Method method = ((MethodSignature) joinPoint.getSignature()).getMethod();
+        // Keyed by the proxy class, as methods inherited by several beans (e.g. JpaRepository#findById) are timed apart
+        Class<?> beanType = joinPoint.getThis() != null ? joinPoint.getThis().getClass() : method.getDeclaringClass();
+        ConcurrentMap<Method, MethodMeters> methods = meters.get(beanType);
+        MethodMeters methodMeters = methods.get(method);
+        if (methodMeters == null) {
+            methodMeters = methods.computeIfAbsent(method, key ->
+                new MethodMeters(typeName(beanType, key), key.getName(), !isSensitive(beanType, key))
+            );
+        }
+        return methodMeters;
+    }
+
+    private static boolean isSensitive(Class<?> beanType, Method method) {
+        return (
+            AnnotationUtils.findAnnotation(method, SensitiveArguments.class) != null ||
+            AnnotationUtils.findAnnotation(ClassUtils.getUserClass(beanType), SensitiveArguments.class) != null ||
+            AnnotationUtils.findAnnotation(method.getDeclaringClass(), SensitiveArguments.class) != null
+        );
+    }
+
+    private static String typeName(Class<?> beanType, Method method) {
+        Class<?> userType = ClassUtils.getUserClass(beanType);
+        if (Proxy.isProxyClass(userType)) {
+            // Repositories are JDK proxies, named after the first interface declaring the method
+            for (Class<?> type : userType.getInterfaces()) {
+                if (method.getDeclaringClass().isAssignableFrom(type)) {
+                    return type.getName();
+                }
+            }
+            return method.getDeclaringClass().getName();
+        }
+        return userType.getName();
+    }
+
+    private final class MethodMeters {
+
+        private final String methodName;
+
+        private final Logger log;
+
+        private final boolean logArguments;
+
+        private final Timer success;
+
+        private final Timer failure;
+
+        private MethodMeters(String typeName, String methodName, boolean logArguments) {
+            this.methodName = methodName;
+            this.log = LoggerFactory.getLogger(typeName);
+            this.logArguments = logArguments;
+            this.success = timer(typeName, methodName, "success");
+            this.failure = timer(typeName, methodName, "error");
+        }
+
+        private Timer timer(String typeName, String methodName, String outcome) {
+            return Timer.builder(TIMER_NAME)
+                .description("Execution time of the repository, service and REST methods")
+                .tag("class", ClassUtils.getShortName(typeName))
+                .tag("method", methodName)
+                .tag("outcome", outcome)
+                .publishPercentileHistogram(percentileHistogram)
+                .register(meterRegistry);
+        }
+    }
+}
@@ -0,0 +1,17 @@
+package ru.zavanton.booker.aop.logging;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Marks a method, or all the methods of a type, whose arguments may hold credentials such as clear text passwords,
+ * so that {@link MethodMetricsAspect} never logs them.
+ */
+@Documented
+@Retention(RetentionPolicy.RUNTIME)
+@Target({ ElementType.TYPE, ElementType.METHOD })
+public @interface SensitiveArguments {
+}
@@ -1,5 +1,9 @@
 package ru.zavanton.booker.config;
 
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
 import org.springframework.boot.context.properties.ConfigurationProperties;
 
 /**
@@ -13,12 +17,96 @@ public class ApplicationProperties {
 
     private final Liquibase liquibase = new Liquibase();
 
+    private final RatingAggregation ratingAggregation = new RatingAggregation();
+
+    private final Counters counters = new Counters();
+
+    private final Search search = new Search();
+
+    private final Cache cache = new Cache();
+
+    private final VirtualThreads virtualThreads = new VirtualThreads();
+
+    private final Export export = new Export();
+
+    private final BookImport bookImport = new BookImport();
+
+    private final Trending trending = new Trending();
+
+    private final Recommendation recommendation = new Recommendation();
+
+    private final Datasource datasource = new Datasource();
+
+    private final MethodMetrics methodMetrics = new MethodMetrics();
+
+    private final ReadingProgress readingProgress = new ReadingProgress();
+
+    private final ReadingStats readingStats = new ReadingStats();
+
+    private final QueryPlans queryPlans = new QueryPlans();
+
     // jhipster-needle-application-properties-property
 
     public Liquibase getLiquibase() {
         return liquibase;
     }
 
+    public RatingAggregation getRatingAggregation() {
+        return ratingAggregation;
+    }
+
+    public Counters getCounters() {
+        return counters;
+    }
+
+    public Search getSearch() {
+        return search;
+    }
+
+    public Cache getCache() {
+        return cache;
+    }
+
+    public VirtualThreads getVirtualThreads() {
+        return virtualThreads;
+    }
+
+    public Export getExport() {
+        return export;
+    }
+
+    public BookImport getBookImport() {
+        return bookImport;
+    }
+
+    public Trending getTrending() {
+        return trending;
+    }
+
+    public Recommendation getRecommendation() {
+        return recommendation;
+    }
+
+    public Datasource getDatasource() {
+        return datasource;
+    }
+
+    public MethodMetrics getMethodMetrics() {
+        return methodMetrics;
+    }
+
+    public ReadingProgress getReadingProgress() {
+        return readingProgress;
+    }
+
+    public ReadingStats getReadingStats() {
+        return readingStats;
+    }
+
+    public QueryPlans getQueryPlans() {
+        return queryPlans;
+    }
+
     // jhipster-needle-application-properties-property-getter
 
     public static class Liquibase {
@@ -33,5 +121,739 @@ public class ApplicationProperties {
             this.asyncStart = asyncStart;
         }
     }
+
+    public static class RatingAggregation {
+
+        private long flushIntervalMs = 5000;
+
+        private int batchSize = 100;
+
+        private String repairCron = "0 30 3 * * ?";
+
+        private int repairChunkSize = 1000;
+
+        public long getFlushIntervalMs() {
+            return flushIntervalMs;
+        }
+
+        public void setFlushIntervalMs(long flushIntervalMs) {
+            this.flushIntervalMs = flushIntervalMs;
+        }
+
+        public int getBatchSize() {
+            return batchSize;
+        }
+
+        public void setBatchSize(int batchSize) {
+            this.batchSize = batchSize;
+        }
+
+        public String getRepairCron() {
+            return repairCron;
+        }
+
+        public void setRepairCron(String repairCron) {
+            this.repairCron = repairCron;
+        }
+
+        public int getRepairChunkSize() {
+            return repairChunkSize;
+        }
+
+        public void setRepairChunkSize(int repairChunkSize) {
+            this.repairChunkSize = repairChunkSize;
+        }
+    }
+
+    public static class Counters {
+
+        private long flushIntervalMs = 5000;
+
+        private int batchSize = 100;
+
+        public long getFlushIntervalMs() {
+            return flushIntervalMs;
+        }
+
+        public void setFlushIntervalMs(long flushIntervalMs) {
+            this.flushIntervalMs = flushIntervalMs;
+        }
+
+        public int getBatchSize() {
+            return batchSize;
+        }
+
+        public void setBatchSize(int batchSize) {
+            this.batchSize = batchSize;
+        }
+    }
+
+    public static class Search {
+
+        private String indexDir = "search-index";
+
+        private long refreshIntervalMs = 1000;
+
+        private long commitIntervalMs = 60000;
+
+        private long rebuildIntervalMs = 3600000;
+
+        private int batchSize = 500;
+
+        public String getIndexDir() {
+            return indexDir;
+        }
+
+        public void setIndexDir(String indexDir) {
+            this.indexDir = indexDir;
+        }
+
+        public long getRefreshIntervalMs() {
+            return refreshIntervalMs;
+        }
+
+        public void setRefreshIntervalMs(long refreshIntervalMs) {
+            this.refreshIntervalMs = refreshIntervalMs;
+        }
+
+        public long getCommitIntervalMs() {
+            return commitIntervalMs;
+        }
+
+        public void setCommitIntervalMs(long commitIntervalMs) {
+            this.commitIntervalMs = commitIntervalMs;
+        }
+
+        public long getRebuildIntervalMs() {
+            return rebuildIntervalMs;
+        }
+
+        public void setRebuildIntervalMs(long rebuildIntervalMs) {
+            this.rebuildIntervalMs = rebuildIntervalMs;
+        }
+
+        public int getBatchSize() {
+            return batchSize;
+        }
+
+        public void setBatchSize(int batchSize) {
+            this.batchSize = batchSize;
+        }
+    }
+
+    public static class Cache {
+
+        private long maxEntries = 1000;
+
+        private long timeToLiveSeconds = 3600;
+
+        private Map<String, Region> regions = new LinkedHashMap<>();
+
+        public long getMaxEntries() {
+            return maxEntries;
+        }
+
+        public void setMaxEntries(long maxEntries) {
+            this.maxEntries = maxEntries;
+        }
+
+        public long getTimeToLiveSeconds() {
+            return timeToLiveSeconds;
+        }
+
+        public void setTimeToLiveSeconds(long timeToLiveSeconds) {
+            this.timeToLiveSeconds = timeToLiveSeconds;
+        }
+
+        public Map<String, Region> getRegions() {
+            return regions;
+        }
+
+        public void setRegions(Map<String, Region> regions) {
+            this.regions = regions;
+        }
+
+        /**
+         * Settings of one cache region, unset values default to the ones of {@link Cache}.
+         */
+        public static class Region {
+
+            private Long maxEntries;
+
+            private Long timeToLiveSeconds;
+
+            public Long getMaxEntries() {
+                return maxEntries;
+            }
+
+            public void setMaxEntries(Long maxEntries) {
+                this.maxEntries = maxEntries;
+            }
+
+            public Long getTimeToLiveSeconds() {
+                return timeToLiveSeconds;
+            }
+
+            public void setTimeToLiveSeconds(Long timeToLiveSeconds) {
+                this.timeToLiveSeconds = timeToLiveSeconds;
+            }
+        }
+    }
+
+    public static class VirtualThreads {
+
+        private boolean enabled = false;
+
+        private int maxConcurrentRequests = 0;
+
+        private int requestsPerConnection = 2;
+
+        private long acquireTimeoutMs = 500;
+
+        public boolean isEnabled() {
+            return enabled;
+        }
+
+        public void setEnabled(boolean enabled) {
+            this.enabled = enabled;
+        }
+
+        public int getMaxConcurrentRequests() {
+            return maxConcurrentRequests;
+        }
+
+        public void setMaxConcurrentRequests(int maxConcurrentRequests) {
+            this.maxConcurrentRequests = maxConcurrentRequests;
+        }
+
+        public int getRequestsPerConnection() {
+            return requestsPerConnection;
+        }
+
+        public void setRequestsPerConnection(int requestsPerConnection) {
+            this.requestsPerConnection = requestsPerConnection;
+        }
+
+        public long getAcquireTimeoutMs() {
+            return acquireTimeoutMs;
+        }
+
+        public void setAcquireTimeoutMs(long acquireTimeoutMs) {
+            this.acquireTimeoutMs = acquireTimeoutMs;
+        }
+    }
+
+    public static class Export {
+
+        private int fetchSize = 500;
+
+        private long timeoutMs = 3600000;
+
+        private int poolSize = 2;
+
+        private int queueCapacity = 0;
+
+        public int getFetchSize() {
+            return fetchSize;
+        }
+
+        public void setFetchSize(int fetchSize) {
+            this.fetchSize = fetchSize;
+        }
+
+        public long getTimeoutMs() {
+            return timeoutMs;
+        }
+
+        public void setTimeoutMs(long timeoutMs) {
+            this.timeoutMs = timeoutMs;
+        }
+
+        public int getPoolSize() {
+            return poolSize;
+        }
+
+        public void setPoolSize(int poolSize) {
+            this.poolSize = poolSize;
+        }
+
+        public int getQueueCapacity() {
+            return queueCapacity;
+        }
+
+        public void setQueueCapacity(int queueCapacity) {
+            this.queueCapacity = queueCapacity;
+        }
+    }
+
+    public static class BookImport {
+
+        private int chunkSize = 1000;
+
+        private int maxErrors = 1000;
+
+        private int retainedJobs = 20;
+
+        private int poolSize = 1;
+
+        private int queueCapacity = 10;
+
+        private String file;
+
+        public int getChunkSize() {
+            return chunkSize;
+        }
+
+        public void setChunkSize(int chunkSize) {
+            this.chunkSize = chunkSize;
+        }
+
+        public int getMaxErrors() {
+            return maxErrors;
+        }
+
+        public void setMaxErrors(int maxErrors) {
+            this.maxErrors = maxErrors;
+        }
+
+        public int getRetainedJobs() {
+            return retainedJobs;
+        }
+
+        public void setRetainedJobs(int retainedJobs) {
+            this.retainedJobs = retainedJobs;
+        }
+
+        public int getPoolSize() {
+            return poolSize;
+        }
+
+        public void setPoolSize(int poolSize) {
+            this.poolSize = poolSize;
+        }
+
+        public int getQueueCapacity() {
+            return queueCapacity;
+        }
+
+        public void setQueueCapacity(int queueCapacity) {
+            this.queueCapacity = queueCapacity;
+        }
+
+        public String getFile() {
+            return file;
+        }
+
+        public void setFile(String file) {
+            this.file = file;
+        }
+    }
+
+    public static class Trending {
+
+        private long halfLifeHours = 24;
+
+        private double ratingWeight = 3;
+
+        private double reviewWeight = 5;
+
+        private double readingStatusWeight = 1;
+
+        private double minScore = 0.01;
+
+        private int maxSize = 100;
+
+        private long snapshotIntervalMs = 300000;
+
+        private String nodeId;
+
+        public long getHalfLifeHours() {
+            return halfLifeHours;
+        }
+
+        public void setHalfLifeHours(long halfLifeHours) {
+            this.halfLifeHours = halfLifeHours;
+        }
+
+        public double getRatingWeight() {
+            return ratingWeight;
+        }
+
+        public void setRatingWeight(double ratingWeight) {
+            this.ratingWeight = ratingWeight;
+        }
+
+        public double getReviewWeight() {
+            return reviewWeight;
+        }
+
+        public void setReviewWeight(double reviewWeight) {
+            this.reviewWeight = reviewWeight;
+        }
+
+        public double getReadingStatusWeight() {
+            return readingStatusWeight;
+        }
+
+        public void setReadingStatusWeight(double readingStatusWeight) {
+            this.readingStatusWeight = readingStatusWeight;
+        }
+
+        public double getMinScore() {
+            return minScore;
+        }
+
+        public void setMinScore(double minScore) {
+            this.minScore = minScore;
+        }
+
+        public int getMaxSize() {
+            return maxSize;
+        }
+
+        public void setMaxSize(int maxSize) {
+            this.maxSize = maxSize;
+        }
+
+        public long getSnapshotIntervalMs() {
+            return snapshotIntervalMs;
+        }
+
+        public void setSnapshotIntervalMs(long snapshotIntervalMs) {
+            this.snapshotIntervalMs = snapshotIntervalMs;
+        }
+
+        public String getNodeId() {
+            return nodeId;
+        }
+
+        public void setNodeId(String nodeId) {
+            this.nodeId = nodeId;
+        }
+    }
+
+    public static class Recommendation {
+
+        private String similarityCron = "0 0 4 * * ?";
+
+        private int neighbors = 20;
+
+        private int minCommonUsers = 2;
+
+        private int maxUserRatings = 1000;
+
+        private double readingStatusValue = 3;
+
+        private int parallelism = 0;
+
+        private int fetchSize = 10000;
+
+        private int batchSize = 1000;
+
+        private int maxRecommendations = 100;
+
+        private long profileMaxEntries = 10000;
+
+        private long profileTimeToLiveSeconds = 3600;
+
+        public String getSimilarityCron() {
+            return similarityCron;
+        }
+
+        public void setSimilarityCron(String similarityCron) {
+            this.similarityCron = similarityCron;
+        }
+
+        public int getNeighbors() {
+            return neighbors;
+        }
+
+        public void setNeighbors(int neighbors) {
+            this.neighbors = neighbors;
+        }
+
+        public int getMinCommonUsers() {
+            return minCommonUsers;
+        }
+
+        public void setMinCommonUsers(int minCommonUsers) {
+            this.minCommonUsers = minCommonUsers;
+        }
+
+        public int getMaxUserRatings() {
+            return maxUserRatings;
+        }
+
+        public void setMaxUserRatings(int maxUserRatings) {
+            this.maxUserRatings = maxUserRatings;
+        }
+
+        public double getReadingStatusValue() {
+            return readingStatusValue;
+        }
+
+        public void setReadingStatusValue(double readingStatusValue) {
+            this.readingStatusValue = readingStatusValue;
+        }
+
+        public int getParallelism() {
+            return parallelism;
+        }
+
+        public void setParallelism(int parallelism) {
+            this.parallelism = parallelism;
+        }
+
+        public int getFetchSize() {
+            return fetchSize;
+        }
+
+        public void setFetchSize(int fetchSize) {
+            this.fetchSize = fetchSize;
+        }
+
+        public int getBatchSize() {
+            return batchSize;
+        }
+
+        public void setBatchSize(int batchSize) {
+            this.batchSize = batchSize;
+        }
+
+        public int getMaxRecommendations() {
+            return maxRecommendations;
+        }
+
+        public void setMaxRecommendations(int maxRecommendations) {
+            this.maxRecommendations = maxRecommendations;
+        }
+
+        public long getProfileMaxEntries() {
+            return profileMaxEntries;
+        }
+
+        public void setProfileMaxEntries(long profileMaxEntries) {
+            this.profileMaxEntries = profileMaxEntries;
+        }
+
+        public long getProfileTimeToLiveSeconds() {
+            return profileTimeToLiveSeconds;
+        }
+
+        public void setProfileTimeToLiveSeconds(long profileTimeToLiveSeconds) {
+            this.profileTimeToLiveSeconds = profileTimeToLiveSeconds;
+        }
+    }
+
+    public static class Datasource {
+
+        private List<Replica> replicas = new ArrayList<>();
+
+        private long healthCheckIntervalMs = 5000;
+
+        private String lagQuery;
+
+        private long maxLagMs = 10000;
+
+        private long readYourWritesMs = 2000;
+
+        public List<Replica> getReplicas() {
+            return replicas;
+        }
+
+        public void setReplicas(List<Replica> replicas) {
+            this.replicas = replicas;
+        }
+
+        public long getHealthCheckIntervalMs() {
+            return healthCheckIntervalMs;
+        }
+
+        public void setHealthCheckIntervalMs(long healthCheckIntervalMs) {
+            this.healthCheckIntervalMs = healthCheckIntervalMs;
+        }
+
+        public String getLagQuery() {
+            return lagQuery;
+        }
+
+        public void setLagQuery(String lagQuery) {
+            this.lagQuery = lagQuery;
+        }
+
+        public long getMaxLagMs() {
+            return maxLagMs;
+        }
+
+        public void setMaxLagMs(long maxLagMs) {
+            this.maxLagMs = maxLagMs;
+        }
+
+        public long getReadYourWritesMs() {
+            return readYourWritesMs;
+        }
+
+        public void setReadYourWritesMs(long readYourWritesMs) {
+            this.readYourWritesMs = readYourWritesMs;
+        }
+
+        /**
+         * Connection settings of one read replica, unset credentials default to the ones of {@code spring.datasource}.
+         */
+        public static class Replica {
+
+            private String url;
+
+            private String username;
+
+            private String password;
+
+            public String getUrl() {
+                return url;
+            }
+
+            public void setUrl(String url) {
+                this.url = url;
+            }
+
+            public String getUsername() {
+                return username;
+            }
+
+            public void setUsername(String username) {
+                this.username = username;
+            }
+
+            public String getPassword() {
+                return password;
+            }
+
+            public void setPassword(String password) {
+                this.password = password;
+            }
+        }
+    }
+
+    public static class MethodMetrics {
+
+        private boolean enabled = false;
+
+        private boolean percentileHistogram = true;
+
+        private long slowCallThresholdMs = 500;
+
+        private double argumentSampleRate = 0.01;
+
+        public boolean isEnabled() {
+            return enabled;
+        }
+
+        public void setEnabled(boolean enabled) {
+            this.enabled = enabled;
+        }
+
+        public boolean isPercentileHistogram() {
+            return percentileHistogram;
+        }
+
+        public void setPercentileHistogram(boolean percentileHistogram) {
+            this.percentileHistogram = percentileHistogram;
+        }
+
+        public long getSlowCallThresholdMs() {
+            return slowCallThresholdMs;
+        }
+
+        public void setSlowCallThresholdMs(long slowCallThresholdMs) {
+            this.slowCallThresholdMs = slowCallThresholdMs;
+        }
+
+        public double getArgumentSampleRate() {
+            return argumentSampleRate;
+        }
+
+        public void setArgumentSampleRate(double argumentSampleRate) {
+            this.argumentSampleRate = argumentSampleRate;
+        }
+    }
+
+    public static class ReadingProgress {
+
+        private long flushIntervalMs = 1000;
+
+        private int batchSize = 100;
+
+        public long getFlushIntervalMs() {
+            return flushIntervalMs;
+        }
+
+        public void setFlushIntervalMs(long flushIntervalMs) {
+            this.flushIntervalMs = flushIntervalMs;
+        }
+
+        public int getBatchSize() {
+            return batchSize;
+        }
+
+        public void setBatchSize(int batchSize) {
+            this.batchSize = batchSize;
+        }
+    }
+
+    public static class ReadingStats {
+
+        private String backfillCron = "-";
+
+        private int fetchSize = 10000;
+
+        private int batchSize = 1000;
+
+        public String getBackfillCron() {
+            return backfillCron;
+        }
+
+        public void setBackfillCron(String backfillCron) {
+            this.backfillCron = backfillCron;
+        }
+
+        public int getFetchSize() {
+            return fetchSize;
+        }
+
+        public void setFetchSize(int fetchSize) {
+            this.fetchSize = fetchSize;
+        }
+
+        public int getBatchSize() {
+            return batchSize;
+        }
+
+        public void setBatchSize(int batchSize) {
+            this.batchSize = batchSize;
+        }
+    }
+
+    public static class QueryPlans {
+
+        private boolean enabled = true;
+
+        private long maxShapes = 1000;
+
+        public boolean isEnabled() {
+            return enabled;
+        }
+
+        public void setEnabled(boolean enabled) {
+            this.enabled = enabled;
+        }
+
+        public long getMaxShapes() {
+            return maxShapes;
+        }
+
+        public void setMaxShapes(long maxShapes) {
+            this.maxShapes = maxShapes;
+        }
+    }
     // jhipster-needle-application-properties-property-class
 }
@@ -0,0 +1,61 @@
+package ru.zavanton.booker.config;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.boot.SpringApplication;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.stereotype.Component;
+import ru.zavanton.booker.service.bulkimport.BookImportJob;
+import ru.zavanton.booker.service.bulkimport.BookImportService;
+import ru.zavanton.booker.service.bulkimport.ImportFormat;
+
+/**
+ * Imports the file given by {@code application.book-import.file} on startup, then exits with status 0 when the import
+ * completed, even with failed rows, or 1 when it failed, for instance
+ * {@code java -jar booker.jar --application.book-import.file=feed.csv}.
+ */
+@Component
+@ConditionalOnProperty(prefix = "application.book-import", name = "file")
+public class BookImportRunner implements ApplicationRunner {
+
+    private static final Logger LOG = LoggerFactory.getLogger(BookImportRunner.class);
+
+    private final BookImportService bookImportService;
+
+    private final ApplicationProperties applicationProperties;
+
+    private final ConfigurableApplicationContext context;
+
+    public BookImportRunner(
+        BookImportService bookImportService,
+        ApplicationProperties applicationProperties,
+        ConfigurableApplicationContext context
+    ) {
+        this.bookImportService = bookImportService;
+        this.applicationProperties = applicationProperties;
+        this.context = context;
+    }
+
+    @Override
+    public void run(ApplicationArguments args) throws IOException {
+        Path file = Path.of(applicationProperties.getBookImport().getFile());
+        ImportFormat format = ImportFormat.fromFilename(file.getFileName().toString()).orElseThrow(() ->
+            new IllegalArgumentException("Unsupported import format, expected a .csv, .ndjson or .jsonl file: " + file)
+        );
+        BookImportJob job;
+        try (InputStream inputStream = Files.newInputStream(file)) {
+            job = bookImportService.importStream(inputStream, file.toString(), format);
+        }
+        job.getErrors().forEach(error -> LOG.warn("Line {} ({}) was not imported: {}", error.line(), error.isbn(), error.message()));
+        LOG.info("Import of {} finished: {}", file, job);
+        int exitCode = job.getState() == BookImportJob.State.COMPLETED ? 0 : 1;
+        System.exit(SpringApplication.exit(context, () -> exitCode));
+    }
+}
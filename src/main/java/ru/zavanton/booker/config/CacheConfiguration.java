@@ -0,0 +1,70 @@
+package ru.zavanton.booker.config;
+
+import com.github.benmanes.caffeine.jcache.configuration.CaffeineConfiguration;
+import java.util.OptionalLong;
+import java.util.concurrent.TimeUnit;
+import org.hibernate.cache.jcache.ConfigSettings;
+import org.springframework.boot.autoconfigure.cache.JCacheManagerCustomizer;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.cache.annotation.EnableCaching;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Configuration of the Hibernate second-level cache, backed by Caffeine through JCache.
+ * <p>
+ * Each region is a JCache cache named after the cached entity or collection, sized and expired with
+ * {@code application.cache.regions.<name>}, or {@code application.cache} when the region is not configured.
+ * Statistics are enabled so that hits, misses, puts and evictions of every region are published
+ * as Micrometer {@code cache.*} meters.
+ */
+@Configuration
+@EnableCaching
+public class CacheConfiguration {
+
+    private final ApplicationProperties.Cache properties;
+
+    public CacheConfiguration(ApplicationProperties applicationProperties) {
+        this.properties = applicationProperties.getCache();
+    }
+
+    @Bean
+    public HibernatePropertiesCustomizer hibernatePropertiesCustomizer(javax.cache.CacheManager cacheManager) {
+        return hibernateProperties -> hibernateProperties.put(ConfigSettings.CACHE_MANAGER, cacheManager);
+    }
+
+    @Bean
+    public JCacheManagerCustomizer cacheManagerCustomizer() {
+        return cm -> {
+            createCache(cm, ru.zavanton.booker.domain.Authority.class.getName(), "authority");
+            createCache(cm, ru.zavanton.booker.domain.UserEntity.class.getName() + ".authorities", "user-authorities");
+            createCache(cm, ru.zavanton.booker.domain.AuthorEntity.class.getName(), "author");
+            createCache(cm, ru.zavanton.booker.domain.GenreEntity.class.getName(), "genre");
+            createCache(cm, ru.zavanton.booker.domain.PublisherEntity.class.getName(), "publisher");
+            createCache(cm, ru.zavanton.booker.domain.TagEntity.class.getName(), "tag");
+        };
+    }
+
+    private void createCache(javax.cache.CacheManager cm, String cacheName, String regionName) {
+        javax.cache.Cache<Object, Object> cache = cm.getCache(cacheName);
+        if (cache != null) {
+            cache.clear();
+        } else {
+            cm.createCache(cacheName, regionConfiguration(regionName));
+        }
+    }
+
+    private CaffeineConfiguration<Object, Object> regionConfiguration(String regionName) {
+        ApplicationProperties.Cache.Region region = properties.getRegions().get(regionName);
+        long maxEntries = region != null && region.getMaxEntries() != null ? region.getMaxEntries() : properties.getMaxEntries();
+        long timeToLiveSeconds = region != null && region.getTimeToLiveSeconds() != null
+            ? region.getTimeToLiveSeconds()
+            : properties.getTimeToLiveSeconds();
+
+        CaffeineConfiguration<Object, Object> caffeineConfiguration = new CaffeineConfiguration<>();
+        caffeineConfiguration.setMaximumSize(OptionalLong.of(maxEntries));
+        caffeineConfiguration.setExpireAfterWrite(OptionalLong.of(TimeUnit.SECONDS.toNanos(timeToLiveSeconds)));
+        caffeineConfiguration.setStatisticsEnabled(true);
+        return caffeineConfiguration;
+    }
+}
@@ -1,8 +1,11 @@
 package ru.zavanton.booker.config;
 
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.context.annotation.*;
 import org.springframework.core.env.Environment;
 import ru.zavanton.booker.aop.logging.LoggingAspect;
+import ru.zavanton.booker.aop.logging.MethodMetricsAspect;
 import tech.jhipster.config.JHipsterConstants;
 
 @Configuration
@@ -14,4 +17,10 @@ public class LoggingAspectConfiguration {
     public LoggingAspect loggingAspect(Environment env) {
         return new LoggingAspect(env);
     }
+
+    @Bean
+    @ConditionalOnProperty(prefix = "application.method-metrics", name = "enabled", havingValue = "true")
+    public MethodMetricsAspect methodMetricsAspect(MeterRegistry meterRegistry, ApplicationProperties applicationProperties) {
+        return new MethodMetricsAspect(meterRegistry, applicationProperties);
+    }
 }
@@ -0,0 +1,98 @@
+package ru.zavanton.booker.config;
+
+import com.zaxxer.hikari.HikariConfig;
+import com.zaxxer.hikari.HikariDataSource;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import javax.sql.DataSource;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import org.springframework.scheduling.TaskScheduler;
+
+/**
+ * Sends the read-only transactions to the read replicas of the database, when {@code application.datasource.replicas} is set.
+ * <p>
+ * The {@link DataSource} of the application is a {@link LazyConnectionDataSourceProxy}, which only fetches a connection
+ * once the transaction is prepared: from the {@link ReplicaRoutingDataSource} for a {@code @Transactional(readOnly = true)}
+ * method, from the primary {@code spring.datasource} otherwise. Each replica has its own Hikari pool, with the settings
+ * of {@code spring.datasource.hikari}.
+ */
+@Configuration
+@ConditionalOnProperty(prefix = "application.datasource", name = "replicas[0].url")
+public class ReplicaDataSourceConfiguration {
+
+    private static final Logger LOG = LoggerFactory.getLogger(ReplicaDataSourceConfiguration.class);
+
+    private final ApplicationProperties.Datasource properties;
+
+    public ReplicaDataSourceConfiguration(ApplicationProperties applicationProperties) {
+        this.properties = applicationProperties.getDatasource();
+    }
+
+    @Bean
+    @ConfigurationProperties("spring.datasource.hikari")
+    public HikariDataSource primaryDataSource(DataSourceProperties dataSourceProperties) {
+        return dataSourceProperties.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+    }
+
+    @Bean(destroyMethod = "close")
+    public ReplicaRoutingDataSource replicaDataSource(HikariDataSource primaryDataSource, TaskScheduler taskScheduler) {
+        Map<String, DataSource> replicas = new LinkedHashMap<>();
+        List<ApplicationProperties.Datasource.Replica> replicaProperties = properties.getReplicas();
+        for (int i = 0; i < replicaProperties.size(); i++) {
+            replicas.put(replicaProperties.get(i).getUrl(), createReplica(primaryDataSource, replicaProperties.get(i), i + 1));
+        }
+        ReplicaRoutingDataSource replicaDataSource = new ReplicaRoutingDataSource(primaryDataSource, replicas, properties);
+        taskScheduler.scheduleWithFixedDelay(replicaDataSource::checkReplicas, Duration.ofMillis(properties.getHealthCheckIntervalMs()));
+        LOG.info("Routing read-only transactions to {} read replicas", replicas.size());
+        return replicaDataSource;
+    }
+
+    @Bean
+    @Primary
+    public DataSource dataSource(
+        HikariDataSource primaryDataSource,
+        ReplicaRoutingDataSource replicaDataSource,
+        MeterRegistry meterRegistry
+    ) {
+        Gauge.builder("booker.datasource.replicas.available", replicaDataSource, ReplicaRoutingDataSource::getAvailableReplicas)
+            .description("Read replicas serving the read-only transactions")
+            .register(meterRegistry);
+        LazyConnectionDataSourceProxy dataSource = new LazyConnectionDataSourceProxy(replicaDataSource.trackWrites(primaryDataSource));
+        dataSource.setReadOnlyDataSource(replicaDataSource);
+        return dataSource;
+    }
+
+    private static HikariDataSource createReplica(
+        HikariDataSource primaryDataSource,
+        ApplicationProperties.Datasource.Replica replica,
+        int number
+    ) {
+        HikariConfig config = new HikariConfig();
+        primaryDataSource.copyStateTo(config);
+        config.setJdbcUrl(replica.getUrl());
+        if (replica.getUsername() != null) {
+            config.setUsername(replica.getUsername());
+        }
+        if (replica.getPassword() != null) {
+            config.setPassword(replica.getPassword());
+        }
+        String poolName = primaryDataSource.getPoolName() != null ? primaryDataSource.getPoolName() : "Hikari";
+        config.setPoolName(poolName + "-replica-" + number);
+        config.setReadOnly(true);
+        // An unreachable replica is left out by the health check instead of failing the startup
+        config.setInitializationFailTimeout(-1);
+        return new HikariDataSource(config);
+    }
+}
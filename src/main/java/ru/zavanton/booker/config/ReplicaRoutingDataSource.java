@@ -0,0 +1,235 @@
+package ru.zavanton.booker.config;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import java.io.Closeable;
+import java.io.IOException;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicInteger;
+import javax.sql.DataSource;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.jdbc.datasource.AbstractDataSource;
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import ru.zavanton.booker.security.SecurityUtils;
+
+/**
+ * {@link DataSource} of the read-only transactions, spreading their connections over the read replicas of the database in turn.
+ * <p>
+ * The other transactions go to the primary, through {@link #trackWrites(DataSource)}: once one completes, the read-only
+ * transactions of its user go to the primary as well for {@code application.datasource.read-your-writes-ms}, or for the
+ * last measured lag of the replica if it is longer, so that the user reads their own writes.
+ * <p>
+ * The replicas are checked every {@code application.datasource.health-check-interval-ms}: a replica whose connection is not
+ * valid, or whose lag measured by {@code application.datasource.lag-query} exceeds {@code application.datasource.max-lag-ms},
+ * is left out until it passes a check. The connections come from the primary when no replica is available.
+ */
+public class ReplicaRoutingDataSource extends AbstractDataSource implements Closeable {
+
+    private static final Logger LOG = LoggerFactory.getLogger(ReplicaRoutingDataSource.class);
+
+    private static final int VALIDATION_TIMEOUT_SECONDS = 2;
+
+    private static final long MAX_TRACKED_USERS = 100_000;
+
+    private final DataSource primary;
+
+    private final List<Replica> replicas = new ArrayList<>();
+
+    private final AtomicInteger next = new AtomicInteger();
+
+    private final Cache<String, Long> lastWrites;
+
+    private final ApplicationProperties.Datasource properties;
+
+    /**
+     * @param primary the primary database.
+     * @param replicas the read replicas of the database, by name; they are unavailable until their first check.
+     * @param properties the routing settings.
+     */
+    public ReplicaRoutingDataSource(DataSource primary, Map<String, DataSource> replicas, ApplicationProperties.Datasource properties) {
+        this.primary = primary;
+        replicas.forEach((name, dataSource) -> this.replicas.add(new Replica(name, dataSource)));
+        this.properties = properties;
+        // Past this, a replica lags too much to be used, so the writes no longer matter
+        this.lastWrites = Caffeine.newBuilder()
+            .maximumSize(MAX_TRACKED_USERS)
+            .expireAfterWrite(Duration.ofMillis(properties.getReadYourWritesMs() + properties.getMaxLagMs()))
+            .build();
+    }
+
+    /**
+     * Wrap the primary database, so that its transactions open the "read your writes" window of their user once completed.
+     *
+     * @param primary the primary database.
+     * @return the wrapped primary database.
+     */
+    public DataSource trackWrites(DataSource primary) {
+        return new DelegatingDataSource(primary) {
+            @Override
+            public Connection getConnection() throws SQLException {
+                writeStarted();
+                return super.getConnection();
+            }
+
+            @Override
+            public Connection getConnection(String username, String password) throws SQLException {
+                writeStarted();
+                return super.getConnection(username, password);
+            }
+        };
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        Replica replica = select();
+        if (replica != null) {
+            try {
+                return replica.dataSource.getConnection();
+            } catch (SQLException e) {
+                eject(replica, e.getMessage());
+            }
+        }
+        return primary.getConnection();
+    }
+
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        Replica replica = select();
+        if (replica != null) {
+            try {
+                return replica.dataSource.getConnection(username, password);
+            } catch (SQLException e) {
+                eject(replica, e.getMessage());
+            }
+        }
+        return primary.getConnection(username, password);
+    }
+
+    @Override
+    public <T> T unwrap(Class<T> iface) throws SQLException {
+        return iface.isInstance(this) ? iface.cast(this) : primary.unwrap(iface);
+    }
+
+    @Override
+    public boolean isWrapperFor(Class<?> iface) throws SQLException {
+        return iface.isInstance(this) || primary.isWrapperFor(iface);
+    }
+
+    /**
+     * Check the connection and the lag of each replica, and update their availability.
+     */
+    public void checkReplicas() {
+        for (Replica replica : replicas) {
+            try (Connection connection = replica.dataSource.getConnection()) {
+                if (!connection.isValid(VALIDATION_TIMEOUT_SECONDS)) {
+                    eject(replica, "invalid connection");
+                    continue;
+                }
+                long lagMs = measureLag(connection);
+                replica.lagMs = lagMs;
+                if (lagMs > properties.getMaxLagMs()) {
+                    eject(replica, "lag of " + lagMs + " ms");
+                } else if (!replica.available) {
+                    replica.available = true;
+                    LOG.info("Routing read-only transactions to replica {}, lagging {} ms", replica.name, lagMs);
+                }
+            } catch (SQLException e) {
+                eject(replica, e.getMessage());
+            }
+        }
+    }
+
+    /**
+     * @return the number of replicas which passed their last check.
+     */
+    public int getAvailableReplicas() {
+        return (int) replicas.stream().filter(replica -> replica.available).count();
+    }
+
+    @Override
+    public void close() throws IOException {
+        for (Replica replica : replicas) {
+            if (replica.dataSource instanceof Closeable closeable) {
+                closeable.close();
+            }
+        }
+    }
+
+    private Replica select() {
+        if (replicas.isEmpty()) {
+            return null;
+        }
+        Optional<Long> lastWrite = SecurityUtils.getCurrentUserLogin().map(lastWrites::getIfPresent);
+        long sinceLastWrite = lastWrite.map(time -> System.currentTimeMillis() - time).orElse(Long.MAX_VALUE);
+        int start = Math.floorMod(next.getAndIncrement(), replicas.size());
+        for (int i = 0; i < replicas.size(); i++) {
+            Replica replica = replicas.get((start + i) % replicas.size());
+            if (replica.available && sinceLastWrite > Math.max(properties.getReadYourWritesMs(), replica.lagMs)) {
+                return replica;
+            }
+        }
+        return null;
+    }
+
+    private long measureLag(Connection connection) throws SQLException {
+        if (properties.getLagQuery() == null || properties.getLagQuery().isBlank()) {
+            return 0;
+        }
+        try (Statement statement = connection.createStatement(); ResultSet resultSet = statement.executeQuery(properties.getLagQuery())) {
+            return resultSet.next() ? Math.max(0, Math.round(resultSet.getDouble(1))) : 0;
+        }
+    }
+
+    private void eject(Replica replica, String reason) {
+        if (replica.available) {
+            replica.available = false;
+            LOG.warn("Routing read-only transactions away from replica {}: {}", replica.name, reason);
+        }
+    }
+
+    private void writeStarted() {
+        Optional<String> login = SecurityUtils.getCurrentUserLogin();
+        if (login.isEmpty()) {
+            return;
+        }
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(
+                new TransactionSynchronization() {
+                    @Override
+                    public void afterCompletion(int status) {
+                        lastWrites.put(login.orElseThrow(), System.currentTimeMillis());
+                    }
+                }
+            );
+        } else {
+            lastWrites.put(login.orElseThrow(), System.currentTimeMillis());
+        }
+    }
+
+    private static final class Replica {
+
+        private final String name;
+
+        private final DataSource dataSource;
+
+        private volatile boolean available;
+
+        private volatile long lagMs;
+
+        private Replica(String name, DataSource dataSource) {
+            this.name = name;
+            this.dataSource = dataSource;
+        }
+    }
+}
@@ -0,0 +1,92 @@
+package ru.zavanton.booker.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import java.sql.SQLException;
+import javax.sql.DataSource;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnJava;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.task.TaskSchedulingProperties;
+import org.springframework.boot.system.JavaVersion;
+import org.springframework.boot.web.embedded.undertow.UndertowDeploymentInfoCustomizer;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.Ordered;
+import org.springframework.core.task.VirtualThreadTaskExecutor;
+import org.springframework.scheduling.TaskScheduler;
+import org.springframework.scheduling.concurrent.SimpleAsyncTaskScheduler;
+import ru.zavanton.booker.web.filter.ConcurrencyLimitFilter;
+
+/**
+ * Runs request handling and {@code @Scheduled} jobs on virtual threads, when {@code application.virtual-threads.enabled}
+ * is set and the application runs on Java 21 or later; {@code @Async} methods are handled by {@link AsyncConfiguration}.
+ * <p>
+ * As virtual threads are not pooled, the requests to {@code /api/*} are bounded by a {@link ConcurrencyLimitFilter}
+ * sized from the Hikari pool, so that a slow database rejects the excess requests instead of queueing all of them
+ * on the connection pool.
+ */
+@Configuration
+@ConditionalOnProperty(prefix = "application.virtual-threads", name = "enabled", havingValue = "true")
+@ConditionalOnJava(JavaVersion.TWENTY_ONE)
+public class VirtualThreadsConfiguration {
+
+    private static final Logger LOG = LoggerFactory.getLogger(VirtualThreadsConfiguration.class);
+
+    private static final int DEFAULT_POOL_SIZE = 10;
+
+    private final ApplicationProperties.VirtualThreads properties;
+
+    public VirtualThreadsConfiguration(ApplicationProperties applicationProperties) {
+        this.properties = applicationProperties.getVirtualThreads();
+    }
+
+    @Bean
+    public UndertowDeploymentInfoCustomizer virtualThreadsDeploymentInfoCustomizer() {
+        return deploymentInfo -> deploymentInfo.setExecutor(new VirtualThreadTaskExecutor("booker-request-"));
+    }
+
+    @Bean(name = "taskScheduler")
+    public TaskScheduler taskScheduler(TaskSchedulingProperties taskSchedulingProperties) {
+        SimpleAsyncTaskScheduler scheduler = new SimpleAsyncTaskScheduler();
+        scheduler.setVirtualThreads(true);
+        scheduler.setThreadNamePrefix(taskSchedulingProperties.getThreadNamePrefix());
+        return scheduler;
+    }
+
+    @Bean
+    public FilterRegistrationBean<ConcurrencyLimitFilter> concurrencyLimitFilter(DataSource dataSource, MeterRegistry meterRegistry) {
+        int limit = properties.getMaxConcurrentRequests() > 0
+            ? properties.getMaxConcurrentRequests()
+            : getMaximumPoolSize(dataSource) * properties.getRequestsPerConnection();
+        LOG.info("Handling requests on virtual threads, at most {} API requests at once", limit);
+        ConcurrencyLimitFilter filter = new ConcurrencyLimitFilter(limit, properties.getAcquireTimeoutMs());
+        Gauge.builder("http.server.requests.limited.active", filter, ConcurrencyLimitFilter::getActiveRequests)
+            .description("API requests being handled, out of the concurrency limit")
+            .register(meterRegistry);
+        FunctionCounter.builder("http.server.requests.limited.rejected", filter, ConcurrencyLimitFilter::getRejectedRequests)
+            .description("API requests rejected because the concurrency limit was reached")
+            .register(meterRegistry);
+
+        FilterRegistrationBean<ConcurrencyLimitFilter> registration = new FilterRegistrationBean<>(filter);
+        registration.addUrlPatterns("/api/*");
+        registration.setOrder(Ordered.HIGHEST_PRECEDENCE);
+        return registration;
+    }
+
+    private static int getMaximumPoolSize(DataSource dataSource) {
+        try {
+            // The size is only defaulted by Hikari when the pool starts
+            if (dataSource.isWrapperFor(HikariDataSource.class) && dataSource.unwrap(HikariDataSource.class).getMaximumPoolSize() > 0) {
+                return dataSource.unwrap(HikariDataSource.class).getMaximumPoolSize();
+            }
+        } catch (SQLException e) {
+            LOG.warn("Could not read the size of the connection pool: {}", e.getMessage());
+        }
+        return DEFAULT_POOL_SIZE;
+    }
+}
@@ -13,6 +13,7 @@ import java.util.Set;
  */
 @Entity
 @Table(name = "author")
+@org.hibernate.annotations.Cache(usage = org.hibernate.annotations.CacheConcurrencyStrategy.READ_WRITE)
 @SuppressWarnings("common-java:DuplicatedBlocks")
 public class AuthorEntity implements Serializable {
 
@@ -24,6 +25,10 @@ public class AuthorEntity implements Serializable {
     @Column(name = "id")
     private Long id;
 
+    @Version
+    @Column(name = "version", nullable = false)
+    private Long version;
+
     @Column(name = "first_name")
     private String firstName;
 
@@ -74,6 +79,14 @@ public class AuthorEntity implements Serializable {
         this.id = id;
     }
 
+    public Long getVersion() {
+        return this.version;
+    }
+
+    public void setVersion(Long version) {
+        this.version = version;
+    }
+
     public String getFirstName() {
         return this.firstName;
     }
@@ -259,6 +272,7 @@ public class AuthorEntity implements Serializable {
     public String toString() {
         return "AuthorEntity{" +
             "id=" + getId() +
+            ", version=" + getVersion() +
             ", firstName='" + getFirstName() + "'" +
             ", lastName='" + getLastName() + "'" +
             ", fullName='" + getFullName() + "'" +
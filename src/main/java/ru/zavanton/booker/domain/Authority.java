@@ -12,6 +12,7 @@ import org.springframework.data.domain.Persistable;
  */
 @Entity
 @Table(name = "booker_authority")
+@org.hibernate.annotations.Cache(usage = org.hibernate.annotations.CacheConcurrencyStrategy.READ_WRITE)
 @JsonIgnoreProperties(value = { "new", "id" })
 @SuppressWarnings("common-java:DuplicatedBlocks")
 public class Authority implements Serializable, Persistable<String> {
@@ -21,6 +21,10 @@ public class BookAuthorEntity implements Serializable {
     @Column(name = "id")
     private Long id;
 
+    @Version
+    @Column(name = "version", nullable = false)
+    private Long version;
+
     @Column(name = "is_primary")
     private Boolean isPrimary;
 
@@ -55,6 +59,14 @@ public class BookAuthorEntity implements Serializable {
         this.id = id;
     }
 
+    public Long getVersion() {
+        return this.version;
+    }
+
+    public void setVersion(Long version) {
+        this.version = version;
+    }
+
     public Boolean getIsPrimary() {
         return this.isPrimary;
     }
@@ -131,6 +143,7 @@ public class BookAuthorEntity implements Serializable {
     public String toString() {
         return "BookAuthorEntity{" +
             "id=" + getId() +
+            ", version=" + getVersion() +
             ", isPrimary='" + getIsPrimary() + "'" +
             ", order=" + getOrder() +
             "}";
@@ -22,6 +22,10 @@ public class BookCollectionEntity implements Serializable {
     @Column(name = "id")
     private Long id;
 
+    @Version
+    @Column(name = "version", nullable = false)
+    private Long version;
+
     @Column(name = "position")
     private Integer position;
 
@@ -56,6 +60,14 @@ public class BookCollectionEntity implements Serializable {
         this.id = id;
     }
 
+    public Long getVersion() {
+        return this.version;
+    }
+
+    public void setVersion(Long version) {
+        this.version = version;
+    }
+
     public Integer getPosition() {
         return this.position;
     }
@@ -132,6 +144,7 @@ public class BookCollectionEntity implements Serializable {
     public String toString() {
         return "BookCollectionEntity{" +
             "id=" + getId() +
+            ", version=" + getVersion() +
             ", position=" + getPosition() +
             ", addedAt='" + getAddedAt() + "'" +
             "}";
@@ -26,6 +26,10 @@ public class BookEntity implements Serializable {
     @Column(name = "id")
     private Long id;
 
+    @Version
+    @Column(name = "version", nullable = false)
+    private Long version;
+
     @NotNull
     @Column(name = "isbn", nullable = false, unique = true)
     private String isbn;
@@ -50,13 +54,14 @@ public class BookEntity implements Serializable {
     @Column(name = "language")
     private String language;
 
-    @Column(name = "average_rating", precision = 21, scale = 2)
+    // The counters are only written by their aggregation, without incrementing the version
+    @Column(name = "average_rating", precision = 21, scale = 2, updatable = false)
     private BigDecimal averageRating;
 
-    @Column(name = "total_ratings")
+    @Column(name = "total_ratings", updatable = false)
     private Integer totalRatings;
 
-    @Column(name = "total_reviews")
+    @Column(name = "total_reviews", updatable = false)
     private Integer totalReviews;
 
     @Column(name = "created_at")
@@ -111,6 +116,14 @@ public class BookEntity implements Serializable {
         this.id = id;
     }
 
+    public Long getVersion() {
+        return this.version;
+    }
+
+    public void setVersion(Long version) {
+        this.version = version;
+    }
+
     public String getIsbn() {
         return this.isbn;
     }
@@ -521,6 +534,7 @@ public class BookEntity implements Serializable {
     public String toString() {
         return "BookEntity{" +
             "id=" + getId() +
+            ", version=" + getVersion() +
             ", isbn='" + getIsbn() + "'" +
             ", title='" + getTitle() + "'" +
             ", description='" + getDescription() + "'" +
@@ -21,6 +21,10 @@ public class BookTagEntity implements Serializable {
     @Column(name = "id")
     private Long id;
 
+    @Version
+    @Column(name = "version", nullable = false)
+    private Long version;
+
     @ManyToOne(optional = false)
     @NotNull
     @JsonIgnoreProperties(
@@ -49,6 +53,14 @@ public class BookTagEntity implements Serializable {
         this.id = id;
     }
 
+    public Long getVersion() {
+        return this.version;
+    }
+
+    public void setVersion(Long version) {
+        this.version = version;
+    }
+
     public BookEntity getBook() {
         return this.book;
     }
@@ -99,6 +111,7 @@ public class BookTagEntity implements Serializable {
     public String toString() {
         return "BookTagEntity{" +
             "id=" + getId() +
+            ", version=" + getVersion() +
             "}";
     }
 }
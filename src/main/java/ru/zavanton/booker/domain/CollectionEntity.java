@@ -24,6 +24,10 @@ public class CollectionEntity implements Serializable {
     @Column(name = "id")
     private Long id;
 
+    @Version
+    @Column(name = "version", nullable = false)
+    private Long version;
+
     @NotNull
     @Column(name = "name", nullable = false)
     private String name;
@@ -35,7 +39,8 @@ public class CollectionEntity implements Serializable {
     @Column(name = "is_public")
     private Boolean isPublic;
 
-    @Column(name = "book_count")
+    // Only written by the CounterService, without incrementing the version
+    @Column(name = "book_count", updatable = false)
     private Integer bookCount;
 
     @Column(name = "created_at")
@@ -67,6 +72,14 @@ public class CollectionEntity implements Serializable {
         this.id = id;
     }
 
+    public Long getVersion() {
+        return this.version;
+    }
+
+    public void setVersion(Long version) {
+        this.version = version;
+    }
+
     public String getName() {
         return this.name;
     }
@@ -213,6 +226,7 @@ public class CollectionEntity implements Serializable {
     public String toString() {
         return "CollectionEntity{" +
             "id=" + getId() +
+            ", version=" + getVersion() +
             ", name='" + getName() + "'" +
             ", description='" + getDescription() + "'" +
             ", isPublic='" + getIsPublic() + "'" +
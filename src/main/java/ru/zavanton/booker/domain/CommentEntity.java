@@ -22,6 +22,10 @@ public class CommentEntity implements Serializable {
     @Column(name = "id")
     private Long id;
 
+    @Version
+    @Column(name = "version", nullable = false)
+    private Long version;
+
     @Lob
     @Column(name = "content", nullable = false)
     private String content;
@@ -56,6 +60,14 @@ public class CommentEntity implements Serializable {
         this.id = id;
     }
 
+    public Long getVersion() {
+        return this.version;
+    }
+
+    public void setVersion(Long version) {
+        this.version = version;
+    }
+
     public String getContent() {
         return this.content;
     }
@@ -145,6 +157,7 @@ public class CommentEntity implements Serializable {
     public String toString() {
         return "CommentEntity{" +
             "id=" + getId() +
+            ", version=" + getVersion() +
             ", content='" + getContent() + "'" +
             ", createdAt='" + getCreatedAt() + "'" +
             ", updatedAt='" + getUpdatedAt() + "'" +
@@ -13,6 +13,7 @@ import java.util.Set;
  */
 @Entity
 @Table(name = "genre")
+@org.hibernate.annotations.Cache(usage = org.hibernate.annotations.CacheConcurrencyStrategy.READ_WRITE)
 @SuppressWarnings("common-java:DuplicatedBlocks")
 public class GenreEntity implements Serializable {
 
@@ -24,6 +25,10 @@ public class GenreEntity implements Serializable {
     @Column(name = "id")
     private Long id;
 
+    @Version
+    @Column(name = "version", nullable = false)
+    private Long version;
+
     @NotNull
     @Column(name = "name", nullable = false, unique = true)
     private String name;
@@ -61,6 +66,14 @@ public class GenreEntity implements Serializable {
         this.id = id;
     }
 
+    public Long getVersion() {
+        return this.version;
+    }
+
+    public void setVersion(Long version) {
+        this.version = version;
+    }
+
     public String getName() {
         return this.name;
     }
@@ -181,6 +194,7 @@ public class GenreEntity implements Serializable {
     public String toString() {
         return "GenreEntity{" +
             "id=" + getId() +
+            ", version=" + getVersion() +
             ", name='" + getName() + "'" +
             ", slug='" + getSlug() + "'" +
             ", description='" + getDescription() + "'" +
@@ -11,6 +11,7 @@ import java.time.LocalDate;
  */
 @Entity
 @Table(name = "publisher")
+@org.hibernate.annotations.Cache(usage = org.hibernate.annotations.CacheConcurrencyStrategy.READ_WRITE)
 @SuppressWarnings("common-java:DuplicatedBlocks")
 public class PublisherEntity implements Serializable {
 
@@ -22,6 +23,10 @@ public class PublisherEntity implements Serializable {
     @Column(name = "id")
     private Long id;
 
+    @Version
+    @Column(name = "version", nullable = false)
+    private Long version;
+
     @NotNull
     @Column(name = "name", nullable = false, unique = true)
     private String name;
@@ -56,6 +61,14 @@ public class PublisherEntity implements Serializable {
         this.id = id;
     }
 
+    public Long getVersion() {
+        return this.version;
+    }
+
+    public void setVersion(Long version) {
+        this.version = version;
+    }
+
     public String getName() {
         return this.name;
     }
@@ -158,6 +171,7 @@ public class PublisherEntity implements Serializable {
     public String toString() {
         return "PublisherEntity{" +
             "id=" + getId() +
+            ", version=" + getVersion() +
             ", name='" + getName() + "'" +
             ", websiteUrl='" + getWebsiteUrl() + "'" +
             ", logoUrl='" + getLogoUrl() + "'" +
@@ -17,11 +17,16 @@ public class RatingEntity implements Serializable {
     private static final long serialVersionUID = 1L;
 
     @Id
-    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "sequenceGenerator")
-    @SequenceGenerator(name = "sequenceGenerator")
+    // Written in bulk, so ids are allocated from a table sequence in larger blocks than the shared one
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "ratingSequenceGenerator")
+    @SequenceGenerator(name = "ratingSequenceGenerator", sequenceName = "rating_sequence_generator", allocationSize = 500)
     @Column(name = "id")
     private Long id;
 
+    @Version
+    @Column(name = "version", nullable = false)
+    private Long version;
+
     @NotNull
     @Column(name = "rating", nullable = false)
     private Integer rating;
@@ -59,6 +64,14 @@ public class RatingEntity implements Serializable {
         this.id = id;
     }
 
+    public Long getVersion() {
+        return this.version;
+    }
+
+    public void setVersion(Long version) {
+        this.version = version;
+    }
+
     public Integer getRating() {
         return this.rating;
     }
@@ -148,6 +161,7 @@ public class RatingEntity implements Serializable {
     public String toString() {
         return "RatingEntity{" +
             "id=" + getId() +
+            ", version=" + getVersion() +
             ", rating=" + getRating() +
             ", createdAt='" + getCreatedAt() + "'" +
             ", updatedAt='" + getUpdatedAt() + "'" +
@@ -18,11 +18,16 @@ public class ReadingStatusEntity implements Serializable {
     private static final long serialVersionUID = 1L;
 
     @Id
-    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "sequenceGenerator")
-    @SequenceGenerator(name = "sequenceGenerator")
+    // Written in bulk, so ids are allocated from a table sequence in larger blocks than the shared one
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "readingStatusSequenceGenerator")
+    @SequenceGenerator(name = "readingStatusSequenceGenerator", sequenceName = "reading_status_sequence_generator", allocationSize = 500)
     @Column(name = "id")
     private Long id;
 
+    @Version
+    @Column(name = "version", nullable = false)
+    private Long version;
+
     @NotNull
     @Column(name = "status", nullable = false)
     private String status;
@@ -69,6 +74,14 @@ public class ReadingStatusEntity implements Serializable {
         this.id = id;
     }
 
+    public Long getVersion() {
+        return this.version;
+    }
+
+    public void setVersion(Long version) {
+        this.version = version;
+    }
+
     public String getStatus() {
         return this.status;
     }
@@ -197,6 +210,7 @@ public class ReadingStatusEntity implements Serializable {
     public String toString() {
         return "ReadingStatusEntity{" +
             "id=" + getId() +
+            ", version=" + getVersion() +
             ", status='" + getStatus() + "'" +
             ", startedDate='" + getStartedDate() + "'" +
             ", finishedDate='" + getFinishedDate() + "'" +
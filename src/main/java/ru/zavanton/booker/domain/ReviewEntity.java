@@ -24,6 +24,10 @@ public class ReviewEntity implements Serializable {
     @Column(name = "id")
     private Long id;
 
+    @Version
+    @Column(name = "version", nullable = false)
+    private Long version;
+
     @Lob
     @Column(name = "content", nullable = false)
     private String content;
@@ -34,7 +38,8 @@ public class ReviewEntity implements Serializable {
     @Column(name = "contains_spoilers")
     private Boolean containsSpoilers;
 
-    @Column(name = "helpful_count")
+    // Only written by the CounterService, without incrementing the version
+    @Column(name = "helpful_count", updatable = false)
     private Integer helpfulCount;
 
     @Column(name = "created_at")
@@ -74,6 +79,14 @@ public class ReviewEntity implements Serializable {
         this.id = id;
     }
 
+    public Long getVersion() {
+        return this.version;
+    }
+
+    public void setVersion(Long version) {
+        this.version = version;
+    }
+
     public String getContent() {
         return this.content;
     }
@@ -233,6 +246,7 @@ public class ReviewEntity implements Serializable {
     public String toString() {
         return "ReviewEntity{" +
             "id=" + getId() +
+            ", version=" + getVersion() +
             ", content='" + getContent() + "'" +
             ", rating=" + getRating() +
             ", containsSpoilers='" + getContainsSpoilers() + "'" +
@@ -13,6 +13,7 @@ import java.util.Set;
  */
 @Entity
 @Table(name = "tag")
+@org.hibernate.annotations.Cache(usage = org.hibernate.annotations.CacheConcurrencyStrategy.READ_WRITE)
 @SuppressWarnings("common-java:DuplicatedBlocks")
 public class TagEntity implements Serializable {
 
@@ -24,6 +25,10 @@ public class TagEntity implements Serializable {
     @Column(name = "id")
     private Long id;
 
+    @Version
+    @Column(name = "version", nullable = false)
+    private Long version;
+
     @NotNull
     @Column(name = "name", nullable = false, unique = true)
     private String name;
@@ -54,6 +59,14 @@ public class TagEntity implements Serializable {
         this.id = id;
     }
 
+    public Long getVersion() {
+        return this.version;
+    }
+
+    public void setVersion(Long version) {
+        this.version = version;
+    }
+
     public String getName() {
         return this.name;
     }
@@ -148,6 +161,7 @@ public class TagEntity implements Serializable {
     public String toString() {
         return "TagEntity{" +
             "id=" + getId() +
+            ", version=" + getVersion() +
             ", name='" + getName() + "'" +
             ", slug='" + getSlug() + "'" +
             ", createdAt='" + getCreatedAt() + "'" +
@@ -1,6 +1,8 @@
 package ru.zavanton.booker.repository;
 
+import java.util.Optional;
 import org.springframework.data.jpa.repository.*;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 import ru.zavanton.booker.domain.AuthorEntity;
 
@@ -9,4 +11,7 @@ import ru.zavanton.booker.domain.AuthorEntity;
  */
 @SuppressWarnings("unused")
 @Repository
-public interface AuthorRepository extends JpaRepository<AuthorEntity, Long>, JpaSpecificationExecutor<AuthorEntity> {}
+public interface AuthorRepository extends JpaRepository<AuthorEntity, Long>, JpaSpecificationExecutor<AuthorEntity> {
+    @Query("select author.version from AuthorEntity author where author.id = :id")
+    Optional<Long> findVersionById(@Param("id") Long id);
+}
@@ -0,0 +1,20 @@
+package ru.zavanton.booker.repository;
+
+import java.time.Instant;
+import java.time.LocalDate;
+
+/**
+ * Projection of an {@link ru.zavanton.booker.domain.AuthorEntity} for lists, without its {@code biography}.
+ */
+public record AuthorSummaryProjection(
+    Long id,
+    String firstName,
+    String lastName,
+    String fullName,
+    String photoUrl,
+    LocalDate birthDate,
+    LocalDate deathDate,
+    String nationality,
+    Instant createdAt,
+    Instant updatedAt
+) {}
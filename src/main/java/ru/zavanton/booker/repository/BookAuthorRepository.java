@@ -1,6 +1,9 @@
 package ru.zavanton.booker.repository;
 
+import java.util.Collection;
+import java.util.List;
 import org.springframework.data.jpa.repository.*;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 import ru.zavanton.booker.domain.BookAuthorEntity;
 
@@ -9,4 +12,15 @@ import ru.zavanton.booker.domain.BookAuthorEntity;
  */
 @SuppressWarnings("unused")
 @Repository
-public interface BookAuthorRepository extends JpaRepository<BookAuthorEntity, Long>, JpaSpecificationExecutor<BookAuthorEntity> {}
+public interface BookAuthorRepository extends JpaRepository<BookAuthorEntity, Long>, JpaSpecificationExecutor<BookAuthorEntity> {
+    @Query("select bookAuthor.book.id from BookAuthorEntity bookAuthor where bookAuthor.author.id = :authorId")
+    List<Long> findBookIdsByAuthorId(@Param("authorId") Long authorId);
+
+    @Query(
+        "select bookAuthor.book.id as bookId, bookAuthor.author.fullName as name from BookAuthorEntity bookAuthor where bookAuthor.book.id in :bookIds"
+    )
+    List<BookNameProjection> findAuthorNamesByBookIdIn(@Param("bookIds") Collection<Long> bookIds);
+
+    @Query("select bookAuthor from BookAuthorEntity bookAuthor join fetch bookAuthor.author where bookAuthor.book.id = :bookId")
+    List<BookAuthorEntity> findAllWithAuthorByBookId(@Param("bookId") Long bookId);
+}
@@ -0,0 +1,25 @@
+package ru.zavanton.booker.repository;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.time.LocalDate;
+
+/**
+ * Projection of a {@link ru.zavanton.booker.domain.BookEntity} for the catalog export, with the identifier of its publisher.
+ */
+public record BookExportProjection(
+    Long id,
+    String isbn,
+    String title,
+    String description,
+    String coverImageUrl,
+    Integer pageCount,
+    LocalDate publicationDate,
+    String language,
+    BigDecimal averageRating,
+    Integer totalRatings,
+    Integer totalReviews,
+    Instant createdAt,
+    Instant updatedAt,
+    Long publisherId
+) {}
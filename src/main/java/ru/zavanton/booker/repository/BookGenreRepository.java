@@ -1,6 +1,9 @@
 package ru.zavanton.booker.repository;
 
+import java.util.Collection;
+import java.util.List;
 import org.springframework.data.jpa.repository.*;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 import ru.zavanton.booker.domain.BookGenreEntity;
 
@@ -9,4 +12,15 @@ import ru.zavanton.booker.domain.BookGenreEntity;
  */
 @SuppressWarnings("unused")
 @Repository
-public interface BookGenreRepository extends JpaRepository<BookGenreEntity, Long>, JpaSpecificationExecutor<BookGenreEntity> {}
+public interface BookGenreRepository extends JpaRepository<BookGenreEntity, Long>, JpaSpecificationExecutor<BookGenreEntity> {
+    @Query("select bookGenre.book.id from BookGenreEntity bookGenre where bookGenre.genre.id = :genreId")
+    List<Long> findBookIdsByGenreId(@Param("genreId") Long genreId);
+
+    @Query(
+        "select bookGenre.book.id as bookId, bookGenre.genre.name as name from BookGenreEntity bookGenre where bookGenre.book.id in :bookIds"
+    )
+    List<BookNameProjection> findGenreNamesByBookIdIn(@Param("bookIds") Collection<Long> bookIds);
+
+    @Query("select bookGenre from BookGenreEntity bookGenre join fetch bookGenre.genre where bookGenre.book.id = :bookId")
+    List<BookGenreEntity> findAllWithGenreByBookId(@Param("bookId") Long bookId);
+}
@@ -0,0 +1,307 @@
+package ru.zavanton.booker.repository;
+
+import jakarta.persistence.EntityManager;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneOffset;
+import java.util.Calendar;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TimeZone;
+import org.hibernate.engine.spi.SharedSessionContractImplementor;
+import org.hibernate.generator.BeforeExecutionGenerator;
+import org.hibernate.generator.EventType;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Repository;
+import ru.zavanton.booker.domain.AuthorEntity;
+import ru.zavanton.booker.domain.BookAuthorEntity;
+import ru.zavanton.booker.domain.BookEntity;
+import ru.zavanton.booker.domain.BookGenreEntity;
+import ru.zavanton.booker.domain.BookTagEntity;
+import ru.zavanton.booker.domain.GenreEntity;
+import ru.zavanton.booker.domain.PublisherEntity;
+import ru.zavanton.booker.domain.TagEntity;
+
+/**
+ * Repository writing the books of a bulk import with JDBC batches of {@code hibernate.jdbc.batch_size} statements.
+ * <p>
+ * The entities are only used to carry the values of the rows: they are not managed, and the writes bypass the
+ * persistence context and the second-level cache. Only new publishers, authors, genres and tags are inserted,
+ * so the cached ones are never stale; books and their links are not cached. The identifiers are taken from the
+ * identifier generators of the entities, so that they never collide with the ones allocated by Hibernate.
+ * <p>
+ * All the methods must be called within a transaction.
+ */
+@Repository
+public class BookImportRepository {
+
+    private static final String INSERT_PUBLISHER_SQL = "insert into publisher (id, name, created_at, updated_at) values (?, ?, ?, ?)";
+
+    private static final String INSERT_AUTHOR_SQL =
+        "insert into author (id, first_name, last_name, full_name, created_at, updated_at) values (?, ?, ?, ?, ?, ?)";
+
+    private static final String INSERT_GENRE_SQL = "insert into genre (id, name, slug, created_at, updated_at) values (?, ?, ?, ?, ?)";
+
+    private static final String INSERT_TAG_SQL = "insert into tag (id, name, slug, created_at) values (?, ?, ?, ?)";
+
+    private static final String INSERT_BOOK_SQL =
+        "insert into book (id, isbn, title, description, cover_image_url, page_count, publication_date, language, " +
+        "total_ratings, total_reviews, created_at, updated_at, publisher_id) values (?, ?, ?, ?, ?, ?, ?, ?, 0, 0, ?, ?, ?)";
+
+    // Values missing from the feed keep the current ones. The books whose values did not change are not updated,
+    // so that importing the same feed again does not increment their version and fail the concurrent updates
+    private static final String UPDATE_BOOK_SQL =
+        "update book set title = ?, description = coalesce(?, description), cover_image_url = coalesce(?, cover_image_url), " +
+        "page_count = coalesce(?, page_count), publication_date = coalesce(?, publication_date), language = coalesce(?, language), " +
+        "publisher_id = coalesce(?, publisher_id), updated_at = ?, version = version + 1 where id = ? and (title <> ? " +
+        "or coalesce(?, description) is distinct from description or coalesce(?, cover_image_url) is distinct from cover_image_url " +
+        "or coalesce(?, page_count) is distinct from page_count or coalesce(?, publication_date) is distinct from publication_date " +
+        "or coalesce(?, language) is distinct from language or coalesce(?, publisher_id) is distinct from publisher_id)";
+
+    private static final String INSERT_BOOK_AUTHOR_SQL =
+        "insert into book_author (id, is_primary, booker_order, book_id, author_id) values (?, ?, ?, ?, ?)";
+
+    private static final String INSERT_BOOK_GENRE_SQL = "insert into book_genre (id, book_id, genre_id) values (?, ?, ?)";
+
+    private static final String INSERT_BOOK_TAG_SQL = "insert into book_tag (id, book_id, tag_id) values (?, ?, ?)";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    private final NamedParameterJdbcTemplate namedParameterJdbcTemplate;
+
+    private final EntityManager entityManager;
+
+    private final int batchSize;
+
+    public BookImportRepository(
+        JdbcTemplate jdbcTemplate,
+        EntityManager entityManager,
+        @Value("${spring.jpa.properties.hibernate.jdbc.batch_size:25}") int batchSize
+    ) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.namedParameterJdbcTemplate = new NamedParameterJdbcTemplate(jdbcTemplate);
+        this.entityManager = entityManager;
+        this.batchSize = batchSize;
+    }
+
+    /**
+     * Allocate an identifier with the identifier generator of an entity.
+     *
+     * @param entityClass the class of the entity.
+     * @return the identifier.
+     */
+    public long nextId(Class<?> entityClass) {
+        SharedSessionContractImplementor session = entityManager.unwrap(SharedSessionContractImplementor.class);
+        BeforeExecutionGenerator generator = (BeforeExecutionGenerator) session
+            .getFactory()
+            .getMappingMetamodel()
+            .getEntityDescriptor(entityClass)
+            .getGenerator();
+        return ((Number) generator.generate(session, null, null, EventType.INSERT)).longValue();
+    }
+
+    public Map<String, Long> findPublisherIdsByName(Collection<String> names) {
+        return findIds("select name as natural_key, id from publisher where name in (:keys)", names);
+    }
+
+    /**
+     * Find authors by full name. As the full name is not unique, the oldest author is returned.
+     *
+     * @param fullNames the full names.
+     * @return the identifiers by full name.
+     */
+    public Map<String, Long> findAuthorIdsByFullName(Collection<String> fullNames) {
+        return findIds("select full_name as natural_key, min(id) as id from author where full_name in (:keys) group by full_name", fullNames);
+    }
+
+    public Map<String, Long> findGenreIdsBySlug(Collection<String> slugs) {
+        return findIds("select slug as natural_key, id from genre where slug in (:keys)", slugs);
+    }
+
+    public Map<String, Long> findTagIdsBySlug(Collection<String> slugs) {
+        return findIds("select slug as natural_key, id from tag where slug in (:keys)", slugs);
+    }
+
+    public Map<String, Long> findBookIdsByIsbn(Collection<String> isbns) {
+        return findIds("select isbn as natural_key, id from book where isbn in (:keys)", isbns);
+    }
+
+    private Map<String, Long> findIds(String sql, Collection<String> keys) {
+        Map<String, Long> ids = new HashMap<>();
+        if (keys.isEmpty()) {
+            return ids;
+        }
+        namedParameterJdbcTemplate.query(sql, new MapSqlParameterSource("keys", keys), rs -> {
+            ids.put(rs.getString("natural_key"), rs.getLong("id"));
+        });
+        return ids;
+    }
+
+    public void insertPublishers(List<PublisherEntity> publishers) {
+        jdbcTemplate.batchUpdate(INSERT_PUBLISHER_SQL, publishers, batchSize, (ps, publisher) -> {
+            ps.setLong(1, publisher.getId());
+            ps.setString(2, publisher.getName());
+            setInstant(ps, 3, publisher.getCreatedAt());
+            setInstant(ps, 4, publisher.getUpdatedAt());
+        });
+    }
+
+    public void insertAuthors(List<AuthorEntity> authors) {
+        jdbcTemplate.batchUpdate(INSERT_AUTHOR_SQL, authors, batchSize, (ps, author) -> {
+            ps.setLong(1, author.getId());
+            setString(ps, 2, author.getFirstName());
+            setString(ps, 3, author.getLastName());
+            ps.setString(4, author.getFullName());
+            setInstant(ps, 5, author.getCreatedAt());
+            setInstant(ps, 6, author.getUpdatedAt());
+        });
+    }
+
+    public void insertGenres(List<GenreEntity> genres) {
+        jdbcTemplate.batchUpdate(INSERT_GENRE_SQL, genres, batchSize, (ps, genre) -> {
+            ps.setLong(1, genre.getId());
+            ps.setString(2, genre.getName());
+            ps.setString(3, genre.getSlug());
+            setInstant(ps, 4, genre.getCreatedAt());
+            setInstant(ps, 5, genre.getUpdatedAt());
+        });
+    }
+
+    public void insertTags(List<TagEntity> tags) {
+        jdbcTemplate.batchUpdate(INSERT_TAG_SQL, tags, batchSize, (ps, tag) -> {
+            ps.setLong(1, tag.getId());
+            ps.setString(2, tag.getName());
+            ps.setString(3, tag.getSlug());
+            setInstant(ps, 4, tag.getCreatedAt());
+        });
+    }
+
+    public void insertBooks(List<BookEntity> books) {
+        jdbcTemplate.batchUpdate(INSERT_BOOK_SQL, books, batchSize, (ps, book) -> {
+            ps.setLong(1, book.getId());
+            ps.setString(2, book.getIsbn());
+            ps.setString(3, book.getTitle());
+            setString(ps, 4, book.getDescription());
+            setString(ps, 5, book.getCoverImageUrl());
+            setInteger(ps, 6, book.getPageCount());
+            setDate(ps, 7, book.getPublicationDate());
+            setString(ps, 8, book.getLanguage());
+            setInstant(ps, 9, book.getCreatedAt());
+            setInstant(ps, 10, book.getUpdatedAt());
+            setLong(ps, 11, book.getPublisher() != null ? book.getPublisher().getId() : null);
+        });
+    }
+
+    public void updateBooks(List<BookEntity> books) {
+        jdbcTemplate.batchUpdate(UPDATE_BOOK_SQL, books, batchSize, (ps, book) -> {
+            setBookValues(ps, 1, book);
+            setInstant(ps, 8, book.getUpdatedAt());
+            ps.setLong(9, book.getId());
+            setBookValues(ps, 10, book);
+        });
+    }
+
+    private static void setBookValues(PreparedStatement ps, int first, BookEntity book) throws SQLException {
+        ps.setString(first, book.getTitle());
+        setString(ps, first + 1, book.getDescription());
+        setString(ps, first + 2, book.getCoverImageUrl());
+        setInteger(ps, first + 3, book.getPageCount());
+        setDate(ps, first + 4, book.getPublicationDate());
+        setString(ps, first + 5, book.getLanguage());
+        setLong(ps, first + 6, book.getPublisher() != null ? book.getPublisher().getId() : null);
+    }
+
+    public void deleteBookAuthorsByBookIdIn(Collection<Long> bookIds) {
+        deleteByBookIdIn("delete from book_author where book_id in (:bookIds)", bookIds);
+    }
+
+    public void deleteBookGenresByBookIdIn(Collection<Long> bookIds) {
+        deleteByBookIdIn("delete from book_genre where book_id in (:bookIds)", bookIds);
+    }
+
+    public void deleteBookTagsByBookIdIn(Collection<Long> bookIds) {
+        deleteByBookIdIn("delete from book_tag where book_id in (:bookIds)", bookIds);
+    }
+
+    private void deleteByBookIdIn(String sql, Collection<Long> bookIds) {
+        if (!bookIds.isEmpty()) {
+            namedParameterJdbcTemplate.update(sql, new MapSqlParameterSource("bookIds", bookIds));
+        }
+    }
+
+    public void insertBookAuthors(List<BookAuthorEntity> bookAuthors) {
+        jdbcTemplate.batchUpdate(INSERT_BOOK_AUTHOR_SQL, bookAuthors, batchSize, (ps, bookAuthor) -> {
+            ps.setLong(1, bookAuthor.getId());
+            ps.setBoolean(2, Boolean.TRUE.equals(bookAuthor.getIsPrimary()));
+            setInteger(ps, 3, bookAuthor.getOrder());
+            ps.setLong(4, bookAuthor.getBook().getId());
+            ps.setLong(5, bookAuthor.getAuthor().getId());
+        });
+    }
+
+    public void insertBookGenres(List<BookGenreEntity> bookGenres) {
+        jdbcTemplate.batchUpdate(INSERT_BOOK_GENRE_SQL, bookGenres, batchSize, (ps, bookGenre) -> {
+            ps.setLong(1, bookGenre.getId());
+            ps.setLong(2, bookGenre.getBook().getId());
+            ps.setLong(3, bookGenre.getGenre().getId());
+        });
+    }
+
+    public void insertBookTags(List<BookTagEntity> bookTags) {
+        jdbcTemplate.batchUpdate(INSERT_BOOK_TAG_SQL, bookTags, batchSize, (ps, bookTag) -> {
+            ps.setLong(1, bookTag.getId());
+            ps.setLong(2, bookTag.getBook().getId());
+            ps.setLong(3, bookTag.getTag().getId());
+        });
+    }
+
+    private static void setString(PreparedStatement ps, int index, String value) throws SQLException {
+        if (value == null) {
+            ps.setNull(index, Types.VARCHAR);
+        } else {
+            ps.setString(index, value);
+        }
+    }
+
+    private static void setInteger(PreparedStatement ps, int index, Integer value) throws SQLException {
+        if (value == null) {
+            ps.setNull(index, Types.INTEGER);
+        } else {
+            ps.setInt(index, value);
+        }
+    }
+
+    private static void setLong(PreparedStatement ps, int index, Long value) throws SQLException {
+        if (value == null) {
+            ps.setNull(index, Types.BIGINT);
+        } else {
+            ps.setLong(index, value);
+        }
+    }
+
+    private static void setDate(PreparedStatement ps, int index, LocalDate value) throws SQLException {
+        if (value == null) {
+            ps.setNull(index, Types.DATE);
+        } else {
+            ps.setObject(index, value);
+        }
+    }
+
+    // Written in UTC, as Hibernate does with hibernate.jdbc.time_zone
+    private static void setInstant(PreparedStatement ps, int index, Instant value) throws SQLException {
+        if (value == null) {
+            ps.setNull(index, Types.TIMESTAMP);
+        } else {
+            ps.setTimestamp(index, Timestamp.from(value), Calendar.getInstance(TimeZone.getTimeZone(ZoneOffset.UTC)));
+        }
+    }
+}
@@ -0,0 +1,10 @@
+package ru.zavanton.booker.repository;
+
+/**
+ * Projection of the name of an author, genre or tag linked to a book, or of the content of one of its reviews.
+ */
+public interface BookNameProjection {
+    Long getBookId();
+
+    String getName();
+}
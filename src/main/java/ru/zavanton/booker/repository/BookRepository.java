@@ -1,6 +1,11 @@
 package ru.zavanton.booker.repository;
 
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.*;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 import ru.zavanton.booker.domain.BookEntity;
 
@@ -9,4 +14,22 @@ import ru.zavanton.booker.domain.BookEntity;
  */
 @SuppressWarnings("unused")
 @Repository
-public interface BookRepository extends JpaRepository<BookEntity, Long>, JpaSpecificationExecutor<BookEntity> {}
+public interface BookRepository extends JpaRepository<BookEntity, Long>, JpaSpecificationExecutor<BookEntity> {
+    @Query("select book.id from BookEntity book where book.id > :id order by book.id")
+    List<Long> findIdsGreaterThan(@Param("id") Long id, Pageable pageable);
+
+    @Query(
+        "select book.id as id, book.isbn as isbn, book.title as title, book.description as description " +
+        "from BookEntity book where book.id in :ids"
+    )
+    List<BookTextProjection> findTextByIdIn(@Param("ids") Collection<Long> ids);
+
+    @Query("select book from BookEntity book left join fetch book.publisher where book.id = :id")
+    Optional<BookEntity> findOneWithPublisherById(@Param("id") Long id);
+
+    @Query(
+        "select book.version as version, book.averageRating as averageRating, book.totalRatings as totalRatings, " +
+        "book.totalReviews as totalReviews from BookEntity book where book.id = :id"
+    )
+    Optional<BookVersionProjection> findVersionById(@Param("id") Long id);
+}
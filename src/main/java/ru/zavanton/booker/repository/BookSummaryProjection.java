@@ -0,0 +1,24 @@
+package ru.zavanton.booker.repository;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.time.LocalDate;
+
+/**
+ * Projection of a {@link ru.zavanton.booker.domain.BookEntity} for lists, without its {@code description}.
+ */
+public record BookSummaryProjection(
+    Long id,
+    String isbn,
+    String title,
+    String coverImageUrl,
+    Integer pageCount,
+    LocalDate publicationDate,
+    String language,
+    BigDecimal averageRating,
+    Integer totalRatings,
+    Integer totalReviews,
+    Instant createdAt,
+    Instant updatedAt,
+    Long publisherId
+) {}
@@ -1,6 +1,9 @@
 package ru.zavanton.booker.repository;
 
+import java.util.Collection;
+import java.util.List;
 import org.springframework.data.jpa.repository.*;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 import ru.zavanton.booker.domain.BookTagEntity;
 
@@ -9,4 +12,15 @@ import ru.zavanton.booker.domain.BookTagEntity;
  */
 @SuppressWarnings("unused")
 @Repository
-public interface BookTagRepository extends JpaRepository<BookTagEntity, Long>, JpaSpecificationExecutor<BookTagEntity> {}
+public interface BookTagRepository extends JpaRepository<BookTagEntity, Long>, JpaSpecificationExecutor<BookTagEntity> {
+    @Query("select bookTag.book.id from BookTagEntity bookTag where bookTag.tag.id = :tagId")
+    List<Long> findBookIdsByTagId(@Param("tagId") Long tagId);
+
+    @Query(
+        "select bookTag.book.id as bookId, bookTag.tag.name as name from BookTagEntity bookTag where bookTag.book.id in :bookIds"
+    )
+    List<BookNameProjection> findTagNamesByBookIdIn(@Param("bookIds") Collection<Long> bookIds);
+
+    @Query("select bookTag from BookTagEntity bookTag join fetch bookTag.tag where bookTag.book.id = :bookId")
+    List<BookTagEntity> findAllWithTagByBookId(@Param("bookId") Long bookId);
+}
@@ -0,0 +1,14 @@
+package ru.zavanton.booker.repository;
+
+/**
+ * Projection of the searchable text columns of a {@link ru.zavanton.booker.domain.BookEntity}.
+ */
+public interface BookTextProjection {
+    Long getId();
+
+    String getIsbn();
+
+    String getTitle();
+
+    String getDescription();
+}
@@ -0,0 +1,17 @@
+package ru.zavanton.booker.repository;
+
+import java.math.BigDecimal;
+
+/**
+ * Projection of the validators of a {@link ru.zavanton.booker.domain.BookEntity}: its optimistic locking version,
+ * and its counters, which are maintained without incrementing it.
+ */
+public interface BookVersionProjection {
+    Long getVersion();
+
+    BigDecimal getAverageRating();
+
+    Integer getTotalRatings();
+
+    Integer getTotalReviews();
+}
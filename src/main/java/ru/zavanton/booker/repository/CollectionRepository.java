@@ -1,7 +1,9 @@
 package ru.zavanton.booker.repository;
 
 import java.util.List;
+import java.util.Optional;
 import org.springframework.data.jpa.repository.*;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 import ru.zavanton.booker.domain.CollectionEntity;
 
@@ -13,4 +15,10 @@ import ru.zavanton.booker.domain.CollectionEntity;
 public interface CollectionRepository extends JpaRepository<CollectionEntity, Long>, JpaSpecificationExecutor<CollectionEntity> {
     @Query("select collection from CollectionEntity collection where collection.user.login = ?#{authentication.name}")
     List<CollectionEntity> findByUserIsCurrentUser();
+
+    @Query(
+        "select collection.version as version, collection.bookCount as bookCount " +
+        "from CollectionEntity collection where collection.id = :id"
+    )
+    Optional<CollectionVersionProjection> findVersionById(@Param("id") Long id);
 }
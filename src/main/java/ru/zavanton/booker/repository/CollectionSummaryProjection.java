@@ -0,0 +1,16 @@
+package ru.zavanton.booker.repository;
+
+import java.time.Instant;
+
+/**
+ * Projection of a {@link ru.zavanton.booker.domain.CollectionEntity} for lists, without its {@code description}.
+ */
+public record CollectionSummaryProjection(
+    Long id,
+    String name,
+    Boolean isPublic,
+    Integer bookCount,
+    Instant createdAt,
+    Instant updatedAt,
+    Long userId
+) {}
@@ -0,0 +1,11 @@
+package ru.zavanton.booker.repository;
+
+/**
+ * Projection of the validators of a {@link ru.zavanton.booker.domain.CollectionEntity}: its optimistic locking version,
+ * and its number of books, which is maintained without incrementing it.
+ */
+public interface CollectionVersionProjection {
+    Long getVersion();
+
+    Integer getBookCount();
+}
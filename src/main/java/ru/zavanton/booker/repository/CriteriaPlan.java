@@ -0,0 +1,347 @@
+package ru.zavanton.booker.repository;
+
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.Expression;
+import jakarta.persistence.criteria.Predicate;
+import jakarta.persistence.criteria.Root;
+import jakarta.persistence.criteria.Subquery;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+import org.hibernate.query.criteria.HibernateCriteriaBuilder;
+import org.springframework.data.jpa.domain.Specification;
+import tech.jhipster.service.filter.Filter;
+import tech.jhipster.service.filter.RangeFilter;
+import tech.jhipster.service.filter.StringFilter;
+
+/**
+ * Filters of a query, built as a {@link Specification} whose values are bound as named parameters.
+ * <p>
+ * The plan has a shape, listing the filtered attributes and their operators but not their values, so that
+ * {@link SpecificationProjectionRepository} builds the criteria query of a shape once, then only binds the values
+ * of the next plans of the same shape. The operators of a filter apply as in {@link tech.jhipster.service.QueryService}:
+ * {@code equals}, else {@code in}, replaces the other operators.
+ * <p>
+ * The filters of the to-many relationships are applied with {@link #semijoinFilter}, as an {@code exists} subquery
+ * correlated to the root, so that they do not multiply the rows of the query.
+ * <p>
+ * A plan is built and used by a single thread.
+ *
+ * @param <T> the type of the filtered entities.
+ */
+public final class CriteriaPlan<T> {
+
+    private static final String PARAMETER_PREFIX = "p";
+
+    private final StringBuilder shape = new StringBuilder();
+
+    private final Map<String, Object> parameters = new LinkedHashMap<>();
+
+    private Specification<T> specification = Specification.where(null);
+
+    private boolean parameterized;
+
+    /**
+     * @return the filtered attributes and their operators, without their values.
+     */
+    public String getShape() {
+        return shape.toString();
+    }
+
+    /**
+     * @return the values of the filters, by parameter name.
+     */
+    public Map<String, Object> getParameters() {
+        return Collections.unmodifiableMap(parameters);
+    }
+
+    /**
+     * @return the specification holding the values of the filters, for the queries which are not cached.
+     */
+    public Specification<T> getSpecification() {
+        return specification;
+    }
+
+    /**
+     * @return the specification referencing the values of the filters by parameter name, for a cached query.
+     */
+    Specification<T> getParameterizedSpecification() {
+        return (root, query, cb) -> {
+            parameterized = true;
+            try {
+                return specification.toPredicate(root, query, cb);
+            } finally {
+                parameterized = false;
+            }
+        };
+    }
+
+    /**
+     * @param distinct whether the query selects distinct entities.
+     * @return this plan.
+     */
+    public CriteriaPlan<T> distinct(boolean distinct) {
+        return and("distinct=" + distinct, (root, query, cb) -> {
+            query.distinct(distinct);
+            return null;
+        });
+    }
+
+    /**
+     * @param name the name of the filtered attribute, unique within the plan.
+     * @param filter the filter, or {@code null} to not filter the attribute.
+     * @param path the function returning the filtered attribute from the root of the query.
+     * @return this plan.
+     */
+    public <X> CriteriaPlan<T> filter(String name, Filter<X> filter, Function<Root<T>, Expression<X>> path) {
+        return filter(name, filter, new Scope<>(path, false));
+    }
+
+    /**
+     * Filter an attribute reached through a to-many relationship: each operator matches the entities having at least
+     * one related value which matches it, and {@code specified=false} the entities having none.
+     *
+     * @param name the name of the filtered attribute, unique within the plan.
+     * @param filter the filter, or {@code null} to not filter the attribute.
+     * @param path the function returning the filtered attribute from the root correlated to the {@code exists} subquery.
+     * @return this plan.
+     */
+    public <X> CriteriaPlan<T> semijoinFilter(String name, Filter<X> filter, Function<Root<T>, Expression<X>> path) {
+        return filter(name, filter, new Scope<>(path, true));
+    }
+
+    private <X> CriteriaPlan<T> filter(String name, Filter<X> filter, Scope<X> scope) {
+        if (filter == null) {
+            return this;
+        }
+        if (filter.getEquals() != null) {
+            return equalTo(name, filter.getEquals(), scope);
+        }
+        if (filter.getIn() != null) {
+            return in(name, filter.getIn(), scope);
+        }
+        if (filter.getSpecified() != null) {
+            specified(name, filter.getSpecified(), scope);
+        }
+        if (filter.getNotEquals() != null) {
+            notEqualTo(name, filter.getNotEquals(), scope);
+        }
+        if (filter.getNotIn() != null) {
+            notIn(name, filter.getNotIn(), scope);
+        }
+        return this;
+    }
+
+    /**
+     * @param name the name of the filtered attribute, unique within the plan.
+     * @param filter the filter, or {@code null} to not filter the attribute.
+     * @param path the function returning the filtered attribute from the root of the query.
+     * @return this plan.
+     */
+    public <X extends Comparable<? super X>> CriteriaPlan<T> rangeFilter(
+        String name,
+        RangeFilter<X> filter,
+        Function<Root<T>, Expression<X>> path
+    ) {
+        filter(name, filter, path);
+        if (filter == null || filter.getEquals() != null || filter.getIn() != null) {
+            return this;
+        }
+        if (filter.getGreaterThan() != null) {
+            compare(name + ".greaterThan", filter.getGreaterThan(), path, CriteriaBuilder::greaterThan);
+        }
+        if (filter.getGreaterThanOrEqual() != null) {
+            compare(name + ".greaterThanOrEqual", filter.getGreaterThanOrEqual(), path, CriteriaBuilder::greaterThanOrEqualTo);
+        }
+        if (filter.getLessThan() != null) {
+            compare(name + ".lessThan", filter.getLessThan(), path, CriteriaBuilder::lessThan);
+        }
+        if (filter.getLessThanOrEqual() != null) {
+            compare(name + ".lessThanOrEqual", filter.getLessThanOrEqual(), path, CriteriaBuilder::lessThanOrEqualTo);
+        }
+        return this;
+    }
+
+    /**
+     * @param name the name of the filtered attribute, unique within the plan.
+     * @param filter the filter, or {@code null} to not filter the attribute.
+     * @param path the function returning the filtered attribute from the root of the query.
+     * @return this plan.
+     */
+    public CriteriaPlan<T> stringFilter(String name, StringFilter filter, Function<Root<T>, Expression<String>> path) {
+        filter(name, filter, path);
+        if (filter == null || filter.getEquals() != null || filter.getIn() != null) {
+            return this;
+        }
+        if (filter.getContains() != null) {
+            like(name + ".contains", filter.getContains(), path, false);
+        }
+        if (filter.getDoesNotContain() != null) {
+            like(name + ".doesNotContain", filter.getDoesNotContain(), path, true);
+        }
+        return this;
+    }
+
+    /**
+     * @param name the name of the filtered attribute, unique within the plan.
+     * @param values the accepted values.
+     * @param path the function returning the filtered attribute from the root of the query.
+     * @return this plan.
+     */
+    public <X> CriteriaPlan<T> in(String name, Collection<X> values, Function<Root<T>, Expression<X>> path) {
+        return in(name, values, new Scope<>(path, false));
+    }
+
+    /**
+     * @param name the name of the filtered attribute, unique within the plan.
+     * @param lower the lowest accepted value.
+     * @param upper the highest accepted value.
+     * @param path the function returning the filtered attribute from the root of the query.
+     * @return this plan.
+     */
+    public <X extends Comparable<? super X>> CriteriaPlan<T> between(
+        String name,
+        X lower,
+        X upper,
+        Function<Root<T>, Expression<X>> path
+    ) {
+        String lowerParameter = bind(lower);
+        String upperParameter = bind(upper);
+        return and(name + ".between", (root, query, cb) ->
+            cb.between(path.apply(root), value(cb, lowerParameter, lower), value(cb, upperParameter, upper))
+        );
+    }
+
+    /**
+     * @param name the name of the attribute which no value matches.
+     * @return this plan, matching no entity.
+     */
+    public CriteriaPlan<T> none(String name) {
+        return and(name + ".none", (root, query, cb) -> cb.disjunction());
+    }
+
+    private <X> CriteriaPlan<T> equalTo(String name, X value, Scope<X> scope) {
+        String parameter = bind(value);
+        return and(name + ".equals", scope.matching((cb, path) -> cb.equal(path, value(cb, parameter, value))));
+    }
+
+    private <X> CriteriaPlan<T> in(String name, Collection<X> values, Scope<X> scope) {
+        // An empty list has no value to bind, so it is a shape of its own
+        String parameter = values.isEmpty() ? null : bind(new ArrayList<>(values));
+        return and(name + (values.isEmpty() ? ".in=[]" : ".in"), scope.matching((cb, path) -> in(cb, path, parameter, values)));
+    }
+
+    private <X> CriteriaPlan<T> notEqualTo(String name, X value, Scope<X> scope) {
+        String parameter = bind(value);
+        return and(name + ".notEquals", scope.matching((cb, path) -> cb.not(cb.equal(path, value(cb, parameter, value)))));
+    }
+
+    private <X> CriteriaPlan<T> notIn(String name, Collection<X> values, Scope<X> scope) {
+        String parameter = values.isEmpty() ? null : bind(new ArrayList<>(values));
+        return and(name + (values.isEmpty() ? ".notIn=[]" : ".notIn"), scope.matching((cb, path) ->
+            cb.not(in(cb, path, parameter, values))
+        ));
+    }
+
+    private <X> CriteriaPlan<T> specified(String name, boolean specified, Scope<X> scope) {
+        if (scope.semijoin) {
+            // A related value is never null, so the entities without any have no row in the subquery
+            Specification<T> exists = scope.matching((cb, path) -> cb.isNotNull(path));
+            return and(name + ".specified=" + specified, specified ? exists : Specification.not(exists));
+        }
+        return and(name + ".specified=" + specified, scope.matching((cb, path) -> specified ? cb.isNotNull(path) : cb.isNull(path)));
+    }
+
+    private CriteriaPlan<T> like(String token, String value, Function<Root<T>, Expression<String>> path, boolean negated) {
+        String pattern = '%' + value.toUpperCase() + '%';
+        String parameter = bind(pattern);
+        return and(token, (root, query, cb) -> {
+            Predicate like = cb.like(cb.upper(path.apply(root)), value(cb, parameter, pattern));
+            return negated ? cb.not(like) : like;
+        });
+    }
+
+    private <X extends Comparable<? super X>> void compare(
+        String token,
+        X value,
+        Function<Root<T>, Expression<X>> path,
+        Comparison<X> comparison
+    ) {
+        String parameter = bind(value);
+        and(token, (root, query, cb) -> comparison.apply(cb, path.apply(root), value(cb, parameter, value)));
+    }
+
+    private CriteriaPlan<T> and(String token, Specification<T> other) {
+        shape.append(token).append(';');
+        specification = specification.and(other);
+        return this;
+    }
+
+    private String bind(Object value) {
+        String parameter = PARAMETER_PREFIX + parameters.size();
+        parameters.put(parameter, value);
+        return parameter;
+    }
+
+    @SuppressWarnings("unchecked")
+    private <X> Expression<X> value(CriteriaBuilder cb, String parameter, X value) {
+        if (parameterized) {
+            Class<?> type = value instanceof Enum<?> constant ? constant.getDeclaringClass() : value.getClass();
+            return cb.parameter((Class<X>) type, parameter);
+        }
+        return ((HibernateCriteriaBuilder) cb).value(value);
+    }
+
+    private <X> Predicate in(CriteriaBuilder cb, Expression<X> path, String parameter, Collection<X> values) {
+        if (parameterized && parameter != null) {
+            // A list parameter is expanded to the bound values, padded by hibernate.query.in_clause_parameter_padding
+            return path.in(cb.parameter(List.class, parameter));
+        }
+        CriteriaBuilder.In<X> in = cb.in(path);
+        for (X value : values) {
+            in = in.value(value);
+        }
+        return in;
+    }
+
+    @FunctionalInterface
+    private interface Comparison<X extends Comparable<? super X>> {
+        Predicate apply(CriteriaBuilder cb, Expression<X> path, Expression<X> value);
+    }
+
+    @FunctionalInterface
+    private interface Condition<X> {
+        Predicate apply(CriteriaBuilder cb, Expression<X> path);
+    }
+
+    /**
+     * Where the filtered attribute is read: from the root of the query, or from the root correlated to an
+     * {@code exists} subquery.
+     */
+    private final class Scope<X> {
+
+        private final Function<Root<T>, Expression<X>> path;
+
+        private final boolean semijoin;
+
+        private Scope(Function<Root<T>, Expression<X>> path, boolean semijoin) {
+            this.path = path;
+            this.semijoin = semijoin;
+        }
+
+        private Specification<T> matching(Condition<X> condition) {
+            return (root, query, cb) -> {
+                if (!semijoin) {
+                    return condition.apply(cb, path.apply(root));
+                }
+                Subquery<Integer> subquery = query.subquery(Integer.class);
+                Root<T> correlated = subquery.correlate(root);
+                return cb.exists(subquery.select(cb.literal(1)).where(condition.apply(cb, path.apply(correlated))));
+            };
+        }
+    }
+}
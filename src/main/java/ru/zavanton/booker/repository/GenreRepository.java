@@ -1,6 +1,8 @@
 package ru.zavanton.booker.repository;
 
+import java.util.Optional;
 import org.springframework.data.jpa.repository.*;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 import ru.zavanton.booker.domain.GenreEntity;
 
@@ -9,4 +11,7 @@ import ru.zavanton.booker.domain.GenreEntity;
  */
 @SuppressWarnings("unused")
 @Repository
-public interface GenreRepository extends JpaRepository<GenreEntity, Long>, JpaSpecificationExecutor<GenreEntity> {}
+public interface GenreRepository extends JpaRepository<GenreEntity, Long>, JpaSpecificationExecutor<GenreEntity> {
+    @Query("select genre.version from GenreEntity genre where genre.id = :id")
+    Optional<Long> findVersionById(@Param("id") Long id);
+}
@@ -0,0 +1,8 @@
+package ru.zavanton.booker.repository;
+
+import java.time.Instant;
+
+/**
+ * Projection of a {@link ru.zavanton.booker.domain.GenreEntity} for lists, without its {@code description}.
+ */
+public record GenreSummaryProjection(Long id, String name, String slug, Instant createdAt, Instant updatedAt) {}
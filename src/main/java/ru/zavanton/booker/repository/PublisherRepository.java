@@ -1,6 +1,8 @@
 package ru.zavanton.booker.repository;
 
+import java.util.Optional;
 import org.springframework.data.jpa.repository.*;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 import ru.zavanton.booker.domain.PublisherEntity;
 
@@ -9,4 +11,7 @@ import ru.zavanton.booker.domain.PublisherEntity;
  */
 @SuppressWarnings("unused")
 @Repository
-public interface PublisherRepository extends JpaRepository<PublisherEntity, Long>, JpaSpecificationExecutor<PublisherEntity> {}
+public interface PublisherRepository extends JpaRepository<PublisherEntity, Long>, JpaSpecificationExecutor<PublisherEntity> {
+    @Query("select publisher.version from PublisherEntity publisher where publisher.id = :id")
+    Optional<Long> findVersionById(@Param("id") Long id);
+}
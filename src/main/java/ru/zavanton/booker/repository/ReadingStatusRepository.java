@@ -13,4 +13,6 @@ import ru.zavanton.booker.domain.ReadingStatusEntity;
 public interface ReadingStatusRepository extends JpaRepository<ReadingStatusEntity, Long>, JpaSpecificationExecutor<ReadingStatusEntity> {
     @Query("select readingStatus from ReadingStatusEntity readingStatus where readingStatus.user.login = ?#{authentication.name}")
     List<ReadingStatusEntity> findByUserIsCurrentUser();
+
+    boolean existsByUserLoginAndBookId(String login, Long bookId);
 }
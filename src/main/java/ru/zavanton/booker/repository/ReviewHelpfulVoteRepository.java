@@ -0,0 +1,39 @@
+package ru.zavanton.booker.repository;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+/**
+ * Repository of the users who marked the reviews as helpful, each user being recorded once per review.
+ */
+@Repository
+public class ReviewHelpfulVoteRepository {
+
+    private static final String INSERT_VOTE_SQL =
+        "insert into review_helpful_vote (review_id, user_id) select ?, u.id from booker_user u where u.login = ?" +
+        " and not exists (select 1 from review_helpful_vote v where v.review_id = ? and v.user_id = u.id)";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public ReviewHelpfulVoteRepository(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    /**
+     * Record that a user marked a review as helpful, unless the user already did.
+     * <p>
+     * The insert runs in a nested transaction, so that the primary key violation of a concurrent vote of the same
+     * user only rolls back to a savepoint and leaves the current transaction usable.
+     *
+     * @param reviewId the id of the review.
+     * @param login the login of the user.
+     * @return {@code true} if the vote was recorded, {@code false} if the user already marked the review or does not exist.
+     * @throws org.springframework.dao.DuplicateKeyException if the same user marked the review concurrently.
+     */
+    @Transactional(propagation = Propagation.NESTED)
+    public boolean insertIfAbsent(Long reviewId, String login) {
+        return jdbcTemplate.update(INSERT_VOTE_SQL, reviewId, login, reviewId) > 0;
+    }
+}
@@ -1,7 +1,9 @@
 package ru.zavanton.booker.repository;
 
+import java.util.Collection;
 import java.util.List;
 import org.springframework.data.jpa.repository.*;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 import ru.zavanton.booker.domain.ReviewEntity;
 
@@ -13,4 +15,7 @@ import ru.zavanton.booker.domain.ReviewEntity;
 public interface ReviewRepository extends JpaRepository<ReviewEntity, Long>, JpaSpecificationExecutor<ReviewEntity> {
     @Query("select review from ReviewEntity review where review.user.login = ?#{authentication.name}")
     List<ReviewEntity> findByUserIsCurrentUser();
+
+    @Query("select review.book.id as bookId, review.content as name from ReviewEntity review where review.book.id in :bookIds")
+    List<BookNameProjection> findContentByBookIdIn(@Param("bookIds") Collection<Long> bookIds);
 }
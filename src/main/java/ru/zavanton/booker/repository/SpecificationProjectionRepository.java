@@ -0,0 +1,367 @@
+package ru.zavanton.booker.repository;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.TypedQuery;
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.CriteriaQuery;
+import jakarta.persistence.criteria.Expression;
+import jakarta.persistence.criteria.Path;
+import jakarta.persistence.criteria.Predicate;
+import jakarta.persistence.criteria.Root;
+import jakarta.persistence.criteria.Selection;
+import jakarta.persistence.metamodel.EntityType;
+import jakarta.persistence.metamodel.SingularAttribute;
+import java.lang.reflect.RecordComponent;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.function.BiFunction;
+import java.util.function.Function;
+import java.util.function.LongSupplier;
+import java.util.stream.Stream;
+import org.hibernate.jpa.HibernateHints;
+import org.hibernate.query.Query;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.data.jpa.repository.query.QueryUtils;
+import org.springframework.data.support.PageableExecutionUtils;
+import org.springframework.stereotype.Repository;
+import ru.zavanton.booker.config.ApplicationProperties;
+
+/**
+ * Repository selecting record projections of entities matching a {@link Specification}.
+ * <p>
+ * Only the columns backing the record components are selected, so that large columns such as {@code @Lob} ones
+ * are not read, and the rows are not loaded as managed entities. Each record component is mapped to the entity
+ * attribute of the same name; a component named {@code <association>Id} which matches no attribute is mapped to
+ * the identifier of the {@code <association>} association, read from the foreign key without a join.
+ * <p>
+ * The criteria queries of a {@link CriteriaPlan} are built once per shape and kept, so that the next plans of the same
+ * shape only bind their values; Hibernate then also reuses its translation of the query to SQL.
+ */
+@Repository
+public class SpecificationProjectionRepository {
+
+    private static final String ID_SUFFIX = "Id";
+
+    private static final String PLANS_CACHE_NAME = "criteria-plans";
+
+    private final EntityManager entityManager;
+
+    private final boolean plansEnabled;
+
+    private final Cache<PlanKey, CriteriaQuery<?>> plans;
+
+    public SpecificationProjectionRepository(
+        EntityManager entityManager,
+        MeterRegistry meterRegistry,
+        ApplicationProperties applicationProperties
+    ) {
+        this.entityManager = entityManager;
+        ApplicationProperties.QueryPlans properties = applicationProperties.getQueryPlans();
+        this.plansEnabled = properties.isEnabled();
+        this.plans = Caffeine.newBuilder().maximumSize(properties.getMaxShapes()).recordStats().build();
+        CaffeineCacheMetrics.monitor(meterRegistry, plans, PLANS_CACHE_NAME);
+    }
+
+    /**
+     * Select a page of projections.
+     *
+     * @param domainClass the class of the entities.
+     * @param specification the filter of the entities.
+     * @param pageable the pagination information.
+     * @param projectionClass the record to select.
+     * @return the page of projections.
+     */
+    public <T, P extends Record> Page<P> findAll(
+        Class<T> domainClass,
+        Specification<T> specification,
+        Pageable pageable,
+        Class<P> projectionClass
+    ) {
+        return findAll(domainClass, specification, pageable, projectionClass, () -> count(domainClass, specification));
+    }
+
+    /**
+     * Select a page of projections, when the number of entities is already known, such as from {@link #findVersion}.
+     *
+     * @param domainClass the class of the entities.
+     * @param specification the filter of the entities.
+     * @param pageable the pagination information.
+     * @param projectionClass the record to select.
+     * @param total the supplier of the number of entities, called when it cannot be inferred from the page.
+     * @return the page of projections.
+     */
+    public <T, P extends Record> Page<P> findAll(
+        Class<T> domainClass,
+        Specification<T> specification,
+        Pageable pageable,
+        Class<P> projectionClass,
+        LongSupplier total
+    ) {
+        var typedQuery = entityManager.createQuery(selectQuery(domainClass, specification, pageable.getSort(), projectionClass));
+        return getPage(typedQuery, pageable, total);
+    }
+
+    /**
+     * Select a page of projections, with the criteria query built for the shape of the plan and the sort.
+     *
+     * @param domainClass the class of the entities.
+     * @param plan the filter of the entities.
+     * @param pageable the pagination information.
+     * @param projectionClass the record to select.
+     * @return the page of projections.
+     */
+    public <T, P extends Record> Page<P> findAll(
+        Class<T> domainClass,
+        CriteriaPlan<T> plan,
+        Pageable pageable,
+        Class<P> projectionClass
+    ) {
+        return findAll(domainClass, plan, pageable, projectionClass, () -> count(domainClass, plan));
+    }
+
+    /**
+     * Select a page of projections, with the criteria query built for the shape of the plan and the sort, when the number
+     * of entities is already known, such as from {@link #findVersion}.
+     *
+     * @param domainClass the class of the entities.
+     * @param plan the filter of the entities.
+     * @param pageable the pagination information.
+     * @param projectionClass the record to select.
+     * @param total the supplier of the number of entities, called when it cannot be inferred from the page.
+     * @return the page of projections.
+     */
+    public <T, P extends Record> Page<P> findAll(
+        Class<T> domainClass,
+        CriteriaPlan<T> plan,
+        Pageable pageable,
+        Class<P> projectionClass,
+        LongSupplier total
+    ) {
+        if (!plansEnabled) {
+            return findAll(domainClass, plan.getSpecification(), pageable, projectionClass, total);
+        }
+        PlanKey key = new PlanKey(domainClass, projectionClass, plan.getShape(), pageable.getSort());
+        TypedQuery<P> typedQuery = createQuery(key, plan, k ->
+            selectQuery(domainClass, plan.getParameterizedSpecification(), pageable.getSort(), projectionClass)
+        );
+        return getPage(typedQuery, pageable, total);
+    }
+
+    /**
+     * Count the entities, with the criteria query built for the shape of the plan.
+     *
+     * @param domainClass the class of the entities.
+     * @param plan the filter of the entities.
+     * @return the number of entities.
+     */
+    public <T> long count(Class<T> domainClass, CriteriaPlan<T> plan) {
+        if (!plansEnabled) {
+            return count(domainClass, plan.getSpecification());
+        }
+        PlanKey key = new PlanKey(domainClass, Long.class, plan.getShape(), Sort.unsorted());
+        return createQuery(key, plan, k -> countQuery(domainClass, plan.getParameterizedSpecification())).getSingleResult();
+    }
+
+    /**
+     * Stream the projections through a forward-only cursor, fetching {@code fetchSize} rows at a time.
+     * <p>
+     * The rows are not held by the persistence context, so the memory used does not depend on the number of rows.
+     * The stream must be consumed and closed within the transaction which opened it.
+     *
+     * @param domainClass the class of the entities.
+     * @param specification the filter of the entities.
+     * @param sort the order of the projections.
+     * @param projectionClass the record to select.
+     * @param fetchSize the number of rows fetched from the database at a time.
+     * @return the stream of projections.
+     */
+    public <T, P extends Record> Stream<P> stream(
+        Class<T> domainClass,
+        Specification<T> specification,
+        Sort sort,
+        Class<P> projectionClass,
+        int fetchSize
+    ) {
+        return entityManager
+            .createQuery(selectQuery(domainClass, specification, sort, projectionClass))
+            .setHint(HibernateHints.HINT_FETCH_SIZE, fetchSize)
+            .setHint(HibernateHints.HINT_READ_ONLY, true)
+            .getResultStream();
+    }
+
+    /**
+     * Select the validators of the entities, in a single aggregate query.
+     * <p>
+     * They are only read from columns maintained by the server: the number of entities and the sums of their identifiers
+     * and optimistic locking versions change when an entity is created, deleted or updated, and the sums of the derived
+     * attributes when a column maintained without incrementing the version changes.
+     *
+     * @param domainClass the class of the entities.
+     * @param specification the filter of the entities.
+     * @param id the identifier attribute.
+     * @param version the optimistic locking version attribute.
+     * @param derivedAttributes the numeric attributes which change without incrementing the version.
+     * @return the validators of the entities.
+     */
+    public <T> VersionProjection findVersion(
+        Class<T> domainClass,
+        Specification<T> specification,
+        SingularAttribute<? super T, Long> id,
+        SingularAttribute<? super T, Long> version,
+        List<SingularAttribute<? super T, ? extends Number>> derivedAttributes
+    ) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<Object[]> query = cb.createQuery(Object[].class);
+        Root<T> root = query.from(domainClass);
+        Predicate predicate = specification.toPredicate(root, query, cb);
+        if (predicate != null) {
+            query.where(predicate);
+        }
+        List<Selection<?>> selections = new ArrayList<>();
+        selections.add(query.isDistinct() ? cb.countDistinct(root) : cb.count(root));
+        selections.add(cb.sum(root.get(id)));
+        selections.add(cb.sum(root.get(version)));
+        derivedAttributes.forEach(attribute -> selections.add(cb.sum(root.get(attribute))));
+        query.multiselect(selections);
+        query.orderBy(List.of());
+        Object[] row = entityManager.createQuery(query).getSingleResult();
+        // The sums of no entities are null
+        return new VersionProjection(
+            (Long) row[0],
+            row[1] == null ? 0 : (Long) row[1],
+            row[2] == null ? 0 : (Long) row[2],
+            Arrays.asList(row).subList(3, row.length)
+        );
+    }
+
+    /**
+     * Count the distinct entities of each group of values, in a single aggregate query.
+     *
+     * @param domainClass the class of the entities.
+     * @param specification the filter of the entities.
+     * @param groupBy the function building the expressions to group the entities by, from the root of the query.
+     * @return a row per group, holding the values of the expressions followed by the number of entities.
+     */
+    public <T> List<Object[]> countGroupedBy(
+        Class<T> domainClass,
+        Specification<T> specification,
+        BiFunction<CriteriaBuilder, Root<T>, List<Expression<?>>> groupBy
+    ) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<Object[]> query = cb.createQuery(Object[].class);
+        Root<T> root = query.from(domainClass);
+        Predicate predicate = specification.toPredicate(root, query, cb);
+        if (predicate != null) {
+            query.where(predicate);
+        }
+        List<Expression<?>> groups = groupBy.apply(cb, root);
+        List<Selection<?>> selections = new ArrayList<>(groups);
+        // Joins of the specification or of the groups may repeat an entity within a group
+        selections.add(cb.countDistinct(root));
+        query.multiselect(selections);
+        query.groupBy(groups);
+        query.orderBy(List.of());
+        return entityManager.createQuery(query).getResultList();
+    }
+
+    /**
+     * Build the selection of a record projection.
+     *
+     * @param cb the criteria builder.
+     * @param root the root of the query.
+     * @param projectionClass the record to select.
+     * @return the constructor selection of the record.
+     * @throws IllegalArgumentException if a record component matches no attribute of the entity.
+     */
+    public static <T, P extends Record> Selection<P> select(CriteriaBuilder cb, Root<T> root, Class<P> projectionClass) {
+        EntityType<T> model = root.getModel();
+        Selection<?>[] selections = Arrays.stream(projectionClass.getRecordComponents())
+            .map(component -> path(model, root, component))
+            .toArray(Selection<?>[]::new);
+        return cb.construct(projectionClass, selections);
+    }
+
+    private static <T> Path<?> path(EntityType<T> model, Root<T> root, RecordComponent component) {
+        String name = component.getName();
+        if (hasAttribute(model, name)) {
+            return root.get(name);
+        }
+        String association = name.endsWith(ID_SUFFIX) ? name.substring(0, name.length() - ID_SUFFIX.length()) : null;
+        if (association != null && hasAttribute(model, association)) {
+            return root.get(association).get("id");
+        }
+        throw new IllegalArgumentException("No attribute of " + model.getName() + " matches the record component " + name);
+    }
+
+    private static boolean hasAttribute(EntityType<?> model, String name) {
+        return model.getAttributes().stream().anyMatch(attribute -> attribute.getName().equals(name));
+    }
+
+    private <T> long count(Class<T> domainClass, Specification<T> specification) {
+        return entityManager.createQuery(countQuery(domainClass, specification)).getSingleResult();
+    }
+
+    private <T, P extends Record> CriteriaQuery<P> selectQuery(
+        Class<T> domainClass,
+        Specification<T> specification,
+        Sort sort,
+        Class<P> projectionClass
+    ) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<P> query = cb.createQuery(projectionClass);
+        Root<T> root = query.from(domainClass);
+        Predicate predicate = specification.toPredicate(root, query, cb);
+        if (predicate != null) {
+            query.where(predicate);
+        }
+        query.select(select(cb, root, projectionClass));
+        if (sort.isSorted()) {
+            query.orderBy(QueryUtils.toOrders(sort, root, cb));
+        }
+        return query;
+    }
+
+    private <T> CriteriaQuery<Long> countQuery(Class<T> domainClass, Specification<T> specification) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<Long> query = cb.createQuery(Long.class);
+        Root<T> root = query.from(domainClass);
+        Predicate predicate = specification.toPredicate(root, query, cb);
+        if (predicate != null) {
+            query.where(predicate);
+        }
+        query.select(query.isDistinct() ? cb.countDistinct(root) : cb.count(root));
+        query.orderBy(List.of());
+        return query;
+    }
+
+    private <P> Page<P> getPage(TypedQuery<P> typedQuery, Pageable pageable, LongSupplier count) {
+        if (pageable.isPaged()) {
+            typedQuery.setFirstResult(Math.toIntExact(pageable.getOffset())).setMaxResults(pageable.getPageSize());
+        }
+        return PageableExecutionUtils.getPage(typedQuery.getResultList(), pageable, count);
+    }
+
+    /**
+     * Create a query from the criteria query kept for the key, built on first use, and bind the values of the plan.
+     * The kept criteria queries are shared by the threads, and are not modified once built.
+     */
+    @SuppressWarnings("unchecked")
+    private <R> TypedQuery<R> createQuery(PlanKey key, CriteriaPlan<?> plan, Function<PlanKey, CriteriaQuery<R>> build) {
+        CriteriaQuery<R> query = (CriteriaQuery<R>) plans.get(key, build);
+        TypedQuery<R> typedQuery = entityManager.createQuery(query);
+        // Hibernate caches the SQL translation of a criteria query only on demand, keyed by the query instance
+        typedQuery.unwrap(Query.class).setQueryPlanCacheable(true);
+        plan.getParameters().forEach((name, value) -> typedQuery.setParameter(name, value));
+        return typedQuery;
+    }
+
+    private record PlanKey(Class<?> domainClass, Class<?> resultClass, String shape, Sort sort) {}
+}
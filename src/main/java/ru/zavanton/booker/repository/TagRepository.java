@@ -1,6 +1,8 @@
 package ru.zavanton.booker.repository;
 
+import java.util.Optional;
 import org.springframework.data.jpa.repository.*;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 import ru.zavanton.booker.domain.TagEntity;
 
@@ -9,4 +11,7 @@ import ru.zavanton.booker.domain.TagEntity;
  */
 @SuppressWarnings("unused")
 @Repository
-public interface TagRepository extends JpaRepository<TagEntity, Long>, JpaSpecificationExecutor<TagEntity> {}
+public interface TagRepository extends JpaRepository<TagEntity, Long>, JpaSpecificationExecutor<TagEntity> {
+    @Query("select tag.version from TagEntity tag where tag.id = :id")
+    Optional<Long> findVersionById(@Param("id") Long id);
+}
@@ -0,0 +1,10 @@
+package ru.zavanton.booker.repository;
+
+import java.util.List;
+
+/**
+ * Projection of the validators of a set of entities, read without loading them: their number, the sums of their
+ * identifiers and optimistic locking versions, and the sums of the columns which are maintained without incrementing
+ * the version, such as counters and aggregates.
+ */
+public record VersionProjection(long count, long idSum, long versionSum, List<Object> derivedSums) {}
@@ -1,6 +1,7 @@
 package ru.zavanton.booker.service;
 
 import jakarta.persistence.criteria.JoinType;
+import java.util.List;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.data.domain.Page;
@@ -11,14 +12,22 @@ import org.springframework.transaction.annotation.Transactional;
 import ru.zavanton.booker.domain.*; // for static metamodels
 import ru.zavanton.booker.domain.AuthorEntity;
 import ru.zavanton.booker.repository.AuthorRepository;
+import ru.zavanton.booker.repository.AuthorSummaryProjection;
+import ru.zavanton.booker.repository.SpecificationProjectionRepository;
+import ru.zavanton.booker.repository.VersionProjection;
 import ru.zavanton.booker.service.criteria.AuthorCriteria;
+import ru.zavanton.booker.service.dto.AuthorDto;
+import ru.zavanton.booker.service.mapper.AuthorMapper;
+import ru.zavanton.booker.service.pagination.CursorPage;
+import ru.zavanton.booker.service.pagination.KeysetPaginator;
 import tech.jhipster.service.QueryService;
 
 /**
  * Service for executing complex queries for {@link AuthorEntity} entities in the database.
  * The main input is a {@link AuthorCriteria} which gets converted to {@link Specification},
  * in a way that all the filters must apply.
- * It returns a {@link Page} of {@link AuthorEntity} which fulfills the criteria.
+ * It returns a {@link Page} of {@link AuthorDto} which fulfills the criteria, read with the {@link AuthorSummaryProjection},
+ * so that the {@code biography} is not loaded for lists.
  */
 @Service
 @Transactional(readOnly = true)
@@ -28,21 +37,89 @@ public class AuthorQueryService extends QueryService<AuthorEntity> {
 
     private final AuthorRepository authorRepository;
 
-    public AuthorQueryService(AuthorRepository authorRepository) {
+    private final SpecificationProjectionRepository specificationProjectionRepository;
+
+    private final KeysetPaginator keysetPaginator;
+
+    private final AuthorMapper authorMapper;
+
+    public AuthorQueryService(
+        AuthorRepository authorRepository,
+        SpecificationProjectionRepository specificationProjectionRepository,
+        KeysetPaginator keysetPaginator,
+        AuthorMapper authorMapper
+    ) {
         this.authorRepository = authorRepository;
+        this.specificationProjectionRepository = specificationProjectionRepository;
+        this.keysetPaginator = keysetPaginator;
+        this.authorMapper = authorMapper;
     }
 
     /**
-     * Return a {@link Page} of {@link AuthorEntity} which matches the criteria from the database.
+     * Return a {@link Page} of {@link AuthorDto} which matches the criteria from the database.
      * @param criteria The object which holds all the filters, which the entities should match.
      * @param page The page, which should be returned.
      * @return the matching entities.
      */
     @Transactional(readOnly = true)
-    public Page<AuthorEntity> findByCriteria(AuthorCriteria criteria, Pageable page) {
+    public Page<AuthorDto> findByCriteria(AuthorCriteria criteria, Pageable page) {
         LOG.debug("find by criteria : {}, page: {}", criteria, page);
         final Specification<AuthorEntity> specification = createSpecification(criteria);
-        return authorRepository.findAll(specification, page);
+        return specificationProjectionRepository
+            .findAll(AuthorEntity.class, specification, page, AuthorSummaryProjection.class)
+            .map(authorMapper::toDto);
+    }
+
+    /**
+     * Return a {@link Page} of {@link AuthorDto} which matches the criteria from the database, whose total is the number of
+     * entities of the validators read by {@link #findVersionByCriteria}, rather than counted again.
+     * @param criteria The object which holds all the filters, which the entities should match.
+     * @param page The page, which should be returned.
+     * @param version The validators of the matching entities.
+     * @return the matching entities.
+     */
+    @Transactional(readOnly = true)
+    public Page<AuthorDto> findByCriteria(AuthorCriteria criteria, Pageable page, VersionProjection version) {
+        LOG.debug("find by criteria : {}, page: {}", criteria, page);
+        final Specification<AuthorEntity> specification = createSpecification(criteria);
+        return specificationProjectionRepository
+            .findAll(AuthorEntity.class, specification, page, AuthorSummaryProjection.class, version::count)
+            .map(authorMapper::toDto);
+    }
+
+    /**
+     * Return a {@link CursorPage} of {@link AuthorDto} which matches the criteria from the database, using keyset pagination.
+     * @param criteria The object which holds all the filters, which the entities should match.
+     * @param cursor The cursor of the previous page, or an empty value for the first page.
+     * @param page The size and the sort of the page, the page number is ignored.
+     * @return the matching entities.
+     */
+    @Transactional(readOnly = true)
+    public CursorPage<AuthorDto> findByCriteria(AuthorCriteria criteria, String cursor, Pageable page) {
+        LOG.debug("find by criteria : {}, cursor: {}, page: {}", criteria, cursor, page);
+        final Specification<AuthorEntity> specification = createSpecification(criteria);
+        return keysetPaginator.findAll(AuthorEntity.class, specification, cursor, page, AuthorSummaryProjection.class).map(authorMapper::toDto);
+    }
+
+    /**
+     * Return the validators of the matching entities: their number and the sums of their ids and versions.
+     * @param criteria The object which holds all the filters, which the entities should match.
+     * @return the validators of the matching entities.
+     */
+    @Transactional(readOnly = true)
+    public VersionProjection findVersionByCriteria(AuthorCriteria criteria) {
+        LOG.debug("find version by criteria : {}", criteria);
+        return findVersion(createSpecification(criteria));
+    }
+
+    private VersionProjection findVersion(Specification<AuthorEntity> specification) {
+        return specificationProjectionRepository.findVersion(
+            AuthorEntity.class,
+            specification,
+            AuthorEntity_.id,
+            AuthorEntity_.version,
+            List.of()
+        );
     }
 
     /**
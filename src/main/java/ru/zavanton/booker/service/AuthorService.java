@@ -3,10 +3,14 @@ package ru.zavanton.booker.service;
 import java.util.Optional;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.dao.OptimisticLockingFailureException;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 import ru.zavanton.booker.domain.AuthorEntity;
 import ru.zavanton.booker.repository.AuthorRepository;
+import ru.zavanton.booker.service.dto.AuthorDto;
+import ru.zavanton.booker.service.mapper.AuthorMapper;
+import ru.zavanton.booker.service.search.BookSearchService;
 
 /**
  * Service Implementation for managing {@link ru.zavanton.booker.domain.AuthorEntity}.
@@ -19,8 +23,14 @@ public class AuthorService {
 
     private final AuthorRepository authorRepository;
 
-    public AuthorService(AuthorRepository authorRepository) {
+    private final AuthorMapper authorMapper;
+
+    private final BookSearchService bookSearchService;
+
+    public AuthorService(AuthorRepository authorRepository, AuthorMapper authorMapper, BookSearchService bookSearchService) {
         this.authorRepository = authorRepository;
+        this.authorMapper = authorMapper;
+        this.bookSearchService = bookSearchService;
     }
 
     /**
@@ -42,7 +52,13 @@ public class AuthorService {
      */
     public AuthorEntity update(AuthorEntity authorEntity) {
         LOG.debug("Request to update Author : {}", authorEntity);
-        return authorRepository.save(authorEntity);
+        if (authorEntity.getVersion() == null) {
+            // Without an expected version, the update overwrites the current one
+            authorRepository.findById(authorEntity.getId()).map(AuthorEntity::getVersion).ifPresent(authorEntity::setVersion);
+        }
+        AuthorEntity result = authorRepository.save(authorEntity);
+        bookSearchService.authorChanged(result.getId());
+        return result;
     }
 
     /**
@@ -57,6 +73,9 @@ public class AuthorService {
         return authorRepository
             .findById(authorEntity.getId())
             .map(existingAuthor -> {
+                if (authorEntity.getVersion() != null && !authorEntity.getVersion().equals(existingAuthor.getVersion())) {
+                    throw new OptimisticLockingFailureException("Author was updated since version " + authorEntity.getVersion());
+                }
                 if (authorEntity.getFirstName() != null) {
                     existingAuthor.setFirstName(authorEntity.getFirstName());
                 }
@@ -87,6 +106,7 @@ public class AuthorService {
                 if (authorEntity.getUpdatedAt() != null) {
                     existingAuthor.setUpdatedAt(authorEntity.getUpdatedAt());
                 }
+                bookSearchService.authorChanged(existingAuthor.getId());
 
                 return existingAuthor;
             })
@@ -100,9 +120,9 @@ public class AuthorService {
      * @return the entity.
      */
     @Transactional(readOnly = true)
-    public Optional<AuthorEntity> findOne(Long id) {
+    public Optional<AuthorDto> findOne(Long id) {
         LOG.debug("Request to get Author : {}", id);
-        return authorRepository.findById(id);
+        return authorRepository.findById(id).map(authorMapper::toDto);
     }
 
     /**
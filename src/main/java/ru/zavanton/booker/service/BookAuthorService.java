@@ -3,10 +3,13 @@ package ru.zavanton.booker.service;
 import java.util.Optional;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.dao.OptimisticLockingFailureException;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 import ru.zavanton.booker.domain.BookAuthorEntity;
+import ru.zavanton.booker.domain.BookEntity;
 import ru.zavanton.booker.repository.BookAuthorRepository;
+import ru.zavanton.booker.service.search.BookSearchService;
 
 /**
  * Service Implementation for managing {@link ru.zavanton.booker.domain.BookAuthorEntity}.
@@ -19,8 +22,11 @@ public class BookAuthorService {
 
     private final BookAuthorRepository bookAuthorRepository;
 
-    public BookAuthorService(BookAuthorRepository bookAuthorRepository) {
+    private final BookSearchService bookSearchService;
+
+    public BookAuthorService(BookAuthorRepository bookAuthorRepository, BookSearchService bookSearchService) {
         this.bookAuthorRepository = bookAuthorRepository;
+        this.bookSearchService = bookSearchService;
     }
 
     /**
@@ -31,7 +37,9 @@ public class BookAuthorService {
      */
     public BookAuthorEntity save(BookAuthorEntity bookAuthorEntity) {
         LOG.debug("Request to save BookAuthor : {}", bookAuthorEntity);
-        return bookAuthorRepository.save(bookAuthorEntity);
+        BookAuthorEntity result = bookAuthorRepository.save(bookAuthorEntity);
+        bookSearchService.bookChanged(bookId(result));
+        return result;
     }
 
     /**
@@ -42,7 +50,17 @@ public class BookAuthorService {
      */
     public BookAuthorEntity update(BookAuthorEntity bookAuthorEntity) {
         LOG.debug("Request to update BookAuthor : {}", bookAuthorEntity);
-        return bookAuthorRepository.save(bookAuthorEntity);
+        if (bookAuthorEntity.getVersion() == null) {
+            // Without an expected version, the update overwrites the current one
+            bookAuthorRepository
+                .findById(bookAuthorEntity.getId())
+                .map(BookAuthorEntity::getVersion)
+                .ifPresent(bookAuthorEntity::setVersion);
+        }
+        bookAuthorRepository.findById(bookAuthorEntity.getId()).map(BookAuthorService::bookId).ifPresent(bookSearchService::bookChanged);
+        BookAuthorEntity result = bookAuthorRepository.save(bookAuthorEntity);
+        bookSearchService.bookChanged(bookId(result));
+        return result;
     }
 
     /**
@@ -57,6 +75,9 @@ public class BookAuthorService {
         return bookAuthorRepository
             .findById(bookAuthorEntity.getId())
             .map(existingBookAuthor -> {
+                if (bookAuthorEntity.getVersion() != null && !bookAuthorEntity.getVersion().equals(existingBookAuthor.getVersion())) {
+                    throw new OptimisticLockingFailureException("BookAuthor was updated since version " + bookAuthorEntity.getVersion());
+                }
                 if (bookAuthorEntity.getIsPrimary() != null) {
                     existingBookAuthor.setIsPrimary(bookAuthorEntity.getIsPrimary());
                 }
@@ -88,6 +109,16 @@ public class BookAuthorService {
      */
     public void delete(Long id) {
         LOG.debug("Request to delete BookAuthor : {}", id);
-        bookAuthorRepository.deleteById(id);
+        bookAuthorRepository
+            .findById(id)
+            .ifPresent(bookAuthor -> {
+                bookSearchService.bookChanged(bookId(bookAuthor));
+                bookAuthorRepository.delete(bookAuthor);
+            });
+    }
+
+    private static Long bookId(BookAuthorEntity bookAuthorEntity) {
+        BookEntity book = bookAuthorEntity.getBook();
+        return book != null ? book.getId() : null;
     }
 }
@@ -12,6 +12,8 @@ import ru.zavanton.booker.domain.*; // for static metamodels
 import ru.zavanton.booker.domain.BookCollectionEntity;
 import ru.zavanton.booker.repository.BookCollectionRepository;
 import ru.zavanton.booker.service.criteria.BookCollectionCriteria;
+import ru.zavanton.booker.service.pagination.CursorPage;
+import ru.zavanton.booker.service.pagination.KeysetPaginator;
 import tech.jhipster.service.QueryService;
 
 /**
@@ -28,8 +30,11 @@ public class BookCollectionQueryService extends QueryService<BookCollectionEntit
 
     private final BookCollectionRepository bookCollectionRepository;
 
-    public BookCollectionQueryService(BookCollectionRepository bookCollectionRepository) {
+    private final KeysetPaginator keysetPaginator;
+
+    public BookCollectionQueryService(BookCollectionRepository bookCollectionRepository, KeysetPaginator keysetPaginator) {
         this.bookCollectionRepository = bookCollectionRepository;
+        this.keysetPaginator = keysetPaginator;
     }
 
     /**
@@ -45,6 +50,20 @@ public class BookCollectionQueryService extends QueryService<BookCollectionEntit
         return bookCollectionRepository.findAll(specification, page);
     }
 
+    /**
+     * Return a {@link CursorPage} of {@link BookCollectionEntity} which matches the criteria from the database, using keyset pagination.
+     * @param criteria The object which holds all the filters, which the entities should match.
+     * @param cursor The cursor of the previous page, or an empty value for the first page.
+     * @param page The size and the sort of the page, the page number is ignored.
+     * @return the matching entities.
+     */
+    @Transactional(readOnly = true)
+    public CursorPage<BookCollectionEntity> findByCriteria(BookCollectionCriteria criteria, String cursor, Pageable page) {
+        LOG.debug("find by criteria : {}, cursor: {}, page: {}", criteria, cursor, page);
+        final Specification<BookCollectionEntity> specification = createSpecification(criteria);
+        return keysetPaginator.findAll(BookCollectionEntity.class, specification, cursor, page);
+    }
+
     /**
      * Return the number of matching entities in the database.
      * @param criteria The object which holds all the filters, which the entities should match.
@@ -3,10 +3,14 @@ package ru.zavanton.booker.service;
 import java.util.Optional;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.dao.OptimisticLockingFailureException;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 import ru.zavanton.booker.domain.BookCollectionEntity;
+import ru.zavanton.booker.domain.CollectionEntity;
 import ru.zavanton.booker.repository.BookCollectionRepository;
+import ru.zavanton.booker.service.aggregation.Counter;
+import ru.zavanton.booker.service.aggregation.CounterService;
 
 /**
  * Service Implementation for managing {@link ru.zavanton.booker.domain.BookCollectionEntity}.
@@ -19,8 +23,11 @@ public class BookCollectionService {
 
     private final BookCollectionRepository bookCollectionRepository;
 
-    public BookCollectionService(BookCollectionRepository bookCollectionRepository) {
+    private final CounterService counterService;
+
+    public BookCollectionService(BookCollectionRepository bookCollectionRepository, CounterService counterService) {
         this.bookCollectionRepository = bookCollectionRepository;
+        this.counterService = counterService;
     }
 
     /**
@@ -31,7 +38,9 @@ public class BookCollectionService {
      */
     public BookCollectionEntity save(BookCollectionEntity bookCollectionEntity) {
         LOG.debug("Request to save BookCollection : {}", bookCollectionEntity);
-        return bookCollectionRepository.save(bookCollectionEntity);
+        BookCollectionEntity result = bookCollectionRepository.save(bookCollectionEntity);
+        counterService.increment(Counter.COLLECTION_BOOK_COUNT, collectionId(result));
+        return result;
     }
 
     /**
@@ -42,7 +51,20 @@ public class BookCollectionService {
      */
     public BookCollectionEntity update(BookCollectionEntity bookCollectionEntity) {
         LOG.debug("Request to update BookCollection : {}", bookCollectionEntity);
-        return bookCollectionRepository.save(bookCollectionEntity);
+        if (bookCollectionEntity.getVersion() == null) {
+            // Without an expected version, the update overwrites the current one
+            bookCollectionRepository
+                .findById(bookCollectionEntity.getId())
+                .map(BookCollectionEntity::getVersion)
+                .ifPresent(bookCollectionEntity::setVersion);
+        }
+        Long previousCollectionId = bookCollectionRepository
+            .findById(bookCollectionEntity.getId())
+            .map(BookCollectionService::collectionId)
+            .orElse(null);
+        BookCollectionEntity result = bookCollectionRepository.save(bookCollectionEntity);
+        counterService.move(Counter.COLLECTION_BOOK_COUNT, previousCollectionId, collectionId(result));
+        return result;
     }
 
     /**
@@ -57,6 +79,14 @@ public class BookCollectionService {
         return bookCollectionRepository
             .findById(bookCollectionEntity.getId())
             .map(existingBookCollection -> {
+                if (
+                    bookCollectionEntity.getVersion() != null &&
+                    !bookCollectionEntity.getVersion().equals(existingBookCollection.getVersion())
+                ) {
+                    throw new OptimisticLockingFailureException(
+                        "BookCollection was updated since version " + bookCollectionEntity.getVersion()
+                    );
+                }
                 if (bookCollectionEntity.getPosition() != null) {
                     existingBookCollection.setPosition(bookCollectionEntity.getPosition());
                 }
@@ -88,6 +118,16 @@ public class BookCollectionService {
      */
     public void delete(Long id) {
         LOG.debug("Request to delete BookCollection : {}", id);
-        bookCollectionRepository.deleteById(id);
+        bookCollectionRepository
+            .findById(id)
+            .ifPresent(bookCollection -> {
+                counterService.decrement(Counter.COLLECTION_BOOK_COUNT, collectionId(bookCollection));
+                bookCollectionRepository.delete(bookCollection);
+            });
+    }
+
+    private static Long collectionId(BookCollectionEntity bookCollectionEntity) {
+        CollectionEntity collection = bookCollectionEntity.getCollection();
+        return collection != null ? collection.getId() : null;
     }
 }
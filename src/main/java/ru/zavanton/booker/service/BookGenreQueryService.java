@@ -12,6 +12,8 @@ import ru.zavanton.booker.domain.*; // for static metamodels
 import ru.zavanton.booker.domain.BookGenreEntity;
 import ru.zavanton.booker.repository.BookGenreRepository;
 import ru.zavanton.booker.service.criteria.BookGenreCriteria;
+import ru.zavanton.booker.service.pagination.CursorPage;
+import ru.zavanton.booker.service.pagination.KeysetPaginator;
 import tech.jhipster.service.QueryService;
 
 /**
@@ -28,8 +30,11 @@ public class BookGenreQueryService extends QueryService<BookGenreEntity> {
 
     private final BookGenreRepository bookGenreRepository;
 
-    public BookGenreQueryService(BookGenreRepository bookGenreRepository) {
+    private final KeysetPaginator keysetPaginator;
+
+    public BookGenreQueryService(BookGenreRepository bookGenreRepository, KeysetPaginator keysetPaginator) {
         this.bookGenreRepository = bookGenreRepository;
+        this.keysetPaginator = keysetPaginator;
     }
 
     /**
@@ -45,6 +50,20 @@ public class BookGenreQueryService extends QueryService<BookGenreEntity> {
         return bookGenreRepository.findAll(specification, page);
     }
 
+    /**
+     * Return a {@link CursorPage} of {@link BookGenreEntity} which matches the criteria from the database, using keyset pagination.
+     * @param criteria The object which holds all the filters, which the entities should match.
+     * @param cursor The cursor of the previous page, or an empty value for the first page.
+     * @param page The size and the sort of the page, the page number is ignored.
+     * @return the matching entities.
+     */
+    @Transactional(readOnly = true)
+    public CursorPage<BookGenreEntity> findByCriteria(BookGenreCriteria criteria, String cursor, Pageable page) {
+        LOG.debug("find by criteria : {}, cursor: {}, page: {}", criteria, cursor, page);
+        final Specification<BookGenreEntity> specification = createSpecification(criteria);
+        return keysetPaginator.findAll(BookGenreEntity.class, specification, cursor, page);
+    }
+
     /**
      * Return the number of matching entities in the database.
      * @param criteria The object which holds all the filters, which the entities should match.
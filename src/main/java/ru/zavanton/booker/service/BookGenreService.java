@@ -3,10 +3,13 @@ package ru.zavanton.booker.service;
 import java.util.Optional;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.dao.OptimisticLockingFailureException;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import ru.zavanton.booker.domain.BookEntity;
 import ru.zavanton.booker.domain.BookGenreEntity;
 import ru.zavanton.booker.repository.BookGenreRepository;
+import ru.zavanton.booker.service.search.BookSearchService;
 
 /**
  * Service Implementation for managing {@link ru.zavanton.booker.domain.BookGenreEntity}.
@@ -19,8 +22,11 @@ public class BookGenreService {
 
     private final BookGenreRepository bookGenreRepository;
 
-    public BookGenreService(BookGenreRepository bookGenreRepository) {
+    private final BookSearchService bookSearchService;
+
+    public BookGenreService(BookGenreRepository bookGenreRepository, BookSearchService bookSearchService) {
         this.bookGenreRepository = bookGenreRepository;
+        this.bookSearchService = bookSearchService;
     }
 
     /**
@@ -31,7 +37,9 @@ public class BookGenreService {
      */
     public BookGenreEntity save(BookGenreEntity bookGenreEntity) {
         LOG.debug("Request to save BookGenre : {}", bookGenreEntity);
-        return bookGenreRepository.save(bookGenreEntity);
+        BookGenreEntity result = bookGenreRepository.save(bookGenreEntity);
+        bookSearchService.bookChanged(bookId(result));
+        return result;
     }
 
     /**
@@ -42,7 +50,14 @@ public class BookGenreService {
      */
     public BookGenreEntity update(BookGenreEntity bookGenreEntity) {
         LOG.debug("Request to update BookGenre : {}", bookGenreEntity);
-        return bookGenreRepository.save(bookGenreEntity);
+        if (bookGenreEntity.getVersion() == null) {
+            // Without an expected version, the update overwrites the current one
+            bookGenreRepository.findById(bookGenreEntity.getId()).map(BookGenreEntity::getVersion).ifPresent(bookGenreEntity::setVersion);
+        }
+        bookGenreRepository.findById(bookGenreEntity.getId()).map(BookGenreService::bookId).ifPresent(bookSearchService::bookChanged);
+        BookGenreEntity result = bookGenreRepository.save(bookGenreEntity);
+        bookSearchService.bookChanged(bookId(result));
+        return result;
     }
 
     /**
@@ -54,7 +69,16 @@ public class BookGenreService {
     public Optional<BookGenreEntity> partialUpdate(BookGenreEntity bookGenreEntity) {
         LOG.debug("Request to partially update BookGenre : {}", bookGenreEntity);
 
-        return bookGenreRepository.findById(bookGenreEntity.getId()).map(bookGenreRepository::save);
+        return bookGenreRepository
+            .findById(bookGenreEntity.getId())
+            .map(existingBookGenre -> {
+                if (bookGenreEntity.getVersion() != null && !bookGenreEntity.getVersion().equals(existingBookGenre.getVersion())) {
+                    throw new OptimisticLockingFailureException("BookGenre was updated since version " + bookGenreEntity.getVersion());
+                }
+
+                return existingBookGenre;
+            })
+            .map(bookGenreRepository::save);
     }
 
     /**
@@ -76,6 +100,16 @@ public class BookGenreService {
      */
     public void delete(Long id) {
         LOG.debug("Request to delete BookGenre : {}", id);
-        bookGenreRepository.deleteById(id);
+        bookGenreRepository
+            .findById(id)
+            .ifPresent(bookGenre -> {
+                bookSearchService.bookChanged(bookId(bookGenre));
+                bookGenreRepository.delete(bookGenre);
+            });
+    }
+
+    private static Long bookId(BookGenreEntity bookGenreEntity) {
+        BookEntity book = bookGenreEntity.getBook();
+        return book != null ? book.getId() : null;
     }
 }
@@ -1,24 +1,49 @@
 package ru.zavanton.booker.service;
 
+import jakarta.persistence.criteria.Join;
 import jakarta.persistence.criteria.JoinType;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Stream;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
 import org.springframework.data.jpa.domain.Specification;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
 import ru.zavanton.booker.domain.*; // for static metamodels
 import ru.zavanton.booker.domain.BookEntity;
-import ru.zavanton.booker.repository.BookRepository;
+import ru.zavanton.booker.repository.BookExportProjection;
+import ru.zavanton.booker.repository.BookSummaryProjection;
+import ru.zavanton.booker.repository.CriteriaPlan;
+import ru.zavanton.booker.repository.SpecificationProjectionRepository;
+import ru.zavanton.booker.repository.VersionProjection;
 import ru.zavanton.booker.service.criteria.BookCriteria;
+import ru.zavanton.booker.service.dto.BookDto;
+import ru.zavanton.booker.service.dto.BookFacetsDto;
+import ru.zavanton.booker.service.dto.FacetCountDto;
+import ru.zavanton.booker.service.mapper.BookMapper;
+import ru.zavanton.booker.service.pagination.CursorPage;
+import ru.zavanton.booker.service.pagination.KeysetPaginator;
 import tech.jhipster.service.QueryService;
 
 /**
  * Service for executing complex queries for {@link BookEntity} entities in the database.
  * The main input is a {@link BookCriteria} which gets converted to {@link Specification},
  * in a way that all the filters must apply.
- * It returns a {@link Page} of {@link BookEntity} which fulfills the criteria.
+ * It returns a {@link Page} of {@link BookDto} which fulfills the criteria, read with the {@link BookSummaryProjection},
+ * so that the {@code description} is not loaded for lists.
+ * The filters of the to-many relationships are {@code exists} subqueries rather than joins, so that they do not
+ * multiply the rows which the page, the count and the validators then have to make distinct again.
+ * The page and count queries are built once per shape of the criteria, as a {@link CriteriaPlan}, and then only bind
+ * the values of the filters.
  */
 @Service
 @Transactional(readOnly = true)
@@ -26,23 +51,110 @@ public class BookQueryService extends QueryService<BookEntity> {
 
     private static final Logger LOG = LoggerFactory.getLogger(BookQueryService.class);
 
-    private final BookRepository bookRepository;
+    private static final Comparator<FacetCountDto> BY_COUNT = Comparator.comparingLong(FacetCountDto::getCount)
+        .reversed()
+        .thenComparing(FacetCountDto::getValue, Comparator.nullsLast(Comparator.naturalOrder()));
 
-    public BookQueryService(BookRepository bookRepository) {
-        this.bookRepository = bookRepository;
+    private final SpecificationProjectionRepository specificationProjectionRepository;
+
+    private final KeysetPaginator keysetPaginator;
+
+    private final BookMapper bookMapper;
+
+    public BookQueryService(
+        SpecificationProjectionRepository specificationProjectionRepository,
+        KeysetPaginator keysetPaginator,
+        BookMapper bookMapper
+    ) {
+        this.specificationProjectionRepository = specificationProjectionRepository;
+        this.keysetPaginator = keysetPaginator;
+        this.bookMapper = bookMapper;
     }
 
     /**
-     * Return a {@link Page} of {@link BookEntity} which matches the criteria from the database.
+     * Return a {@link Page} of {@link BookDto} which matches the criteria from the database.
      * @param criteria The object which holds all the filters, which the entities should match.
      * @param page The page, which should be returned.
      * @return the matching entities.
      */
     @Transactional(readOnly = true)
-    public Page<BookEntity> findByCriteria(BookCriteria criteria, Pageable page) {
+    public Page<BookDto> findByCriteria(BookCriteria criteria, Pageable page) {
         LOG.debug("find by criteria : {}, page: {}", criteria, page);
+        final CriteriaPlan<BookEntity> plan = createPlan(criteria);
+        return specificationProjectionRepository.findAll(BookEntity.class, plan, page, BookSummaryProjection.class).map(bookMapper::toDto);
+    }
+
+    /**
+     * Return a {@link Page} of {@link BookDto} which matches the criteria from the database, whose total is the number of
+     * entities of the validators read by {@link #findVersionByCriteria}, rather than counted again.
+     * @param criteria The object which holds all the filters, which the entities should match.
+     * @param page The page, which should be returned.
+     * @param version The validators of the matching entities.
+     * @return the matching entities.
+     */
+    @Transactional(readOnly = true)
+    public Page<BookDto> findByCriteria(BookCriteria criteria, Pageable page, VersionProjection version) {
+        LOG.debug("find by criteria : {}, page: {}", criteria, page);
+        final CriteriaPlan<BookEntity> plan = createPlan(criteria);
+        return specificationProjectionRepository
+            .findAll(BookEntity.class, plan, page, BookSummaryProjection.class, version::count)
+            .map(bookMapper::toDto);
+    }
+
+    /**
+     * Return a {@link CursorPage} of {@link BookDto} which matches the criteria from the database, using keyset pagination.
+     * @param criteria The object which holds all the filters, which the entities should match.
+     * @param cursor The cursor of the previous page, or an empty value for the first page.
+     * @param page The size and the sort of the page, the page number is ignored.
+     * @return the matching entities.
+     */
+    @Transactional(readOnly = true)
+    public CursorPage<BookDto> findByCriteria(BookCriteria criteria, String cursor, Pageable page) {
+        LOG.debug("find by criteria : {}, cursor: {}, page: {}", criteria, cursor, page);
+        final Specification<BookEntity> specification = createSpecification(criteria);
+        return keysetPaginator.findAll(BookEntity.class, specification, cursor, page, BookSummaryProjection.class).map(bookMapper::toDto);
+    }
+
+    /**
+     * Return a {@link Stream} of {@link BookExportProjection} which matches the criteria from the database, ordered by id.
+     * The stream is read through a database cursor, so it must be consumed and closed within the transaction of the caller.
+     * @param criteria The object which holds all the filters, which the entities should match.
+     * @param fetchSize The number of rows fetched from the database at a time.
+     * @return the matching entities.
+     */
+    @Transactional(readOnly = true, propagation = Propagation.MANDATORY)
+    public Stream<BookExportProjection> streamByCriteria(BookCriteria criteria, int fetchSize) {
+        LOG.debug("stream by criteria : {}, fetch size: {}", criteria, fetchSize);
         final Specification<BookEntity> specification = createSpecification(criteria);
-        return bookRepository.findAll(specification, page);
+        return specificationProjectionRepository.stream(
+            BookEntity.class,
+            specification,
+            Sort.by(BookEntity_.ID),
+            BookExportProjection.class,
+            fetchSize
+        );
+    }
+
+    /**
+     * Return the validators of the matching entities: their number, the sums of their ids and versions,
+     * and the sums of their rating and review counters, which are maintained without incrementing the version.
+     * @param criteria The object which holds all the filters, which the entities should match.
+     * @return the validators of the matching entities.
+     */
+    @Transactional(readOnly = true)
+    public VersionProjection findVersionByCriteria(BookCriteria criteria) {
+        LOG.debug("find version by criteria : {}", criteria);
+        return findVersion(createSpecification(criteria));
+    }
+
+    private VersionProjection findVersion(Specification<BookEntity> specification) {
+        return specificationProjectionRepository.findVersion(
+            BookEntity.class,
+            specification,
+            BookEntity_.id,
+            BookEntity_.version,
+            List.of(BookEntity_.averageRating, BookEntity_.totalRatings, BookEntity_.totalReviews)
+        );
     }
 
     /**
@@ -53,8 +165,71 @@ public class BookQueryService extends QueryService<BookEntity> {
     @Transactional(readOnly = true)
     public long countByCriteria(BookCriteria criteria) {
         LOG.debug("count by criteria : {}", criteria);
+        final CriteriaPlan<BookEntity> plan = createPlan(criteria);
+        return specificationProjectionRepository.count(BookEntity.class, plan);
+    }
+
+    /**
+     * Return the number of matching entities having each genre, language, publisher and publication decade.
+     * <p>
+     * The genres are counted by one aggregate query, and the other facets by another one grouped by all of them,
+     * instead of a count query per facet value. Books without a value for a facet are not counted in it.
+     * @param criteria The object which holds all the filters, which the entities should match.
+     * @return the facets of the matching entities.
+     */
+    @Transactional(readOnly = true)
+    public BookFacetsDto findFacets(BookCriteria criteria) {
+        LOG.debug("find facets by criteria : {}", criteria);
         final Specification<BookEntity> specification = createSpecification(criteria);
-        return bookRepository.count(specification);
+        Map<String, Long> languages = new HashMap<>();
+        Map<Long, FacetCountDto> publishers = new HashMap<>();
+        Map<Integer, Long> decades = new HashMap<>();
+        specificationProjectionRepository
+            .countGroupedBy(BookEntity.class, specification, (cb, root) -> {
+                Join<BookEntity, PublisherEntity> publisher = root.join(BookEntity_.publisher, JoinType.LEFT);
+                return List.of(
+                    root.get(BookEntity_.language),
+                    publisher.get(PublisherEntity_.id),
+                    publisher.get(PublisherEntity_.name),
+                    cb.function("year", Integer.class, root.get(BookEntity_.publicationDate))
+                );
+            })
+            .forEach(row -> {
+                long count = (Long) row[4];
+                if (row[0] != null) {
+                    languages.merge((String) row[0], count, Long::sum);
+                }
+                if (row[1] != null) {
+                    FacetCountDto facet = publishers.computeIfAbsent((Long) row[1], id -> new FacetCountDto(id, (String) row[2], 0));
+                    facet.setCount(facet.getCount() + count);
+                }
+                if (row[3] != null) {
+                    int year = ((Number) row[3]).intValue();
+                    decades.merge(year - Math.floorMod(year, 10), count, Long::sum);
+                }
+            });
+        List<FacetCountDto> genres = new ArrayList<>();
+        specificationProjectionRepository
+            .countGroupedBy(BookEntity.class, specification, (cb, root) -> {
+                Join<BookGenreEntity, GenreEntity> genre = root.join(BookEntity_.bookGenres).join(BookGenreEntity_.genre);
+                return List.of(genre.get(GenreEntity_.id), genre.get(GenreEntity_.name));
+            })
+            .forEach(row -> genres.add(new FacetCountDto((Long) row[0], (String) row[1], (Long) row[2])));
+
+        BookFacetsDto facets = new BookFacetsDto();
+        facets.setGenres(sorted(genres));
+        facets.setLanguages(sorted(languages.entrySet().stream().map(e -> new FacetCountDto(null, e.getKey(), e.getValue())).toList()));
+        facets.setPublishers(sorted(publishers.values()));
+        facets.setDecades(
+            sorted(decades.entrySet().stream().map(e -> new FacetCountDto(null, String.valueOf(e.getKey()), e.getValue())).toList())
+        );
+        return facets;
+    }
+
+    private static List<FacetCountDto> sorted(Collection<FacetCountDto> facets) {
+        List<FacetCountDto> sorted = new ArrayList<>(facets);
+        sorted.sort(BY_COUNT);
+        return sorted;
     }
 
     /**
@@ -63,101 +238,62 @@ public class BookQueryService extends QueryService<BookEntity> {
      * @return the matching {@link Specification} of the entity.
      */
     protected Specification<BookEntity> createSpecification(BookCriteria criteria) {
-        Specification<BookEntity> specification = Specification.where(null);
-        if (criteria != null) {
-            // This has to be called first, because the distinct method returns null
-            if (criteria.getDistinct() != null) {
-                specification = specification.and(distinct(criteria.getDistinct()));
-            }
-            if (criteria.getId() != null) {
-                specification = specification.and(buildRangeSpecification(criteria.getId(), BookEntity_.id));
-            }
-            if (criteria.getIsbn() != null) {
-                specification = specification.and(buildStringSpecification(criteria.getIsbn(), BookEntity_.isbn));
-            }
-            if (criteria.getTitle() != null) {
-                specification = specification.and(buildStringSpecification(criteria.getTitle(), BookEntity_.title));
-            }
-            if (criteria.getCoverImageUrl() != null) {
-                specification = specification.and(buildStringSpecification(criteria.getCoverImageUrl(), BookEntity_.coverImageUrl));
-            }
-            if (criteria.getPageCount() != null) {
-                specification = specification.and(buildRangeSpecification(criteria.getPageCount(), BookEntity_.pageCount));
-            }
-            if (criteria.getPublicationDate() != null) {
-                specification = specification.and(buildRangeSpecification(criteria.getPublicationDate(), BookEntity_.publicationDate));
-            }
-            if (criteria.getLanguage() != null) {
-                specification = specification.and(buildStringSpecification(criteria.getLanguage(), BookEntity_.language));
-            }
-            if (criteria.getAverageRating() != null) {
-                specification = specification.and(buildRangeSpecification(criteria.getAverageRating(), BookEntity_.averageRating));
-            }
-            if (criteria.getTotalRatings() != null) {
-                specification = specification.and(buildRangeSpecification(criteria.getTotalRatings(), BookEntity_.totalRatings));
-            }
-            if (criteria.getTotalReviews() != null) {
-                specification = specification.and(buildRangeSpecification(criteria.getTotalReviews(), BookEntity_.totalReviews));
-            }
-            if (criteria.getCreatedAt() != null) {
-                specification = specification.and(buildRangeSpecification(criteria.getCreatedAt(), BookEntity_.createdAt));
-            }
-            if (criteria.getUpdatedAt() != null) {
-                specification = specification.and(buildRangeSpecification(criteria.getUpdatedAt(), BookEntity_.updatedAt));
-            }
-            if (criteria.getReviewId() != null) {
-                specification = specification.and(
-                    buildSpecification(criteria.getReviewId(), root -> root.join(BookEntity_.reviews, JoinType.LEFT).get(ReviewEntity_.id))
-                );
-            }
-            if (criteria.getRatingId() != null) {
-                specification = specification.and(
-                    buildSpecification(criteria.getRatingId(), root -> root.join(BookEntity_.ratings, JoinType.LEFT).get(RatingEntity_.id))
-                );
-            }
-            if (criteria.getReadingStatusId() != null) {
-                specification = specification.and(
-                    buildSpecification(criteria.getReadingStatusId(), root ->
-                        root.join(BookEntity_.readingStatuses, JoinType.LEFT).get(ReadingStatusEntity_.id)
-                    )
-                );
-            }
-            if (criteria.getBookAuthorId() != null) {
-                specification = specification.and(
-                    buildSpecification(criteria.getBookAuthorId(), root ->
-                        root.join(BookEntity_.bookAuthors, JoinType.LEFT).get(BookAuthorEntity_.id)
-                    )
-                );
-            }
-            if (criteria.getBookGenreId() != null) {
-                specification = specification.and(
-                    buildSpecification(criteria.getBookGenreId(), root ->
-                        root.join(BookEntity_.bookGenres, JoinType.LEFT).get(BookGenreEntity_.id)
-                    )
-                );
-            }
-            if (criteria.getBookTagId() != null) {
-                specification = specification.and(
-                    buildSpecification(criteria.getBookTagId(), root ->
-                        root.join(BookEntity_.bookTags, JoinType.LEFT).get(BookTagEntity_.id)
-                    )
-                );
-            }
-            if (criteria.getBookCollectionId() != null) {
-                specification = specification.and(
-                    buildSpecification(criteria.getBookCollectionId(), root ->
-                        root.join(BookEntity_.bookCollections, JoinType.LEFT).get(BookCollectionEntity_.id)
-                    )
-                );
-            }
-            if (criteria.getPublisherId() != null) {
-                specification = specification.and(
-                    buildSpecification(criteria.getPublisherId(), root ->
-                        root.join(BookEntity_.publisher, JoinType.LEFT).get(PublisherEntity_.id)
-                    )
-                );
-            }
+        return createPlan(criteria).getSpecification();
+    }
+
+    /**
+     * Function to convert {@link BookCriteria} to a {@link CriteriaPlan}, whose criteria query is built once per shape
+     * by the {@link SpecificationProjectionRepository}.
+     * @param criteria The object which holds all the filters, which the entities should match.
+     * @return the matching {@link CriteriaPlan} of the entity.
+     */
+    protected CriteriaPlan<BookEntity> createPlan(BookCriteria criteria) {
+        CriteriaPlan<BookEntity> plan = new CriteriaPlan<>();
+        if (criteria == null) {
+            return plan;
+        }
+        // This has to be called first, because the distinct method returns null
+        if (criteria.getDistinct() != null) {
+            plan.distinct(criteria.getDistinct());
         }
-        return specification;
+        plan
+            .rangeFilter("id", criteria.getId(), root -> root.get(BookEntity_.id))
+            .stringFilter("isbn", criteria.getIsbn(), root -> root.get(BookEntity_.isbn))
+            .stringFilter("title", criteria.getTitle(), root -> root.get(BookEntity_.title))
+            .stringFilter("coverImageUrl", criteria.getCoverImageUrl(), root -> root.get(BookEntity_.coverImageUrl))
+            .rangeFilter("pageCount", criteria.getPageCount(), root -> root.get(BookEntity_.pageCount))
+            .rangeFilter("publicationDate", criteria.getPublicationDate(), root -> root.get(BookEntity_.publicationDate))
+            .rangeFilter("averageRating", criteria.getAverageRating(), root -> root.get(BookEntity_.averageRating))
+            .rangeFilter("totalRatings", criteria.getTotalRatings(), root -> root.get(BookEntity_.totalRatings))
+            .rangeFilter("totalReviews", criteria.getTotalReviews(), root -> root.get(BookEntity_.totalReviews))
+            .rangeFilter("createdAt", criteria.getCreatedAt(), root -> root.get(BookEntity_.createdAt))
+            .rangeFilter("updatedAt", criteria.getUpdatedAt(), root -> root.get(BookEntity_.updatedAt))
+            .semijoinFilter("reviewId", criteria.getReviewId(), root -> root.join(BookEntity_.reviews).get(ReviewEntity_.id))
+            .semijoinFilter("ratingId", criteria.getRatingId(), root -> root.join(BookEntity_.ratings).get(RatingEntity_.id))
+            .semijoinFilter("readingStatusId", criteria.getReadingStatusId(), root ->
+                root.join(BookEntity_.readingStatuses).get(ReadingStatusEntity_.id)
+            )
+            .semijoinFilter("bookAuthorId", criteria.getBookAuthorId(), root ->
+                root.join(BookEntity_.bookAuthors).get(BookAuthorEntity_.id)
+            )
+            .semijoinFilter("bookGenreId", criteria.getBookGenreId(), root -> root.join(BookEntity_.bookGenres).get(BookGenreEntity_.id))
+            .semijoinFilter("bookTagId", criteria.getBookTagId(), root -> root.join(BookEntity_.bookTags).get(BookTagEntity_.id))
+            .semijoinFilter("bookCollectionId", criteria.getBookCollectionId(), root ->
+                root.join(BookEntity_.bookCollections).get(BookCollectionEntity_.id)
+            )
+            .stringFilter("language", criteria.getLanguage(), root -> root.get(BookEntity_.language))
+            .filter("publisherId", criteria.getPublisherId(), root ->
+                root.join(BookEntity_.publisher, JoinType.LEFT).get(PublisherEntity_.id)
+            )
+            .semijoinFilter("authorId", criteria.getAuthorId(), root ->
+                root.join(BookEntity_.bookAuthors).join(BookAuthorEntity_.author).get(AuthorEntity_.id)
+            )
+            .semijoinFilter("genreId", criteria.getGenreId(), root ->
+                root.join(BookEntity_.bookGenres).join(BookGenreEntity_.genre).get(GenreEntity_.id)
+            )
+            .semijoinFilter("tagId", criteria.getTagId(), root ->
+                root.join(BookEntity_.bookTags).join(BookTagEntity_.tag).get(TagEntity_.id)
+            );
+        return plan;
     }
 }
@@ -1,12 +1,32 @@
 package ru.zavanton.booker.service;
 
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.function.Function;
+import java.util.stream.Collectors;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.dao.OptimisticLockingFailureException;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import ru.zavanton.booker.domain.BookAuthorEntity;
 import ru.zavanton.booker.domain.BookEntity;
+import ru.zavanton.booker.domain.BookGenreEntity;
+import ru.zavanton.booker.domain.BookTagEntity;
+import ru.zavanton.booker.domain.GenreEntity;
+import ru.zavanton.booker.domain.TagEntity;
+import ru.zavanton.booker.repository.BookAuthorRepository;
+import ru.zavanton.booker.repository.BookGenreRepository;
 import ru.zavanton.booker.repository.BookRepository;
+import ru.zavanton.booker.repository.BookTagRepository;
+import ru.zavanton.booker.service.dto.BookDto;
+import ru.zavanton.booker.service.dto.BookFullDto;
+import ru.zavanton.booker.service.dto.ScoredBookDto;
+import ru.zavanton.booker.service.mapper.BookMapper;
+import ru.zavanton.booker.service.search.BookSearchService;
 
 /**
  * Service Implementation for managing {@link ru.zavanton.booker.domain.BookEntity}.
@@ -17,10 +37,39 @@ public class BookService {
 
     private static final Logger LOG = LoggerFactory.getLogger(BookService.class);
 
+    private static final Comparator<BookAuthorEntity> AUTHOR_ORDER = Comparator.comparing(
+        (BookAuthorEntity bookAuthor) -> Boolean.TRUE.equals(bookAuthor.getIsPrimary())
+    )
+        .reversed()
+        .thenComparing(BookAuthorEntity::getOrder, Comparator.nullsLast(Comparator.naturalOrder()))
+        .thenComparing(BookAuthorEntity::getId);
+
     private final BookRepository bookRepository;
 
-    public BookService(BookRepository bookRepository) {
+    private final BookAuthorRepository bookAuthorRepository;
+
+    private final BookGenreRepository bookGenreRepository;
+
+    private final BookTagRepository bookTagRepository;
+
+    private final BookMapper bookMapper;
+
+    private final BookSearchService bookSearchService;
+
+    public BookService(
+        BookRepository bookRepository,
+        BookAuthorRepository bookAuthorRepository,
+        BookGenreRepository bookGenreRepository,
+        BookTagRepository bookTagRepository,
+        BookMapper bookMapper,
+        BookSearchService bookSearchService
+    ) {
         this.bookRepository = bookRepository;
+        this.bookAuthorRepository = bookAuthorRepository;
+        this.bookGenreRepository = bookGenreRepository;
+        this.bookTagRepository = bookTagRepository;
+        this.bookMapper = bookMapper;
+        this.bookSearchService = bookSearchService;
     }
 
     /**
@@ -31,7 +80,9 @@ public class BookService {
      */
     public BookEntity save(BookEntity bookEntity) {
         LOG.debug("Request to save Book : {}", bookEntity);
-        return bookRepository.save(bookEntity);
+        BookEntity result = bookRepository.save(bookEntity);
+        bookSearchService.bookChanged(result.getId());
+        return result;
     }
 
     /**
@@ -42,7 +93,21 @@ public class BookService {
      */
     public BookEntity update(BookEntity bookEntity) {
         LOG.debug("Request to update Book : {}", bookEntity);
-        return bookRepository.save(bookEntity);
+        bookRepository
+            .findById(bookEntity.getId())
+            .ifPresent(current -> {
+                if (bookEntity.getVersion() == null) {
+                    // Without an expected version, the update applies to the current one
+                    bookEntity.setVersion(current.getVersion());
+                }
+                // The counters are not editable: the current ones are kept and returned
+                bookEntity.setAverageRating(current.getAverageRating());
+                bookEntity.setTotalRatings(current.getTotalRatings());
+                bookEntity.setTotalReviews(current.getTotalReviews());
+            });
+        BookEntity result = bookRepository.save(bookEntity);
+        bookSearchService.bookChanged(result.getId());
+        return result;
     }
 
     /**
@@ -57,6 +122,9 @@ public class BookService {
         return bookRepository
             .findById(bookEntity.getId())
             .map(existingBook -> {
+                if (bookEntity.getVersion() != null && !bookEntity.getVersion().equals(existingBook.getVersion())) {
+                    throw new OptimisticLockingFailureException("Book was updated since version " + bookEntity.getVersion());
+                }
                 if (bookEntity.getIsbn() != null) {
                     existingBook.setIsbn(bookEntity.getIsbn());
                 }
@@ -78,21 +146,13 @@ public class BookService {
                 if (bookEntity.getLanguage() != null) {
                     existingBook.setLanguage(bookEntity.getLanguage());
                 }
-                if (bookEntity.getAverageRating() != null) {
-                    existingBook.setAverageRating(bookEntity.getAverageRating());
-                }
-                if (bookEntity.getTotalRatings() != null) {
-                    existingBook.setTotalRatings(bookEntity.getTotalRatings());
-                }
-                if (bookEntity.getTotalReviews() != null) {
-                    existingBook.setTotalReviews(bookEntity.getTotalReviews());
-                }
                 if (bookEntity.getCreatedAt() != null) {
                     existingBook.setCreatedAt(bookEntity.getCreatedAt());
                 }
                 if (bookEntity.getUpdatedAt() != null) {
                     existingBook.setUpdatedAt(bookEntity.getUpdatedAt());
                 }
+                bookSearchService.bookChanged(existingBook.getId());
 
                 return existingBook;
             })
@@ -106,9 +166,78 @@ public class BookService {
      * @return the entity.
      */
     @Transactional(readOnly = true)
-    public Optional<BookEntity> findOne(Long id) {
+    public Optional<BookDto> findOne(Long id) {
         LOG.debug("Request to get Book : {}", id);
-        return bookRepository.findById(id);
+        return bookRepository.findById(id).map(bookMapper::toDto);
+    }
+
+    /**
+     * Get one book by id, with its publisher, authors, genres and tags.
+     * <p>
+     * The book and its publisher are fetched with one query, then each kind of link with its target with one query,
+     * whatever the number of links. The authors come primary first, then by their order.
+     *
+     * @param id the id of the entity.
+     * @return the book with its relationships.
+     */
+    @Transactional(readOnly = true)
+    public Optional<BookFullDto> findFull(Long id) {
+        LOG.debug("Request to get full Book : {}", id);
+        return bookRepository
+            .findOneWithPublisherById(id)
+            .map(book -> {
+                BookFullDto bookFullDto = bookMapper.toFullDto(book);
+                bookFullDto.setAuthors(
+                    bookAuthorRepository.findAllWithAuthorByBookId(id).stream().sorted(AUTHOR_ORDER).map(bookMapper::toDto).toList()
+                );
+                bookFullDto.setGenres(
+                    bookGenreRepository
+                        .findAllWithGenreByBookId(id)
+                        .stream()
+                        .map(BookGenreEntity::getGenre)
+                        .sorted(Comparator.comparing(GenreEntity::getName))
+                        .map(bookMapper::toDto)
+                        .toList()
+                );
+                bookFullDto.setTags(
+                    bookTagRepository
+                        .findAllWithTagByBookId(id)
+                        .stream()
+                        .map(BookTagEntity::getTag)
+                        .sorted(Comparator.comparing(TagEntity::getName))
+                        .map(bookMapper::toDto)
+                        .toList()
+                );
+                return bookFullDto;
+            });
+    }
+
+    /**
+     * Get books by id with their scores, in the iteration order of the scores; the ids of missing books are skipped.
+     *
+     * @param scores the scores by book id.
+     * @return the books with their scores.
+     */
+    @Transactional(readOnly = true)
+    public List<ScoredBookDto> findAllScored(Map<Long, Double> scores) {
+        LOG.debug("Request to get scored Books : {}", scores.keySet());
+        if (scores.isEmpty()) {
+            return List.of();
+        }
+        Map<Long, BookEntity> books = bookRepository
+            .findAllById(scores.keySet())
+            .stream()
+            .collect(Collectors.toMap(BookEntity::getId, Function.identity()));
+        List<ScoredBookDto> result = new ArrayList<>(scores.size());
+        scores.forEach((id, score) -> {
+            BookEntity book = books.get(id);
+            if (book != null) {
+                ScoredBookDto scoredBookDto = bookMapper.toScoredDto(book);
+                scoredBookDto.setScore(score);
+                result.add(scoredBookDto);
+            }
+        });
+        return result;
     }
 
     /**
@@ -119,5 +248,6 @@ public class BookService {
     public void delete(Long id) {
         LOG.debug("Request to delete Book : {}", id);
         bookRepository.deleteById(id);
+        bookSearchService.bookChanged(id);
     }
 }
@@ -12,6 +12,8 @@ import ru.zavanton.booker.domain.*; // for static metamodels
 import ru.zavanton.booker.domain.BookTagEntity;
 import ru.zavanton.booker.repository.BookTagRepository;
 import ru.zavanton.booker.service.criteria.BookTagCriteria;
+import ru.zavanton.booker.service.pagination.CursorPage;
+import ru.zavanton.booker.service.pagination.KeysetPaginator;
 import tech.jhipster.service.QueryService;
 
 /**
@@ -28,8 +30,11 @@ public class BookTagQueryService extends QueryService<BookTagEntity> {
 
     private final BookTagRepository bookTagRepository;
 
-    public BookTagQueryService(BookTagRepository bookTagRepository) {
+    private final KeysetPaginator keysetPaginator;
+
+    public BookTagQueryService(BookTagRepository bookTagRepository, KeysetPaginator keysetPaginator) {
         this.bookTagRepository = bookTagRepository;
+        this.keysetPaginator = keysetPaginator;
     }
 
     /**
@@ -45,6 +50,20 @@ public class BookTagQueryService extends QueryService<BookTagEntity> {
         return bookTagRepository.findAll(specification, page);
     }
 
+    /**
+     * Return a {@link CursorPage} of {@link BookTagEntity} which matches the criteria from the database, using keyset pagination.
+     * @param criteria The object which holds all the filters, which the entities should match.
+     * @param cursor The cursor of the previous page, or an empty value for the first page.
+     * @param page The size and the sort of the page, the page number is ignored.
+     * @return the matching entities.
+     */
+    @Transactional(readOnly = true)
+    public CursorPage<BookTagEntity> findByCriteria(BookTagCriteria criteria, String cursor, Pageable page) {
+        LOG.debug("find by criteria : {}, cursor: {}, page: {}", criteria, cursor, page);
+        final Specification<BookTagEntity> specification = createSpecification(criteria);
+        return keysetPaginator.findAll(BookTagEntity.class, specification, cursor, page);
+    }
+
     /**
      * Return the number of matching entities in the database.
      * @param criteria The object which holds all the filters, which the entities should match.
@@ -3,10 +3,13 @@ package ru.zavanton.booker.service;
 import java.util.Optional;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.dao.OptimisticLockingFailureException;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import ru.zavanton.booker.domain.BookEntity;
 import ru.zavanton.booker.domain.BookTagEntity;
 import ru.zavanton.booker.repository.BookTagRepository;
+import ru.zavanton.booker.service.search.BookSearchService;
 
 /**
  * Service Implementation for managing {@link ru.zavanton.booker.domain.BookTagEntity}.
@@ -19,8 +22,11 @@ public class BookTagService {
 
     private final BookTagRepository bookTagRepository;
 
-    public BookTagService(BookTagRepository bookTagRepository) {
+    private final BookSearchService bookSearchService;
+
+    public BookTagService(BookTagRepository bookTagRepository, BookSearchService bookSearchService) {
         this.bookTagRepository = bookTagRepository;
+        this.bookSearchService = bookSearchService;
     }
 
     /**
@@ -31,7 +37,9 @@ public class BookTagService {
      */
     public BookTagEntity save(BookTagEntity bookTagEntity) {
         LOG.debug("Request to save BookTag : {}", bookTagEntity);
-        return bookTagRepository.save(bookTagEntity);
+        BookTagEntity result = bookTagRepository.save(bookTagEntity);
+        bookSearchService.bookChanged(bookId(result));
+        return result;
     }
 
     /**
@@ -42,7 +50,14 @@ public class BookTagService {
      */
     public BookTagEntity update(BookTagEntity bookTagEntity) {
         LOG.debug("Request to update BookTag : {}", bookTagEntity);
-        return bookTagRepository.save(bookTagEntity);
+        if (bookTagEntity.getVersion() == null) {
+            // Without an expected version, the update overwrites the current one
+            bookTagRepository.findById(bookTagEntity.getId()).map(BookTagEntity::getVersion).ifPresent(bookTagEntity::setVersion);
+        }
+        bookTagRepository.findById(bookTagEntity.getId()).map(BookTagService::bookId).ifPresent(bookSearchService::bookChanged);
+        BookTagEntity result = bookTagRepository.save(bookTagEntity);
+        bookSearchService.bookChanged(bookId(result));
+        return result;
     }
 
     /**
@@ -54,7 +69,16 @@ public class BookTagService {
     public Optional<BookTagEntity> partialUpdate(BookTagEntity bookTagEntity) {
         LOG.debug("Request to partially update BookTag : {}", bookTagEntity);
 
-        return bookTagRepository.findById(bookTagEntity.getId()).map(bookTagRepository::save);
+        return bookTagRepository
+            .findById(bookTagEntity.getId())
+            .map(existingBookTag -> {
+                if (bookTagEntity.getVersion() != null && !bookTagEntity.getVersion().equals(existingBookTag.getVersion())) {
+                    throw new OptimisticLockingFailureException("BookTag was updated since version " + bookTagEntity.getVersion());
+                }
+
+                return existingBookTag;
+            })
+            .map(bookTagRepository::save);
     }
 
     /**
@@ -76,6 +100,16 @@ public class BookTagService {
      */
     public void delete(Long id) {
         LOG.debug("Request to delete BookTag : {}", id);
-        bookTagRepository.deleteById(id);
+        bookTagRepository
+            .findById(id)
+            .ifPresent(bookTag -> {
+                bookSearchService.bookChanged(bookId(bookTag));
+                bookTagRepository.delete(bookTag);
+            });
+    }
+
+    private static Long bookId(BookTagEntity bookTagEntity) {
+        BookEntity book = bookTagEntity.getBook();
+        return book != null ? book.getId() : null;
     }
 }
@@ -1,6 +1,7 @@
 package ru.zavanton.booker.service;
 
 import jakarta.persistence.criteria.JoinType;
+import java.util.List;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.data.domain.Page;
@@ -11,14 +12,22 @@ import org.springframework.transaction.annotation.Transactional;
 import ru.zavanton.booker.domain.*; // for static metamodels
 import ru.zavanton.booker.domain.CollectionEntity;
 import ru.zavanton.booker.repository.CollectionRepository;
+import ru.zavanton.booker.repository.CollectionSummaryProjection;
+import ru.zavanton.booker.repository.SpecificationProjectionRepository;
+import ru.zavanton.booker.repository.VersionProjection;
 import ru.zavanton.booker.service.criteria.CollectionCriteria;
+import ru.zavanton.booker.service.dto.CollectionDto;
+import ru.zavanton.booker.service.mapper.CollectionMapper;
+import ru.zavanton.booker.service.pagination.CursorPage;
+import ru.zavanton.booker.service.pagination.KeysetPaginator;
 import tech.jhipster.service.QueryService;
 
 /**
  * Service for executing complex queries for {@link CollectionEntity} entities in the database.
  * The main input is a {@link CollectionCriteria} which gets converted to {@link Specification},
  * in a way that all the filters must apply.
- * It returns a {@link Page} of {@link CollectionEntity} which fulfills the criteria.
+ * It returns a {@link Page} of {@link CollectionDto} which fulfills the criteria, read with the {@link CollectionSummaryProjection},
+ * so that the {@code description} is not loaded for lists.
  */
 @Service
 @Transactional(readOnly = true)
@@ -28,21 +37,85 @@ public class CollectionQueryService extends QueryService<CollectionEntity> {
 
     private final CollectionRepository collectionRepository;
 
-    public CollectionQueryService(CollectionRepository collectionRepository) {
+    private final SpecificationProjectionRepository specificationProjectionRepository;
+
+    private final KeysetPaginator keysetPaginator;
+
+    private final CollectionMapper collectionMapper;
+
+    public CollectionQueryService(
+        CollectionRepository collectionRepository,
+        SpecificationProjectionRepository specificationProjectionRepository,
+        KeysetPaginator keysetPaginator,
+        CollectionMapper collectionMapper
+    ) {
         this.collectionRepository = collectionRepository;
+        this.specificationProjectionRepository = specificationProjectionRepository;
+        this.keysetPaginator = keysetPaginator;
+        this.collectionMapper = collectionMapper;
+    }
+
+    /**
+     * Return a {@link Page} of {@link CollectionDto} which matches the criteria from the database.
+     * @param criteria The object which holds all the filters, which the entities should match.
+     * @param page The page, which should be returned.
+     * @return the matching entities.
+     */
+    @Transactional(readOnly = true)
+    public Page<CollectionDto> findByCriteria(CollectionCriteria criteria, Pageable page) {
+        LOG.debug("find by criteria : {}, page: {}", criteria, page);
+        final Specification<CollectionEntity> specification = createSpecification(criteria);
+        return specificationProjectionRepository
+            .findAll(CollectionEntity.class, specification, page, CollectionSummaryProjection.class)
+            .map(collectionMapper::toDto);
     }
 
     /**
-     * Return a {@link Page} of {@link CollectionEntity} which matches the criteria from the database.
+     * Return a {@link Page} of {@link CollectionDto} which matches the criteria from the database, whose total is the number of
+     * entities of the validators read by {@link #findVersionByCriteria}, rather than counted again.
      * @param criteria The object which holds all the filters, which the entities should match.
      * @param page The page, which should be returned.
+     * @param version The validators of the matching entities.
      * @return the matching entities.
      */
     @Transactional(readOnly = true)
-    public Page<CollectionEntity> findByCriteria(CollectionCriteria criteria, Pageable page) {
+    public Page<CollectionDto> findByCriteria(CollectionCriteria criteria, Pageable page, VersionProjection version) {
         LOG.debug("find by criteria : {}, page: {}", criteria, page);
         final Specification<CollectionEntity> specification = createSpecification(criteria);
-        return collectionRepository.findAll(specification, page);
+        return specificationProjectionRepository
+            .findAll(CollectionEntity.class, specification, page, CollectionSummaryProjection.class, version::count)
+            .map(collectionMapper::toDto);
+    }
+
+    /**
+     * Return a {@link CursorPage} of {@link CollectionDto} which matches the criteria from the database, using keyset pagination.
+     * @param criteria The object which holds all the filters, which the entities should match.
+     * @param cursor The cursor of the previous page, or an empty value for the first page.
+     * @param page The size and the sort of the page, the page number is ignored.
+     * @return the matching entities.
+     */
+    @Transactional(readOnly = true)
+    public CursorPage<CollectionDto> findByCriteria(CollectionCriteria criteria, String cursor, Pageable page) {
+        LOG.debug("find by criteria : {}, cursor: {}, page: {}", criteria, cursor, page);
+        final Specification<CollectionEntity> specification = createSpecification(criteria);
+        return keysetPaginator.findAll(CollectionEntity.class, specification, cursor, page, CollectionSummaryProjection.class).map(collectionMapper::toDto);
+    }
+
+    /**
+     * Return the validators of the matching entities: their number and the sums of their ids and versions, and of their numbers of books.
+     * @param criteria The object which holds all the filters, which the entities should match.
+     * @return the validators of the matching entities.
+     */
+    @Transactional(readOnly = true)
+    public VersionProjection findVersionByCriteria(CollectionCriteria criteria) {
+        LOG.debug("find version by criteria : {}", criteria);
+        return specificationProjectionRepository.findVersion(
+            CollectionEntity.class,
+            createSpecification(criteria),
+            CollectionEntity_.id,
+            CollectionEntity_.version,
+            List.of(CollectionEntity_.bookCount)
+        );
     }
 
     /**
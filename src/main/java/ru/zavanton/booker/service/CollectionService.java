@@ -3,10 +3,13 @@ package ru.zavanton.booker.service;
 import java.util.Optional;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.dao.OptimisticLockingFailureException;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 import ru.zavanton.booker.domain.CollectionEntity;
 import ru.zavanton.booker.repository.CollectionRepository;
+import ru.zavanton.booker.service.dto.CollectionDto;
+import ru.zavanton.booker.service.mapper.CollectionMapper;
 
 /**
  * Service Implementation for managing {@link ru.zavanton.booker.domain.CollectionEntity}.
@@ -19,8 +22,11 @@ public class CollectionService {
 
     private final CollectionRepository collectionRepository;
 
-    public CollectionService(CollectionRepository collectionRepository) {
+    private final CollectionMapper collectionMapper;
+
+    public CollectionService(CollectionRepository collectionRepository, CollectionMapper collectionMapper) {
         this.collectionRepository = collectionRepository;
+        this.collectionMapper = collectionMapper;
     }
 
     /**
@@ -42,6 +48,16 @@ public class CollectionService {
      */
     public CollectionEntity update(CollectionEntity collectionEntity) {
         LOG.debug("Request to update Collection : {}", collectionEntity);
+        collectionRepository
+            .findById(collectionEntity.getId())
+            .ifPresent(current -> {
+                if (collectionEntity.getVersion() == null) {
+                    // Without an expected version, the update applies to the current one
+                    collectionEntity.setVersion(current.getVersion());
+                }
+                // The counter is not editable: the current one is kept and returned
+                collectionEntity.setBookCount(current.getBookCount());
+            });
         return collectionRepository.save(collectionEntity);
     }
 
@@ -57,6 +73,9 @@ public class CollectionService {
         return collectionRepository
             .findById(collectionEntity.getId())
             .map(existingCollection -> {
+                if (collectionEntity.getVersion() != null && !collectionEntity.getVersion().equals(existingCollection.getVersion())) {
+                    throw new OptimisticLockingFailureException("Collection was updated since version " + collectionEntity.getVersion());
+                }
                 if (collectionEntity.getName() != null) {
                     existingCollection.setName(collectionEntity.getName());
                 }
@@ -66,9 +85,6 @@ public class CollectionService {
                 if (collectionEntity.getIsPublic() != null) {
                     existingCollection.setIsPublic(collectionEntity.getIsPublic());
                 }
-                if (collectionEntity.getBookCount() != null) {
-                    existingCollection.setBookCount(collectionEntity.getBookCount());
-                }
                 if (collectionEntity.getCreatedAt() != null) {
                     existingCollection.setCreatedAt(collectionEntity.getCreatedAt());
                 }
@@ -88,9 +104,9 @@ public class CollectionService {
      * @return the entity.
      */
     @Transactional(readOnly = true)
-    public Optional<CollectionEntity> findOne(Long id) {
+    public Optional<CollectionDto> findOne(Long id) {
         LOG.debug("Request to get Collection : {}", id);
-        return collectionRepository.findById(id);
+        return collectionRepository.findById(id).map(collectionMapper::toDto);
     }
 
     /**
@@ -3,6 +3,7 @@ package ru.zavanton.booker.service;
 import java.util.Optional;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.dao.OptimisticLockingFailureException;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 import ru.zavanton.booker.domain.CommentEntity;
@@ -42,6 +43,10 @@ public class CommentService {
      */
     public CommentEntity update(CommentEntity commentEntity) {
         LOG.debug("Request to update Comment : {}", commentEntity);
+        if (commentEntity.getVersion() == null) {
+            // Without an expected version, the update overwrites the current one
+            commentRepository.findById(commentEntity.getId()).map(CommentEntity::getVersion).ifPresent(commentEntity::setVersion);
+        }
         return commentRepository.save(commentEntity);
     }
 
@@ -57,6 +62,9 @@ public class CommentService {
         return commentRepository
             .findById(commentEntity.getId())
             .map(existingComment -> {
+                if (commentEntity.getVersion() != null && !commentEntity.getVersion().equals(existingComment.getVersion())) {
+                    throw new OptimisticLockingFailureException("Comment was updated since version " + commentEntity.getVersion());
+                }
                 if (commentEntity.getContent() != null) {
                     existingComment.setContent(commentEntity.getContent());
                 }
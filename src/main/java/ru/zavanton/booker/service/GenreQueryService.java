@@ -1,6 +1,7 @@
 package ru.zavanton.booker.service;
 
 import jakarta.persistence.criteria.JoinType;
+import java.util.List;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.data.domain.Page;
@@ -11,14 +12,22 @@ import org.springframework.transaction.annotation.Transactional;
 import ru.zavanton.booker.domain.*; // for static metamodels
 import ru.zavanton.booker.domain.GenreEntity;
 import ru.zavanton.booker.repository.GenreRepository;
+import ru.zavanton.booker.repository.GenreSummaryProjection;
+import ru.zavanton.booker.repository.SpecificationProjectionRepository;
+import ru.zavanton.booker.repository.VersionProjection;
 import ru.zavanton.booker.service.criteria.GenreCriteria;
+import ru.zavanton.booker.service.dto.GenreDto;
+import ru.zavanton.booker.service.mapper.GenreMapper;
+import ru.zavanton.booker.service.pagination.CursorPage;
+import ru.zavanton.booker.service.pagination.KeysetPaginator;
 import tech.jhipster.service.QueryService;
 
 /**
  * Service for executing complex queries for {@link GenreEntity} entities in the database.
  * The main input is a {@link GenreCriteria} which gets converted to {@link Specification},
  * in a way that all the filters must apply.
- * It returns a {@link Page} of {@link GenreEntity} which fulfills the criteria.
+ * It returns a {@link Page} of {@link GenreDto} which fulfills the criteria, read with the {@link GenreSummaryProjection},
+ * so that the {@code description} is not loaded for lists.
  */
 @Service
 @Transactional(readOnly = true)
@@ -28,21 +37,85 @@ public class GenreQueryService extends QueryService<GenreEntity> {
 
     private final GenreRepository genreRepository;
 
-    public GenreQueryService(GenreRepository genreRepository) {
+    private final SpecificationProjectionRepository specificationProjectionRepository;
+
+    private final KeysetPaginator keysetPaginator;
+
+    private final GenreMapper genreMapper;
+
+    public GenreQueryService(
+        GenreRepository genreRepository,
+        SpecificationProjectionRepository specificationProjectionRepository,
+        KeysetPaginator keysetPaginator,
+        GenreMapper genreMapper
+    ) {
         this.genreRepository = genreRepository;
+        this.specificationProjectionRepository = specificationProjectionRepository;
+        this.keysetPaginator = keysetPaginator;
+        this.genreMapper = genreMapper;
+    }
+
+    /**
+     * Return a {@link Page} of {@link GenreDto} which matches the criteria from the database.
+     * @param criteria The object which holds all the filters, which the entities should match.
+     * @param page The page, which should be returned.
+     * @return the matching entities.
+     */
+    @Transactional(readOnly = true)
+    public Page<GenreDto> findByCriteria(GenreCriteria criteria, Pageable page) {
+        LOG.debug("find by criteria : {}, page: {}", criteria, page);
+        final Specification<GenreEntity> specification = createSpecification(criteria);
+        return specificationProjectionRepository
+            .findAll(GenreEntity.class, specification, page, GenreSummaryProjection.class)
+            .map(genreMapper::toDto);
     }
 
     /**
-     * Return a {@link Page} of {@link GenreEntity} which matches the criteria from the database.
+     * Return a {@link Page} of {@link GenreDto} which matches the criteria from the database, whose total is the number of
+     * entities of the validators read by {@link #findVersionByCriteria}, rather than counted again.
      * @param criteria The object which holds all the filters, which the entities should match.
      * @param page The page, which should be returned.
+     * @param version The validators of the matching entities.
      * @return the matching entities.
      */
     @Transactional(readOnly = true)
-    public Page<GenreEntity> findByCriteria(GenreCriteria criteria, Pageable page) {
+    public Page<GenreDto> findByCriteria(GenreCriteria criteria, Pageable page, VersionProjection version) {
         LOG.debug("find by criteria : {}, page: {}", criteria, page);
         final Specification<GenreEntity> specification = createSpecification(criteria);
-        return genreRepository.findAll(specification, page);
+        return specificationProjectionRepository
+            .findAll(GenreEntity.class, specification, page, GenreSummaryProjection.class, version::count)
+            .map(genreMapper::toDto);
+    }
+
+    /**
+     * Return a {@link CursorPage} of {@link GenreDto} which matches the criteria from the database, using keyset pagination.
+     * @param criteria The object which holds all the filters, which the entities should match.
+     * @param cursor The cursor of the previous page, or an empty value for the first page.
+     * @param page The size and the sort of the page, the page number is ignored.
+     * @return the matching entities.
+     */
+    @Transactional(readOnly = true)
+    public CursorPage<GenreDto> findByCriteria(GenreCriteria criteria, String cursor, Pageable page) {
+        LOG.debug("find by criteria : {}, cursor: {}, page: {}", criteria, cursor, page);
+        final Specification<GenreEntity> specification = createSpecification(criteria);
+        return keysetPaginator.findAll(GenreEntity.class, specification, cursor, page, GenreSummaryProjection.class).map(genreMapper::toDto);
+    }
+
+    /**
+     * Return the validators of the matching entities: their number and the sums of their ids and versions.
+     * @param criteria The object which holds all the filters, which the entities should match.
+     * @return the validators of the matching entities.
+     */
+    @Transactional(readOnly = true)
+    public VersionProjection findVersionByCriteria(GenreCriteria criteria) {
+        LOG.debug("find version by criteria : {}", criteria);
+        return specificationProjectionRepository.findVersion(
+            GenreEntity.class,
+            createSpecification(criteria),
+            GenreEntity_.id,
+            GenreEntity_.version,
+            List.of()
+        );
     }
 
     /**
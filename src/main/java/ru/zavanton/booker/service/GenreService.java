@@ -3,10 +3,14 @@ package ru.zavanton.booker.service;
 import java.util.Optional;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.dao.OptimisticLockingFailureException;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 import ru.zavanton.booker.domain.GenreEntity;
 import ru.zavanton.booker.repository.GenreRepository;
+import ru.zavanton.booker.service.dto.GenreDto;
+import ru.zavanton.booker.service.mapper.GenreMapper;
+import ru.zavanton.booker.service.search.BookSearchService;
 
 /**
  * Service Implementation for managing {@link ru.zavanton.booker.domain.GenreEntity}.
@@ -19,8 +23,14 @@ public class GenreService {
 
     private final GenreRepository genreRepository;
 
-    public GenreService(GenreRepository genreRepository) {
+    private final GenreMapper genreMapper;
+
+    private final BookSearchService bookSearchService;
+
+    public GenreService(GenreRepository genreRepository, GenreMapper genreMapper, BookSearchService bookSearchService) {
         this.genreRepository = genreRepository;
+        this.genreMapper = genreMapper;
+        this.bookSearchService = bookSearchService;
     }
 
     /**
@@ -42,7 +52,13 @@ public class GenreService {
      */
     public GenreEntity update(GenreEntity genreEntity) {
         LOG.debug("Request to update Genre : {}", genreEntity);
-        return genreRepository.save(genreEntity);
+        if (genreEntity.getVersion() == null) {
+            // Without an expected version, the update overwrites the current one
+            genreRepository.findById(genreEntity.getId()).map(GenreEntity::getVersion).ifPresent(genreEntity::setVersion);
+        }
+        GenreEntity result = genreRepository.save(genreEntity);
+        bookSearchService.genreChanged(result.getId());
+        return result;
     }
 
     /**
@@ -57,6 +73,9 @@ public class GenreService {
         return genreRepository
             .findById(genreEntity.getId())
             .map(existingGenre -> {
+                if (genreEntity.getVersion() != null && !genreEntity.getVersion().equals(existingGenre.getVersion())) {
+                    throw new OptimisticLockingFailureException("Genre was updated since version " + genreEntity.getVersion());
+                }
                 if (genreEntity.getName() != null) {
                     existingGenre.setName(genreEntity.getName());
                 }
@@ -72,6 +91,7 @@ public class GenreService {
                 if (genreEntity.getUpdatedAt() != null) {
                     existingGenre.setUpdatedAt(genreEntity.getUpdatedAt());
                 }
+                bookSearchService.genreChanged(existingGenre.getId());
 
                 return existingGenre;
             })
@@ -85,9 +105,9 @@ public class GenreService {
      * @return the entity.
      */
     @Transactional(readOnly = true)
-    public Optional<GenreEntity> findOne(Long id) {
+    public Optional<GenreDto> findOne(Long id) {
         LOG.debug("Request to get Genre : {}", id);
-        return genreRepository.findById(id);
+        return genreRepository.findById(id).map(genreMapper::toDto);
     }
 
     /**
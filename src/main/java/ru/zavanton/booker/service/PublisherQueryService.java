@@ -1,5 +1,6 @@
 package ru.zavanton.booker.service;
 
+import java.util.List;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.data.domain.Page;
@@ -10,7 +11,11 @@ import org.springframework.transaction.annotation.Transactional;
 import ru.zavanton.booker.domain.*; // for static metamodels
 import ru.zavanton.booker.domain.PublisherEntity;
 import ru.zavanton.booker.repository.PublisherRepository;
+import ru.zavanton.booker.repository.SpecificationProjectionRepository;
+import ru.zavanton.booker.repository.VersionProjection;
 import ru.zavanton.booker.service.criteria.PublisherCriteria;
+import ru.zavanton.booker.service.pagination.CursorPage;
+import ru.zavanton.booker.service.pagination.KeysetPaginator;
 import tech.jhipster.service.QueryService;
 
 /**
@@ -27,8 +32,18 @@ public class PublisherQueryService extends QueryService<PublisherEntity> {
 
     private final PublisherRepository publisherRepository;
 
-    public PublisherQueryService(PublisherRepository publisherRepository) {
+    private final SpecificationProjectionRepository specificationProjectionRepository;
+
+    private final KeysetPaginator keysetPaginator;
+
+    public PublisherQueryService(
+        PublisherRepository publisherRepository,
+        SpecificationProjectionRepository specificationProjectionRepository,
+        KeysetPaginator keysetPaginator
+    ) {
         this.publisherRepository = publisherRepository;
+        this.specificationProjectionRepository = specificationProjectionRepository;
+        this.keysetPaginator = keysetPaginator;
     }
 
     /**
@@ -44,6 +59,37 @@ public class PublisherQueryService extends QueryService<PublisherEntity> {
         return publisherRepository.findAll(specification, page);
     }
 
+    /**
+     * Return a {@link CursorPage} of {@link PublisherEntity} which matches the criteria from the database, using keyset pagination.
+     * @param criteria The object which holds all the filters, which the entities should match.
+     * @param cursor The cursor of the previous page, or an empty value for the first page.
+     * @param page The size and the sort of the page, the page number is ignored.
+     * @return the matching entities.
+     */
+    @Transactional(readOnly = true)
+    public CursorPage<PublisherEntity> findByCriteria(PublisherCriteria criteria, String cursor, Pageable page) {
+        LOG.debug("find by criteria : {}, cursor: {}, page: {}", criteria, cursor, page);
+        final Specification<PublisherEntity> specification = createSpecification(criteria);
+        return keysetPaginator.findAll(PublisherEntity.class, specification, cursor, page);
+    }
+
+    /**
+     * Return the validators of the matching entities: their number and the sums of their ids and versions.
+     * @param criteria The object which holds all the filters, which the entities should match.
+     * @return the validators of the matching entities.
+     */
+    @Transactional(readOnly = true)
+    public VersionProjection findVersionByCriteria(PublisherCriteria criteria) {
+        LOG.debug("find version by criteria : {}", criteria);
+        return specificationProjectionRepository.findVersion(
+            PublisherEntity.class,
+            createSpecification(criteria),
+            PublisherEntity_.id,
+            PublisherEntity_.version,
+            List.of()
+        );
+    }
+
     /**
      * Return the number of matching entities in the database.
      * @param criteria The object which holds all the filters, which the entities should match.
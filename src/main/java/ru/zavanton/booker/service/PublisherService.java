@@ -3,6 +3,7 @@ package ru.zavanton.booker.service;
 import java.util.Optional;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.dao.OptimisticLockingFailureException;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 import ru.zavanton.booker.domain.PublisherEntity;
@@ -42,6 +43,10 @@ public class PublisherService {
      */
     public PublisherEntity update(PublisherEntity publisherEntity) {
         LOG.debug("Request to update Publisher : {}", publisherEntity);
+        if (publisherEntity.getVersion() == null) {
+            // Without an expected version, the update overwrites the current one
+            publisherRepository.findById(publisherEntity.getId()).map(PublisherEntity::getVersion).ifPresent(publisherEntity::setVersion);
+        }
         return publisherRepository.save(publisherEntity);
     }
 
@@ -57,6 +62,9 @@ public class PublisherService {
         return publisherRepository
             .findById(publisherEntity.getId())
             .map(existingPublisher -> {
+                if (publisherEntity.getVersion() != null && !publisherEntity.getVersion().equals(existingPublisher.getVersion())) {
+                    throw new OptimisticLockingFailureException("Publisher was updated since version " + publisherEntity.getVersion());
+                }
                 if (publisherEntity.getName() != null) {
                     existingPublisher.setName(publisherEntity.getName());
                 }
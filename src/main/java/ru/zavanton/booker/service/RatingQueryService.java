@@ -12,6 +12,8 @@ import ru.zavanton.booker.domain.*; // for static metamodels
 import ru.zavanton.booker.domain.RatingEntity;
 import ru.zavanton.booker.repository.RatingRepository;
 import ru.zavanton.booker.service.criteria.RatingCriteria;
+import ru.zavanton.booker.service.pagination.CursorPage;
+import ru.zavanton.booker.service.pagination.KeysetPaginator;
 import tech.jhipster.service.QueryService;
 
 /**
@@ -28,8 +30,11 @@ public class RatingQueryService extends QueryService<RatingEntity> {
 
     private final RatingRepository ratingRepository;
 
-    public RatingQueryService(RatingRepository ratingRepository) {
+    private final KeysetPaginator keysetPaginator;
+
+    public RatingQueryService(RatingRepository ratingRepository, KeysetPaginator keysetPaginator) {
         this.ratingRepository = ratingRepository;
+        this.keysetPaginator = keysetPaginator;
     }
 
     /**
@@ -45,6 +50,20 @@ public class RatingQueryService extends QueryService<RatingEntity> {
         return ratingRepository.findAll(specification, page);
     }
 
+    /**
+     * Return a {@link CursorPage} of {@link RatingEntity} which matches the criteria from the database, using keyset pagination.
+     * @param criteria The object which holds all the filters, which the entities should match.
+     * @param cursor The cursor of the previous page, or an empty value for the first page.
+     * @param page The size and the sort of the page, the page number is ignored.
+     * @return the matching entities.
+     */
+    @Transactional(readOnly = true)
+    public CursorPage<RatingEntity> findByCriteria(RatingCriteria criteria, String cursor, Pageable page) {
+        LOG.debug("find by criteria : {}, cursor: {}, page: {}", criteria, cursor, page);
+        final Specification<RatingEntity> specification = createSpecification(criteria);
+        return keysetPaginator.findAll(RatingEntity.class, specification, cursor, page);
+    }
+
     /**
      * Return the number of matching entities in the database.
      * @param criteria The object which holds all the filters, which the entities should match.
@@ -1,12 +1,21 @@
 package ru.zavanton.booker.service;
 
+import java.time.Instant;
+import java.util.Objects;
 import java.util.Optional;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.dao.OptimisticLockingFailureException;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import ru.zavanton.booker.domain.BookEntity;
 import ru.zavanton.booker.domain.RatingEntity;
+import ru.zavanton.booker.domain.UserEntity;
 import ru.zavanton.booker.repository.RatingRepository;
+import ru.zavanton.booker.service.aggregation.RatingAggregationService;
+import ru.zavanton.booker.service.recommendation.RecommendationService;
+import ru.zavanton.booker.service.stats.ReadingStatsService;
+import ru.zavanton.booker.service.trending.TrendingService;
 
 /**
  * Service Implementation for managing {@link ru.zavanton.booker.domain.RatingEntity}.
@@ -19,8 +28,26 @@ public class RatingService {
 
     private final RatingRepository ratingRepository;
 
-    public RatingService(RatingRepository ratingRepository) {
+    private final RatingAggregationService ratingAggregationService;
+
+    private final TrendingService trendingService;
+
+    private final RecommendationService recommendationService;
+
+    private final ReadingStatsService readingStatsService;
+
+    public RatingService(
+        RatingRepository ratingRepository,
+        RatingAggregationService ratingAggregationService,
+        TrendingService trendingService,
+        RecommendationService recommendationService,
+        ReadingStatsService readingStatsService
+    ) {
         this.ratingRepository = ratingRepository;
+        this.ratingAggregationService = ratingAggregationService;
+        this.trendingService = trendingService;
+        this.recommendationService = recommendationService;
+        this.readingStatsService = readingStatsService;
     }
 
     /**
@@ -31,7 +58,12 @@ public class RatingService {
      */
     public RatingEntity save(RatingEntity ratingEntity) {
         LOG.debug("Request to save Rating : {}", ratingEntity);
-        return ratingRepository.save(ratingEntity);
+        RatingEntity result = ratingRepository.save(ratingEntity);
+        ratingAggregationService.ratingAdded(bookId(result));
+        trendingService.bookRated(bookId(result));
+        recommendationService.bookRated(userId(result), bookId(result), result.getRating());
+        readingStatsService.ratingAdded(userId(result), result.getCreatedAt(), result.getRating());
+        return result;
     }
 
     /**
@@ -42,7 +74,30 @@ public class RatingService {
      */
     public RatingEntity update(RatingEntity ratingEntity) {
         LOG.debug("Request to update Rating : {}", ratingEntity);
-        return ratingRepository.save(ratingEntity);
+        Optional<RatingEntity> existingRating = ratingRepository.findById(ratingEntity.getId());
+        if (ratingEntity.getVersion() == null) {
+            // Without an expected version, the update overwrites the current one
+            existingRating.map(RatingEntity::getVersion).ifPresent(ratingEntity::setVersion);
+        }
+        Long previousBookId = existingRating.map(RatingService::bookId).orElse(null);
+        Integer previousRating = existingRating.map(RatingEntity::getRating).orElse(null);
+        Long previousUserId = existingRating.map(RatingService::userId).orElse(null);
+        Instant previousCreatedAt = existingRating.map(RatingEntity::getCreatedAt).orElse(null);
+        existingRating.map(RatingService::userId).ifPresent(recommendationService::preferencesChanged);
+        RatingEntity result = ratingRepository.save(ratingEntity);
+        if (!Objects.equals(previousBookId, bookId(result)) || !Objects.equals(previousRating, result.getRating())) {
+            ratingAggregationService.ratingReplaced(previousBookId, bookId(result));
+        }
+        recommendationService.preferencesChanged(userId(result));
+        readingStatsService.ratingReplaced(
+            previousUserId,
+            previousCreatedAt,
+            previousRating,
+            userId(result),
+            result.getCreatedAt(),
+            result.getRating()
+        );
+        return result;
     }
 
     /**
@@ -57,7 +112,16 @@ public class RatingService {
         return ratingRepository
             .findById(ratingEntity.getId())
             .map(existingRating -> {
+                if (ratingEntity.getVersion() != null && !ratingEntity.getVersion().equals(existingRating.getVersion())) {
+                    throw new OptimisticLockingFailureException("Rating was updated since version " + ratingEntity.getVersion());
+                }
+                Instant previousCreatedAt = existingRating.getCreatedAt();
+                Integer previousRating = existingRating.getRating();
                 if (ratingEntity.getRating() != null) {
+                    if (!ratingEntity.getRating().equals(existingRating.getRating())) {
+                        ratingAggregationService.ratingReplaced(bookId(existingRating), bookId(existingRating));
+                    }
+                    recommendationService.preferencesChanged(userId(existingRating));
                     existingRating.setRating(ratingEntity.getRating());
                 }
                 if (ratingEntity.getCreatedAt() != null) {
@@ -66,6 +130,14 @@ public class RatingService {
                 if (ratingEntity.getUpdatedAt() != null) {
                     existingRating.setUpdatedAt(ratingEntity.getUpdatedAt());
                 }
+                readingStatsService.ratingReplaced(
+                    userId(existingRating),
+                    previousCreatedAt,
+                    previousRating,
+                    userId(existingRating),
+                    existingRating.getCreatedAt(),
+                    existingRating.getRating()
+                );
 
                 return existingRating;
             })
@@ -91,6 +163,23 @@ public class RatingService {
      */
     public void delete(Long id) {
         LOG.debug("Request to delete Rating : {}", id);
-        ratingRepository.deleteById(id);
+        ratingRepository
+            .findById(id)
+            .ifPresent(rating -> {
+                ratingAggregationService.ratingRemoved(bookId(rating));
+                recommendationService.preferencesChanged(userId(rating));
+                readingStatsService.ratingRemoved(userId(rating), rating.getCreatedAt(), rating.getRating());
+                ratingRepository.delete(rating);
+            });
+    }
+
+    private static Long bookId(RatingEntity ratingEntity) {
+        BookEntity book = ratingEntity.getBook();
+        return book != null ? book.getId() : null;
+    }
+
+    private static Long userId(RatingEntity ratingEntity) {
+        UserEntity user = ratingEntity.getUser();
+        return user != null ? user.getId() : null;
     }
 }
@@ -1,12 +1,21 @@
 package ru.zavanton.booker.service;
 
+import java.time.LocalDate;
+import java.util.Objects;
 import java.util.Optional;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.dao.OptimisticLockingFailureException;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import ru.zavanton.booker.domain.BookEntity;
 import ru.zavanton.booker.domain.ReadingStatusEntity;
+import ru.zavanton.booker.domain.UserEntity;
 import ru.zavanton.booker.repository.ReadingStatusRepository;
+import ru.zavanton.booker.service.aggregation.ReadingProgressService;
+import ru.zavanton.booker.service.recommendation.RecommendationService;
+import ru.zavanton.booker.service.stats.ReadingStatsService;
+import ru.zavanton.booker.service.trending.TrendingService;
 
 /**
  * Service Implementation for managing {@link ru.zavanton.booker.domain.ReadingStatusEntity}.
@@ -19,8 +28,26 @@ public class ReadingStatusService {
 
     private final ReadingStatusRepository readingStatusRepository;
 
-    public ReadingStatusService(ReadingStatusRepository readingStatusRepository) {
+    private final TrendingService trendingService;
+
+    private final RecommendationService recommendationService;
+
+    private final ReadingProgressService readingProgressService;
+
+    private final ReadingStatsService readingStatsService;
+
+    public ReadingStatusService(
+        ReadingStatusRepository readingStatusRepository,
+        TrendingService trendingService,
+        RecommendationService recommendationService,
+        ReadingProgressService readingProgressService,
+        ReadingStatsService readingStatsService
+    ) {
         this.readingStatusRepository = readingStatusRepository;
+        this.trendingService = trendingService;
+        this.recommendationService = recommendationService;
+        this.readingProgressService = readingProgressService;
+        this.readingStatsService = readingStatsService;
     }
 
     /**
@@ -31,7 +58,11 @@ public class ReadingStatusService {
      */
     public ReadingStatusEntity save(ReadingStatusEntity readingStatusEntity) {
         LOG.debug("Request to save ReadingStatus : {}", readingStatusEntity);
-        return readingStatusRepository.save(readingStatusEntity);
+        ReadingStatusEntity result = readingStatusRepository.save(readingStatusEntity);
+        trendingService.bookShelved(bookId(result));
+        recommendationService.bookShelved(userId(result), bookId(result));
+        readingStatsService.readingStatusAdded(userId(result), bookId(result), result.getFinishedDate());
+        return result;
     }
 
     /**
@@ -42,7 +73,31 @@ public class ReadingStatusService {
      */
     public ReadingStatusEntity update(ReadingStatusEntity readingStatusEntity) {
         LOG.debug("Request to update ReadingStatus : {}", readingStatusEntity);
-        return readingStatusRepository.save(readingStatusEntity);
+        Optional<ReadingStatusEntity> existingReadingStatus = readingStatusRepository.findById(readingStatusEntity.getId());
+        if (readingStatusEntity.getVersion() == null) {
+            // Without an expected version, the update overwrites the current one
+            existingReadingStatus.map(ReadingStatusEntity::getVersion).ifPresent(readingStatusEntity::setVersion);
+        }
+        String previousStatus = existingReadingStatus.map(ReadingStatusEntity::getStatus).orElse(null);
+        Long previousUserId = existingReadingStatus.map(ReadingStatusService::userId).orElse(null);
+        Long previousBookId = existingReadingStatus.map(ReadingStatusService::bookId).orElse(null);
+        LocalDate previousFinishedDate = existingReadingStatus.map(ReadingStatusEntity::getFinishedDate).orElse(null);
+        existingReadingStatus.map(ReadingStatusService::userId).ifPresent(recommendationService::preferencesChanged);
+        existingReadingStatus.ifPresent(existing -> readingProgressService.discard(userLogin(existing), bookId(existing)));
+        ReadingStatusEntity result = readingStatusRepository.save(readingStatusEntity);
+        recommendationService.preferencesChanged(userId(result));
+        readingStatsService.readingStatusReplaced(
+            previousUserId,
+            previousBookId,
+            previousFinishedDate,
+            userId(result),
+            bookId(result),
+            result.getFinishedDate()
+        );
+        if (!Objects.equals(previousStatus, result.getStatus())) {
+            trendingService.bookShelved(bookId(result));
+        }
+        return result;
     }
 
     /**
@@ -57,16 +112,36 @@ public class ReadingStatusService {
         return readingStatusRepository
             .findById(readingStatusEntity.getId())
             .map(existingReadingStatus -> {
+                if (
+                    readingStatusEntity.getVersion() != null &&
+                    !readingStatusEntity.getVersion().equals(existingReadingStatus.getVersion())
+                ) {
+                    throw new OptimisticLockingFailureException(
+                        "ReadingStatus was updated since version " + readingStatusEntity.getVersion()
+                    );
+                }
                 if (readingStatusEntity.getStatus() != null) {
+                    if (!readingStatusEntity.getStatus().equals(existingReadingStatus.getStatus())) {
+                        trendingService.bookShelved(bookId(existingReadingStatus));
+                    }
                     existingReadingStatus.setStatus(readingStatusEntity.getStatus());
                 }
                 if (readingStatusEntity.getStartedDate() != null) {
                     existingReadingStatus.setStartedDate(readingStatusEntity.getStartedDate());
                 }
                 if (readingStatusEntity.getFinishedDate() != null) {
+                    readingStatsService.readingStatusReplaced(
+                        userId(existingReadingStatus),
+                        bookId(existingReadingStatus),
+                        existingReadingStatus.getFinishedDate(),
+                        userId(existingReadingStatus),
+                        bookId(existingReadingStatus),
+                        readingStatusEntity.getFinishedDate()
+                    );
                     existingReadingStatus.setFinishedDate(readingStatusEntity.getFinishedDate());
                 }
                 if (readingStatusEntity.getCurrentPage() != null) {
+                    readingProgressService.discard(userLogin(existingReadingStatus), bookId(existingReadingStatus));
                     existingReadingStatus.setCurrentPage(readingStatusEntity.getCurrentPage());
                 }
                 if (readingStatusEntity.getCreatedAt() != null) {
@@ -82,7 +157,7 @@ public class ReadingStatusService {
     }
 
     /**
-     * Get one readingStatus by id.
+     * Get one readingStatus by id, with its pending current page if any.
      *
      * @param id the id of the entity.
      * @return the entity.
@@ -90,7 +165,7 @@ public class ReadingStatusService {
     @Transactional(readOnly = true)
     public Optional<ReadingStatusEntity> findOne(Long id) {
         LOG.debug("Request to get ReadingStatus : {}", id);
-        return readingStatusRepository.findById(id);
+        return readingStatusRepository.findById(id).map(readingProgressService::applyPending);
     }
 
     /**
@@ -100,6 +175,28 @@ public class ReadingStatusService {
      */
     public void delete(Long id) {
         LOG.debug("Request to delete ReadingStatus : {}", id);
-        readingStatusRepository.deleteById(id);
+        readingStatusRepository
+            .findById(id)
+            .ifPresent(readingStatus -> {
+                recommendationService.preferencesChanged(userId(readingStatus));
+                readingProgressService.discard(userLogin(readingStatus), bookId(readingStatus));
+                readingStatsService.readingStatusRemoved(userId(readingStatus), bookId(readingStatus), readingStatus.getFinishedDate());
+                readingStatusRepository.delete(readingStatus);
+            });
+    }
+
+    private static Long bookId(ReadingStatusEntity readingStatusEntity) {
+        BookEntity book = readingStatusEntity.getBook();
+        return book != null ? book.getId() : null;
+    }
+
+    private static String userLogin(ReadingStatusEntity readingStatusEntity) {
+        UserEntity user = readingStatusEntity.getUser();
+        return user != null ? user.getLogin() : null;
+    }
+
+    private static Long userId(ReadingStatusEntity readingStatusEntity) {
+        UserEntity user = readingStatusEntity.getUser();
+        return user != null ? user.getId() : null;
     }
 }
@@ -12,6 +12,8 @@ import ru.zavanton.booker.domain.*; // for static metamodels
 import ru.zavanton.booker.domain.ReviewEntity;
 import ru.zavanton.booker.repository.ReviewRepository;
 import ru.zavanton.booker.service.criteria.ReviewCriteria;
+import ru.zavanton.booker.service.pagination.CursorPage;
+import ru.zavanton.booker.service.pagination.KeysetPaginator;
 import tech.jhipster.service.QueryService;
 
 /**
@@ -28,8 +30,11 @@ public class ReviewQueryService extends QueryService<ReviewEntity> {
 
     private final ReviewRepository reviewRepository;
 
-    public ReviewQueryService(ReviewRepository reviewRepository) {
+    private final KeysetPaginator keysetPaginator;
+
+    public ReviewQueryService(ReviewRepository reviewRepository, KeysetPaginator keysetPaginator) {
         this.reviewRepository = reviewRepository;
+        this.keysetPaginator = keysetPaginator;
     }
 
     /**
@@ -45,6 +50,20 @@ public class ReviewQueryService extends QueryService<ReviewEntity> {
         return reviewRepository.findAll(specification, page);
     }
 
+    /**
+     * Return a {@link CursorPage} of {@link ReviewEntity} which matches the criteria from the database, using keyset pagination.
+     * @param criteria The object which holds all the filters, which the entities should match.
+     * @param cursor The cursor of the previous page, or an empty value for the first page.
+     * @param page The size and the sort of the page, the page number is ignored.
+     * @return the matching entities.
+     */
+    @Transactional(readOnly = true)
+    public CursorPage<ReviewEntity> findByCriteria(ReviewCriteria criteria, String cursor, Pageable page) {
+        LOG.debug("find by criteria : {}, cursor: {}, page: {}", criteria, cursor, page);
+        final Specification<ReviewEntity> specification = createSpecification(criteria);
+        return keysetPaginator.findAll(ReviewEntity.class, specification, cursor, page);
+    }
+
     /**
      * Return the number of matching entities in the database.
      * @param criteria The object which holds all the filters, which the entities should match.
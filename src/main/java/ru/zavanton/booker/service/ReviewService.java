@@ -3,10 +3,18 @@ package ru.zavanton.booker.service;
 import java.util.Optional;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.dao.OptimisticLockingFailureException;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import ru.zavanton.booker.domain.BookEntity;
 import ru.zavanton.booker.domain.ReviewEntity;
+import ru.zavanton.booker.repository.ReviewHelpfulVoteRepository;
 import ru.zavanton.booker.repository.ReviewRepository;
+import ru.zavanton.booker.service.aggregation.Counter;
+import ru.zavanton.booker.service.aggregation.CounterService;
+import ru.zavanton.booker.service.search.BookSearchService;
+import ru.zavanton.booker.service.trending.TrendingService;
 
 /**
  * Service Implementation for managing {@link ru.zavanton.booker.domain.ReviewEntity}.
@@ -19,8 +27,26 @@ public class ReviewService {
 
     private final ReviewRepository reviewRepository;
 
-    public ReviewService(ReviewRepository reviewRepository) {
+    private final ReviewHelpfulVoteRepository reviewHelpfulVoteRepository;
+
+    private final CounterService counterService;
+
+    private final TrendingService trendingService;
+
+    private final BookSearchService bookSearchService;
+
+    public ReviewService(
+        ReviewRepository reviewRepository,
+        ReviewHelpfulVoteRepository reviewHelpfulVoteRepository,
+        CounterService counterService,
+        TrendingService trendingService,
+        BookSearchService bookSearchService
+    ) {
         this.reviewRepository = reviewRepository;
+        this.reviewHelpfulVoteRepository = reviewHelpfulVoteRepository;
+        this.counterService = counterService;
+        this.trendingService = trendingService;
+        this.bookSearchService = bookSearchService;
     }
 
     /**
@@ -31,7 +57,11 @@ public class ReviewService {
      */
     public ReviewEntity save(ReviewEntity reviewEntity) {
         LOG.debug("Request to save Review : {}", reviewEntity);
-        return reviewRepository.save(reviewEntity);
+        ReviewEntity result = reviewRepository.save(reviewEntity);
+        counterService.increment(Counter.BOOK_TOTAL_REVIEWS, bookId(result));
+        trendingService.bookReviewed(bookId(result));
+        bookSearchService.bookChanged(bookId(result));
+        return result;
     }
 
     /**
@@ -42,7 +72,21 @@ public class ReviewService {
      */
     public ReviewEntity update(ReviewEntity reviewEntity) {
         LOG.debug("Request to update Review : {}", reviewEntity);
-        return reviewRepository.save(reviewEntity);
+        Optional<ReviewEntity> current = reviewRepository.findById(reviewEntity.getId());
+        current.ifPresent(review -> {
+            if (reviewEntity.getVersion() == null) {
+                // Without an expected version, the update applies to the current one
+                reviewEntity.setVersion(review.getVersion());
+            }
+            // The counter is not editable: the current one is kept and returned
+            reviewEntity.setHelpfulCount(review.getHelpfulCount());
+        });
+        Long previousBookId = current.map(ReviewService::bookId).orElse(null);
+        ReviewEntity result = reviewRepository.save(reviewEntity);
+        counterService.move(Counter.BOOK_TOTAL_REVIEWS, previousBookId, bookId(result));
+        bookSearchService.bookChanged(previousBookId);
+        bookSearchService.bookChanged(bookId(result));
+        return result;
     }
 
     /**
@@ -57,8 +101,12 @@ public class ReviewService {
         return reviewRepository
             .findById(reviewEntity.getId())
             .map(existingReview -> {
+                if (reviewEntity.getVersion() != null && !reviewEntity.getVersion().equals(existingReview.getVersion())) {
+                    throw new OptimisticLockingFailureException("Review was updated since version " + reviewEntity.getVersion());
+                }
                 if (reviewEntity.getContent() != null) {
                     existingReview.setContent(reviewEntity.getContent());
+                    bookSearchService.bookChanged(bookId(existingReview));
                 }
                 if (reviewEntity.getRating() != null) {
                     existingReview.setRating(reviewEntity.getRating());
@@ -66,9 +114,6 @@ public class ReviewService {
                 if (reviewEntity.getContainsSpoilers() != null) {
                     existingReview.setContainsSpoilers(reviewEntity.getContainsSpoilers());
                 }
-                if (reviewEntity.getHelpfulCount() != null) {
-                    existingReview.setHelpfulCount(reviewEntity.getHelpfulCount());
-                }
                 if (reviewEntity.getCreatedAt() != null) {
                     existingReview.setCreatedAt(reviewEntity.getCreatedAt());
                 }
@@ -100,6 +145,42 @@ public class ReviewService {
      */
     public void delete(Long id) {
         LOG.debug("Request to delete Review : {}", id);
-        reviewRepository.deleteById(id);
+        reviewRepository
+            .findById(id)
+            .ifPresent(review -> {
+                counterService.decrement(Counter.BOOK_TOTAL_REVIEWS, bookId(review));
+                bookSearchService.bookChanged(bookId(review));
+                reviewRepository.delete(review);
+            });
+    }
+
+    /**
+     * Mark a review as helpful for a user.
+     * <p>
+     * A user counts once: marking the same review again has no effect. The increment of the helpful count is written
+     * behind once the vote is committed, without locking the review row.
+     *
+     * @param id the id of the review.
+     * @param login the login of the user.
+     * @return {@code true} if the review was marked, {@code false} if the user had already marked it.
+     */
+    public boolean markHelpful(Long id, String login) {
+        LOG.debug("Request to mark Review as helpful : {} by {}", id, login);
+        boolean marked;
+        try {
+            marked = reviewHelpfulVoteRepository.insertIfAbsent(id, login);
+        } catch (DuplicateKeyException e) {
+            // The same user marked the review concurrently, and that vote is the one counted
+            marked = false;
+        }
+        if (marked) {
+            counterService.increment(Counter.REVIEW_HELPFUL_COUNT, id);
+        }
+        return marked;
+    }
+
+    private static Long bookId(ReviewEntity reviewEntity) {
+        BookEntity book = reviewEntity.getBook();
+        return book != null ? book.getId() : null;
     }
 }
@@ -1,6 +1,7 @@
 package ru.zavanton.booker.service;
 
 import jakarta.persistence.criteria.JoinType;
+import java.util.List;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.data.domain.Page;
@@ -10,8 +11,12 @@ import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 import ru.zavanton.booker.domain.*; // for static metamodels
 import ru.zavanton.booker.domain.TagEntity;
+import ru.zavanton.booker.repository.SpecificationProjectionRepository;
 import ru.zavanton.booker.repository.TagRepository;
+import ru.zavanton.booker.repository.VersionProjection;
 import ru.zavanton.booker.service.criteria.TagCriteria;
+import ru.zavanton.booker.service.pagination.CursorPage;
+import ru.zavanton.booker.service.pagination.KeysetPaginator;
 import tech.jhipster.service.QueryService;
 
 /**
@@ -28,8 +33,18 @@ public class TagQueryService extends QueryService<TagEntity> {
 
     private final TagRepository tagRepository;
 
-    public TagQueryService(TagRepository tagRepository) {
+    private final SpecificationProjectionRepository specificationProjectionRepository;
+
+    private final KeysetPaginator keysetPaginator;
+
+    public TagQueryService(
+        TagRepository tagRepository,
+        SpecificationProjectionRepository specificationProjectionRepository,
+        KeysetPaginator keysetPaginator
+    ) {
         this.tagRepository = tagRepository;
+        this.specificationProjectionRepository = specificationProjectionRepository;
+        this.keysetPaginator = keysetPaginator;
     }
 
     /**
@@ -45,6 +60,37 @@ public class TagQueryService extends QueryService<TagEntity> {
         return tagRepository.findAll(specification, page);
     }
 
+    /**
+     * Return a {@link CursorPage} of {@link TagEntity} which matches the criteria from the database, using keyset pagination.
+     * @param criteria The object which holds all the filters, which the entities should match.
+     * @param cursor The cursor of the previous page, or an empty value for the first page.
+     * @param page The size and the sort of the page, the page number is ignored.
+     * @return the matching entities.
+     */
+    @Transactional(readOnly = true)
+    public CursorPage<TagEntity> findByCriteria(TagCriteria criteria, String cursor, Pageable page) {
+        LOG.debug("find by criteria : {}, cursor: {}, page: {}", criteria, cursor, page);
+        final Specification<TagEntity> specification = createSpecification(criteria);
+        return keysetPaginator.findAll(TagEntity.class, specification, cursor, page);
+    }
+
+    /**
+     * Return the validators of the matching entities: their number and the sums of their ids and versions.
+     * @param criteria The object which holds all the filters, which the entities should match.
+     * @return the validators of the matching entities.
+     */
+    @Transactional(readOnly = true)
+    public VersionProjection findVersionByCriteria(TagCriteria criteria) {
+        LOG.debug("find version by criteria : {}", criteria);
+        return specificationProjectionRepository.findVersion(
+            TagEntity.class,
+            createSpecification(criteria),
+            TagEntity_.id,
+            TagEntity_.version,
+            List.of()
+        );
+    }
+
     /**
      * Return the number of matching entities in the database.
      * @param criteria The object which holds all the filters, which the entities should match.
@@ -3,10 +3,12 @@ package ru.zavanton.booker.service;
 import java.util.Optional;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.dao.OptimisticLockingFailureException;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 import ru.zavanton.booker.domain.TagEntity;
 import ru.zavanton.booker.repository.TagRepository;
+import ru.zavanton.booker.service.search.BookSearchService;
 
 /**
  * Service Implementation for managing {@link ru.zavanton.booker.domain.TagEntity}.
@@ -19,8 +21,11 @@ public class TagService {
 
     private final TagRepository tagRepository;
 
-    public TagService(TagRepository tagRepository) {
+    private final BookSearchService bookSearchService;
+
+    public TagService(TagRepository tagRepository, BookSearchService bookSearchService) {
         this.tagRepository = tagRepository;
+        this.bookSearchService = bookSearchService;
     }
 
     /**
@@ -42,7 +47,13 @@ public class TagService {
      */
     public TagEntity update(TagEntity tagEntity) {
         LOG.debug("Request to update Tag : {}", tagEntity);
-        return tagRepository.save(tagEntity);
+        if (tagEntity.getVersion() == null) {
+            // Without an expected version, the update overwrites the current one
+            tagRepository.findById(tagEntity.getId()).map(TagEntity::getVersion).ifPresent(tagEntity::setVersion);
+        }
+        TagEntity result = tagRepository.save(tagEntity);
+        bookSearchService.tagChanged(result.getId());
+        return result;
     }
 
     /**
@@ -57,6 +68,9 @@ public class TagService {
         return tagRepository
             .findById(tagEntity.getId())
             .map(existingTag -> {
+                if (tagEntity.getVersion() != null && !tagEntity.getVersion().equals(existingTag.getVersion())) {
+                    throw new OptimisticLockingFailureException("Tag was updated since version " + tagEntity.getVersion());
+                }
                 if (tagEntity.getName() != null) {
                     existingTag.setName(tagEntity.getName());
                 }
@@ -66,6 +80,7 @@ public class TagService {
                 if (tagEntity.getCreatedAt() != null) {
                     existingTag.setCreatedAt(tagEntity.getCreatedAt());
                 }
+                bookSearchService.tagChanged(existingTag.getId());
 
                 return existingTag;
             })
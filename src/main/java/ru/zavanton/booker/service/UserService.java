@@ -12,6 +12,7 @@ import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import ru.zavanton.booker.aop.logging.SensitiveArguments;
 import ru.zavanton.booker.config.Constants;
 import ru.zavanton.booker.domain.Authority;
 import ru.zavanton.booker.domain.UserEntity;
@@ -26,6 +27,7 @@ import tech.jhipster.security.RandomUtil;
 /**
  * Service class for managing users.
  */
+@SensitiveArguments
 @Service
 @Transactional
 public class UserService {
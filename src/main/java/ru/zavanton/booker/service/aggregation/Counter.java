@@ -0,0 +1,22 @@
+package ru.zavanton.booker.service.aggregation;
+
+/**
+ * Denormalized counter columns maintained by the {@link CounterService}.
+ * The increments do not change the optimistic locking version of the row, so that they do not fail the concurrent
+ * updates of the entity; the columns are not updatable by the entity.
+ */
+public enum Counter {
+    BOOK_TOTAL_REVIEWS("book", "total_reviews"),
+    REVIEW_HELPFUL_COUNT("review", "helpful_count"),
+    COLLECTION_BOOK_COUNT("collection", "book_count");
+
+    private final String incrementSql;
+
+    Counter(String table, String column) {
+        this.incrementSql = "update " + table + " set " + column + " = coalesce(" + column + ", 0) + ? where id = ?";
+    }
+
+    String getIncrementSql() {
+        return incrementSql;
+    }
+}
@@ -0,0 +1,198 @@
+package ru.zavanton.booker.service.aggregation;
+
+import jakarta.annotation.PreDestroy;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionException;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import ru.zavanton.booker.config.ApplicationProperties;
+
+/**
+ * Service maintaining the denormalized {@link Counter} columns with write-behind increments.
+ * <p>
+ * Increments are added to a {@link LongAdder} per counted row, which spreads concurrent updates of a hot row
+ * over several cells instead of taking a database row lock per increment. The pending increments are periodically
+ * drained with {@link LongAdder#sumThenReset()}, coalesced and written with one batched relative {@code UPDATE} per
+ * counter.
+ * <p>
+ * Writers only go through the adder of their row, without any lock. An increment added while its adder is drained is
+ * either part of the drained sum or left in the adder for the next flush. The adders of idle rows are removed by the
+ * flush, and an increment which lands in a removed adder is moved to the current adder of its row.
+ */
+@Service
+public class CounterService {
+
+    private static final Logger LOG = LoggerFactory.getLogger(CounterService.class);
+
+    private final ReentrantLock flushLock = new ReentrantLock();
+
+    private final ConcurrentHashMap<CounterKey, LongAdder> pending = new ConcurrentHashMap<>();
+
+    private final JdbcTemplate jdbcTemplate;
+
+    private final TransactionTemplate transactionTemplate;
+
+    private final ApplicationProperties.Counters properties;
+
+    public CounterService(JdbcTemplate jdbcTemplate, PlatformTransactionManager transactionManager, ApplicationProperties applicationProperties) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.properties = applicationProperties.getCounters();
+    }
+
+    /**
+     * Increment a counter by one, once the current transaction (if any) has committed.
+     *
+     * @param counter the counter.
+     * @param id the id of the counted row.
+     */
+    public void increment(Counter counter, Long id) {
+        add(counter, id, 1);
+    }
+
+    /**
+     * Decrement a counter by one, once the current transaction (if any) has committed.
+     *
+     * @param counter the counter.
+     * @param id the id of the counted row.
+     */
+    public void decrement(Counter counter, Long id) {
+        add(counter, id, -1);
+    }
+
+    /**
+     * Move one unit of a counter from a row to another, e.g. when a review is reassigned to another book.
+     *
+     * @param counter the counter.
+     * @param previousId the id of the previously counted row.
+     * @param id the id of the newly counted row.
+     */
+    public void move(Counter counter, Long previousId, Long id) {
+        if (!Objects.equals(previousId, id)) {
+            decrement(counter, previousId);
+            increment(counter, id);
+        }
+    }
+
+    /**
+     * Add a delta to a counter, once the current transaction (if any) has committed.
+     *
+     * @param counter the counter.
+     * @param id the id of the counted row.
+     * @param delta the value to add.
+     */
+    public void add(Counter counter, Long id, long delta) {
+        if (id == null || delta == 0) {
+            return;
+        }
+        CounterKey key = new CounterKey(counter, id);
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(
+                new TransactionSynchronization() {
+                    @Override
+                    public void afterCommit() {
+                        addPending(key, delta);
+                    }
+                }
+            );
+        } else {
+            addPending(key, delta);
+        }
+    }
+
+    /**
+     * Get the increments of a counter which have not been written to the database yet.
+     *
+     * @param counter the counter.
+     * @param id the id of the counted row.
+     * @return the pending delta.
+     */
+    public long getPending(Counter counter, Long id) {
+        LongAdder adder = pending.get(new CounterKey(counter, id));
+        return adder != null ? adder.sum() : 0;
+    }
+
+    private void addPending(CounterKey key, long delta) {
+        LongAdder adder = pending.computeIfAbsent(key, k -> new LongAdder());
+        adder.add(delta);
+        if (pending.get(key) != adder) {
+            // The adder was removed by the flush before the delta was added: it is moved to the current adder
+            long orphan = adder.sumThenReset();
+            if (orphan != 0) {
+                addPending(key, orphan);
+            }
+        }
+    }
+
+    /**
+     * Write the pending increments to the database.
+     * <p>
+     * This is scheduled to run every {@code application.counters.flush-interval-ms} milliseconds.
+     * Increments which could not be written are kept for the next run.
+     */
+    @Scheduled(fixedDelayString = "${application.counters.flush-interval-ms:5000}")
+    public void flush() {
+        flushLock.lock();
+        try {
+            Map<Counter, List<Object[]>> batches = new EnumMap<>(Counter.class);
+            pending.forEach((key, adder) -> {
+                long delta = adder.sumThenReset();
+                if (delta != 0) {
+                    batches.computeIfAbsent(key.counter(), c -> new ArrayList<>()).add(new Object[] { delta, key.id() });
+                } else if (pending.remove(key, adder)) {
+                    // The adder of an idle row is removed, keeping an increment added just before the removal
+                    long late = adder.sumThenReset();
+                    if (late != 0) {
+                        addPending(key, late);
+                    }
+                }
+            });
+            if (batches.isEmpty()) {
+                return;
+            }
+            int count = batches.values().stream().mapToInt(List::size).sum();
+            batches.values().forEach(batch -> batch.sort((a, b) -> Long.compare((Long) a[1], (Long) b[1])));
+            try {
+                transactionTemplate.executeWithoutResult(status ->
+                    batches.forEach((counter, batch) ->
+                        jdbcTemplate.batchUpdate(counter.getIncrementSql(), batch, properties.getBatchSize(), (ps, args) -> {
+                            ps.setLong(1, (Long) args[0]);
+                            ps.setLong(2, (Long) args[1]);
+                        })
+                    )
+                );
+                LOG.debug("Flushed {} counters", count);
+            } catch (DataAccessException | TransactionException e) {
+                LOG.warn("Could not flush {} counters, will retry: {}", count, e.getMessage());
+                batches.forEach((counter, batch) -> batch.forEach(args -> addPending(new CounterKey(counter, (Long) args[1]), (Long) args[0])));
+            }
+        } finally {
+            flushLock.unlock();
+        }
+    }
+
+    /**
+     * Flush the pending increments before the application stops.
+     */
+    @PreDestroy
+    public void destroy() {
+        flush();
+    }
+
+    private record CounterKey(Counter counter, Long id) {}
+}
@@ -0,0 +1,219 @@
+package ru.zavanton.booker.service.aggregation;
+
+import jakarta.annotation.PreDestroy;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Objects;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReentrantLock;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionException;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import ru.zavanton.booker.config.ApplicationProperties;
+
+/**
+ * Service maintaining {@code book.rating_sum}, {@code book.total_ratings} and {@code book.average_rating}.
+ * <p>
+ * Rating writes only mark the rated books as dirty in memory, once their transaction has committed.
+ * The dirty books are periodically coalesced, and their aggregates recomputed from the {@code rating} table with batched
+ * {@code UPDATE}s, so a burst of ratings on one book costs a single row update per flush.
+ * <p>
+ * The rows of the books are locked before their aggregates are read, so that each update reads the ratings committed
+ * before it, including those of the concurrent updates of the other nodes. As an update does not depend on the previous
+ * aggregates, the updates of several nodes and {@link #recomputeAll()} can run in any order without counting a rating
+ * twice or drifting.
+ */
+@Service
+public class RatingAggregationService {
+
+    private static final Logger LOG = LoggerFactory.getLogger(RatingAggregationService.class);
+
+    private static final String UPDATE_AGGREGATES_SQL =
+        "update book set " +
+        "rating_sum = (select coalesce(sum(r.rating), 0) from rating r where r.book_id = book.id), " +
+        "total_ratings = (select count(r.rating) from rating r where r.book_id = book.id), " +
+        "average_rating = (select avg(cast(r.rating as decimal(21, 2))) from rating r where r.book_id = book.id) ";
+
+    private static final String UPDATE_BOOK_SQL = UPDATE_AGGREGATES_SQL + "where id = ?";
+
+    private static final String RECOMPUTE_SQL = UPDATE_AGGREGATES_SQL + "where id between ? and ?";
+
+    private static final String LOCK_BOOKS_SQL = "select id from book where id in (%s) order by id for update";
+
+    private static final String LOCK_BOOK_RANGE_SQL = "select id from book where id between ? and ? order by id for update";
+
+    private final Set<Long> dirtyBooks = ConcurrentHashMap.newKeySet();
+
+    private final ReentrantLock flushLock = new ReentrantLock();
+
+    private final JdbcTemplate jdbcTemplate;
+
+    private final TransactionTemplate transactionTemplate;
+
+    private final ApplicationProperties.RatingAggregation properties;
+
+    public RatingAggregationService(
+        JdbcTemplate jdbcTemplate,
+        PlatformTransactionManager transactionManager,
+        ApplicationProperties applicationProperties
+    ) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.properties = applicationProperties.getRatingAggregation();
+    }
+
+    /**
+     * Record a new rating of a book.
+     *
+     * @param bookId the id of the rated book.
+     */
+    public void ratingAdded(Long bookId) {
+        markDirty(bookId);
+    }
+
+    /**
+     * Record the removal of a rating of a book.
+     *
+     * @param bookId the id of the rated book.
+     */
+    public void ratingRemoved(Long bookId) {
+        markDirty(bookId);
+    }
+
+    /**
+     * Record the replacement of a rating, which may have moved to another book.
+     *
+     * @param previousBookId the id of the previously rated book.
+     * @param bookId the id of the rated book.
+     */
+    public void ratingReplaced(Long previousBookId, Long bookId) {
+        markDirty(previousBookId);
+        if (!Objects.equals(previousBookId, bookId)) {
+            markDirty(bookId);
+        }
+    }
+
+    private void markDirty(Long bookId) {
+        if (bookId == null) {
+            return;
+        }
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(
+                new TransactionSynchronization() {
+                    @Override
+                    public void afterCommit() {
+                        dirtyBooks.add(bookId);
+                    }
+                }
+            );
+        } else {
+            dirtyBooks.add(bookId);
+        }
+    }
+
+    /**
+     * Recompute the aggregates of the dirty books.
+     * <p>
+     * This is scheduled to run every {@code application.rating-aggregation.flush-interval-ms} milliseconds.
+     * Books which could not be written are kept for the next run.
+     */
+    @Scheduled(fixedDelayString = "${application.rating-aggregation.flush-interval-ms:5000}")
+    public void flush() {
+        flushLock.lock();
+        try {
+            Set<Long> bookIds = drain();
+            if (bookIds.isEmpty()) {
+                return;
+            }
+            List<Long> ids = new ArrayList<>(bookIds);
+            try {
+                for (int from = 0; from < ids.size(); from += properties.getBatchSize()) {
+                    List<Long> batch = ids.subList(from, Math.min(from + properties.getBatchSize(), ids.size()));
+                    transactionTemplate.executeWithoutResult(status -> {
+                        String placeholders = String.join(", ", Collections.nCopies(batch.size(), "?"));
+                        jdbcTemplate.queryForList(String.format(LOCK_BOOKS_SQL, placeholders), Long.class, batch.toArray());
+                        jdbcTemplate.batchUpdate(UPDATE_BOOK_SQL, batch, batch.size(), (ps, bookId) -> ps.setLong(1, bookId));
+                    });
+                    batch.forEach(bookIds::remove);
+                }
+                LOG.debug("Flushed rating aggregates of {} books", ids.size());
+            } catch (DataAccessException | TransactionException e) {
+                LOG.warn("Could not flush rating aggregates of {} books, will retry: {}", bookIds.size(), e.getMessage());
+                dirtyBooks.addAll(bookIds);
+            }
+        } finally {
+            flushLock.unlock();
+        }
+    }
+
+    /**
+     * Recompute {@code book.rating_sum}, {@code book.total_ratings} and {@code book.average_rating} of every book from the
+     * {@code rating} table, to repair the changes made directly in the database.
+     * <p>
+     * Books are processed in id ranges of {@code application.rating-aggregation.repair-chunk-size}, each in its own transaction,
+     * to avoid holding locks on the whole table. The flushes need no exclusion, as they recompute the same aggregates.
+     * <p>
+     * This is scheduled to run according to the {@code application.rating-aggregation.repair-cron} expression.
+     */
+    @Scheduled(cron = "${application.rating-aggregation.repair-cron:0 30 3 * * ?}")
+    public void recomputeAll() {
+        LOG.info("Recomputing rating aggregates of all books");
+        long[] idRange = transactionTemplate.execute(status ->
+            jdbcTemplate.queryForObject("select min(id), max(id) from book", (rs, rowNum) ->
+                rs.getObject(1) == null ? null : new long[] { rs.getLong(1), rs.getLong(2) }
+            )
+        );
+        if (idRange == null) {
+            return;
+        }
+        long minId = idRange[0];
+        long maxId = idRange[1];
+        long chunkSize = properties.getRepairChunkSize();
+        for (long from = minId; from <= maxId; from += chunkSize) {
+            long rangeStart = from;
+            long rangeEnd = Math.min(from + chunkSize - 1, maxId);
+            transactionTemplate.executeWithoutResult(status -> {
+                jdbcTemplate.queryForList(LOCK_BOOK_RANGE_SQL, Long.class, rangeStart, rangeEnd);
+                jdbcTemplate.update(RECOMPUTE_SQL, rangeStart, rangeEnd);
+            });
+        }
+        LOG.info("Recomputed rating aggregates of books {} to {}", minId, maxId);
+    }
+
+    /**
+     * Flush the dirty books before the application stops.
+     */
+    @PreDestroy
+    public void destroy() {
+        flush();
+    }
+
+    /**
+     * @return the number of books whose aggregates are pending a flush.
+     */
+    public int getPendingBookCount() {
+        return dirtyBooks.size();
+    }
+
+    private Set<Long> drain() {
+        // Sorted, so that concurrent flushes lock the rows in the same order
+        Set<Long> drained = new TreeSet<>();
+        for (Long bookId : dirtyBooks) {
+            if (dirtyBooks.remove(bookId)) {
+                drained.add(bookId);
+            }
+        }
+        return drained;
+    }
+}
@@ -0,0 +1,215 @@
+package ru.zavanton.booker.service.aggregation;
+
+import jakarta.annotation.PreDestroy;
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Calendar;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.TimeZone;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReentrantLock;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionException;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import ru.zavanton.booker.config.ApplicationProperties;
+import ru.zavanton.booker.domain.ReadingStatusEntity;
+import ru.zavanton.booker.repository.ReadingStatusRepository;
+import ru.zavanton.booker.security.SecurityUtils;
+
+/**
+ * Service buffering the current page of the users in their books, sent far more often than the other changes
+ * of their reading statuses.
+ * <p>
+ * Only the latest page of each user and book is kept in memory, and the pending pages are periodically written
+ * with one batched {@code UPDATE}. A page stays pending until it is written, so that the reading statuses read
+ * in the meantime are given their pending page by {@link #applyPending(ReadingStatusEntity)}. The written pages do not
+ * increment the optimistic locking version of the reading statuses, so that they do not fail their concurrent updates.
+ * <p>
+ * Each node keeps its own pages, so a page sent to another node is seen once it is written.
+ */
+@Service
+public class ReadingProgressService {
+
+    private static final Logger LOG = LoggerFactory.getLogger(ReadingProgressService.class);
+
+    private static final String UPDATE_PROGRESS_SQL =
+        "update reading_status set current_page = ?, updated_at = ?" +
+        " where book_id = ? and user_id = (select id from booker_user where login = ?)";
+
+    private static final Comparator<Map.Entry<ProgressKey, Progress>> BY_KEY = Comparator.comparing(
+        (Map.Entry<ProgressKey, Progress> entry) -> entry.getKey().bookId()
+    ).thenComparing(entry -> entry.getKey().login());
+
+    private final ReentrantLock flushLock = new ReentrantLock();
+
+    private final ConcurrentHashMap<ProgressKey, Progress> pending = new ConcurrentHashMap<>();
+
+    private final JdbcTemplate jdbcTemplate;
+
+    private final TransactionTemplate transactionTemplate;
+
+    private final ReadingStatusRepository readingStatusRepository;
+
+    private final ApplicationProperties.ReadingProgress properties;
+
+    public ReadingProgressService(
+        JdbcTemplate jdbcTemplate,
+        PlatformTransactionManager transactionManager,
+        ReadingStatusRepository readingStatusRepository,
+        ApplicationProperties applicationProperties
+    ) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.readingStatusRepository = readingStatusRepository;
+        this.properties = applicationProperties.getReadingProgress();
+    }
+
+    /**
+     * Record the current page of the current user in a book, to be written with the next flush.
+     *
+     * @param bookId the id of the book.
+     * @param currentPage the current page.
+     * @return {@code false} if the current user has no reading status for the book.
+     */
+    public boolean record(Long bookId, int currentPage) {
+        String login = SecurityUtils.getCurrentUserLogin().orElse(null);
+        if (login == null || bookId == null) {
+            return false;
+        }
+        ProgressKey key = new ProgressKey(login, bookId);
+        if (!pending.containsKey(key) && !readingStatusRepository.existsByUserLoginAndBookId(login, bookId)) {
+            return false;
+        }
+        pending.put(key, new Progress(currentPage, Instant.now()));
+        return true;
+    }
+
+    /**
+     * Give a reading status the page pending for its user and book, if any.
+     *
+     * @param readingStatusEntity the reading status, which must not be managed by a read-write persistence context.
+     * @return the reading status.
+     */
+    public ReadingStatusEntity applyPending(ReadingStatusEntity readingStatusEntity) {
+        if (pending.isEmpty() || readingStatusEntity.getUser() == null || readingStatusEntity.getBook() == null) {
+            return readingStatusEntity;
+        }
+        Progress progress = pending.get(new ProgressKey(readingStatusEntity.getUser().getLogin(), readingStatusEntity.getBook().getId()));
+        if (progress != null) {
+            readingStatusEntity.setCurrentPage(progress.currentPage());
+            readingStatusEntity.setUpdatedAt(progress.updatedAt());
+        }
+        return readingStatusEntity;
+    }
+
+    /**
+     * Give reading statuses the pages pending for their users and books.
+     *
+     * @param readingStatusEntities the reading statuses, which must not be managed by a read-write persistence context.
+     */
+    public void applyPending(Collection<ReadingStatusEntity> readingStatusEntities) {
+        if (!pending.isEmpty()) {
+            readingStatusEntities.forEach(this::applyPending);
+        }
+    }
+
+    /**
+     * Drop the page pending for a user and book, once the current transaction (if any) has committed,
+     * as a page set by a regular update of the reading status replaces it, and a deleted reading status has no page.
+     *
+     * @param login the login of the user.
+     * @param bookId the id of the book.
+     */
+    public void discard(String login, Long bookId) {
+        if (login == null || bookId == null) {
+            return;
+        }
+        ProgressKey key = new ProgressKey(login, bookId);
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(
+                new TransactionSynchronization() {
+                    @Override
+                    public void afterCommit() {
+                        pending.remove(key);
+                    }
+                }
+            );
+        } else {
+            pending.remove(key);
+        }
+    }
+
+    /**
+     * Get the page of a user in a book which has not been written to the database yet.
+     *
+     * @param login the login of the user.
+     * @param bookId the id of the book.
+     * @return the pending page, or {@code null} if there is none.
+     */
+    public Integer getPending(String login, Long bookId) {
+        Progress progress = pending.get(new ProgressKey(login, bookId));
+        return progress != null ? progress.currentPage() : null;
+    }
+
+    /**
+     * Write the pending pages to the database.
+     * <p>
+     * This is scheduled to run every {@code application.reading-progress.flush-interval-ms} milliseconds.
+     * A written page is only dropped from memory if no newer page was recorded meanwhile, and pages which
+     * could not be written are kept for the next run.
+     */
+    @Scheduled(fixedDelayString = "${application.reading-progress.flush-interval-ms:1000}")
+    public void flush() {
+        flushLock.lock();
+        try {
+            List<Map.Entry<ProgressKey, Progress>> batch = new ArrayList<>(pending.size());
+            pending.forEach((key, progress) -> batch.add(Map.entry(key, progress)));
+            if (batch.isEmpty()) {
+                return;
+            }
+            // Rows are updated in the same order by every flush, so that concurrent nodes do not deadlock
+            batch.sort(BY_KEY);
+            Calendar utc = Calendar.getInstance(TimeZone.getTimeZone("UTC"));
+            try {
+                transactionTemplate.executeWithoutResult(status ->
+                    jdbcTemplate.batchUpdate(UPDATE_PROGRESS_SQL, batch, properties.getBatchSize(), (ps, entry) -> {
+                        ps.setInt(1, entry.getValue().currentPage());
+                        ps.setTimestamp(2, Timestamp.from(entry.getValue().updatedAt()), utc);
+                        ps.setLong(3, entry.getKey().bookId());
+                        ps.setString(4, entry.getKey().login());
+                    })
+                );
+                batch.forEach(entry -> pending.remove(entry.getKey(), entry.getValue()));
+                LOG.debug("Flushed {} reading progresses", batch.size());
+            } catch (DataAccessException | TransactionException e) {
+                LOG.warn("Could not flush {} reading progresses, will retry: {}", batch.size(), e.getMessage());
+            }
+        } finally {
+            flushLock.unlock();
+        }
+    }
+
+    /**
+     * Flush the pending pages before the application stops.
+     */
+    @PreDestroy
+    public void destroy() {
+        flush();
+    }
+
+    private record ProgressKey(String login, Long bookId) {}
+
+    private record Progress(int currentPage, Instant updatedAt) {}
+}
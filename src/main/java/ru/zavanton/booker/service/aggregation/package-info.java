@@ -0,0 +1,4 @@
+/**
+ * Write-behind aggregation of denormalized counters and averages, and of the reading progress of the users.
+ */
+package ru.zavanton.booker.service.aggregation;
@@ -0,0 +1,10 @@
+package ru.zavanton.booker.service.bulkimport;
+
+/**
+ * A row of an import file which could not be imported.
+ *
+ * @param line the line of the row in the file, starting at 1.
+ * @param isbn the ISBN of the row, if it could be read.
+ * @param message the reason of the failure.
+ */
+public record BookImportError(long line, String isbn, String message) {}
@@ -0,0 +1,153 @@
+package ru.zavanton.booker.service.bulkimport;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Progress and report of a bulk import, updated while it runs.
+ */
+public class BookImportJob {
+
+    public enum State {
+        RUNNING,
+        COMPLETED,
+        FAILED,
+    }
+
+    private final String id = UUID.randomUUID().toString();
+
+    private final String source;
+
+    private final ImportFormat format;
+
+    private final Instant startedAt = Instant.now();
+
+    private final int maxErrors;
+
+    private final AtomicLong readRows = new AtomicLong();
+
+    private final AtomicLong createdBooks = new AtomicLong();
+
+    private final AtomicLong updatedBooks = new AtomicLong();
+
+    private final AtomicLong failedRows = new AtomicLong();
+
+    private final List<BookImportError> errors = new ArrayList<>();
+
+    private volatile State state = State.RUNNING;
+
+    private volatile Instant finishedAt;
+
+    private volatile String failure;
+
+    BookImportJob(String source, ImportFormat format, int maxErrors) {
+        this.source = source;
+        this.format = format;
+        this.maxErrors = maxErrors;
+    }
+
+    void rowRead() {
+        readRows.incrementAndGet();
+    }
+
+    void booksWritten(int created, int updated) {
+        createdBooks.addAndGet(created);
+        updatedBooks.addAndGet(updated);
+    }
+
+    void rowFailed(long line, String isbn, String message) {
+        failedRows.incrementAndGet();
+        synchronized (errors) {
+            if (errors.size() < maxErrors) {
+                errors.add(new BookImportError(line, isbn, message));
+            }
+        }
+    }
+
+    void completed() {
+        finishedAt = Instant.now();
+        state = State.COMPLETED;
+    }
+
+    void failed(String failure) {
+        this.failure = failure;
+        finishedAt = Instant.now();
+        state = State.FAILED;
+    }
+
+    public String getId() {
+        return id;
+    }
+
+    public String getSource() {
+        return source;
+    }
+
+    public ImportFormat getFormat() {
+        return format;
+    }
+
+    public State getState() {
+        return state;
+    }
+
+    public Instant getStartedAt() {
+        return startedAt;
+    }
+
+    public Instant getFinishedAt() {
+        return finishedAt;
+    }
+
+    /**
+     * @return the rows read from the file so far, including the failed ones.
+     */
+    public long getReadRows() {
+        return readRows.get();
+    }
+
+    public long getCreatedBooks() {
+        return createdBooks.get();
+    }
+
+    public long getUpdatedBooks() {
+        return updatedBooks.get();
+    }
+
+    public long getFailedRows() {
+        return failedRows.get();
+    }
+
+    /**
+     * @return the first {@code application.book-import.max-errors} failed rows.
+     */
+    public List<BookImportError> getErrors() {
+        synchronized (errors) {
+            return List.copyOf(errors);
+        }
+    }
+
+    /**
+     * @return the reason why the whole import failed, if it did.
+     */
+    public String getFailure() {
+        return failure;
+    }
+
+    // prettier-ignore
+    @Override
+    public String toString() {
+        return "BookImportJob{" +
+            "id='" + getId() + "'" +
+            ", source='" + getSource() + "'" +
+            ", state=" + getState() +
+            ", readRows=" + getReadRows() +
+            ", createdBooks=" + getCreatedBooks() +
+            ", updatedBooks=" + getUpdatedBooks() +
+            ", failedRows=" + getFailedRows() +
+            "}";
+    }
+}
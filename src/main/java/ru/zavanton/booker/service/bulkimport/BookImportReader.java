@@ -0,0 +1,266 @@
+package ru.zavanton.booker.service.bulkimport;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import java.io.BufferedReader;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.NoSuchElementException;
+
+/**
+ * Reader of the rows of an import file, one at a time, so that files of any size can be imported.
+ * <p>
+ * CSV files start with a header line naming the columns: {@code isbn}, {@code title}, {@code description},
+ * {@code coverImageUrl}, {@code pageCount}, {@code publicationDate}, {@code language}, {@code publisher},
+ * {@code authors}, {@code genres} and {@code tags}, in any order and case, with or without underscores.
+ * The authors, genres and tags are separated by {@value #LIST_SEPARATOR}. NDJSON files hold one {@link BookImportRow}
+ * per line. A row which cannot be read is returned with an error, and the following rows are still read.
+ */
+public class BookImportReader implements Iterator<BookImportReader.Line>, Closeable {
+
+    /**
+     * A row of the file, or the reason why it could not be read.
+     *
+     * @param number the line of the row in the file, starting at 1.
+     * @param row the row, or {@code null} if it could not be read.
+     * @param error the reason why the row could not be read, or {@code null}.
+     */
+    public record Line(long number, BookImportRow row, String error) {}
+
+    static final String LIST_SEPARATOR = ";";
+
+    private static final List<String> COLUMNS = List.of(
+        "isbn",
+        "title",
+        "description",
+        "coverimageurl",
+        "pagecount",
+        "publicationdate",
+        "language",
+        "publisher",
+        "authors",
+        "genres",
+        "tags"
+    );
+
+    private final BufferedReader reader;
+
+    private final ImportFormat format;
+
+    private final ObjectReader rowReader;
+
+    private Map<String, Integer> columnIndexes;
+
+    private long lineNumber;
+
+    private long recordLineNumber;
+
+    private Line next;
+
+    private boolean finished;
+
+    public BookImportReader(InputStream inputStream, ImportFormat format, ObjectMapper objectMapper) {
+        this.reader = new BufferedReader(new InputStreamReader(inputStream, StandardCharsets.UTF_8));
+        this.format = format;
+        this.rowReader = objectMapper.readerFor(BookImportRow.class);
+    }
+
+    @Override
+    public boolean hasNext() {
+        if (next == null && !finished) {
+            try {
+                next = format == ImportFormat.CSV ? readCsvLine() : readNdjsonLine();
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+            finished = next == null;
+        }
+        return next != null;
+    }
+
+    @Override
+    public Line next() {
+        if (!hasNext()) {
+            throw new NoSuchElementException();
+        }
+        Line line = next;
+        next = null;
+        return line;
+    }
+
+    @Override
+    public void close() throws IOException {
+        reader.close();
+    }
+
+    private Line readNdjsonLine() throws IOException {
+        String text;
+        do {
+            text = reader.readLine();
+            lineNumber++;
+            if (text == null) {
+                return null;
+            }
+        } while (text.isBlank());
+        try {
+            return new Line(lineNumber, rowReader.readValue(stripBom(text)), null);
+        } catch (JsonProcessingException e) {
+            return new Line(lineNumber, null, "Invalid JSON: " + e.getOriginalMessage());
+        }
+    }
+
+    private Line readCsvLine() throws IOException {
+        if (columnIndexes == null) {
+            List<String> header = readCsvRecord();
+            if (header == null) {
+                return null;
+            }
+            columnIndexes = new HashMap<>();
+            for (int i = 0; i < header.size(); i++) {
+                String column = stripBom(header.get(i)).replaceAll("[_\\-\\s]", "").toLowerCase(Locale.ROOT);
+                if (COLUMNS.contains(column)) {
+                    columnIndexes.putIfAbsent(column, i);
+                }
+            }
+        }
+        List<String> values;
+        try {
+            values = readCsvRecord();
+        } catch (IllegalStateException e) {
+            return new Line(recordLineNumber, null, e.getMessage());
+        }
+        if (values == null) {
+            return null;
+        }
+        try {
+            return new Line(recordLineNumber, toRow(values), null);
+        } catch (IllegalArgumentException e) {
+            return new Line(recordLineNumber, null, e.getMessage());
+        }
+    }
+
+    private BookImportRow toRow(List<String> values) {
+        return new BookImportRow(
+            get(values, "isbn"),
+            get(values, "title"),
+            get(values, "description"),
+            get(values, "coverimageurl"),
+            getInteger(values, "pagecount"),
+            getDate(values, "publicationdate"),
+            get(values, "language"),
+            get(values, "publisher"),
+            getList(values, "authors"),
+            getList(values, "genres"),
+            getList(values, "tags")
+        );
+    }
+
+    private String get(List<String> values, String column) {
+        Integer index = columnIndexes.get(column);
+        if (index == null || index >= values.size() || values.get(index).isBlank()) {
+            return null;
+        }
+        return values.get(index).trim();
+    }
+
+    private Integer getInteger(List<String> values, String column) {
+        String value = get(values, column);
+        try {
+            return value == null ? null : Integer.valueOf(value);
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Invalid " + column + ": " + value, e);
+        }
+    }
+
+    private LocalDate getDate(List<String> values, String column) {
+        String value = get(values, column);
+        try {
+            return value == null ? null : LocalDate.parse(value);
+        } catch (DateTimeParseException e) {
+            throw new IllegalArgumentException("Invalid " + column + ": " + value, e);
+        }
+    }
+
+    private List<String> getList(List<String> values, String column) {
+        String value = get(values, column);
+        if (value == null) {
+            return null;
+        }
+        return Arrays.stream(value.split(LIST_SEPARATOR)).map(String::trim).filter(item -> !item.isEmpty()).toList();
+    }
+
+    /**
+     * Read the fields of the next CSV record, which spans several lines when a quoted field holds line breaks.
+     *
+     * @return the fields, or {@code null} at the end of the file.
+     * @throws IllegalStateException if the file ends within a quoted field.
+     */
+    private List<String> readCsvRecord() throws IOException {
+        String text = reader.readLine();
+        while (text != null && text.isEmpty()) {
+            lineNumber++;
+            text = reader.readLine();
+        }
+        if (text == null) {
+            return null;
+        }
+        lineNumber++;
+        recordLineNumber = lineNumber;
+        List<String> fields = new ArrayList<>();
+        StringBuilder field = new StringBuilder();
+        boolean quoted = false;
+        int i = 0;
+        while (true) {
+            if (i == text.length()) {
+                if (!quoted) {
+                    fields.add(field.toString());
+                    return fields;
+                }
+                text = reader.readLine();
+                if (text == null) {
+                    throw new IllegalStateException("Unterminated quoted field");
+                }
+                lineNumber++;
+                field.append('\n');
+                i = 0;
+                continue;
+            }
+            char c = text.charAt(i++);
+            if (quoted) {
+                if (c == '"' && i < text.length() && text.charAt(i) == '"') {
+                    field.append('"');
+                    i++;
+                } else if (c == '"') {
+                    quoted = false;
+                } else {
+                    field.append(c);
+                }
+            } else if (c == '"') {
+                quoted = true;
+            } else if (c == ',') {
+                fields.add(field.toString());
+                field.setLength(0);
+            } else {
+                field.append(c);
+            }
+        }
+    }
+
+    private static String stripBom(String text) {
+        return !text.isEmpty() && text.charAt(0) == '\uFEFF' ? text.substring(1) : text;
+    }
+}
@@ -0,0 +1,26 @@
+package ru.zavanton.booker.service.bulkimport;
+
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+import java.time.LocalDate;
+import java.util.List;
+
+/**
+ * A book of an import file, with its publisher, authors, genres and tags by name.
+ * <p>
+ * The first author is the primary one. A {@code null} list of authors, genres or tags leaves the ones of an existing
+ * book unchanged, while an empty list removes them.
+ */
+@JsonIgnoreProperties(ignoreUnknown = true)
+public record BookImportRow(
+    String isbn,
+    String title,
+    String description,
+    String coverImageUrl,
+    Integer pageCount,
+    LocalDate publicationDate,
+    String language,
+    String publisher,
+    List<String> authors,
+    List<String> genres,
+    List<String> tags
+) {}
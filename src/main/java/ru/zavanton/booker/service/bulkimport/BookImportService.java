@@ -0,0 +1,559 @@
+package ru.zavanton.booker.service.bulkimport;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.annotation.PreDestroy;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.text.Normalizer;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.function.Function;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.core.task.TaskRejectedException;
+import org.springframework.dao.DataAccessException;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionException;
+import org.springframework.transaction.support.TransactionTemplate;
+import ru.zavanton.booker.config.ApplicationProperties;
+import ru.zavanton.booker.domain.AuthorEntity;
+import ru.zavanton.booker.domain.BookAuthorEntity;
+import ru.zavanton.booker.domain.BookEntity;
+import ru.zavanton.booker.domain.BookGenreEntity;
+import ru.zavanton.booker.domain.BookTagEntity;
+import ru.zavanton.booker.domain.GenreEntity;
+import ru.zavanton.booker.domain.PublisherEntity;
+import ru.zavanton.booker.domain.TagEntity;
+import ru.zavanton.booker.repository.BookImportRepository;
+import ru.zavanton.booker.service.search.BookSearchService;
+
+/**
+ * Service importing publisher feeds into the book catalog.
+ * <p>
+ * The rows are read one at a time and written by chunks of {@code application.book-import.chunk-size} rows, each in
+ * its own transaction with JDBC batches. Publishers are found by name, authors by full name, and genres and tags by
+ * the slug of their name, through a cache of the identifiers already seen by the import, and the missing ones are
+ * created. Books are created, or updated when a book with the same ISBN exists. When a chunk fails, its rows are
+ * written one by one so that only the faulty rows are reported as errors.
+ * <p>
+ * The imports of files run on {@code application.book-import.pool-size} threads of their own, so that they do not
+ * hold the threads of the shared task executor for as long as they last.
+ */
+@Service
+public class BookImportService {
+
+    private static final Logger LOG = LoggerFactory.getLogger(BookImportService.class);
+
+    private static final int MAX_LENGTH = 255;
+
+    private final BookImportRepository bookImportRepository;
+
+    private final BookSearchService bookSearchService;
+
+    private final ObjectMapper objectMapper;
+
+    private final TransactionTemplate transactionTemplate;
+
+    private final ThreadPoolTaskExecutor executor;
+
+    private final ApplicationProperties.BookImport properties;
+
+    private final Map<String, BookImportJob> jobs;
+
+    public BookImportService(
+        BookImportRepository bookImportRepository,
+        BookSearchService bookSearchService,
+        ObjectMapper objectMapper,
+        PlatformTransactionManager transactionManager,
+        ApplicationProperties applicationProperties
+    ) {
+        this.bookImportRepository = bookImportRepository;
+        this.bookSearchService = bookSearchService;
+        this.objectMapper = objectMapper;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.properties = applicationProperties.getBookImport();
+        this.executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(properties.getPoolSize());
+        executor.setMaxPoolSize(properties.getPoolSize());
+        executor.setQueueCapacity(properties.getQueueCapacity());
+        executor.setThreadNamePrefix("booker-import-");
+        executor.initialize();
+        int retainedJobs = properties.getRetainedJobs();
+        this.jobs = Collections.synchronizedMap(
+            new LinkedHashMap<>() {
+                @Override
+                protected boolean removeEldestEntry(Map.Entry<String, BookImportJob> eldest) {
+                    return size() > retainedJobs && eldest.getValue().getState() != BookImportJob.State.RUNNING;
+                }
+            }
+        );
+    }
+
+    /**
+     * Import a file in the background. The file is deleted once imported.
+     *
+     * @param file the file to import.
+     * @param source the name of the file, for the report.
+     * @param format the format of the file.
+     * @return the import, which runs until its state is no longer {@code RUNNING}.
+     * @throws TaskRejectedException if all the threads of the imports are busy and
+     * {@code application.book-import.queue-capacity} imports already wait for one, the file being deleted.
+     */
+    public BookImportJob start(Path file, String source, ImportFormat format) {
+        BookImportJob job = register(source, format);
+        try {
+            executor.execute(() -> {
+                try (InputStream inputStream = Files.newInputStream(file)) {
+                    run(job, inputStream);
+                } catch (IOException e) {
+                    LOG.error("Could not read the import file {}", source, e);
+                    job.failed(e.getMessage());
+                } finally {
+                    deleteFile(file);
+                }
+            });
+        } catch (TaskRejectedException e) {
+            LOG.warn("Rejected the import {} of {}, too many imports are running", job.getId(), source);
+            jobs.remove(job.getId());
+            deleteFile(file);
+            throw e;
+        }
+        return job;
+    }
+
+    /**
+     * Import a stream, in the calling thread.
+     *
+     * @param inputStream the stream to import, which is not closed.
+     * @param source the name of the stream, for the report.
+     * @param format the format of the stream.
+     * @return the finished import.
+     */
+    public BookImportJob importStream(InputStream inputStream, String source, ImportFormat format) {
+        BookImportJob job = register(source, format);
+        run(job, inputStream);
+        return job;
+    }
+
+    /**
+     * Stop the threads of the imports, interrupting the running ones.
+     */
+    @PreDestroy
+    public void destroy() {
+        executor.shutdown();
+    }
+
+    public Optional<BookImportJob> findJob(String id) {
+        return Optional.ofNullable(jobs.get(id));
+    }
+
+    public List<BookImportJob> findJobs() {
+        synchronized (jobs) {
+            return List.copyOf(jobs.values());
+        }
+    }
+
+    private BookImportJob register(String source, ImportFormat format) {
+        BookImportJob job = new BookImportJob(source, format, properties.getMaxErrors());
+        jobs.put(job.getId(), job);
+        LOG.info("Starting the import {} of {} as {}", job.getId(), source, format);
+        return job;
+    }
+
+    private void run(BookImportJob job, InputStream inputStream) {
+        ImportContext context = new ImportContext();
+        BookImportReader reader = new BookImportReader(inputStream, job.getFormat(), objectMapper);
+        try {
+            List<BookImportReader.Line> chunk = new ArrayList<>(properties.getChunkSize());
+            while (reader.hasNext()) {
+                BookImportReader.Line line = reader.next();
+                job.rowRead();
+                String error = line.error() != null ? line.error() : validate(line.row());
+                if (error != null) {
+                    job.rowFailed(line.number(), line.row() != null ? line.row().isbn() : null, error);
+                } else {
+                    chunk.add(line);
+                }
+                if (chunk.size() >= properties.getChunkSize()) {
+                    writeChunk(job, context, chunk);
+                    chunk.clear();
+                    LOG.info("Import {}: {}, {} cached natural keys", job.getId(), job, context.size());
+                }
+            }
+            if (!chunk.isEmpty()) {
+                writeChunk(job, context, chunk);
+            }
+            job.completed();
+            LOG.info("Import {} completed: {}", job.getId(), job);
+        } catch (UncheckedIOException | DataAccessException | TransactionException e) {
+            LOG.error("Import {} failed after {} rows", job.getId(), job.getReadRows(), e);
+            job.failed(e.getMessage());
+        }
+    }
+
+    private void writeChunk(BookImportJob job, ImportContext context, List<BookImportReader.Line> chunk) {
+        try {
+            ChunkResult result = transactionTemplate.execute(status -> write(chunk, context));
+            context.commit();
+            job.booksWritten(result.created(), result.updated());
+        } catch (DataAccessException | TransactionException e) {
+            context.rollback();
+            if (chunk.size() == 1) {
+                BookImportReader.Line line = chunk.get(0);
+                LOG.debug("Could not import line {}: {}", line.number(), e.getMessage());
+                job.rowFailed(line.number(), line.row().isbn(), e.getMostSpecificCause().getMessage());
+                return;
+            }
+            LOG.debug("Could not import a chunk of {} rows, importing them one by one: {}", chunk.size(), e.getMessage());
+            for (BookImportReader.Line line : chunk) {
+                writeChunk(job, context, List.of(line));
+            }
+        }
+    }
+
+    private ChunkResult write(List<BookImportReader.Line> chunk, ImportContext context) {
+        Instant now = Instant.now();
+        // The last row wins when a chunk holds several rows with the same ISBN
+        Map<String, BookImportRow> rows = new LinkedHashMap<>();
+        for (BookImportReader.Line line : chunk) {
+            String isbn = normalize(line.row().isbn());
+            rows.remove(isbn);
+            rows.put(isbn, line.row());
+        }
+        resolvePublishers(rows.values(), context.publishers, now);
+        resolveAuthors(rows.values(), context.authors, now);
+        resolveGenres(rows.values(), context.genres, now);
+        resolveTags(rows.values(), context.tags, now);
+
+        Map<String, Long> existingBookIds = bookImportRepository.findBookIdsByIsbn(rows.keySet());
+        List<BookEntity> createdBooks = new ArrayList<>();
+        List<BookEntity> updatedBooks = new ArrayList<>();
+        for (BookImportRow row : rows.values()) {
+            BookEntity book = toBook(row, context, now);
+            Long existingId = existingBookIds.get(book.getIsbn());
+            if (existingId == null) {
+                book.id(bookImportRepository.nextId(BookEntity.class)).createdAt(now);
+                createdBooks.add(book);
+            } else {
+                book.id(existingId);
+                updatedBooks.add(book);
+            }
+        }
+        bookImportRepository.insertBooks(createdBooks);
+        bookImportRepository.updateBooks(updatedBooks);
+
+        List<BookEntity> books = new ArrayList<>(createdBooks);
+        books.addAll(updatedBooks);
+        writeAuthors(books, rows, context, existingBookIds.values());
+        writeGenres(books, rows, context, existingBookIds.values());
+        writeTags(books, rows, context, existingBookIds.values());
+        books.forEach(book -> bookSearchService.bookChanged(book.getId()));
+        return new ChunkResult(createdBooks.size(), updatedBooks.size());
+    }
+
+    private BookEntity toBook(BookImportRow row, ImportContext context, Instant now) {
+        BookEntity book = new BookEntity()
+            .isbn(normalize(row.isbn()))
+            .title(normalize(row.title()))
+            .description(row.description())
+            .coverImageUrl(row.coverImageUrl())
+            .pageCount(row.pageCount())
+            .publicationDate(row.publicationDate())
+            .language(row.language())
+            .updatedAt(now);
+        String publisher = normalize(row.publisher());
+        if (publisher != null) {
+            book.publisher(new PublisherEntity().id(context.publishers.get(publisher)));
+        }
+        return book;
+    }
+
+    private void resolvePublishers(Collection<BookImportRow> rows, NaturalKeyCache cache, Instant now) {
+        Set<String> names = new LinkedHashSet<>();
+        rows.forEach(row -> addIfPresent(names, row.publisher()));
+        List<PublisherEntity> publishers = new ArrayList<>();
+        for (String name : findMissing(names, cache, bookImportRepository::findPublisherIdsByName)) {
+            PublisherEntity publisher = new PublisherEntity()
+                .id(bookImportRepository.nextId(PublisherEntity.class))
+                .name(name)
+                .createdAt(now)
+                .updatedAt(now);
+            cache.put(name, publisher.getId());
+            publishers.add(publisher);
+        }
+        bookImportRepository.insertPublishers(publishers);
+    }
+
+    private void resolveAuthors(Collection<BookImportRow> rows, NaturalKeyCache cache, Instant now) {
+        Set<String> fullNames = new LinkedHashSet<>();
+        rows.forEach(row -> addAllIfPresent(fullNames, row.authors(), Function.identity()));
+        List<AuthorEntity> authors = new ArrayList<>();
+        for (String fullName : findMissing(fullNames, cache, bookImportRepository::findAuthorIdsByFullName)) {
+            int lastSpace = fullName.lastIndexOf(' ');
+            AuthorEntity author = new AuthorEntity()
+                .id(bookImportRepository.nextId(AuthorEntity.class))
+                .firstName(lastSpace > 0 ? fullName.substring(0, lastSpace) : null)
+                .lastName(lastSpace > 0 ? fullName.substring(lastSpace + 1) : fullName)
+                .fullName(fullName)
+                .createdAt(now)
+                .updatedAt(now);
+            cache.put(fullName, author.getId());
+            authors.add(author);
+        }
+        bookImportRepository.insertAuthors(authors);
+    }
+
+    private void resolveGenres(Collection<BookImportRow> rows, NaturalKeyCache cache, Instant now) {
+        Map<String, String> namesBySlug = new LinkedHashMap<>();
+        rows.forEach(row -> addAllIfPresent(namesBySlug, row.genres()));
+        List<GenreEntity> genres = new ArrayList<>();
+        for (String slug : findMissing(namesBySlug.keySet(), cache, bookImportRepository::findGenreIdsBySlug)) {
+            GenreEntity genre = new GenreEntity()
+                .id(bookImportRepository.nextId(GenreEntity.class))
+                .name(namesBySlug.get(slug))
+                .slug(slug)
+                .createdAt(now)
+                .updatedAt(now);
+            cache.put(slug, genre.getId());
+            genres.add(genre);
+        }
+        bookImportRepository.insertGenres(genres);
+    }
+
+    private void resolveTags(Collection<BookImportRow> rows, NaturalKeyCache cache, Instant now) {
+        Map<String, String> namesBySlug = new LinkedHashMap<>();
+        rows.forEach(row -> addAllIfPresent(namesBySlug, row.tags()));
+        List<TagEntity> tags = new ArrayList<>();
+        for (String slug : findMissing(namesBySlug.keySet(), cache, bookImportRepository::findTagIdsBySlug)) {
+            TagEntity tag = new TagEntity().id(bookImportRepository.nextId(TagEntity.class)).name(namesBySlug.get(slug)).slug(slug).createdAt(now);
+            cache.put(slug, tag.getId());
+            tags.add(tag);
+        }
+        bookImportRepository.insertTags(tags);
+    }
+
+    /**
+     * Find the keys which are neither cached nor in the database, caching the ones found in the database.
+     */
+    private static Set<String> findMissing(
+        Set<String> keys,
+        NaturalKeyCache cache,
+        Function<Collection<String>, Map<String, Long>> finder
+    ) {
+        Set<String> missing = new LinkedHashSet<>();
+        for (String key : keys) {
+            if (!cache.contains(key)) {
+                missing.add(key);
+            }
+        }
+        if (!missing.isEmpty()) {
+            finder.apply(missing).forEach(cache::put);
+            missing.removeIf(cache::contains);
+        }
+        return missing;
+    }
+
+    private void writeAuthors(List<BookEntity> books, Map<String, BookImportRow> rows, ImportContext context, Collection<Long> existingIds) {
+        List<BookEntity> changed = books.stream().filter(book -> rows.get(book.getIsbn()).authors() != null).toList();
+        bookImportRepository.deleteBookAuthorsByBookIdIn(changedExistingIds(changed, existingIds));
+        List<BookAuthorEntity> bookAuthors = new ArrayList<>();
+        for (BookEntity book : changed) {
+            Set<String> fullNames = new LinkedHashSet<>();
+            addAllIfPresent(fullNames, rows.get(book.getIsbn()).authors(), Function.identity());
+            int order = 0;
+            for (String fullName : fullNames) {
+                bookAuthors.add(
+                    new BookAuthorEntity()
+                        .id(bookImportRepository.nextId(BookAuthorEntity.class))
+                        .isPrimary(order == 0)
+                        .order(++order)
+                        .book(book)
+                        .author(new AuthorEntity().id(context.authors.get(fullName)))
+                );
+            }
+        }
+        bookImportRepository.insertBookAuthors(bookAuthors);
+    }
+
+    private void writeGenres(List<BookEntity> books, Map<String, BookImportRow> rows, ImportContext context, Collection<Long> existingIds) {
+        List<BookEntity> changed = books.stream().filter(book -> rows.get(book.getIsbn()).genres() != null).toList();
+        bookImportRepository.deleteBookGenresByBookIdIn(changedExistingIds(changed, existingIds));
+        List<BookGenreEntity> bookGenres = new ArrayList<>();
+        for (BookEntity book : changed) {
+            Set<String> slugs = new LinkedHashSet<>();
+            addAllIfPresent(slugs, rows.get(book.getIsbn()).genres(), BookImportService::slugify);
+            for (String slug : slugs) {
+                bookGenres.add(
+                    new BookGenreEntity()
+                        .id(bookImportRepository.nextId(BookGenreEntity.class))
+                        .book(book)
+                        .genre(new GenreEntity().id(context.genres.get(slug)))
+                );
+            }
+        }
+        bookImportRepository.insertBookGenres(bookGenres);
+    }
+
+    private void writeTags(List<BookEntity> books, Map<String, BookImportRow> rows, ImportContext context, Collection<Long> existingIds) {
+        List<BookEntity> changed = books.stream().filter(book -> rows.get(book.getIsbn()).tags() != null).toList();
+        bookImportRepository.deleteBookTagsByBookIdIn(changedExistingIds(changed, existingIds));
+        List<BookTagEntity> bookTags = new ArrayList<>();
+        for (BookEntity book : changed) {
+            Set<String> slugs = new LinkedHashSet<>();
+            addAllIfPresent(slugs, rows.get(book.getIsbn()).tags(), BookImportService::slugify);
+            for (String slug : slugs) {
+                bookTags.add(
+                    new BookTagEntity()
+                        .id(bookImportRepository.nextId(BookTagEntity.class))
+                        .book(book)
+                        .tag(new TagEntity().id(context.tags.get(slug)))
+                );
+            }
+        }
+        bookImportRepository.insertBookTags(bookTags);
+    }
+
+    private static List<Long> changedExistingIds(List<BookEntity> changed, Collection<Long> existingIds) {
+        return changed.stream().map(BookEntity::getId).filter(existingIds::contains).toList();
+    }
+
+    /**
+     * Check a row before it is written.
+     *
+     * @param row the row.
+     * @return the reason why the row cannot be imported, or {@code null} if it is valid.
+     */
+    static String validate(BookImportRow row) {
+        if (normalize(row.isbn()) == null) {
+            return "The isbn is required";
+        }
+        if (normalize(row.title()) == null) {
+            return "The title is required";
+        }
+        List<String> values = new ArrayList<>(List.of(row.isbn(), row.title()));
+        for (String value : new String[] { row.coverImageUrl(), row.language(), row.publisher() }) {
+            if (value != null) {
+                values.add(value);
+            }
+        }
+        for (List<String> names : List.of(nullToEmpty(row.authors()), nullToEmpty(row.genres()), nullToEmpty(row.tags()))) {
+            values.addAll(names);
+        }
+        for (String value : values) {
+            if (value != null && value.length() > MAX_LENGTH) {
+                return "Values are limited to " + MAX_LENGTH + " characters: " + value.substring(0, 20) + "...";
+            }
+        }
+        for (List<String> names : List.of(nullToEmpty(row.genres()), nullToEmpty(row.tags()))) {
+            for (String name : names) {
+                if (normalize(name) != null && slugify(name).isEmpty()) {
+                    return "The genre or tag has no letter nor digit: " + name;
+                }
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Build the slug of a genre or tag name: its letters and digits in lower case, separated by dashes.
+     *
+     * @param name the name.
+     * @return the slug.
+     */
+    static String slugify(String name) {
+        String withoutAccents = Normalizer.normalize(name, Normalizer.Form.NFD).replaceAll("\\p{M}", "");
+        return withoutAccents.toLowerCase(Locale.ROOT).replaceAll("[^\\p{L}\\p{N}]+", "-").replaceAll("(^-+)|(-+$)", "");
+    }
+
+    private static String normalize(String value) {
+        if (value == null || value.isBlank()) {
+            return null;
+        }
+        return value.trim().replaceAll("\\s+", " ");
+    }
+
+    private static void addIfPresent(Set<String> keys, String value) {
+        String normalized = normalize(value);
+        if (normalized != null) {
+            keys.add(normalized);
+        }
+    }
+
+    private static void addAllIfPresent(Set<String> keys, List<String> values, Function<String, String> toKey) {
+        for (String value : nullToEmpty(values)) {
+            String normalized = normalize(value);
+            if (normalized != null) {
+                keys.add(toKey.apply(normalized));
+            }
+        }
+    }
+
+    private static void addAllIfPresent(Map<String, String> namesBySlug, List<String> values) {
+        for (String value : nullToEmpty(values)) {
+            String normalized = normalize(value);
+            if (normalized != null) {
+                namesBySlug.putIfAbsent(slugify(normalized), normalized);
+            }
+        }
+    }
+
+    private static List<String> nullToEmpty(List<String> values) {
+        return values != null ? values : List.of();
+    }
+
+    private static void deleteFile(Path file) {
+        try {
+            Files.deleteIfExists(file);
+        } catch (IOException e) {
+            LOG.warn("Could not delete the import file {}: {}", file, e.getMessage());
+        }
+    }
+
+    private record ChunkResult(int created, int updated) {}
+
+    /**
+     * The natural key caches of an import.
+     */
+    private static final class ImportContext {
+
+        private final NaturalKeyCache publishers = new NaturalKeyCache();
+
+        private final NaturalKeyCache authors = new NaturalKeyCache();
+
+        private final NaturalKeyCache genres = new NaturalKeyCache();
+
+        private final NaturalKeyCache tags = new NaturalKeyCache();
+
+        private void commit() {
+            publishers.commit();
+            authors.commit();
+            genres.commit();
+            tags.commit();
+        }
+
+        private void rollback() {
+            publishers.rollback();
+            authors.rollback();
+            genres.rollback();
+            tags.rollback();
+        }
+
+        private int size() {
+            return publishers.size() + authors.size() + genres.size() + tags.size();
+        }
+    }
+}
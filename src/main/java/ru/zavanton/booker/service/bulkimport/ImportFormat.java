@@ -0,0 +1,59 @@
+package ru.zavanton.booker.service.bulkimport;
+
+import java.util.Locale;
+import java.util.Optional;
+
+/**
+ * Format of a bulk import file.
+ */
+public enum ImportFormat {
+    /**
+     * Comma-separated values with a header line naming the columns, as specified by RFC 4180.
+     */
+    CSV("csv"),
+
+    /**
+     * One JSON object per line.
+     */
+    NDJSON("ndjson", "jsonl");
+
+    private final String[] names;
+
+    ImportFormat(String... names) {
+        this.names = names;
+    }
+
+    /**
+     * Get the format of a name or of a file extension, ignoring the case.
+     *
+     * @param name the name of the format, such as {@code csv}, {@code ndjson} or {@code jsonl}.
+     * @return the format, or empty if there is none with this name.
+     */
+    public static Optional<ImportFormat> fromName(String name) {
+        if (name == null) {
+            return Optional.empty();
+        }
+        String lowerCaseName = name.toLowerCase(Locale.ROOT);
+        for (ImportFormat format : values()) {
+            for (String formatName : format.names) {
+                if (formatName.equals(lowerCaseName)) {
+                    return Optional.of(format);
+                }
+            }
+        }
+        return Optional.empty();
+    }
+
+    /**
+     * Get the format of a file from its extension.
+     *
+     * @param filename the name of the file.
+     * @return the format, or empty if the extension is not known.
+     */
+    public static Optional<ImportFormat> fromFilename(String filename) {
+        if (filename == null || filename.lastIndexOf('.') < 0) {
+            return Optional.empty();
+        }
+        return fromName(filename.substring(filename.lastIndexOf('.') + 1));
+    }
+}
@@ -0,0 +1,43 @@
+package ru.zavanton.booker.service.bulkimport;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * In-memory cache of the identifiers of the entities of one kind by natural key, for the duration of an import.
+ * <p>
+ * The identifiers found or inserted by a chunk are pending until {@link #commit()}, and forgotten by
+ * {@link #rollback()} when the transaction of the chunk is rolled back, so that only committed rows are cached.
+ */
+class NaturalKeyCache {
+
+    private final Map<String, Long> committed = new HashMap<>();
+
+    private final Map<String, Long> pending = new HashMap<>();
+
+    boolean contains(String key) {
+        return committed.containsKey(key) || pending.containsKey(key);
+    }
+
+    Long get(String key) {
+        Long id = pending.get(key);
+        return id != null ? id : committed.get(key);
+    }
+
+    void put(String key, Long id) {
+        pending.put(key, id);
+    }
+
+    void commit() {
+        committed.putAll(pending);
+        pending.clear();
+    }
+
+    void rollback() {
+        pending.clear();
+    }
+
+    int size() {
+        return committed.size();
+    }
+}
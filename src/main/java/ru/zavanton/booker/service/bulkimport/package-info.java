@@ -0,0 +1,4 @@
+/**
+ * Bulk import of publisher feeds into the book catalog.
+ */
+package ru.zavanton.booker.service.bulkimport;
@@ -62,6 +62,12 @@ public class BookCriteria implements Serializable, Criteria {
 
     private LongFilter publisherId;
 
+    private LongFilter authorId;
+
+    private LongFilter genreId;
+
+    private LongFilter tagId;
+
     private Boolean distinct;
 
     public BookCriteria() {}
@@ -87,6 +93,9 @@ public class BookCriteria implements Serializable, Criteria {
         this.bookTagId = other.optionalBookTagId().map(LongFilter::copy).orElse(null);
         this.bookCollectionId = other.optionalBookCollectionId().map(LongFilter::copy).orElse(null);
         this.publisherId = other.optionalPublisherId().map(LongFilter::copy).orElse(null);
+        this.authorId = other.optionalAuthorId().map(LongFilter::copy).orElse(null);
+        this.genreId = other.optionalGenreId().map(LongFilter::copy).orElse(null);
+        this.tagId = other.optionalTagId().map(LongFilter::copy).orElse(null);
         this.distinct = other.distinct;
     }
 
@@ -475,6 +484,63 @@ public class BookCriteria implements Serializable, Criteria {
         this.publisherId = publisherId;
     }
 
+    public LongFilter getAuthorId() {
+        return authorId;
+    }
+
+    public Optional<LongFilter> optionalAuthorId() {
+        return Optional.ofNullable(authorId);
+    }
+
+    public LongFilter authorId() {
+        if (authorId == null) {
+            setAuthorId(new LongFilter());
+        }
+        return authorId;
+    }
+
+    public void setAuthorId(LongFilter authorId) {
+        this.authorId = authorId;
+    }
+
+    public LongFilter getGenreId() {
+        return genreId;
+    }
+
+    public Optional<LongFilter> optionalGenreId() {
+        return Optional.ofNullable(genreId);
+    }
+
+    public LongFilter genreId() {
+        if (genreId == null) {
+            setGenreId(new LongFilter());
+        }
+        return genreId;
+    }
+
+    public void setGenreId(LongFilter genreId) {
+        this.genreId = genreId;
+    }
+
+    public LongFilter getTagId() {
+        return tagId;
+    }
+
+    public Optional<LongFilter> optionalTagId() {
+        return Optional.ofNullable(tagId);
+    }
+
+    public LongFilter tagId() {
+        if (tagId == null) {
+            setTagId(new LongFilter());
+        }
+        return tagId;
+    }
+
+    public void setTagId(LongFilter tagId) {
+        this.tagId = tagId;
+    }
+
     public Boolean getDistinct() {
         return distinct;
     }
@@ -524,6 +590,9 @@ public class BookCriteria implements Serializable, Criteria {
             Objects.equals(bookTagId, that.bookTagId) &&
             Objects.equals(bookCollectionId, that.bookCollectionId) &&
             Objects.equals(publisherId, that.publisherId) &&
+            Objects.equals(authorId, that.authorId) &&
+            Objects.equals(genreId, that.genreId) &&
+            Objects.equals(tagId, that.tagId) &&
             Objects.equals(distinct, that.distinct)
         );
     }
@@ -551,6 +620,9 @@ public class BookCriteria implements Serializable, Criteria {
             bookTagId,
             bookCollectionId,
             publisherId,
+            authorId,
+            genreId,
+            tagId,
             distinct
         );
     }
@@ -579,6 +651,9 @@ public class BookCriteria implements Serializable, Criteria {
             optionalBookTagId().map(f -> "bookTagId=" + f + ", ").orElse("") +
             optionalBookCollectionId().map(f -> "bookCollectionId=" + f + ", ").orElse("") +
             optionalPublisherId().map(f -> "publisherId=" + f + ", ").orElse("") +
+            optionalAuthorId().map(f -> "authorId=" + f + ", ").orElse("") +
+            optionalGenreId().map(f -> "genreId=" + f + ", ").orElse("") +
+            optionalTagId().map(f -> "tagId=" + f + ", ").orElse("") +
             optionalDistinct().map(f -> "distinct=" + f + ", ").orElse("") +
         "}";
     }
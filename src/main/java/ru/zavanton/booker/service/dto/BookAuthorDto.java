@@ -0,0 +1,85 @@
+package ru.zavanton.booker.service.dto;
+
+import java.io.Serializable;
+import java.util.Objects;
+
+/**
+ * A DTO for the {@link ru.zavanton.booker.domain.BookAuthorEntity} entity.
+ */
+@SuppressWarnings("common-java:DuplicatedBlocks")
+public class BookAuthorDto implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    private Long id;
+
+    private Boolean isPrimary;
+
+    private Integer order;
+
+    private AuthorDto author;
+
+    public Long getId() {
+        return id;
+    }
+
+    public void setId(Long id) {
+        this.id = id;
+    }
+
+    public Boolean getIsPrimary() {
+        return isPrimary;
+    }
+
+    public void setIsPrimary(Boolean isPrimary) {
+        this.isPrimary = isPrimary;
+    }
+
+    public Integer getOrder() {
+        return order;
+    }
+
+    public void setOrder(Integer order) {
+        this.order = order;
+    }
+
+    public AuthorDto getAuthor() {
+        return author;
+    }
+
+    public void setAuthor(AuthorDto author) {
+        this.author = author;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (!(o instanceof BookAuthorDto)) {
+            return false;
+        }
+
+        BookAuthorDto bookAuthorDto = (BookAuthorDto) o;
+        if (this.id == null) {
+            return false;
+        }
+        return Objects.equals(this.id, bookAuthorDto.id);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(this.id);
+    }
+
+    // prettier-ignore
+    @Override
+    public String toString() {
+        return "BookAuthorDto{" +
+            "id=" + getId() +
+            ", isPrimary=" + getIsPrimary() +
+            ", order=" + getOrder() +
+            ", author=" + getAuthor() +
+            "}";
+    }
+}
@@ -0,0 +1,202 @@
+package ru.zavanton.booker.service.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import java.io.Serializable;
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.util.Objects;
+
+/**
+ * A DTO for the {@link ru.zavanton.booker.domain.BookEntity} entity.
+ * <p>
+ * The {@code description} is only set, and serialized, when the book is read on its own, not in lists.
+ */
+@SuppressWarnings("common-java:DuplicatedBlocks")
+public class BookDto implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    private Long id;
+
+    private String isbn;
+
+    private String title;
+
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    private String description;
+
+    private String coverImageUrl;
+
+    private Integer pageCount;
+
+    private LocalDate publicationDate;
+
+    private String language;
+
+    private BigDecimal averageRating;
+
+    private Integer totalRatings;
+
+    private Integer totalReviews;
+
+    private Instant createdAt;
+
+    private Instant updatedAt;
+
+    private PublisherDto publisher;
+
+    public Long getId() {
+        return id;
+    }
+
+    public void setId(Long id) {
+        this.id = id;
+    }
+
+    public String getIsbn() {
+        return isbn;
+    }
+
+    public void setIsbn(String isbn) {
+        this.isbn = isbn;
+    }
+
+    public String getTitle() {
+        return title;
+    }
+
+    public void setTitle(String title) {
+        this.title = title;
+    }
+
+    public String getDescription() {
+        return description;
+    }
+
+    public void setDescription(String description) {
+        this.description = description;
+    }
+
+    public String getCoverImageUrl() {
+        return coverImageUrl;
+    }
+
+    public void setCoverImageUrl(String coverImageUrl) {
+        this.coverImageUrl = coverImageUrl;
+    }
+
+    public Integer getPageCount() {
+        return pageCount;
+    }
+
+    public void setPageCount(Integer pageCount) {
+        this.pageCount = pageCount;
+    }
+
+    public LocalDate getPublicationDate() {
+        return publicationDate;
+    }
+
+    public void setPublicationDate(LocalDate publicationDate) {
+        this.publicationDate = publicationDate;
+    }
+
+    public String getLanguage() {
+        return language;
+    }
+
+    public void setLanguage(String language) {
+        this.language = language;
+    }
+
+    public BigDecimal getAverageRating() {
+        return averageRating;
+    }
+
+    public void setAverageRating(BigDecimal averageRating) {
+        this.averageRating = averageRating;
+    }
+
+    public Integer getTotalRatings() {
+        return totalRatings;
+    }
+
+    public void setTotalRatings(Integer totalRatings) {
+        this.totalRatings = totalRatings;
+    }
+
+    public Integer getTotalReviews() {
+        return totalReviews;
+    }
+
+    public void setTotalReviews(Integer totalReviews) {
+        this.totalReviews = totalReviews;
+    }
+
+    public Instant getCreatedAt() {
+        return createdAt;
+    }
+
+    public void setCreatedAt(Instant createdAt) {
+        this.createdAt = createdAt;
+    }
+
+    public Instant getUpdatedAt() {
+        return updatedAt;
+    }
+
+    public void setUpdatedAt(Instant updatedAt) {
+        this.updatedAt = updatedAt;
+    }
+
+    public PublisherDto getPublisher() {
+        return publisher;
+    }
+
+    public void setPublisher(PublisherDto publisher) {
+        this.publisher = publisher;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (!(o instanceof BookDto)) {
+            return false;
+        }
+
+        BookDto bookDto = (BookDto) o;
+        if (this.id == null) {
+            return false;
+        }
+        return Objects.equals(this.id, bookDto.id);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(this.id);
+    }
+
+    // prettier-ignore
+    @Override
+    public String toString() {
+        return "BookDto{" +
+            "id=" + getId() +
+            ", isbn='" + getIsbn() + "'" +
+            ", title='" + getTitle() + "'" +
+            ", description='" + getDescription() + "'" +
+            ", coverImageUrl='" + getCoverImageUrl() + "'" +
+            ", pageCount=" + getPageCount() +
+            ", publicationDate=" + getPublicationDate() +
+            ", language='" + getLanguage() + "'" +
+            ", averageRating=" + getAverageRating() +
+            ", totalRatings=" + getTotalRatings() +
+            ", totalReviews=" + getTotalReviews() +
+            ", createdAt=" + getCreatedAt() +
+            ", updatedAt=" + getUpdatedAt() +
+            ", publisher=" + getPublisher() +
+            "}";
+    }
+}
@@ -0,0 +1,68 @@
+package ru.zavanton.booker.service.dto;
+
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * A DTO for the facets of the books matching a {@link ru.zavanton.booker.service.criteria.BookCriteria},
+ * returned by {@code /api/books/facets}.
+ * <p>
+ * The genres and publishers are identified by their id, with their name as value; the languages and decades
+ * (e.g. {@code 1990} for the books published from 1990 to 1999) have no id. Each facet is ordered by count, highest first.
+ */
+public class BookFacetsDto implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    private List<FacetCountDto> genres = new ArrayList<>();
+
+    private List<FacetCountDto> languages = new ArrayList<>();
+
+    private List<FacetCountDto> publishers = new ArrayList<>();
+
+    private List<FacetCountDto> decades = new ArrayList<>();
+
+    public List<FacetCountDto> getGenres() {
+        return genres;
+    }
+
+    public void setGenres(List<FacetCountDto> genres) {
+        this.genres = genres;
+    }
+
+    public List<FacetCountDto> getLanguages() {
+        return languages;
+    }
+
+    public void setLanguages(List<FacetCountDto> languages) {
+        this.languages = languages;
+    }
+
+    public List<FacetCountDto> getPublishers() {
+        return publishers;
+    }
+
+    public void setPublishers(List<FacetCountDto> publishers) {
+        this.publishers = publishers;
+    }
+
+    public List<FacetCountDto> getDecades() {
+        return decades;
+    }
+
+    public void setDecades(List<FacetCountDto> decades) {
+        this.decades = decades;
+    }
+
+    // prettier-ignore
+    @Override
+    public String toString() {
+        return "BookFacetsDto{" +
+            "genres=" + getGenres() +
+            ", languages=" + getLanguages() +
+            ", publishers=" + getPublishers() +
+            ", decades=" + getDecades() +
+            "}";
+    }
+}
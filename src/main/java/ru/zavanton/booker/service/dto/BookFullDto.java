@@ -0,0 +1,55 @@
+package ru.zavanton.booker.service.dto;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * A DTO for a {@link ru.zavanton.booker.domain.BookEntity} with its publisher, authors, genres and tags,
+ * returned by the book detail aggregate endpoint.
+ */
+@SuppressWarnings("common-java:DuplicatedBlocks")
+public class BookFullDto extends BookDto {
+
+    private static final long serialVersionUID = 1L;
+
+    private List<BookAuthorDto> authors = new ArrayList<>();
+
+    private List<GenreDto> genres = new ArrayList<>();
+
+    private List<TagDto> tags = new ArrayList<>();
+
+    public List<BookAuthorDto> getAuthors() {
+        return authors;
+    }
+
+    public void setAuthors(List<BookAuthorDto> authors) {
+        this.authors = authors;
+    }
+
+    public List<GenreDto> getGenres() {
+        return genres;
+    }
+
+    public void setGenres(List<GenreDto> genres) {
+        this.genres = genres;
+    }
+
+    public List<TagDto> getTags() {
+        return tags;
+    }
+
+    public void setTags(List<TagDto> tags) {
+        this.tags = tags;
+    }
+
+    // prettier-ignore
+    @Override
+    public String toString() {
+        return "BookFullDto{" +
+            super.toString() +
+            ", authors=" + getAuthors() +
+            ", genres=" + getGenres() +
+            ", tags=" + getTags() +
+            "}";
+    }
+}
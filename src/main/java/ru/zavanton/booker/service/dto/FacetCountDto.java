@@ -0,0 +1,59 @@
+package ru.zavanton.booker.service.dto;
+
+import java.io.Serializable;
+
+/**
+ * A DTO for the number of books having a value of a facet, returned by {@code /api/books/facets}.
+ */
+public class FacetCountDto implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    private Long id;
+
+    private String value;
+
+    private long count;
+
+    public FacetCountDto() {}
+
+    public FacetCountDto(Long id, String value, long count) {
+        this.id = id;
+        this.value = value;
+        this.count = count;
+    }
+
+    public Long getId() {
+        return id;
+    }
+
+    public void setId(Long id) {
+        this.id = id;
+    }
+
+    public String getValue() {
+        return value;
+    }
+
+    public void setValue(String value) {
+        this.value = value;
+    }
+
+    public long getCount() {
+        return count;
+    }
+
+    public void setCount(long count) {
+        this.count = count;
+    }
+
+    // prettier-ignore
+    @Override
+    public String toString() {
+        return "FacetCountDto{" +
+            "id=" + getId() +
+            ", value='" + getValue() + "'" +
+            ", count=" + getCount() +
+            "}";
+    }
+}
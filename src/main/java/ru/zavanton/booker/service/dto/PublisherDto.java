@@ -0,0 +1,63 @@
+package ru.zavanton.booker.service.dto;
+
+import java.io.Serializable;
+import java.util.Objects;
+
+/**
+ * A DTO for the {@link ru.zavanton.booker.domain.PublisherEntity} entity.
+ */
+@SuppressWarnings("common-java:DuplicatedBlocks")
+public class PublisherDto implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    private Long id;
+
+    private String name;
+
+    public Long getId() {
+        return id;
+    }
+
+    public void setId(Long id) {
+        this.id = id;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public void setName(String name) {
+        this.name = name;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (!(o instanceof PublisherDto)) {
+            return false;
+        }
+
+        PublisherDto publisherDto = (PublisherDto) o;
+        if (this.id == null) {
+            return false;
+        }
+        return Objects.equals(this.id, publisherDto.id);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(this.id);
+    }
+
+    // prettier-ignore
+    @Override
+    public String toString() {
+        return "PublisherDto{" +
+            "id=" + getId() +
+            ", name='" + getName() + "'" +
+            "}";
+    }
+}
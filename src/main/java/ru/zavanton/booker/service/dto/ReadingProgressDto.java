@@ -0,0 +1,45 @@
+package ru.zavanton.booker.service.dto;
+
+import jakarta.validation.constraints.Min;
+import jakarta.validation.constraints.NotNull;
+import java.io.Serializable;
+
+/**
+ * A DTO for the current page of the current user in a book, sent to {@code /api/reading-statuses/progress}.
+ */
+public class ReadingProgressDto implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    @NotNull
+    private Long bookId;
+
+    @NotNull
+    @Min(0)
+    private Integer currentPage;
+
+    public Long getBookId() {
+        return bookId;
+    }
+
+    public void setBookId(Long bookId) {
+        this.bookId = bookId;
+    }
+
+    public Integer getCurrentPage() {
+        return currentPage;
+    }
+
+    public void setCurrentPage(Integer currentPage) {
+        this.currentPage = currentPage;
+    }
+
+    // prettier-ignore
+    @Override
+    public String toString() {
+        return "ReadingProgressDto{" +
+            "bookId=" + getBookId() +
+            ", currentPage=" + getCurrentPage() +
+            "}";
+    }
+}
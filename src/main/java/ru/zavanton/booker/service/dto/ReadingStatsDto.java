@@ -0,0 +1,73 @@
+package ru.zavanton.booker.service.dto;
+
+import java.io.Serializable;
+
+/**
+ * A DTO for the reading statistics of a user in a year, returned by {@code /api/account/stats}.
+ */
+public class ReadingStatsDto implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    private int year;
+
+    private int booksRead;
+
+    private long pagesRead;
+
+    private int ratingsGiven;
+
+    private Double averageRating;
+
+    public int getYear() {
+        return year;
+    }
+
+    public void setYear(int year) {
+        this.year = year;
+    }
+
+    public int getBooksRead() {
+        return booksRead;
+    }
+
+    public void setBooksRead(int booksRead) {
+        this.booksRead = booksRead;
+    }
+
+    public long getPagesRead() {
+        return pagesRead;
+    }
+
+    public void setPagesRead(long pagesRead) {
+        this.pagesRead = pagesRead;
+    }
+
+    public int getRatingsGiven() {
+        return ratingsGiven;
+    }
+
+    public void setRatingsGiven(int ratingsGiven) {
+        this.ratingsGiven = ratingsGiven;
+    }
+
+    public Double getAverageRating() {
+        return averageRating;
+    }
+
+    public void setAverageRating(Double averageRating) {
+        this.averageRating = averageRating;
+    }
+
+    // prettier-ignore
+    @Override
+    public String toString() {
+        return "ReadingStatsDto{" +
+            "year=" + getYear() +
+            ", booksRead=" + getBooksRead() +
+            ", pagesRead=" + getPagesRead() +
+            ", ratingsGiven=" + getRatingsGiven() +
+            ", averageRating=" + getAverageRating() +
+            "}";
+    }
+}
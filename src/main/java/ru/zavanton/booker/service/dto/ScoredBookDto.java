@@ -0,0 +1,29 @@
+package ru.zavanton.booker.service.dto;
+
+/**
+ * A DTO for a {@link ru.zavanton.booker.domain.BookEntity} with a score, returned by the trending and similar books endpoints.
+ */
+@SuppressWarnings("common-java:DuplicatedBlocks")
+public class ScoredBookDto extends BookDto {
+
+    private static final long serialVersionUID = 1L;
+
+    private Double score;
+
+    public Double getScore() {
+        return score;
+    }
+
+    public void setScore(Double score) {
+        this.score = score;
+    }
+
+    // prettier-ignore
+    @Override
+    public String toString() {
+        return "ScoredBookDto{" +
+            super.toString() +
+            ", score=" + getScore() +
+            "}";
+    }
+}
@@ -0,0 +1,177 @@
+package ru.zavanton.booker.service.export;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import jakarta.annotation.PreDestroy;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.RecordComponent;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.stream.Stream;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.core.task.TaskRejectedException;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import ru.zavanton.booker.config.ApplicationProperties;
+import ru.zavanton.booker.repository.BookExportProjection;
+import ru.zavanton.booker.service.BookQueryService;
+import ru.zavanton.booker.service.criteria.BookCriteria;
+
+/**
+ * Service writing the books matching a {@link BookCriteria} to an {@link OutputStream}, as NDJSON or CSV.
+ * <p>
+ * The books are read through a forward-only database cursor, {@code application.export.fetch-size} rows at a time,
+ * and each row is written as soon as it is read, so that the memory used does not depend on the size of the catalog.
+ * <p>
+ * The exports run on {@code application.export.pool-size} threads of their own, so that they do not hold the threads
+ * of the shared task executor for as long as they last.
+ */
+@Service
+public class BookExportService {
+
+    private static final Logger LOG = LoggerFactory.getLogger(BookExportService.class);
+
+    private static final int BUFFER_SIZE = 8192;
+
+    private static final RecordComponent[] COLUMNS = BookExportProjection.class.getRecordComponents();
+
+    private final BookQueryService bookQueryService;
+
+    private final ObjectWriter rowWriter;
+
+    private final int fetchSize;
+
+    private final ThreadPoolTaskExecutor executor;
+
+    public BookExportService(BookQueryService bookQueryService, ObjectMapper objectMapper, ApplicationProperties applicationProperties) {
+        this.bookQueryService = bookQueryService;
+        // Flushing after each row would send a chunk per row
+        this.rowWriter = objectMapper.writerFor(BookExportProjection.class).without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE);
+        ApplicationProperties.Export properties = applicationProperties.getExport();
+        this.fetchSize = properties.getFetchSize();
+        this.executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(properties.getPoolSize());
+        executor.setMaxPoolSize(properties.getPoolSize());
+        executor.setQueueCapacity(properties.getQueueCapacity());
+        executor.setThreadNamePrefix("booker-export-");
+        executor.initialize();
+    }
+
+    /**
+     * Run a task writing an export in the background, on one of the threads of the exports.
+     *
+     * @param task the task writing the export.
+     * @throws TaskRejectedException if all the threads are busy and {@code application.export.queue-capacity} exports
+     * already wait for one.
+     */
+    public void execute(Runnable task) {
+        executor.execute(task);
+    }
+
+    /**
+     * Stop the threads of the exports, interrupting the running ones.
+     */
+    @PreDestroy
+    public void destroy() {
+        executor.shutdown();
+    }
+
+    /**
+     * Write the books matching the criteria, ordered by id.
+     * <p>
+     * The output stream is flushed but not closed.
+     *
+     * @param criteria the criteria which the exported books should match.
+     * @param format the format of the export.
+     * @param outputStream the stream to write to.
+     * @return the number of exported books.
+     * @throws IOException if the output stream could not be written.
+     */
+    @Transactional(readOnly = true)
+    public long export(BookCriteria criteria, ExportFormat format, OutputStream outputStream) throws IOException {
+        LOG.debug("Request to export Books as {} by criteria: {}", format, criteria);
+        Writer writer = new BufferedWriter(new OutputStreamWriter(outputStream, StandardCharsets.UTF_8), BUFFER_SIZE);
+        long count;
+        try (Stream<BookExportProjection> books = bookQueryService.streamByCriteria(criteria, fetchSize)) {
+            count = switch (format) {
+                case NDJSON -> writeNdjson(books.iterator(), writer);
+                case CSV -> writeCsv(books.iterator(), writer);
+            };
+        }
+        writer.flush();
+        LOG.debug("Exported {} Books as {}", count, format);
+        return count;
+    }
+
+    private long writeNdjson(Iterator<BookExportProjection> books, Writer writer) throws IOException {
+        long count = 0;
+        try (JsonGenerator generator = rowWriter.createGenerator(writer)) {
+            generator.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+            while (books.hasNext()) {
+                rowWriter.writeValue(generator, books.next());
+                generator.writeRaw('\n');
+                count++;
+            }
+        }
+        return count;
+    }
+
+    private long writeCsv(Iterator<BookExportProjection> books, Writer writer) throws IOException {
+        writeCsvLine(writer, Arrays.stream(COLUMNS).map(RecordComponent::getName).toArray());
+        long count = 0;
+        Object[] values = new Object[COLUMNS.length];
+        while (books.hasNext()) {
+            BookExportProjection book = books.next();
+            for (int i = 0; i < COLUMNS.length; i++) {
+                values[i] = getValue(COLUMNS[i].getAccessor(), book);
+            }
+            writeCsvLine(writer, values);
+            count++;
+        }
+        return count;
+    }
+
+    private static void writeCsvLine(Writer writer, Object[] values) throws IOException {
+        for (int i = 0; i < values.length; i++) {
+            if (i > 0) {
+                writer.write(',');
+            }
+            writeCsvValue(writer, values[i]);
+        }
+        writer.write("\r\n");
+    }
+
+    private static void writeCsvValue(Writer writer, Object value) throws IOException {
+        if (value == null) {
+            return;
+        }
+        String text = value instanceof BigDecimal decimal ? decimal.toPlainString() : value.toString();
+        if (text.indexOf(',') < 0 && text.indexOf('"') < 0 && text.indexOf('\n') < 0 && text.indexOf('\r') < 0) {
+            writer.write(text);
+            return;
+        }
+        writer.write('"');
+        writer.write(text.replace("\"", "\"\""));
+        writer.write('"');
+    }
+
+    private static Object getValue(Method accessor, BookExportProjection book) {
+        try {
+            return accessor.invoke(book);
+        } catch (IllegalAccessException | InvocationTargetException e) {
+            throw new IllegalStateException("Could not read " + accessor.getName() + " of the exported book " + book.id(), e);
+        }
+    }
+}
@@ -0,0 +1,51 @@
+package ru.zavanton.booker.service.export;
+
+import java.util.Locale;
+import java.util.Optional;
+
+/**
+ * Format of a streamed export.
+ */
+public enum ExportFormat {
+    /**
+     * One JSON object per line.
+     */
+    NDJSON("application/x-ndjson", "ndjson"),
+
+    /**
+     * Comma-separated values with a header line, as specified by RFC 4180.
+     */
+    CSV("text/csv", "csv");
+
+    private final String mediaType;
+
+    private final String extension;
+
+    ExportFormat(String mediaType, String extension) {
+        this.mediaType = mediaType;
+        this.extension = extension;
+    }
+
+    public String getMediaType() {
+        return mediaType;
+    }
+
+    public String getExtension() {
+        return extension;
+    }
+
+    /**
+     * Get the format of a name, ignoring the case.
+     *
+     * @param name the name of the format.
+     * @return the format, or empty if there is none with this name.
+     */
+    public static Optional<ExportFormat> fromName(String name) {
+        for (ExportFormat format : values()) {
+            if (format.name().equals(name.toUpperCase(Locale.ROOT))) {
+                return Optional.of(format);
+            }
+        }
+        return Optional.empty();
+    }
+}
@@ -0,0 +1,4 @@
+/**
+ * Streamed exports of the book catalog.
+ */
+package ru.zavanton.booker.service.export;
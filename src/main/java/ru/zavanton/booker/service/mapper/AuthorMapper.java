@@ -0,0 +1,18 @@
+package ru.zavanton.booker.service.mapper;
+
+import org.mapstruct.Mapper;
+import org.mapstruct.Mapping;
+import ru.zavanton.booker.domain.AuthorEntity;
+import ru.zavanton.booker.repository.AuthorSummaryProjection;
+import ru.zavanton.booker.service.dto.AuthorDto;
+
+/**
+ * Mapper for the entity {@link AuthorEntity} and its projections to the DTO {@link AuthorDto}.
+ */
+@Mapper(componentModel = "spring")
+public interface AuthorMapper {
+    AuthorDto toDto(AuthorEntity author);
+
+    @Mapping(target = "biography", ignore = true)
+    AuthorDto toDto(AuthorSummaryProjection author);
+}
@@ -0,0 +1,73 @@
+package ru.zavanton.booker.service.mapper;
+
+import org.mapstruct.BeanMapping;
+import org.mapstruct.Mapper;
+import org.mapstruct.Mapping;
+import org.mapstruct.Named;
+import ru.zavanton.booker.domain.BookAuthorEntity;
+import ru.zavanton.booker.domain.BookEntity;
+import ru.zavanton.booker.domain.GenreEntity;
+import ru.zavanton.booker.domain.PublisherEntity;
+import ru.zavanton.booker.domain.TagEntity;
+import ru.zavanton.booker.repository.BookSummaryProjection;
+import ru.zavanton.booker.service.dto.BookAuthorDto;
+import ru.zavanton.booker.service.dto.BookDto;
+import ru.zavanton.booker.service.dto.BookFullDto;
+import ru.zavanton.booker.service.dto.GenreDto;
+import ru.zavanton.booker.service.dto.PublisherDto;
+import ru.zavanton.booker.service.dto.ScoredBookDto;
+import ru.zavanton.booker.service.dto.TagDto;
+
+/**
+ * Mapper for the entity {@link BookEntity} and its projections to the DTOs {@link BookDto}, {@link BookFullDto}
+ * and {@link ScoredBookDto}.
+ */
+@Mapper(componentModel = "spring")
+public interface BookMapper {
+    @Mapping(target = "publisher", source = "publisher", qualifiedByName = "publisherId")
+    BookDto toDto(BookEntity book);
+
+    @Mapping(target = "description", ignore = true)
+    @Mapping(target = "publisher", source = "publisherId", qualifiedByName = "publisherFromId")
+    BookDto toDto(BookSummaryProjection book);
+
+    @Mapping(target = "authors", ignore = true)
+    @Mapping(target = "genres", ignore = true)
+    @Mapping(target = "tags", ignore = true)
+    @Mapping(target = "publisher", source = "publisher", qualifiedByName = "publisher")
+    BookFullDto toFullDto(BookEntity book);
+
+    @Mapping(target = "description", ignore = true)
+    @Mapping(target = "score", ignore = true)
+    @Mapping(target = "publisher", source = "publisher", qualifiedByName = "publisherId")
+    ScoredBookDto toScoredDto(BookEntity book);
+
+    @Mapping(target = "author.biography", ignore = true)
+    BookAuthorDto toDto(BookAuthorEntity bookAuthor);
+
+    @Mapping(target = "description", ignore = true)
+    GenreDto toDto(GenreEntity genre);
+
+    TagDto toDto(TagEntity tag);
+
+    @Named("publisher")
+    @BeanMapping(ignoreByDefault = true)
+    @Mapping(target = "id", source = "id")
+    @Mapping(target = "name", source = "name")
+    PublisherDto toDtoPublisher(PublisherEntity publisher);
+
+    @Named("publisherId")
+    @BeanMapping(ignoreByDefault = true)
+    @Mapping(target = "id", source = "id")
+    PublisherDto toDtoPublisherId(PublisherEntity publisher);
+
+    @Named("publisherFromId")
+    default PublisherDto toDtoPublisherFromId(Long id) {
+        if (id == null) {
+            return null;
+        }
+        PublisherDto publisher = new PublisherDto();
+        publisher.setId(id);
+        return publisher;
+    }
+}
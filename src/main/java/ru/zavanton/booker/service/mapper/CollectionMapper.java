@@ -0,0 +1,40 @@
+package ru.zavanton.booker.service.mapper;
+
+import org.mapstruct.BeanMapping;
+import org.mapstruct.Mapper;
+import org.mapstruct.Mapping;
+import org.mapstruct.Named;
+import ru.zavanton.booker.domain.CollectionEntity;
+import ru.zavanton.booker.domain.UserEntity;
+import ru.zavanton.booker.repository.CollectionSummaryProjection;
+import ru.zavanton.booker.service.dto.CollectionDto;
+import ru.zavanton.booker.service.dto.UserDto;
+
+/**
+ * Mapper for the entity {@link CollectionEntity} and its projections to the DTO {@link CollectionDto}.
+ */
+@Mapper(componentModel = "spring")
+public interface CollectionMapper {
+    @Mapping(target = "user", source = "user", qualifiedByName = "userLogin")
+    CollectionDto toDto(CollectionEntity collection);
+
+    @Mapping(target = "description", ignore = true)
+    @Mapping(target = "user", source = "userId", qualifiedByName = "userFromId")
+    CollectionDto toDto(CollectionSummaryProjection collection);
+
+    @Named("userLogin")
+    @BeanMapping(ignoreByDefault = true)
+    @Mapping(target = "id", source = "id")
+    @Mapping(target = "login", source = "login")
+    UserDto toDtoUserLogin(UserEntity user);
+
+    @Named("userFromId")
+    default UserDto toDtoUserId(Long id) {
+        if (id == null) {
+            return null;
+        }
+        UserDto user = new UserDto();
+        user.setId(id);
+        return user;
+    }
+}
@@ -0,0 +1,18 @@
+package ru.zavanton.booker.service.mapper;
+
+import org.mapstruct.Mapper;
+import org.mapstruct.Mapping;
+import ru.zavanton.booker.domain.GenreEntity;
+import ru.zavanton.booker.repository.GenreSummaryProjection;
+import ru.zavanton.booker.service.dto.GenreDto;
+
+/**
+ * Mapper for the entity {@link GenreEntity} and its projections to the DTO {@link GenreDto}.
+ */
+@Mapper(componentModel = "spring")
+public interface GenreMapper {
+    GenreDto toDto(GenreEntity genre);
+
+    @Mapping(target = "description", ignore = true)
+    GenreDto toDto(GenreSummaryProjection genre);
+}
@@ -0,0 +1,27 @@
+package ru.zavanton.booker.service.pagination;
+
+import java.util.List;
+import java.util.function.Function;
+
+/**
+ * A page of entities fetched with keyset pagination.
+ *
+ * @param content the entities of the page.
+ * @param size the requested page size.
+ * @param nextCursor the cursor of the next page, or {@code null} if this is the last page.
+ */
+public record CursorPage<T>(List<T> content, int size, String nextCursor) {
+    public boolean hasNext() {
+        return nextCursor != null;
+    }
+
+    /**
+     * Convert the content of this page, keeping its cursor.
+     *
+     * @param converter the function converting each element.
+     * @return the converted page.
+     */
+    public <U> CursorPage<U> map(Function<? super T, ? extends U> converter) {
+        return new CursorPage<>(content.stream().<U>map(converter).toList(), size, nextCursor);
+    }
+}
@@ -0,0 +1,306 @@
+package ru.zavanton.booker.service.pagination;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.CriteriaQuery;
+import jakarta.persistence.criteria.Expression;
+import jakarta.persistence.criteria.Predicate;
+import jakarta.persistence.criteria.Root;
+import jakarta.persistence.criteria.Selection;
+import jakarta.persistence.metamodel.Attribute;
+import jakarta.persistence.metamodel.EntityType;
+import jakarta.persistence.metamodel.SingularAttribute;
+import java.lang.reflect.RecordComponent;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.List;
+import java.util.Objects;
+import java.util.function.Function;
+import org.springframework.beans.BeanWrapperImpl;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.stereotype.Component;
+import ru.zavanton.booker.repository.SpecificationProjectionRepository;
+
+/**
+ * Fetches pages of entities matching a {@link Specification} with keyset (seek) pagination.
+ * <p>
+ * Instead of skipping {@code OFFSET} rows and counting all matching rows, each page is fetched with a predicate
+ * on the sort key of the last row of the previous page, carried by an opaque cursor. The entities are ordered
+ * by one optional sort property and then by id, which makes the order total and stable; rows with a {@code null}
+ * sort value always come last, whatever the direction.
+ */
+@Component
+public class KeysetPaginator {
+
+    private static final String SORT_KEY = "s";
+
+    private static final String DIRECTION_KEY = "d";
+
+    private static final String VALUE_KEY = "v";
+
+    private static final String ID_KEY = "i";
+
+    private final EntityManager entityManager;
+
+    private final ObjectMapper objectMapper;
+
+    public KeysetPaginator(EntityManager entityManager, ObjectMapper objectMapper) {
+        this.entityManager = entityManager;
+        this.objectMapper = objectMapper;
+    }
+
+    /**
+     * Fetch a page of entities.
+     *
+     * @param entityClass the class of the entities.
+     * @param specification the filter of the entities.
+     * @param cursor the cursor returned with the previous page, or {@code null} or empty for the first page.
+     * @param pageable the page size and the sort, the page number is ignored.
+     * @return the page.
+     * @throws InvalidCursorException if the cursor cannot be decoded or was created for another sort.
+     */
+    public <E> CursorPage<E> findAll(Class<E> entityClass, Specification<E> specification, String cursor, Pageable pageable) {
+        return findAll(entityClass, specification, cursor, pageable, entityClass, root -> root);
+    }
+
+    /**
+     * Fetch a page of record projections of entities, selecting only the columns of the record.
+     *
+     * @param entityClass the class of the entities.
+     * @param specification the filter of the entities.
+     * @param cursor the cursor returned with the previous page, or {@code null} or empty for the first page.
+     * @param pageable the page size and the sort, the page number is ignored.
+     * @param projectionClass the record to select, which must have the id and the sort property as components.
+     * @return the page.
+     * @throws InvalidCursorException if the cursor cannot be decoded or was created for another sort.
+     * @see SpecificationProjectionRepository
+     */
+    public <E, P extends Record> CursorPage<P> findAll(
+        Class<E> entityClass,
+        Specification<E> specification,
+        String cursor,
+        Pageable pageable,
+        Class<P> projectionClass
+    ) {
+        return findAll(entityClass, specification, cursor, pageable, projectionClass, root ->
+            SpecificationProjectionRepository.select(entityManager.getCriteriaBuilder(), root, projectionClass)
+        );
+    }
+
+    private <E, R> CursorPage<R> findAll(
+        Class<E> entityClass,
+        Specification<E> specification,
+        String cursor,
+        Pageable pageable,
+        Class<R> resultClass,
+        Function<Root<E>, Selection<? extends R>> selection
+    ) {
+        EntityType<E> model = entityManager.getMetamodel().entity(entityClass);
+        SingularAttribute<? super E, ?> idAttribute = model.getId(model.getIdType().getJavaType());
+        Sort.Order order = getSortOrder(pageable.getSort(), idAttribute.getName());
+        SingularAttribute<? super E, ?> sortAttribute = order == null ? null : getSortAttribute(model, order.getProperty());
+        if (sortAttribute != null && resultClass.isRecord() && getRecordComponent(resultClass, sortAttribute.getName()) == null) {
+            throw new InvalidCursorException("Cursor pagination cannot sort by " + sortAttribute.getName());
+        }
+        Sort.Direction direction = order == null ? getIdDirection(pageable.getSort(), idAttribute.getName()) : order.getDirection();
+        Position position = decode(cursor, sortAttribute, idAttribute, direction);
+        int size = pageable.getPageSize();
+
+        List<R> content = new ArrayList<>();
+        boolean nullable = sortAttribute != null && sortAttribute.isOptional();
+        if (position == null || position.value() != null || sortAttribute == null) {
+            content.addAll(
+                query(entityClass, resultClass, selection, specification, sortAttribute, idAttribute, direction, position, false, size + 1)
+            );
+        }
+        if (nullable && content.size() <= size) {
+            Position nullPosition = position != null && position.value() == null ? position : null;
+            content.addAll(
+                query(
+                    entityClass,
+                    resultClass,
+                    selection,
+                    specification,
+                    sortAttribute,
+                    idAttribute,
+                    direction,
+                    nullPosition,
+                    true,
+                    size + 1 - content.size()
+                )
+            );
+        }
+        if (content.size() <= size) {
+            return new CursorPage<>(content, size, null);
+        }
+        content = content.subList(0, size);
+        R last = content.get(size - 1);
+        return new CursorPage<>(content, size, encode(last, sortAttribute, idAttribute, direction));
+    }
+
+    private <E, R> List<R> query(
+        Class<E> entityClass,
+        Class<R> resultClass,
+        Function<Root<E>, Selection<? extends R>> selection,
+        Specification<E> specification,
+        SingularAttribute<? super E, ?> sortAttribute,
+        SingularAttribute<? super E, ?> idAttribute,
+        Sort.Direction direction,
+        Position position,
+        boolean nullValues,
+        int limit
+    ) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<R> query = cb.createQuery(resultClass);
+        Root<E> root = query.from(entityClass);
+        query.select(selection.apply(root));
+        List<Predicate> predicates = new ArrayList<>();
+        Predicate filter = specification.toPredicate(root, query, cb);
+        if (filter != null) {
+            predicates.add(filter);
+        }
+        Expression<Comparable<Object>> id = root.get(idAttribute.getName());
+        if (sortAttribute == null) {
+            if (position != null) {
+                predicates.add(after(cb, id, position.id(), direction));
+            }
+            query.orderBy(order(cb, id, direction));
+        } else {
+            Expression<Comparable<Object>> sortKey = root.get(sortAttribute.getName());
+            if (nullValues) {
+                predicates.add(cb.isNull(sortKey));
+                if (position != null) {
+                    predicates.add(after(cb, id, position.id(), direction));
+                }
+                query.orderBy(order(cb, id, direction));
+            } else {
+                if (sortAttribute.isOptional()) {
+                    predicates.add(cb.isNotNull(sortKey));
+                }
+                if (position != null) {
+                    predicates.add(
+                        cb.or(
+                            after(cb, sortKey, position.value(), direction),
+                            cb.and(cb.equal(sortKey, position.value()), after(cb, id, position.id(), direction))
+                        )
+                    );
+                }
+                query.orderBy(order(cb, sortKey, direction), order(cb, id, direction));
+            }
+        }
+        query.where(predicates.toArray(new Predicate[0]));
+        return entityManager.createQuery(query).setMaxResults(limit).getResultList();
+    }
+
+    private static Predicate after(CriteriaBuilder cb, Expression<Comparable<Object>> path, Comparable<Object> value, Sort.Direction direction) {
+        return direction.isAscending() ? cb.greaterThan(path, value) : cb.lessThan(path, value);
+    }
+
+    private static jakarta.persistence.criteria.Order order(CriteriaBuilder cb, Expression<?> path, Sort.Direction direction) {
+        return direction.isAscending() ? cb.asc(path) : cb.desc(path);
+    }
+
+    private static Sort.Order getSortOrder(Sort sort, String idName) {
+        List<Sort.Order> orders = sort.stream().filter(order -> !order.getProperty().equals(idName)).toList();
+        if (orders.size() > 1) {
+            throw new InvalidCursorException("Cursor pagination supports sorting by a single property besides " + idName);
+        }
+        return orders.isEmpty() ? null : orders.get(0);
+    }
+
+    private static Sort.Direction getIdDirection(Sort sort, String idName) {
+        Sort.Order order = sort.getOrderFor(idName);
+        return order != null ? order.getDirection() : Sort.Direction.ASC;
+    }
+
+    private static <E> SingularAttribute<? super E, ?> getSortAttribute(EntityType<E> model, String property) {
+        Attribute<? super E, ?> attribute;
+        try {
+            attribute = model.getAttribute(property);
+        } catch (IllegalArgumentException e) {
+            throw new InvalidCursorException("Unknown sort property " + property, e);
+        }
+        if (
+            !(attribute instanceof SingularAttribute<? super E, ?> singularAttribute) ||
+            attribute.getPersistentAttributeType() != Attribute.PersistentAttributeType.BASIC ||
+            !Comparable.class.isAssignableFrom(attribute.getJavaType())
+        ) {
+            throw new InvalidCursorException("Cursor pagination cannot sort by " + property);
+        }
+        return singularAttribute;
+    }
+
+    private String encode(Object row, SingularAttribute<?, ?> sortAttribute, SingularAttribute<?, ?> idAttribute, Sort.Direction direction) {
+        ObjectNode node = objectMapper.createObjectNode();
+        node.put(DIRECTION_KEY, direction.name());
+        node.set(ID_KEY, objectMapper.valueToTree(getValue(row, idAttribute.getName())));
+        if (sortAttribute != null) {
+            node.put(SORT_KEY, sortAttribute.getName());
+            node.set(VALUE_KEY, objectMapper.valueToTree(getValue(row, sortAttribute.getName())));
+        }
+        try {
+            return Base64.getUrlEncoder().withoutPadding().encodeToString(objectMapper.writeValueAsBytes(node));
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Could not encode cursor", e);
+        }
+    }
+
+    private static Object getValue(Object row, String property) {
+        if (row instanceof Record record) {
+            try {
+                return getRecordComponent(record.getClass(), property).getAccessor().invoke(record);
+            } catch (ReflectiveOperationException e) {
+                throw new IllegalStateException("Could not read " + property + " of " + record, e);
+            }
+        }
+        return new BeanWrapperImpl(row).getPropertyValue(property);
+    }
+
+    private static RecordComponent getRecordComponent(Class<?> recordClass, String name) {
+        return Arrays.stream(recordClass.getRecordComponents()).filter(component -> component.getName().equals(name)).findFirst().orElse(null);
+    }
+
+    @SuppressWarnings("unchecked")
+    private Position decode(String cursor, SingularAttribute<?, ?> sortAttribute, SingularAttribute<?, ?> idAttribute, Sort.Direction direction) {
+        if (cursor == null || cursor.isEmpty()) {
+            return null;
+        }
+        JsonNode node;
+        try {
+            node = objectMapper.readTree(new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8));
+        } catch (IllegalArgumentException | JsonProcessingException e) {
+            throw new InvalidCursorException("Malformed cursor", e);
+        }
+        String sortName = sortAttribute == null ? null : sortAttribute.getName();
+        if (
+            node == null ||
+            !node.hasNonNull(ID_KEY) ||
+            !direction.name().equals(node.path(DIRECTION_KEY).asText()) ||
+            !Objects.equals(sortName, node.hasNonNull(SORT_KEY) ? node.get(SORT_KEY).asText() : null)
+        ) {
+            throw new InvalidCursorException("The cursor does not match the requested sort");
+        }
+        try {
+            Comparable<Object> id = (Comparable<Object>) objectMapper.treeToValue(node.get(ID_KEY), idAttribute.getJavaType());
+            Comparable<Object> value = sortAttribute == null || !node.hasNonNull(VALUE_KEY)
+                ? null
+                : (Comparable<Object>) objectMapper.treeToValue(node.get(VALUE_KEY), sortAttribute.getJavaType());
+            return new Position(value, id);
+        } catch (JsonProcessingException e) {
+            throw new InvalidCursorException("Malformed cursor", e);
+        }
+    }
+
+    /**
+     * The sort key of the last row of a page.
+     */
+    private record Position(Comparable<Object> value, Comparable<Object> id) {}
+}
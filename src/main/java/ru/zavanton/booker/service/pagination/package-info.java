@@ -0,0 +1,4 @@
+/**
+ * Keyset (seek) pagination over the criteria specifications.
+ */
+package ru.zavanton.booker.service.pagination;
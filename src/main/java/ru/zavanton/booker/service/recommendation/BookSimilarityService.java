@@ -0,0 +1,249 @@
+package ru.zavanton.booker.service.recommendation;
+
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.Calendar;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.TimeZone;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+import javax.sql.DataSource;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+import ru.zavanton.booker.config.ApplicationProperties;
+import ru.zavanton.booker.repository.BookRepository;
+import ru.zavanton.booker.service.BookService;
+import ru.zavanton.booker.service.dto.ScoredBookDto;
+
+/**
+ * Service computing the books most similar to each book ("readers also liked"), from the ratings and reading statuses.
+ * <p>
+ * Each user preference is the rating of the book, or {@code application.recommendation.reading-status-value} for a book
+ * which is shelved but not rated. The preferences are loaded in a {@link RatingMatrix}, the cosine similarities of the
+ * books are computed by {@link ItemSimilarity}, and the {@code application.recommendation.neighbors} most similar books
+ * of each book are written to the {@code book_similarity} table, from which they are served.
+ * <p>
+ * The computation runs every night, at {@code application.recommendation.similarity-cron}. The table is also held in memory
+ * as a {@link SimilarityIndex}, loaded on startup and replaced by each computation, from which the recommendations of the
+ * users are computed.
+ */
+@Service
+public class BookSimilarityService {
+
+    private static final Logger LOG = LoggerFactory.getLogger(BookSimilarityService.class);
+
+    // Preferences ordered by book, with users numbered densely; the alias "value" is avoided as it is reserved in H2
+    private static final String SELECT_PREFERENCES_SQL =
+        "select book_id, dense_rank() over (order by user_id) - 1 as user_index, score, count(*) over () as total" +
+        " from (select user_id, book_id, max(score) as score from (" +
+        "select user_id, book_id, cast(rating as double precision) as score from rating" +
+        " union all select user_id, book_id, cast(? as double precision) as score from reading_status" +
+        ") interactions group by user_id, book_id) preferences order by book_id, user_id";
+
+    private static final String DELETE_BOOK_SQL = "delete from book_similarity where book_id = ?";
+
+    private static final String INSERT_SIMILARITY_SQL =
+        "insert into book_similarity (book_id, similar_book_id, score, computed_at) values (?, ?, ?, ?)";
+
+    private static final String DELETE_OUTDATED_SQL = "delete from book_similarity where computed_at < ?";
+
+    private static final String SELECT_ALL_SIMILAR_SQL =
+        "select book_id, similar_book_id, score from book_similarity order by book_id, score desc, similar_book_id";
+
+    private static final String SELECT_SIMILAR_SQL =
+        "select similar_book_id, score from book_similarity where book_id = ? order by score desc, similar_book_id fetch first ? rows only";
+
+    private final AtomicBoolean running = new AtomicBoolean();
+
+    private volatile SimilarityIndex index = SimilarityIndex.EMPTY;
+
+    private final JdbcTemplate jdbcTemplate;
+
+    private final JdbcTemplate fetchingJdbcTemplate;
+
+    private final TransactionTemplate transactionTemplate;
+
+    private final TransactionTemplate readOnlyTransactionTemplate;
+
+    private final BookRepository bookRepository;
+
+    private final BookService bookService;
+
+    private final ApplicationProperties.Recommendation properties;
+
+    public BookSimilarityService(
+        JdbcTemplate jdbcTemplate,
+        DataSource dataSource,
+        PlatformTransactionManager transactionManager,
+        BookRepository bookRepository,
+        BookService bookService,
+        ApplicationProperties applicationProperties
+    ) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.properties = applicationProperties.getRecommendation();
+        this.fetchingJdbcTemplate = new JdbcTemplate(dataSource);
+        this.fetchingJdbcTemplate.setFetchSize(properties.getFetchSize());
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.readOnlyTransactionTemplate = new TransactionTemplate(transactionManager);
+        this.readOnlyTransactionTemplate.setReadOnly(true);
+        this.bookRepository = bookRepository;
+        this.bookService = bookService;
+    }
+
+    /**
+     * Get the books most similar to a book.
+     *
+     * @param bookId the id of the book.
+     * @param size the number of books, at most {@code application.recommendation.neighbors}.
+     * @return the similar books with their similarity, highest first, or empty if the book does not exist.
+     */
+    @Transactional(readOnly = true)
+    public Optional<List<ScoredBookDto>> findSimilarBooks(Long bookId, int size) {
+        LOG.debug("Request to get {} Books similar to Book : {}", size, bookId);
+        if (!bookRepository.existsById(bookId)) {
+            return Optional.empty();
+        }
+        int limit = Math.max(0, Math.min(size, properties.getNeighbors()));
+        Map<Long, Double> scores = new LinkedHashMap<>();
+        jdbcTemplate.query(SELECT_SIMILAR_SQL, (RowCallbackHandler) rs -> scores.put(rs.getLong(1), rs.getDouble(2)), bookId, limit);
+        return Optional.of(bookService.findAllScored(scores));
+    }
+
+    /**
+     * Recompute the similar books of all the books.
+     * <p>
+     * This is scheduled to run every night, at {@code application.recommendation.similarity-cron}.
+     * A computation requested while another one runs is skipped.
+     */
+    @Scheduled(cron = "${application.recommendation.similarity-cron:0 0 4 * * ?}")
+    public void recompute() {
+        if (!running.compareAndSet(false, true)) {
+            LOG.info("Skipping the computation of the book similarities, as one is already running");
+            return;
+        }
+        try {
+            long start = System.currentTimeMillis();
+            RatingMatrix matrix = loadMatrix();
+            ItemSimilarity similarity = new ItemSimilarity(
+                matrix,
+                properties.getNeighbors(),
+                properties.getMinCommonUsers(),
+                properties.getMaxUserRatings()
+            );
+            int parallelism = properties.getParallelism() > 0 ? properties.getParallelism() : Runtime.getRuntime().availableProcessors();
+            ForkJoinPool pool = new ForkJoinPool(parallelism);
+            try {
+                similarity.compute(pool);
+            } finally {
+                pool.shutdown();
+            }
+            write(matrix, similarity, new Timestamp(start));
+            index = toIndex(matrix, similarity);
+            LOG.info(
+                "Computed the similarities of {} books from {} preferences of {} users in {} ms",
+                matrix.getBookCount(),
+                matrix.getEntryCount(),
+                matrix.getUserCount(),
+                System.currentTimeMillis() - start
+            );
+        } finally {
+            running.set(false);
+        }
+    }
+
+    /**
+     * Load the similar books computed last into memory.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void load() {
+        SimilarityIndex.Builder builder = SimilarityIndex.builder();
+        readOnlyTransactionTemplate.executeWithoutResult(status ->
+            fetchingJdbcTemplate.query(SELECT_ALL_SIMILAR_SQL, (RowCallbackHandler) rs ->
+                builder.add(rs.getLong(1), rs.getLong(2), rs.getFloat(3))
+            )
+        );
+        index = builder.build();
+        LOG.info("Loaded {} similar books of {} books", index.getNeighborCount(), index.getBookCount());
+    }
+
+    SimilarityIndex getIndex() {
+        return index;
+    }
+
+    private static SimilarityIndex toIndex(RatingMatrix matrix, ItemSimilarity similarity) {
+        SimilarityIndex.Builder builder = SimilarityIndex.builder();
+        for (int book = 0; book < matrix.getBookCount(); book++) {
+            for (int rank = 0; rank < similarity.getNeighbors() && similarity.getNeighborBook(book, rank) >= 0; rank++) {
+                builder.add(
+                    matrix.getBookId(book),
+                    matrix.getBookId(similarity.getNeighborBook(book, rank)),
+                    similarity.getNeighborScore(book, rank)
+                );
+            }
+        }
+        return builder.build();
+    }
+
+    private RatingMatrix loadMatrix() {
+        AtomicReference<RatingMatrix.Builder> builder = new AtomicReference<>();
+        readOnlyTransactionTemplate.executeWithoutResult(status ->
+            fetchingJdbcTemplate.query(
+                SELECT_PREFERENCES_SQL,
+                rs -> {
+                    if (builder.get() == null) {
+                        // Size the arrays once from the total row count, repeated on each row
+                        builder.set(RatingMatrix.builder(rs.getInt(4)));
+                    }
+                    builder.get().add(rs.getLong(1), rs.getInt(2), rs.getFloat(3));
+                },
+                properties.getReadingStatusValue()
+            )
+        );
+        return builder.get() == null ? RatingMatrix.builder(0).build() : builder.get().build();
+    }
+
+    /**
+     * Replace the similar books of each book, in transactions of {@code application.recommendation.batch-size} books,
+     * then delete the rows of the books which were not computed, as they no longer have preferences or no longer exist.
+     */
+    private void write(RatingMatrix matrix, ItemSimilarity similarity, Timestamp computedAt) {
+        Calendar utc = Calendar.getInstance(TimeZone.getTimeZone("UTC"));
+        int batchSize = Math.max(1, properties.getBatchSize());
+        for (int from = 0; from < matrix.getBookCount(); from += batchSize) {
+            int to = Math.min(from + batchSize, matrix.getBookCount());
+            List<Long> bookIds = new ArrayList<>(to - from);
+            List<int[]> neighbors = new ArrayList<>();
+            for (int book = from; book < to; book++) {
+                bookIds.add(matrix.getBookId(book));
+                for (int rank = 0; rank < similarity.getNeighbors() && similarity.getNeighborBook(book, rank) >= 0; rank++) {
+                    neighbors.add(new int[] { book, rank });
+                }
+            }
+            transactionTemplate.executeWithoutResult(status -> {
+                jdbcTemplate.batchUpdate(DELETE_BOOK_SQL, bookIds, bookIds.size(), (ps, bookId) -> ps.setLong(1, bookId));
+                jdbcTemplate.batchUpdate(INSERT_SIMILARITY_SQL, neighbors, batchSize, (ps, neighbor) -> {
+                    ps.setLong(1, matrix.getBookId(neighbor[0]));
+                    ps.setLong(2, matrix.getBookId(similarity.getNeighborBook(neighbor[0], neighbor[1])));
+                    ps.setDouble(3, similarity.getNeighborScore(neighbor[0], neighbor[1]));
+                    ps.setTimestamp(4, computedAt, utc);
+                });
+            });
+        }
+        transactionTemplate.executeWithoutResult(status ->
+            jdbcTemplate.update(DELETE_OUTDATED_SQL, ps -> ps.setTimestamp(1, computedAt, utc))
+        );
+    }
+}
@@ -0,0 +1,235 @@
+package ru.zavanton.booker.service.recommendation;
+
+import java.util.Arrays;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * Computation of the most similar books of every book of a {@link RatingMatrix}, by the cosine similarity
+ * of their rating vectors.
+ * <p>
+ * The books are partitioned in ranges computed in parallel on a {@link ForkJoinPool}. For each book, the dot
+ * products with the books sharing a user are accumulated in dense arrays indexed by book, reused by each thread
+ * (about 12 bytes per book per thread), and the best neighbors are selected with a bounded min-heap.
+ * Users with more than {@code maxUserRatings} ratings are left out of the dot products, whose cost grows with the
+ * square of the ratings of each user, but not of the norms.
+ */
+final class ItemSimilarity {
+
+    private static final int BOOKS_PER_TASK = 64;
+
+    private final RatingMatrix matrix;
+
+    private final int neighbors;
+
+    private final int minCommonUsers;
+
+    private final int maxUserRatings;
+
+    private final int[] neighborBooks;
+
+    private final float[] neighborScores;
+
+    private final ThreadLocal<Scratch> scratch;
+
+    ItemSimilarity(RatingMatrix matrix, int neighbors, int minCommonUsers, int maxUserRatings) {
+        this.matrix = matrix;
+        this.neighbors = neighbors;
+        this.minCommonUsers = Math.max(1, minCommonUsers);
+        this.maxUserRatings = maxUserRatings;
+        this.neighborBooks = new int[matrix.getBookCount() * neighbors];
+        this.neighborScores = new float[neighborBooks.length];
+        Arrays.fill(neighborBooks, -1);
+        this.scratch = ThreadLocal.withInitial(() -> new Scratch(matrix.getBookCount(), neighbors));
+    }
+
+    /**
+     * Compute the neighbors of all the books.
+     *
+     * @param pool the pool running the computation.
+     */
+    void compute(ForkJoinPool pool) {
+        if (neighbors > 0) {
+            pool.invoke(new BookRangeTask(0, matrix.getBookCount()));
+        }
+    }
+
+    /**
+     * @param book the index of a book.
+     * @param rank the rank of the neighbor, from 0 for the most similar.
+     * @return the index of the neighbor, or {@code -1} if the book has fewer neighbors.
+     */
+    int getNeighborBook(int book, int rank) {
+        return neighborBooks[book * neighbors + rank];
+    }
+
+    float getNeighborScore(int book, int rank) {
+        return neighborScores[book * neighbors + rank];
+    }
+
+    int getNeighbors() {
+        return neighbors;
+    }
+
+    void computeBook(int book, Scratch scratch) {
+        float[] dots = scratch.dots;
+        int[] counts = scratch.counts;
+        int[] touched = scratch.touched;
+        int touchedCount = 0;
+        for (int i = matrix.getBookStart(book); i < matrix.getBookEnd(book); i++) {
+            int user = matrix.getBookUser(i);
+            int userStart = matrix.getUserStart(user);
+            int userEnd = matrix.getUserEnd(user);
+            if (userEnd - userStart > maxUserRatings) {
+                continue;
+            }
+            float value = matrix.getBookValue(i);
+            for (int j = userStart; j < userEnd; j++) {
+                int other = matrix.getUserBook(j);
+                if (other == book) {
+                    continue;
+                }
+                if (counts[other]++ == 0) {
+                    touched[touchedCount++] = other;
+                }
+                dots[other] += value * matrix.getUserValue(j);
+            }
+        }
+
+        scratch.clearHeap();
+        float norm = matrix.getBookNorm(book);
+        for (int t = 0; t < touchedCount; t++) {
+            int other = touched[t];
+            if (counts[other] >= minCommonUsers) {
+                scratch.offer(other, dots[other] / (norm * matrix.getBookNorm(other)));
+            }
+            dots[other] = 0;
+            counts[other] = 0;
+        }
+        scratch.drainTo(neighborBooks, neighborScores, book * neighbors);
+    }
+
+    private final class BookRangeTask extends RecursiveAction {
+
+        private static final long serialVersionUID = 1L;
+
+        private final int from;
+
+        private final int to;
+
+        BookRangeTask(int from, int to) {
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from <= BOOKS_PER_TASK) {
+                Scratch threadScratch = scratch.get();
+                for (int book = from; book < to; book++) {
+                    computeBook(book, threadScratch);
+                }
+                return;
+            }
+            int middle = (from + to) >>> 1;
+            invokeAll(new BookRangeTask(from, middle), new BookRangeTask(middle, to));
+        }
+    }
+
+    /**
+     * Arrays reused for the books computed by a thread.
+     */
+    static final class Scratch {
+
+        private final float[] dots;
+
+        private final int[] counts;
+
+        private final int[] touched;
+
+        private final int[] heapBooks;
+
+        private final float[] heapScores;
+
+        private int heapSize;
+
+        Scratch(int bookCount, int neighbors) {
+            this.dots = new float[bookCount];
+            this.counts = new int[bookCount];
+            this.touched = new int[bookCount];
+            this.heapBooks = new int[neighbors];
+            this.heapScores = new float[neighbors];
+        }
+
+        void clearHeap() {
+            heapSize = 0;
+        }
+
+        /**
+         * Offer a neighbor to the min-heap of the best ones, whose root is the worst kept neighbor.
+         */
+        void offer(int book, float score) {
+            if (heapSize < heapBooks.length) {
+                int i = heapSize++;
+                while (i > 0 && worse(score, book, (i - 1) / 2)) {
+                    heapBooks[i] = heapBooks[(i - 1) / 2];
+                    heapScores[i] = heapScores[(i - 1) / 2];
+                    i = (i - 1) / 2;
+                }
+                heapBooks[i] = book;
+                heapScores[i] = score;
+            } else if (heapSize > 0 && !worse(score, book, 0)) {
+                siftDown(book, score);
+            }
+        }
+
+        /**
+         * Write the kept neighbors, best first, and empty the heap.
+         */
+        void drainTo(int[] books, float[] scores, int offset) {
+            for (int rank = heapSize - 1; rank >= 0; rank--) {
+                books[offset + rank] = heapBooks[0];
+                scores[offset + rank] = heapScores[0];
+                heapSize--;
+                if (heapSize > 0) {
+                    siftDown(heapBooks[heapSize], heapScores[heapSize]);
+                }
+            }
+        }
+
+        /**
+         * Replace the root by the given neighbor, and move it down to its place.
+         */
+        private void siftDown(int book, float score) {
+            int i = 0;
+            while (true) {
+                int child = 2 * i + 1;
+                if (child >= heapSize) {
+                    break;
+                }
+                if (child + 1 < heapSize && worse(heapScores[child + 1], heapBooks[child + 1], child)) {
+                    child++;
+                }
+                if (!worse(heapScores[child], heapBooks[child], score, book)) {
+                    break;
+                }
+                heapBooks[i] = heapBooks[child];
+                heapScores[i] = heapScores[child];
+                i = child;
+            }
+            heapBooks[i] = book;
+            heapScores[i] = score;
+        }
+
+        private boolean worse(float score, int book, int heapIndex) {
+            return worse(score, book, heapScores[heapIndex], heapBooks[heapIndex]);
+        }
+
+        /**
+         * Lower scores are worse, then higher book indexes.
+         */
+        private static boolean worse(float score, int book, float otherScore, int otherBook) {
+            return score < otherScore || (score == otherScore && book > otherBook);
+        }
+    }
+}
@@ -0,0 +1,183 @@
+package ru.zavanton.booker.service.recommendation;
+
+import java.util.Arrays;
+
+/**
+ * Sparse book × user matrix of ratings, held in primitive arrays both by book and by user
+ * (compressed sparse rows and their transpose), about 16 bytes per rating.
+ * <p>
+ * Books are given dense indexes in the order of their ids, users are given dense indexes by the caller.
+ */
+final class RatingMatrix {
+
+    private final long[] bookIds;
+
+    private final int[] bookOffsets;
+
+    private final int[] bookUsers;
+
+    private final float[] bookValues;
+
+    private final float[] bookNorms;
+
+    private final int[] userOffsets;
+
+    private final int[] userBooks;
+
+    private final float[] userValues;
+
+    private RatingMatrix(long[] bookIds, int bookCount, int[] bookOffsets, int[] bookUsers, float[] bookValues, int userCount) {
+        this.bookIds = Arrays.copyOf(bookIds, bookCount);
+        this.bookOffsets = bookOffsets;
+        this.bookUsers = bookUsers;
+        this.bookValues = bookValues;
+        this.bookNorms = new float[bookCount];
+        for (int book = 0; book < bookCount; book++) {
+            double sumOfSquares = 0;
+            for (int i = bookOffsets[book]; i < bookOffsets[book + 1]; i++) {
+                sumOfSquares += (double) bookValues[i] * bookValues[i];
+            }
+            bookNorms[book] = (float) Math.sqrt(sumOfSquares);
+        }
+
+        // Transpose with a counting sort, which keeps the books of each user in index order
+        int entryCount = bookOffsets[bookCount];
+        this.userOffsets = new int[userCount + 1];
+        for (int i = 0; i < entryCount; i++) {
+            userOffsets[bookUsers[i] + 1]++;
+        }
+        for (int user = 0; user < userCount; user++) {
+            userOffsets[user + 1] += userOffsets[user];
+        }
+        this.userBooks = new int[entryCount];
+        this.userValues = new float[entryCount];
+        int[] next = Arrays.copyOf(userOffsets, userCount);
+        for (int book = 0; book < bookCount; book++) {
+            for (int i = bookOffsets[book]; i < bookOffsets[book + 1]; i++) {
+                int position = next[bookUsers[i]]++;
+                userBooks[position] = book;
+                userValues[position] = bookValues[i];
+            }
+        }
+    }
+
+    static Builder builder(int expectedEntries) {
+        return new Builder(expectedEntries);
+    }
+
+    int getBookCount() {
+        return bookIds.length;
+    }
+
+    int getUserCount() {
+        return userOffsets.length - 1;
+    }
+
+    int getEntryCount() {
+        return userBooks.length;
+    }
+
+    long getBookId(int book) {
+        return bookIds[book];
+    }
+
+    float getBookNorm(int book) {
+        return bookNorms[book];
+    }
+
+    int getBookStart(int book) {
+        return bookOffsets[book];
+    }
+
+    int getBookEnd(int book) {
+        return bookOffsets[book + 1];
+    }
+
+    int getBookUser(int entry) {
+        return bookUsers[entry];
+    }
+
+    float getBookValue(int entry) {
+        return bookValues[entry];
+    }
+
+    int getUserStart(int user) {
+        return userOffsets[user];
+    }
+
+    int getUserEnd(int user) {
+        return userOffsets[user + 1];
+    }
+
+    int getUserBook(int entry) {
+        return userBooks[entry];
+    }
+
+    float getUserValue(int entry) {
+        return userValues[entry];
+    }
+
+    /**
+     * Builder of a {@link RatingMatrix} from ratings added in the order of their book ids.
+     */
+    static final class Builder {
+
+        private long[] bookIds = new long[1024];
+
+        private int[] bookOffsets = new int[1025];
+
+        private int bookCount;
+
+        private int[] users;
+
+        private float[] values;
+
+        private int entryCount;
+
+        private int userCount;
+
+        private Builder(int expectedEntries) {
+            users = new int[Math.max(expectedEntries, 16)];
+            values = new float[users.length];
+        }
+
+        /**
+         * Add a rating.
+         *
+         * @param bookId the id of the book, greater than or equal to the one of the previous rating.
+         * @param user the dense index of the user, unique per book.
+         * @param value the value of the rating.
+         * @return this builder.
+         * @throws IllegalArgumentException if the book id is lower than the one of the previous rating.
+         */
+        Builder add(long bookId, int user, float value) {
+            if (bookCount == 0 || bookIds[bookCount - 1] != bookId) {
+                if (bookCount > 0 && bookId < bookIds[bookCount - 1]) {
+                    throw new IllegalArgumentException("Ratings must be added in the order of their book ids");
+                }
+                if (bookCount == bookIds.length) {
+                    bookIds = Arrays.copyOf(bookIds, bookCount * 2);
+                    bookOffsets = Arrays.copyOf(bookOffsets, bookCount * 2 + 1);
+                }
+                bookIds[bookCount] = bookId;
+                bookOffsets[bookCount] = entryCount;
+                bookCount++;
+            }
+            if (entryCount == users.length) {
+                users = Arrays.copyOf(users, entryCount + (entryCount >> 1));
+                values = Arrays.copyOf(values, users.length);
+            }
+            users[entryCount] = user;
+            values[entryCount] = value;
+            entryCount++;
+            userCount = Math.max(userCount, user + 1);
+            return this;
+        }
+
+        RatingMatrix build() {
+            int[] offsets = Arrays.copyOf(bookOffsets, bookCount + 1);
+            offsets[bookCount] = entryCount;
+            return new RatingMatrix(bookIds, bookCount, offsets, users, values, userCount);
+        }
+    }
+}
@@ -0,0 +1,185 @@
+package ru.zavanton.booker.service.recommendation;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import ru.zavanton.booker.config.ApplicationProperties;
+import ru.zavanton.booker.domain.UserEntity;
+import ru.zavanton.booker.repository.UserRepository;
+import ru.zavanton.booker.security.SecurityUtils;
+import ru.zavanton.booker.service.BookService;
+import ru.zavanton.booker.service.dto.ScoredBookDto;
+
+/**
+ * Service computing the books recommended to the current user from the books they rated or shelved,
+ * and the similar books of those held in memory by {@link BookSimilarityService}.
+ * <p>
+ * A book scores the sum, over the books of the user it is similar to, of their similarity times the preference
+ * of the user for that book. Books already rated or shelved by the user are never recommended.
+ * <p>
+ * The preferences of the most recent users are kept in memory, up to {@code application.recommendation.profile-max-entries}
+ * users for {@code application.recommendation.profile-time-to-live-seconds} seconds. New ratings and reading statuses
+ * are added to them once committed, and other changes drop them to be reloaded. Each node keeps its own preferences,
+ * so changes handled by another node are seen once they expire.
+ */
+@Service
+public class RecommendationService {
+
+    private static final Logger LOG = LoggerFactory.getLogger(RecommendationService.class);
+
+    private static final String SELECT_PREFERENCES_SQL =
+        "select book_id, cast(rating as double precision) from rating where user_id = ?" +
+        " union all select book_id, cast(? as double precision) from reading_status where user_id = ?";
+
+    private static final Comparator<Map.Entry<Long, Double>> BY_SCORE = Map.Entry.<Long, Double>comparingByValue()
+        .reversed()
+        .thenComparing(Map.Entry.comparingByKey());
+
+    private final Cache<String, Long> userIds;
+
+    private final Cache<Long, UserProfile> profiles;
+
+    private final JdbcTemplate jdbcTemplate;
+
+    private final UserRepository userRepository;
+
+    private final BookSimilarityService bookSimilarityService;
+
+    private final BookService bookService;
+
+    private final ApplicationProperties.Recommendation properties;
+
+    public RecommendationService(
+        JdbcTemplate jdbcTemplate,
+        UserRepository userRepository,
+        BookSimilarityService bookSimilarityService,
+        BookService bookService,
+        ApplicationProperties applicationProperties
+    ) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.userRepository = userRepository;
+        this.bookSimilarityService = bookSimilarityService;
+        this.bookService = bookService;
+        this.properties = applicationProperties.getRecommendation();
+        Duration timeToLive = Duration.ofSeconds(properties.getProfileTimeToLiveSeconds());
+        this.userIds = Caffeine.newBuilder().maximumSize(properties.getProfileMaxEntries()).expireAfterWrite(timeToLive).build();
+        this.profiles = Caffeine.newBuilder().maximumSize(properties.getProfileMaxEntries()).expireAfterWrite(timeToLive).build();
+    }
+
+    /**
+     * Get the books recommended to the current user.
+     *
+     * @param size the number of books, at most {@code application.recommendation.max-recommendations}.
+     * @return the recommended books with their scores, highest first, or empty if the current user is not found.
+     */
+    @Transactional(readOnly = true)
+    public Optional<List<ScoredBookDto>> findRecommendations(int size) {
+        LOG.debug("Request to get {} recommended Books", size);
+        Optional<Long> userId = SecurityUtils.getCurrentUserLogin().map(login ->
+            userIds.get(login, key -> userRepository.findOneByLogin(key).map(UserEntity::getId).orElse(null))
+        );
+        if (userId.isEmpty()) {
+            return Optional.empty();
+        }
+        UserProfile profile = profiles.get(userId.orElseThrow(), this::loadProfile);
+        int limit = Math.max(0, Math.min(size, properties.getMaxRecommendations()));
+        Map<Long, Double> scores = new LinkedHashMap<>();
+        recommend(profile, bookSimilarityService.getIndex(), limit).forEach(entry -> scores.put(entry.getKey(), entry.getValue()));
+        return Optional.of(bookService.findAllScored(scores));
+    }
+
+    static List<Map.Entry<Long, Double>> recommend(UserProfile profile, SimilarityIndex index, int size) {
+        Map<Long, Double> candidates = new HashMap<>();
+        for (int i = 0; i < profile.size(); i++) {
+            float value = profile.getValue(i);
+            index.forEachNeighbor(profile.getBookId(i), (similarBookId, score) -> {
+                if (!profile.contains(similarBookId)) {
+                    candidates.merge(similarBookId, (double) score * value, Double::sum);
+                }
+            });
+        }
+        List<Map.Entry<Long, Double>> ranked = new ArrayList<>(candidates.entrySet());
+        ranked.sort(BY_SCORE);
+        return ranked.subList(0, Math.min(size, ranked.size()));
+    }
+
+    private UserProfile loadProfile(Long userId) {
+        UserProfile.Builder builder = UserProfile.builder();
+        jdbcTemplate.query(
+            SELECT_PREFERENCES_SQL,
+            (RowCallbackHandler) rs -> builder.add(rs.getLong(1), rs.getFloat(2)),
+            userId,
+            properties.getReadingStatusValue(),
+            userId
+        );
+        return builder.build();
+    }
+
+    /**
+     * Add a new rating to the preferences of its user, once the current transaction (if any) has committed.
+     *
+     * @param userId the id of the user.
+     * @param bookId the id of the rated book.
+     * @param rating the rating.
+     */
+    public void bookRated(Long userId, Long bookId, Integer rating) {
+        if (userId != null && bookId != null && rating != null) {
+            afterCommit(() -> profiles.asMap().computeIfPresent(userId, (id, profile) -> profile.with(bookId, rating)));
+        }
+    }
+
+    /**
+     * Add a new reading status to the preferences of its user, once the current transaction (if any) has committed.
+     *
+     * @param userId the id of the user.
+     * @param bookId the id of the shelved book.
+     */
+    public void bookShelved(Long userId, Long bookId) {
+        if (userId != null && bookId != null) {
+            float value = (float) properties.getReadingStatusValue();
+            afterCommit(() -> profiles.asMap().computeIfPresent(userId, (id, profile) -> profile.with(bookId, value)));
+        }
+    }
+
+    /**
+     * Drop the preferences of a user whose rating or reading status was changed or deleted, once the current
+     * transaction (if any) has committed, so that they are reloaded.
+     *
+     * @param userId the id of the user.
+     */
+    public void preferencesChanged(Long userId) {
+        if (userId != null) {
+            afterCommit(() -> profiles.invalidate(userId));
+        }
+    }
+
+    private static void afterCommit(Runnable action) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(
+                new TransactionSynchronization() {
+                    @Override
+                    public void afterCommit() {
+                        action.run();
+                    }
+                }
+            );
+        } else {
+            action.run();
+        }
+    }
+}
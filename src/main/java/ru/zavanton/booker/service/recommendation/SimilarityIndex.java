@@ -0,0 +1,135 @@
+package ru.zavanton.booker.service.recommendation;
+
+import java.util.Arrays;
+
+/**
+ * Immutable in-memory copy of the {@code book_similarity} table: the most similar books of each book,
+ * held in primitive arrays sorted by book id (about 12 bytes per similar book).
+ */
+final class SimilarityIndex {
+
+    static final SimilarityIndex EMPTY = builder().build();
+
+    /**
+     * Consumer of the similar books of a book.
+     */
+    @FunctionalInterface
+    interface NeighborConsumer {
+        void accept(long similarBookId, float score);
+    }
+
+    private final long[] bookIds;
+
+    private final int[] offsets;
+
+    private final long[] neighborIds;
+
+    private final float[] neighborScores;
+
+    private SimilarityIndex(long[] bookIds, int[] offsets, long[] neighborIds, float[] neighborScores) {
+        this.bookIds = bookIds;
+        this.offsets = offsets;
+        this.neighborIds = neighborIds;
+        this.neighborScores = neighborScores;
+    }
+
+    static Builder builder() {
+        return new Builder();
+    }
+
+    int getBookCount() {
+        return bookIds.length;
+    }
+
+    int getNeighborCount() {
+        return neighborIds.length;
+    }
+
+    /**
+     * Pass the similar books of a book to a consumer, most similar first.
+     *
+     * @param bookId the id of the book.
+     * @param consumer the consumer of the similar books.
+     */
+    void forEachNeighbor(long bookId, NeighborConsumer consumer) {
+        int book = Arrays.binarySearch(bookIds, bookId);
+        if (book < 0) {
+            return;
+        }
+        for (int i = offsets[book]; i < offsets[book + 1]; i++) {
+            consumer.accept(neighborIds[i], neighborScores[i]);
+        }
+    }
+
+    // prettier-ignore
+    @Override
+    public String toString() {
+        return "SimilarityIndex{" +
+            "books=" + getBookCount() +
+            ", neighbors=" + getNeighborCount() +
+            "}";
+    }
+
+    /**
+     * Builder of a {@link SimilarityIndex} from similar books added in the order of their book ids.
+     */
+    static final class Builder {
+
+        private long[] bookIds = new long[1024];
+
+        private int[] offsets = new int[1025];
+
+        private int bookCount;
+
+        private long[] neighborIds = new long[1024];
+
+        private float[] neighborScores = new float[1024];
+
+        private int neighborCount;
+
+        private Builder() {}
+
+        /**
+         * Add a similar book.
+         *
+         * @param bookId the id of the book, greater than or equal to the one of the previous similar book.
+         * @param similarBookId the id of the similar book.
+         * @param score the similarity of the books.
+         * @return this builder.
+         * @throws IllegalArgumentException if the book id is lower than the one of the previous similar book.
+         */
+        Builder add(long bookId, long similarBookId, float score) {
+            if (bookCount == 0 || bookIds[bookCount - 1] != bookId) {
+                if (bookCount > 0 && bookId < bookIds[bookCount - 1]) {
+                    throw new IllegalArgumentException("Similar books must be added in the order of their book ids");
+                }
+                if (bookCount == bookIds.length) {
+                    bookIds = Arrays.copyOf(bookIds, bookCount * 2);
+                    offsets = Arrays.copyOf(offsets, bookCount * 2 + 1);
+                }
+                bookIds[bookCount] = bookId;
+                offsets[bookCount] = neighborCount;
+                bookCount++;
+            }
+            if (neighborCount == neighborIds.length) {
+                neighborIds = Arrays.copyOf(neighborIds, neighborCount * 2);
+                neighborScores = Arrays.copyOf(neighborScores, neighborCount * 2);
+            }
+            neighborIds[neighborCount] = similarBookId;
+            neighborScores[neighborCount] = score;
+            neighborCount++;
+            return this;
+        }
+
+        SimilarityIndex build() {
+            int[] bookOffsets = Arrays.copyOf(offsets, bookCount + 1);
+            bookOffsets[bookCount] = neighborCount;
+            return new SimilarityIndex(
+                Arrays.copyOf(bookIds, bookCount),
+                bookOffsets,
+                Arrays.copyOf(neighborIds, neighborCount),
+                Arrays.copyOf(neighborScores, neighborCount)
+            );
+        }
+    }
+}
@@ -0,0 +1,129 @@
+package ru.zavanton.booker.service.recommendation;
+
+import java.util.Arrays;
+
+/**
+ * Immutable preferences of a user: the books they rated or shelved, sorted by id, with the rating of each book,
+ * or {@code application.recommendation.reading-status-value} for a book which is shelved but not rated.
+ */
+final class UserProfile {
+
+    static final UserProfile EMPTY = new UserProfile(new long[0], new float[0]);
+
+    private final long[] bookIds;
+
+    private final float[] values;
+
+    private UserProfile(long[] bookIds, float[] values) {
+        this.bookIds = bookIds;
+        this.values = values;
+    }
+
+    static Builder builder() {
+        return new Builder();
+    }
+
+    int size() {
+        return bookIds.length;
+    }
+
+    long getBookId(int i) {
+        return bookIds[i];
+    }
+
+    float getValue(int i) {
+        return values[i];
+    }
+
+    boolean contains(long bookId) {
+        return Arrays.binarySearch(bookIds, bookId) >= 0;
+    }
+
+    /**
+     * @param bookId the id of a book.
+     * @param value the preference of the book, kept if it is higher than the current one.
+     * @return a copy of this profile with the book.
+     */
+    UserProfile with(long bookId, float value) {
+        int i = Arrays.binarySearch(bookIds, bookId);
+        if (i >= 0) {
+            if (values[i] >= value) {
+                return this;
+            }
+            float[] newValues = values.clone();
+            newValues[i] = value;
+            return new UserProfile(bookIds, newValues);
+        }
+        int insertion = -i - 1;
+        long[] newBookIds = new long[bookIds.length + 1];
+        float[] newValues = new float[values.length + 1];
+        System.arraycopy(bookIds, 0, newBookIds, 0, insertion);
+        System.arraycopy(values, 0, newValues, 0, insertion);
+        newBookIds[insertion] = bookId;
+        newValues[insertion] = value;
+        System.arraycopy(bookIds, insertion, newBookIds, insertion + 1, bookIds.length - insertion);
+        System.arraycopy(values, insertion, newValues, insertion + 1, values.length - insertion);
+        return new UserProfile(newBookIds, newValues);
+    }
+
+    // prettier-ignore
+    @Override
+    public String toString() {
+        return "UserProfile{" +
+            "books=" + size() +
+            "}";
+    }
+
+    /**
+     * Builder of a {@link UserProfile} from preferences added in any order.
+     */
+    static final class Builder {
+
+        private long[] bookIds = new long[16];
+
+        private float[] values = new float[16];
+
+        private int size;
+
+        private Builder() {}
+
+        /**
+         * Add a preference.
+         *
+         * @param bookId the id of the book, the highest preference of a book added several times is kept.
+         * @param value the preference of the user for the book.
+         * @return this builder.
+         */
+        Builder add(long bookId, float value) {
+            if (size == bookIds.length) {
+                bookIds = Arrays.copyOf(bookIds, size * 2);
+                values = Arrays.copyOf(values, size * 2);
+            }
+            bookIds[size] = bookId;
+            values[size] = value;
+            size++;
+            return this;
+        }
+
+        UserProfile build() {
+            Integer[] order = new Integer[size];
+            for (int i = 0; i < size; i++) {
+                order[i] = i;
+            }
+            Arrays.sort(order, (a, b) -> Long.compare(bookIds[a], bookIds[b]));
+            long[] sortedIds = new long[size];
+            float[] sortedValues = new float[size];
+            int count = 0;
+            for (int i : order) {
+                if (count > 0 && sortedIds[count - 1] == bookIds[i]) {
+                    sortedValues[count - 1] = Math.max(sortedValues[count - 1], values[i]);
+                } else {
+                    sortedIds[count] = bookIds[i];
+                    sortedValues[count] = values[i];
+                    count++;
+                }
+            }
+            return count == 0 ? EMPTY : new UserProfile(Arrays.copyOf(sortedIds, count), Arrays.copyOf(sortedValues, count));
+        }
+    }
+}
@@ -0,0 +1,4 @@
+/**
+ * Recommendations of books computed from the ratings and reading statuses.
+ */
+package ru.zavanton.booker.service.recommendation;
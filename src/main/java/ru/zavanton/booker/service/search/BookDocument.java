@@ -0,0 +1,63 @@
+package ru.zavanton.booker.service.search;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * The terms of one book, as stored in the {@link BookSearchIndex}.
+ * <p>
+ * Fields are weighted by counting their terms several times, so that a match in the title
+ * ranks above a match in the description.
+ *
+ * @param bookId the id of the book.
+ * @param termFrequencies the weighted number of occurrences of each term.
+ * @param length the weighted number of terms.
+ */
+public record BookDocument(long bookId, Map<String, Integer> termFrequencies, int length) {
+    public static final int TITLE_WEIGHT = 3;
+    public static final int ISBN_WEIGHT = 3;
+    public static final int AUTHOR_WEIGHT = 2;
+    public static final int NAME_WEIGHT = 1;
+    public static final int DESCRIPTION_WEIGHT = 1;
+    public static final int REVIEW_WEIGHT = 1;
+
+    public static Builder builder(long bookId) {
+        return new Builder(bookId);
+    }
+
+    public static final class Builder {
+
+        private final long bookId;
+
+        private final Map<String, Integer> termFrequencies = new HashMap<>();
+
+        private int length;
+
+        private Builder(long bookId) {
+            this.bookId = bookId;
+        }
+
+        public Builder text(String text, int weight) {
+            SearchAnalyzer.analyze(text).forEach(term -> term(term, weight));
+            return this;
+        }
+
+        public Builder isbn(String isbn) {
+            String term = SearchAnalyzer.isbnTerm(isbn);
+            if (term != null && !term.isEmpty()) {
+                term(term, ISBN_WEIGHT);
+            }
+            return this;
+        }
+
+        private void term(String term, int weight) {
+            termFrequencies.merge(term, weight, Integer::sum);
+            length += weight;
+        }
+
+        public BookDocument build() {
+            return new BookDocument(bookId, Collections.unmodifiableMap(termFrequencies), length);
+        }
+    }
+}
@@ -0,0 +1,310 @@
+package ru.zavanton.booker.service.search;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.SortedMap;
+import java.util.TreeMap;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Inverted index of {@link BookDocument}s ranked with Okapi BM25.
+ * <p>
+ * The index is made of an immutable memory-mapped {@link SearchSegment} and of an in-memory delta holding the documents
+ * added or replaced since the segment was written. Documents of the segment which were replaced or removed are shadowed,
+ * until {@link #writeSegment(Path)} merges both parts into a new segment.
+ * <p>
+ * Searches may run concurrently; modifications and {@link #writeSegment(Path)} must be called by a single thread at a time.
+ */
+public class BookSearchIndex {
+
+    private static final double K1 = 1.2;
+
+    private static final double B = 0.75;
+
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+
+    private SearchSegment segment = SearchSegment.empty();
+
+    private final Map<Long, BookDocument> delta = new HashMap<>();
+
+    private final Map<String, Map<Long, Integer>> deltaPostings = new HashMap<>();
+
+    private final Set<Long> shadowed = new HashSet<>();
+
+    private long docCount;
+
+    private long totalLength;
+
+    /**
+     * Result of a search.
+     *
+     * @param hits the requested hits, by decreasing score.
+     * @param totalHits the number of matching documents.
+     */
+    public record Result(List<Hit> hits, long totalHits) {}
+
+    /**
+     * A matching document.
+     *
+     * @param bookId the id of the book.
+     * @param score the BM25 score of the book.
+     */
+    public record Hit(long bookId, double score) {}
+
+    /**
+     * Replace the whole content of the index by a segment.
+     *
+     * @param newSegment the segment.
+     */
+    public void reset(SearchSegment newSegment) {
+        lock.writeLock().lock();
+        try {
+            segment = newSegment;
+            delta.clear();
+            deltaPostings.clear();
+            shadowed.clear();
+            docCount = newSegment.docCount();
+            totalLength = newSegment.totalLength();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Add or replace a document.
+     *
+     * @param document the document.
+     */
+    public void update(BookDocument document) {
+        lock.writeLock().lock();
+        try {
+            removeInternal(document.bookId());
+            delta.put(document.bookId(), document);
+            document
+                .termFrequencies()
+                .forEach((term, freq) -> deltaPostings.computeIfAbsent(term, t -> new HashMap<>()).put(document.bookId(), freq));
+            docCount++;
+            totalLength += document.length();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Remove a document, if present.
+     *
+     * @param bookId the id of the book.
+     */
+    public void remove(long bookId) {
+        lock.writeLock().lock();
+        try {
+            removeInternal(bookId);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private void removeInternal(long bookId) {
+        BookDocument previous = delta.remove(bookId);
+        if (previous != null) {
+            previous.termFrequencies().keySet().forEach(term -> {
+                Map<Long, Integer> postings = deltaPostings.get(term);
+                postings.remove(bookId);
+                if (postings.isEmpty()) {
+                    deltaPostings.remove(term);
+                }
+            });
+            docCount--;
+            totalLength -= previous.length();
+        } else if (!shadowed.contains(bookId)) {
+            int length = segment.findDocLength(bookId);
+            if (length >= 0) {
+                shadowed.add(bookId);
+                docCount--;
+                totalLength -= length;
+            }
+        }
+    }
+
+    /**
+     * @return {@code true} if documents were added or removed since the segment was written.
+     */
+    public boolean hasChanges() {
+        lock.readLock().lock();
+        try {
+            return !delta.isEmpty() || !shadowed.isEmpty();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public long getDocCount() {
+        lock.readLock().lock();
+        try {
+            return docCount;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * @return the ids of the indexed books, sorted.
+     */
+    public long[] getDocIds() {
+        lock.readLock().lock();
+        try {
+            // A document of the segment which was replaced by one of the delta is shadowed
+            long[] ids = new long[(int) docCount];
+            int count = 0;
+            for (int i = 0; i < segment.docCount(); i++) {
+                long bookId = segment.docId(i);
+                if (!shadowed.contains(bookId)) {
+                    ids[count++] = bookId;
+                }
+            }
+            for (Long bookId : delta.keySet()) {
+                ids[count++] = bookId;
+            }
+            Arrays.sort(ids, 0, count);
+            return Arrays.copyOf(ids, count);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Search documents matching any of the terms.
+     *
+     * @param terms the query terms.
+     * @param offset the number of best hits to skip.
+     * @param limit the maximal number of hits to return.
+     * @return the hits.
+     */
+    public Result search(Collection<String> terms, int offset, int limit) {
+        lock.readLock().lock();
+        try {
+            if (docCount <= 0 || terms.isEmpty()) {
+                return new Result(List.of(), 0);
+            }
+            double averageLength = (double) totalLength / docCount;
+            Map<Long, Double> scores = new HashMap<>();
+            for (String term : new LinkedHashSet<>(terms)) {
+                scoreTerm(term, averageLength, scores);
+            }
+            return new Result(top(scores, offset, limit), scores.size());
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private void scoreTerm(String term, double averageLength, Map<Long, Double> scores) {
+        List<long[]> postings = new ArrayList<>();
+        int termIndex = segment.findTerm(term);
+        if (termIndex >= 0) {
+            int offset = segment.postingsOffset(termIndex);
+            for (int i = 0, n = segment.docFreq(termIndex); i < n; i++) {
+                long bookId = segment.postingDocId(offset, i);
+                if (!shadowed.contains(bookId)) {
+                    postings.add(new long[] { bookId, segment.postingFreq(offset, i), segment.postingDocLength(offset, i) });
+                }
+            }
+        }
+        Map<Long, Integer> deltaTermPostings = deltaPostings.getOrDefault(term, Map.of());
+        deltaTermPostings.forEach((bookId, freq) -> postings.add(new long[] { bookId, freq, delta.get(bookId).length() }));
+        if (postings.isEmpty()) {
+            return;
+        }
+        int docFreq = postings.size();
+        double idf = Math.log(1 + (docCount - docFreq + 0.5) / (docFreq + 0.5));
+        for (long[] posting : postings) {
+            double freq = posting[1];
+            double norm = K1 * (1 - B + B * posting[2] / averageLength);
+            scores.merge(posting[0], idf * freq * (K1 + 1) / (freq + norm), Double::sum);
+        }
+    }
+
+    private static List<Hit> top(Map<Long, Double> scores, int offset, int limit) {
+        Comparator<Hit> ranking = Comparator.comparingDouble(Hit::score).reversed().thenComparingLong(Hit::bookId);
+        int size = offset + limit;
+        if (size <= 0 || offset >= scores.size()) {
+            return List.of();
+        }
+        PriorityQueue<Hit> best = new PriorityQueue<>(size, ranking.reversed());
+        scores.forEach((bookId, score) -> {
+            Hit hit = new Hit(bookId, score);
+            if (best.size() < size) {
+                best.add(hit);
+            } else if (ranking.compare(hit, best.peek()) < 0) {
+                best.poll();
+                best.add(hit);
+            }
+        });
+        List<Hit> hits = new ArrayList<>(best);
+        hits.sort(ranking);
+        return hits.subList(Math.min(offset, hits.size()), hits.size());
+    }
+
+    /**
+     * Write the whole content of the index into a new segment file.
+     *
+     * @param path the segment file.
+     * @throws IOException if the file cannot be written.
+     */
+    public void writeSegment(Path path) throws IOException {
+        lock.readLock().lock();
+        try (SearchSegment.Writer writer = new SearchSegment.Writer(path)) {
+            SortedMap<Long, Integer> docLengths = new TreeMap<>();
+            for (int i = 0; i < segment.docCount(); i++) {
+                long bookId = segment.docId(i);
+                if (!shadowed.contains(bookId)) {
+                    docLengths.put(bookId, segment.docLength(i));
+                }
+            }
+            delta.values().forEach(document -> docLengths.put(document.bookId(), document.length()));
+            writer.docs(docLengths);
+
+            Iterator<String> deltaTerms = new TreeMap<>(deltaPostings).keySet().iterator();
+            String deltaTerm = deltaTerms.hasNext() ? deltaTerms.next() : null;
+            int termIndex = 0;
+            while (termIndex < segment.termCount() || deltaTerm != null) {
+                String segmentTerm = termIndex < segment.termCount() ? segment.term(termIndex) : null;
+                int cmp = segmentTerm == null ? 1 : deltaTerm == null ? -1 : segmentTerm.compareTo(deltaTerm);
+                SortedMap<Long, Integer> postings = new TreeMap<>();
+                String term;
+                if (cmp <= 0) {
+                    term = segmentTerm;
+                    int offset = segment.postingsOffset(termIndex);
+                    for (int i = 0, n = segment.docFreq(termIndex); i < n; i++) {
+                        long bookId = segment.postingDocId(offset, i);
+                        if (!shadowed.contains(bookId)) {
+                            postings.put(bookId, segment.postingFreq(offset, i));
+                        }
+                    }
+                    termIndex++;
+                } else {
+                    term = deltaTerm;
+                }
+                if (cmp >= 0) {
+                    postings.putAll(deltaPostings.get(deltaTerm));
+                    deltaTerm = deltaTerms.hasNext() ? deltaTerms.next() : null;
+                }
+                writer.term(term, postings);
+            }
+            writer.finish(totalLength);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+}
@@ -0,0 +1,434 @@
+package ru.zavanton.booker.service.search;
+
+import jakarta.annotation.PreDestroy;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DataAccessException;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionException;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import ru.zavanton.booker.config.ApplicationProperties;
+import ru.zavanton.booker.domain.BookEntity;
+import ru.zavanton.booker.repository.BookAuthorRepository;
+import ru.zavanton.booker.repository.BookGenreRepository;
+import ru.zavanton.booker.repository.BookNameProjection;
+import ru.zavanton.booker.repository.BookRepository;
+import ru.zavanton.booker.repository.BookTagRepository;
+import ru.zavanton.booker.repository.BookTextProjection;
+import ru.zavanton.booker.repository.ReviewRepository;
+
+/**
+ * Service maintaining the {@link BookSearchIndex} and searching books.
+ * <p>
+ * Write operations only mark the changed books, authors, genres and tags as dirty once their transaction has committed.
+ * The dirty books are re-read from the database and re-indexed every {@code application.search.refresh-interval-ms},
+ * and the index is written to a new segment file every {@code application.search.commit-interval-ms}, so that
+ * the application can search as soon as it starts.
+ * <p>
+ * The segment misses the changes made while the application was stopped, by the other nodes or directly in the database,
+ * so a new segment of every book is built at startup and every {@code application.search.rebuild-interval-ms}, aside from
+ * the current index which keeps being searched and refreshed, and then swapped in.
+ */
+@Service
+public class BookSearchService {
+
+    private static final Logger LOG = LoggerFactory.getLogger(BookSearchService.class);
+
+    private static final String SEGMENT_FILE = "books.seg";
+
+    private final BookSearchIndex index = new BookSearchIndex();
+
+    private final ReentrantLock writeLock = new ReentrantLock();
+
+    private final ReentrantLock rebuildLock = new ReentrantLock();
+
+    // The books re-indexed while a rebuild runs, which its segment may hold older versions of; guarded by writeLock
+    private Set<Long> refreshedDuringRebuild;
+
+    private final Set<Long> dirtyBooks = ConcurrentHashMap.newKeySet();
+
+    private final Set<Long> dirtyAuthors = ConcurrentHashMap.newKeySet();
+
+    private final Set<Long> dirtyGenres = ConcurrentHashMap.newKeySet();
+
+    private final Set<Long> dirtyTags = ConcurrentHashMap.newKeySet();
+
+    private final BookRepository bookRepository;
+
+    private final BookAuthorRepository bookAuthorRepository;
+
+    private final BookGenreRepository bookGenreRepository;
+
+    private final BookTagRepository bookTagRepository;
+
+    private final ReviewRepository reviewRepository;
+
+    private final TransactionTemplate primaryTransactionTemplate;
+
+    private final ApplicationProperties.Search properties;
+
+    public BookSearchService(
+        BookRepository bookRepository,
+        BookAuthorRepository bookAuthorRepository,
+        BookGenreRepository bookGenreRepository,
+        BookTagRepository bookTagRepository,
+        ReviewRepository reviewRepository,
+        PlatformTransactionManager transactionManager,
+        ApplicationProperties applicationProperties
+    ) {
+        this.bookRepository = bookRepository;
+        this.bookAuthorRepository = bookAuthorRepository;
+        this.bookGenreRepository = bookGenreRepository;
+        this.bookTagRepository = bookTagRepository;
+        this.reviewRepository = reviewRepository;
+        // Not read-only, as the read-only transactions may be routed to a lagging replica, whose rows the index would keep
+        this.primaryTransactionTemplate = new TransactionTemplate(transactionManager);
+        this.properties = applicationProperties.getSearch();
+    }
+
+    /**
+     * Re-index a book once the current transaction (if any) has committed.
+     *
+     * @param bookId the id of the created, updated or deleted book.
+     */
+    public void bookChanged(Long bookId) {
+        markDirty(dirtyBooks, bookId);
+    }
+
+    /**
+     * Re-index the books of an author once the current transaction (if any) has committed.
+     *
+     * @param authorId the id of the updated author.
+     */
+    public void authorChanged(Long authorId) {
+        markDirty(dirtyAuthors, authorId);
+    }
+
+    /**
+     * Re-index the books of a genre once the current transaction (if any) has committed.
+     *
+     * @param genreId the id of the updated genre.
+     */
+    public void genreChanged(Long genreId) {
+        markDirty(dirtyGenres, genreId);
+    }
+
+    /**
+     * Re-index the books of a tag once the current transaction (if any) has committed.
+     *
+     * @param tagId the id of the updated tag.
+     */
+    public void tagChanged(Long tagId) {
+        markDirty(dirtyTags, tagId);
+    }
+
+    private static void markDirty(Set<Long> dirty, Long id) {
+        if (id == null) {
+            return;
+        }
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(
+                new TransactionSynchronization() {
+                    @Override
+                    public void afterCommit() {
+                        dirty.add(id);
+                    }
+                }
+            );
+        } else {
+            dirty.add(id);
+        }
+    }
+
+    /**
+     * Search books by their title, ISBN, description, authors, genres, tags and reviews.
+     *
+     * @param query the words to search.
+     * @param pageable the pagination information, sorting is ignored as books are sorted by relevance.
+     * @return the matching books, the most relevant first.
+     */
+    @Transactional(readOnly = true)
+    public Page<BookEntity> search(String query, Pageable pageable) {
+        LOG.debug("Request to search Books for query {}", query);
+        BookSearchIndex.Result result = index.search(
+            SearchAnalyzer.analyze(query),
+            (int) Math.min(pageable.getOffset(), Integer.MAX_VALUE),
+            pageable.getPageSize()
+        );
+        List<Long> ids = result.hits().stream().map(BookSearchIndex.Hit::bookId).toList();
+        Map<Long, BookEntity> books = bookRepository
+            .findAllById(ids)
+            .stream()
+            .collect(Collectors.toMap(BookEntity::getId, Function.identity()));
+        List<BookEntity> content = ids.stream().map(books::get).filter(Objects::nonNull).toList();
+        return new PageImpl<>(content, PageRequest.of(pageable.getPageNumber(), pageable.getPageSize()), result.totalHits());
+    }
+
+    /**
+     * @return the number of indexed books.
+     */
+    public long getIndexedCount() {
+        return index.getDocCount();
+    }
+
+    /**
+     * Load the last committed segment, then catch up with the database.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void init() {
+        Path segmentFile = getSegmentFile();
+        if (Files.isRegularFile(segmentFile)) {
+            try {
+                index.reset(SearchSegment.open(segmentFile));
+                LOG.info("Opened search index with {} books", index.getDocCount());
+            } catch (IOException e) {
+                LOG.warn("Could not open search index {}, rebuilding it: {}", segmentFile, e.getMessage());
+            }
+        }
+        rebuild();
+    }
+
+    /**
+     * Index all books from the database into a new segment, and replace the current index by it. The current index is
+     * searched and refreshed meanwhile, and only locked to swap the segments.
+     * <p>
+     * This is scheduled to run every {@code application.search.rebuild-interval-ms} milliseconds.
+     * A rebuild requested while another one runs is skipped. The books re-indexed by the refreshes while it reads them
+     * are re-read once the new segment is in place.
+     */
+    @Scheduled(
+        initialDelayString = "${application.search.rebuild-interval-ms:3600000}",
+        fixedDelayString = "${application.search.rebuild-interval-ms:3600000}"
+    )
+    public void rebuild() {
+        if (!rebuildLock.tryLock()) {
+            LOG.info("Skipping the rebuild of the search index, as one is already running");
+            return;
+        }
+        try {
+            LOG.info("Rebuilding search index");
+            writeLock.lock();
+            try {
+                refreshedDuringRebuild = new HashSet<>();
+            } finally {
+                writeLock.unlock();
+            }
+            BookSearchIndex rebuilt = new BookSearchIndex();
+            long lastId = Long.MIN_VALUE;
+            List<Long> ids;
+            do {
+                long from = lastId;
+                ids = primaryTransactionTemplate.execute(status -> {
+                    List<Long> batch = bookRepository.findIdsGreaterThan(from, PageRequest.of(0, properties.getBatchSize()));
+                    if (!batch.isEmpty()) {
+                        loadDocuments(batch).values().forEach(rebuilt::update);
+                    }
+                    return batch;
+                });
+                if (!ids.isEmpty()) {
+                    lastId = ids.get(ids.size() - 1);
+                }
+            } while (ids.size() == properties.getBatchSize());
+            swap(rebuilt);
+            // Re-read the books refreshed meanwhile, over the new segment
+            refresh();
+            LOG.info("Rebuilt search index with {} books", index.getDocCount());
+        } catch (IOException e) {
+            LOG.warn("Could not write the rebuilt search index to {}, will retry: {}", getSegmentFile(), e.getMessage());
+        } finally {
+            writeLock.lock();
+            try {
+                refreshedDuringRebuild = null;
+            } finally {
+                writeLock.unlock();
+            }
+            rebuildLock.unlock();
+        }
+    }
+
+    private void swap(BookSearchIndex rebuilt) throws IOException {
+        Path segmentFile = getSegmentFile();
+        Files.createDirectories(segmentFile.getParent());
+        Path rebuiltFile = segmentFile.resolveSibling(SEGMENT_FILE + ".rebuild");
+        rebuilt.writeSegment(rebuiltFile);
+        writeLock.lock();
+        try {
+            Files.move(rebuiltFile, segmentFile, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            index.reset(SearchSegment.open(segmentFile));
+            dirtyBooks.addAll(refreshedDuringRebuild);
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    /**
+     * Re-index the dirty books.
+     * <p>
+     * This is scheduled to run every {@code application.search.refresh-interval-ms} milliseconds.
+     * Books which could not be re-indexed are kept for the next run.
+     */
+    @Scheduled(fixedDelayString = "${application.search.refresh-interval-ms:1000}")
+    public void refresh() {
+        writeLock.lock();
+        try {
+            Set<Long> authorIds = drain(dirtyAuthors);
+            Set<Long> genreIds = drain(dirtyGenres);
+            Set<Long> tagIds = drain(dirtyTags);
+            Set<Long> bookIds = drain(dirtyBooks);
+            try {
+                if (!authorIds.isEmpty() || !genreIds.isEmpty() || !tagIds.isEmpty()) {
+                    primaryTransactionTemplate.executeWithoutResult(status -> {
+                        authorIds.forEach(id -> bookIds.addAll(bookAuthorRepository.findBookIdsByAuthorId(id)));
+                        genreIds.forEach(id -> bookIds.addAll(bookGenreRepository.findBookIdsByGenreId(id)));
+                        tagIds.forEach(id -> bookIds.addAll(bookTagRepository.findBookIdsByTagId(id)));
+                    });
+                    authorIds.clear();
+                    genreIds.clear();
+                    tagIds.clear();
+                }
+                if (bookIds.isEmpty()) {
+                    return;
+                }
+                List<Long> ids = new ArrayList<>(bookIds);
+                for (int from = 0; from < ids.size(); from += properties.getBatchSize()) {
+                    List<Long> batch = ids.subList(from, Math.min(from + properties.getBatchSize(), ids.size()));
+                    Map<Long, BookDocument> documents = primaryTransactionTemplate.execute(status -> loadDocuments(batch));
+                    batch.forEach(id -> {
+                        BookDocument document = documents.get(id);
+                        if (document != null) {
+                            index.update(document);
+                        } else {
+                            index.remove(id);
+                        }
+                        bookIds.remove(id);
+                        if (refreshedDuringRebuild != null) {
+                            refreshedDuringRebuild.add(id);
+                        }
+                    });
+                }
+                LOG.debug("Refreshed {} books in search index", ids.size());
+            } catch (DataAccessException | TransactionException e) {
+                LOG.warn("Could not refresh {} books in search index, will retry: {}", bookIds.size(), e.getMessage());
+                dirtyAuthors.addAll(authorIds);
+                dirtyGenres.addAll(genreIds);
+                dirtyTags.addAll(tagIds);
+                dirtyBooks.addAll(bookIds);
+            }
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    /**
+     * Write the index to a new segment file if it changed.
+     * <p>
+     * This is scheduled to run every {@code application.search.commit-interval-ms} milliseconds.
+     */
+    @Scheduled(fixedDelayString = "${application.search.commit-interval-ms:60000}")
+    public void commit() {
+        writeLock.lock();
+        try {
+            if (index.hasChanges()) {
+                commitInternal();
+            }
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    /**
+     * Re-index the dirty books and commit the index before the application stops.
+     */
+    @PreDestroy
+    public void destroy() {
+        refresh();
+        commit();
+    }
+
+    private void commitInternal() {
+        Path segmentFile = getSegmentFile();
+        try {
+            Files.createDirectories(segmentFile.getParent());
+            Path tmpFile = segmentFile.resolveSibling(SEGMENT_FILE + ".tmp");
+            index.writeSegment(tmpFile);
+            Files.move(tmpFile, segmentFile, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            index.reset(SearchSegment.open(segmentFile));
+            LOG.debug("Committed search index with {} books", index.getDocCount());
+        } catch (IOException e) {
+            LOG.warn("Could not commit search index to {}, will retry: {}", segmentFile, e.getMessage());
+        }
+    }
+
+    private Path getSegmentFile() {
+        return Paths.get(properties.getIndexDir()).toAbsolutePath().resolve(SEGMENT_FILE);
+    }
+
+    private static Set<Long> drain(Set<Long> dirty) {
+        Set<Long> drained = new TreeSet<>();
+        for (Long id : dirty) {
+            if (dirty.remove(id)) {
+                drained.add(id);
+            }
+        }
+        return drained;
+    }
+
+    private Map<Long, BookDocument> loadDocuments(List<Long> bookIds) {
+        Map<Long, BookDocument.Builder> builders = new HashMap<>();
+        for (BookTextProjection book : bookRepository.findTextByIdIn(bookIds)) {
+            builders.put(
+                book.getId(),
+                BookDocument.builder(book.getId())
+                    .isbn(book.getIsbn())
+                    .text(book.getTitle(), BookDocument.TITLE_WEIGHT)
+                    .text(book.getDescription(), BookDocument.DESCRIPTION_WEIGHT)
+            );
+        }
+        addNames(builders, bookAuthorRepository.findAuthorNamesByBookIdIn(bookIds), BookDocument.AUTHOR_WEIGHT);
+        addNames(builders, bookGenreRepository.findGenreNamesByBookIdIn(bookIds), BookDocument.NAME_WEIGHT);
+        addNames(builders, bookTagRepository.findTagNamesByBookIdIn(bookIds), BookDocument.NAME_WEIGHT);
+        addNames(builders, reviewRepository.findContentByBookIdIn(bookIds), BookDocument.REVIEW_WEIGHT);
+        return builders
+            .values()
+            .stream()
+            .map(BookDocument.Builder::build)
+            .collect(Collectors.toMap(BookDocument::bookId, Function.identity()));
+    }
+
+    private static void addNames(Map<Long, BookDocument.Builder> builders, List<BookNameProjection> names, int weight) {
+        for (BookNameProjection name : names) {
+            BookDocument.Builder builder = builders.get(name.getBookId());
+            if (builder != null) {
+                builder.text(name.getName(), weight);
+            }
+        }
+    }
+}
@@ -0,0 +1,73 @@
+package ru.zavanton.booker.service.search;
+
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.regex.Pattern;
+
+/**
+ * Splits text into the terms stored in the {@link BookSearchIndex}.
+ * <p>
+ * Terms are lower-cased, stripped of diacritics and split on anything which is not a letter or a digit.
+ * ISBN-like chunks are additionally kept as one compact term, so that {@code 978-3-16-148410-0} matches {@code 9783161484100}.
+ */
+public final class SearchAnalyzer {
+
+    private static final int MAX_TERM_LENGTH = 64;
+
+    private static final Pattern DIACRITICS = Pattern.compile("\\p{M}+");
+
+    private static final Pattern SEPARATORS = Pattern.compile("[^\\p{L}\\p{N}]+");
+
+    private static final Pattern WHITESPACE = Pattern.compile("\\s+");
+
+    private static final Pattern ISBN = Pattern.compile("[0-9][0-9-]{8,15}[0-9xX]");
+
+    private SearchAnalyzer() {}
+
+    /**
+     * Split a text into terms.
+     *
+     * @param text the text, may be {@code null}.
+     * @return the terms, in order of appearance and with duplicates.
+     */
+    public static List<String> analyze(String text) {
+        List<String> terms = new ArrayList<>();
+        if (text == null || text.isBlank()) {
+            return terms;
+        }
+        for (String chunk : WHITESPACE.split(normalize(text))) {
+            if (ISBN.matcher(chunk).matches()) {
+                terms.add(compactIsbn(chunk));
+            }
+            for (String term : SEPARATORS.split(chunk)) {
+                if (!term.isEmpty() && term.length() <= MAX_TERM_LENGTH) {
+                    terms.add(term);
+                }
+            }
+        }
+        return terms;
+    }
+
+    /**
+     * Normalize an ISBN into a single term.
+     *
+     * @param isbn the ISBN, may be {@code null}.
+     * @return the term, or {@code null} if the ISBN is blank.
+     */
+    public static String isbnTerm(String isbn) {
+        if (isbn == null || isbn.isBlank()) {
+            return null;
+        }
+        return compactIsbn(normalize(isbn));
+    }
+
+    private static String compactIsbn(String isbn) {
+        return SEPARATORS.matcher(isbn).replaceAll("");
+    }
+
+    private static String normalize(String text) {
+        return DIACRITICS.matcher(Normalizer.normalize(text, Normalizer.Form.NFD)).replaceAll("").toLowerCase(Locale.ROOT);
+    }
+}
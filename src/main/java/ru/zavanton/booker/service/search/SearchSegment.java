@@ -0,0 +1,274 @@
+package ru.zavanton.booker.service.search;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.SortedMap;
+
+/**
+ * Immutable on-disk segment of the {@link BookSearchIndex}, read through a memory-mapped buffer.
+ * <p>
+ * Layout, all numbers big-endian:
+ * <pre>
+ * docs        docCount x (long bookId, int length), sorted by bookId
+ * postings    for each term, docFreq x (long bookId, int termFrequency, int length), sorted by bookId
+ * dictionary  termCount x (short byteLength, UTF-8 term, int docFreq, int postingsOffset), sorted by term
+ * index       termCount x int dictionary entry offset
+ * footer      int docsOffset, int docCount, int indexOffset, int termCount, long totalLength, int magic
+ * </pre>
+ * A segment is limited to 2 GB, the maximal size of a single mapped buffer.
+ */
+public final class SearchSegment {
+
+    private static final int MAGIC = 0x42534731;
+
+    private static final int FOOTER_SIZE = 4 * 4 + 8 + 4;
+
+    private static final int DOC_SIZE = 8 + 4;
+
+    static final int POSTING_SIZE = 8 + 4 + 4;
+
+    private static final SearchSegment EMPTY = new SearchSegment(ByteBuffer.allocate(0), 0, 0, 0, 0, 0);
+
+    private final ByteBuffer buffer;
+
+    private final int docsOffset;
+
+    private final int docCount;
+
+    private final int indexOffset;
+
+    private final int termCount;
+
+    private final long totalLength;
+
+    private SearchSegment(ByteBuffer buffer, int docsOffset, int docCount, int indexOffset, int termCount, long totalLength) {
+        this.buffer = buffer;
+        this.docsOffset = docsOffset;
+        this.docCount = docCount;
+        this.indexOffset = indexOffset;
+        this.termCount = termCount;
+        this.totalLength = totalLength;
+    }
+
+    public static SearchSegment empty() {
+        return EMPTY;
+    }
+
+    /**
+     * Map a segment file into memory.
+     *
+     * @param path the segment file.
+     * @return the segment.
+     * @throws IOException if the file cannot be read or is not a valid segment.
+     */
+    public static SearchSegment open(Path path) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            long size = channel.size();
+            if (size < FOOTER_SIZE || size > Integer.MAX_VALUE) {
+                throw new IOException("Invalid search segment size " + size + " for " + path);
+            }
+            ByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, size);
+            int footer = (int) size - FOOTER_SIZE;
+            if (buffer.getInt(footer + FOOTER_SIZE - 4) != MAGIC) {
+                throw new IOException("Invalid search segment " + path);
+            }
+            return new SearchSegment(
+                buffer,
+                buffer.getInt(footer),
+                buffer.getInt(footer + 4),
+                buffer.getInt(footer + 8),
+                buffer.getInt(footer + 12),
+                buffer.getLong(footer + 16)
+            );
+        }
+    }
+
+    public int docCount() {
+        return docCount;
+    }
+
+    public long totalLength() {
+        return totalLength;
+    }
+
+    public long docId(int i) {
+        return buffer.getLong(docsOffset + i * DOC_SIZE);
+    }
+
+    public int docLength(int i) {
+        return buffer.getInt(docsOffset + i * DOC_SIZE + 8);
+    }
+
+    /**
+     * @param bookId the id of a book.
+     * @return the length of the document of the book, or {@code -1} if the book is not in this segment.
+     */
+    public int findDocLength(long bookId) {
+        int low = 0;
+        int high = docCount - 1;
+        while (low <= high) {
+            int mid = (low + high) >>> 1;
+            long id = docId(mid);
+            if (id < bookId) {
+                low = mid + 1;
+            } else if (id > bookId) {
+                high = mid - 1;
+            } else {
+                return docLength(mid);
+            }
+        }
+        return -1;
+    }
+
+    public int termCount() {
+        return termCount;
+    }
+
+    public String term(int i) {
+        int entry = buffer.getInt(indexOffset + i * 4);
+        byte[] bytes = new byte[buffer.getShort(entry)];
+        buffer.get(entry + 2, bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * @param term a term.
+     * @return the position of the term in the dictionary, or {@code -1} if the term is not in this segment.
+     */
+    public int findTerm(String term) {
+        int low = 0;
+        int high = termCount - 1;
+        while (low <= high) {
+            int mid = (low + high) >>> 1;
+            int cmp = term(mid).compareTo(term);
+            if (cmp < 0) {
+                low = mid + 1;
+            } else if (cmp > 0) {
+                high = mid - 1;
+            } else {
+                return mid;
+            }
+        }
+        return -1;
+    }
+
+    public int docFreq(int termIndex) {
+        int entry = buffer.getInt(indexOffset + termIndex * 4);
+        return buffer.getInt(entry + 2 + buffer.getShort(entry));
+    }
+
+    public int postingsOffset(int termIndex) {
+        int entry = buffer.getInt(indexOffset + termIndex * 4);
+        return buffer.getInt(entry + 2 + buffer.getShort(entry) + 4);
+    }
+
+    public long postingDocId(int postingsOffset, int i) {
+        return buffer.getLong(postingsOffset + i * POSTING_SIZE);
+    }
+
+    public int postingFreq(int postingsOffset, int i) {
+        return buffer.getInt(postingsOffset + i * POSTING_SIZE + 8);
+    }
+
+    public int postingDocLength(int postingsOffset, int i) {
+        return buffer.getInt(postingsOffset + i * POSTING_SIZE + 12);
+    }
+
+    /**
+     * Sequential writer of a segment file. Terms must be added in their natural order.
+     */
+    public static final class Writer implements AutoCloseable {
+
+        private final DataOutputStream out;
+
+        private final List<byte[]> terms = new ArrayList<>();
+
+        private final List<int[]> termStats = new ArrayList<>();
+
+        private Map<Long, Integer> docLengths;
+
+        private int docsOffset;
+
+        public Writer(Path path) throws IOException {
+            this.out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(path)));
+        }
+
+        /**
+         * Write the documents, which must be done before adding terms.
+         *
+         * @param docLengths the length of each document, sorted by book id.
+         * @throws IOException if the file cannot be written.
+         */
+        public void docs(SortedMap<Long, Integer> docLengths) throws IOException {
+            this.docLengths = docLengths;
+            this.docsOffset = out.size();
+            for (Map.Entry<Long, Integer> doc : docLengths.entrySet()) {
+                out.writeLong(doc.getKey());
+                out.writeInt(doc.getValue());
+            }
+        }
+
+        /**
+         * Write the postings of a term.
+         *
+         * @param term the term.
+         * @param postings the frequency of the term in each document containing it, sorted by book id.
+         * @throws IOException if the file cannot be written.
+         */
+        public void term(String term, SortedMap<Long, Integer> postings) throws IOException {
+            if (postings.isEmpty()) {
+                return;
+            }
+            terms.add(term.getBytes(StandardCharsets.UTF_8));
+            termStats.add(new int[] { postings.size(), out.size() });
+            for (Map.Entry<Long, Integer> posting : postings.entrySet()) {
+                out.writeLong(posting.getKey());
+                out.writeInt(posting.getValue());
+                out.writeInt(docLengths.get(posting.getKey()));
+            }
+        }
+
+        /**
+         * Write the dictionary and the footer.
+         *
+         * @param totalLength the sum of the lengths of the documents.
+         * @throws IOException if the file cannot be written.
+         */
+        public void finish(long totalLength) throws IOException {
+            int[] entries = new int[terms.size()];
+            for (int i = 0; i < terms.size(); i++) {
+                entries[i] = out.size();
+                out.writeShort(terms.get(i).length);
+                out.write(terms.get(i));
+                out.writeInt(termStats.get(i)[0]);
+                out.writeInt(termStats.get(i)[1]);
+            }
+            int indexOffset = out.size();
+            for (int entry : entries) {
+                out.writeInt(entry);
+            }
+            out.writeInt(docsOffset);
+            out.writeInt(docLengths.size());
+            out.writeInt(indexOffset);
+            out.writeInt(terms.size());
+            out.writeLong(totalLength);
+            out.writeInt(MAGIC);
+            out.flush();
+        }
+
+        @Override
+        public void close() throws IOException {
+            out.close();
+        }
+    }
+}
@@ -0,0 +1,4 @@
+/**
+ * Embedded full-text search over the book catalog.
+ */
+package ru.zavanton.booker.service.search;
@@ -0,0 +1,381 @@
+package ru.zavanton.booker.service.stats;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Calendar;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.TimeZone;
+import java.util.concurrent.atomic.AtomicBoolean;
+import javax.sql.DataSource;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+import ru.zavanton.booker.config.ApplicationProperties;
+import ru.zavanton.booker.security.SecurityUtils;
+import ru.zavanton.booker.service.dto.ReadingStatsDto;
+
+/**
+ * Service maintaining the yearly reading statistics of each user in the {@code reading_stats} table.
+ * <p>
+ * A book counts as read in the year of the finished date of its reading status, with its page count as pages read,
+ * and a rating counts as given in the year of its creation date, in UTC. The statistics are updated with deltas
+ * in the transaction which writes the reading status or the rating, so that they are always consistent with them.
+ * <p>
+ * The page counts are read from the books when their reading statuses are written, so the change of the page count
+ * of a book is only reflected by the backfill. The backfill rebuilds all the statistics from the reading statuses, books
+ * and ratings, reading each table once in id order: it runs on startup when the statistics are empty, and at
+ * {@code application.reading-stats.backfill-cron} when set. It reads and writes in one transaction which first locks
+ * the {@code reading_stats} table, so that the deltas of the concurrent transactions, and the backfills of the other
+ * nodes, wait for it and then apply to the rebuilt statistics.
+ */
+@Service
+public class ReadingStatsService {
+
+    private static final Logger LOG = LoggerFactory.getLogger(ReadingStatsService.class);
+
+    private static final String UPDATE_STATS_SQL =
+        "update reading_stats set books_read = books_read + ?, pages_read = pages_read + ?," +
+        " ratings_given = ratings_given + ?, rating_sum = rating_sum + ? where user_id = ? and stats_year = ?";
+
+    private static final String INSERT_MISSING_STATS_SQL =
+        "insert into reading_stats (books_read, pages_read, ratings_given, rating_sum, user_id, stats_year)" +
+        " select ?, ?, ?, ?, ?, ? where not exists (select 1 from reading_stats where user_id = ? and stats_year = ?)";
+
+    private static final String SELECT_PAGE_COUNT_SQL = "select page_count from book where id = ?";
+
+    private static final String SELECT_STATS_SQL =
+        "select stats.stats_year, stats.books_read, stats.pages_read, stats.ratings_given, stats.rating_sum" +
+        " from reading_stats stats join booker_user u on u.id = stats.user_id where u.login = ? order by stats.stats_year desc";
+
+    private static final String COUNT_STATS_SQL = "select count(*) from reading_stats";
+
+    // Blocks the writes of the other transactions to the table, but not its reads
+    private static final String LOCK_STATS_SQL = "lock table reading_stats in exclusive mode";
+
+    // H2, used on a single node by the dev and test profiles, has no table locks: the existing rows are locked instead
+    private static final String LOCK_STATS_ROWS_SQL = "select user_id from reading_stats for update";
+
+    private static final String SELECT_FINISHED_SQL =
+        "select status.user_id, status.finished_date, book.page_count from reading_status status" +
+        " join book on book.id = status.book_id where status.finished_date is not null order by status.id";
+
+    private static final String SELECT_RATINGS_SQL =
+        "select user_id, created_at, rating from rating where created_at is not null order by id";
+
+    private static final String DELETE_ALL_SQL = "delete from reading_stats";
+
+    private static final String INSERT_STATS_SQL =
+        "insert into reading_stats (user_id, stats_year, books_read, pages_read, ratings_given, rating_sum) values (?, ?, ?, ?, ?, ?)";
+
+    private final AtomicBoolean running = new AtomicBoolean();
+
+    private final JdbcTemplate jdbcTemplate;
+
+    private final JdbcTemplate fetchingJdbcTemplate;
+
+    private final TransactionTemplate transactionTemplate;
+
+    private final ApplicationProperties.ReadingStats properties;
+
+    public ReadingStatsService(
+        JdbcTemplate jdbcTemplate,
+        DataSource dataSource,
+        PlatformTransactionManager transactionManager,
+        ApplicationProperties applicationProperties
+    ) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.properties = applicationProperties.getReadingStats();
+        this.fetchingJdbcTemplate = new JdbcTemplate(dataSource);
+        this.fetchingJdbcTemplate.setFetchSize(properties.getFetchSize());
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+    }
+
+    /**
+     * Get the reading statistics of the current user, for each year they read or rated a book.
+     *
+     * @return the statistics, latest year first.
+     */
+    @Transactional(readOnly = true)
+    public List<ReadingStatsDto> findAll() {
+        LOG.debug("Request to get the reading statistics of the current user");
+        String login = SecurityUtils.getCurrentUserLogin().orElse(null);
+        if (login == null) {
+            return List.of();
+        }
+        return jdbcTemplate.query(SELECT_STATS_SQL, (rs, rowNum) -> toDto(rs), login);
+    }
+
+    /**
+     * Get the reading statistics of the current user in a year.
+     *
+     * @param year the year.
+     * @return the statistics, all zero if the user did not read nor rate a book that year.
+     */
+    @Transactional(readOnly = true)
+    public ReadingStatsDto findOne(int year) {
+        LOG.debug("Request to get the reading statistics of the current user in {}", year);
+        return findAll()
+            .stream()
+            .filter(stats -> stats.getYear() == year)
+            .findFirst()
+            .orElseGet(() -> {
+                ReadingStatsDto stats = new ReadingStatsDto();
+                stats.setYear(year);
+                return stats;
+            });
+    }
+
+    /**
+     * Count a new reading status, if it is finished.
+     *
+     * @param userId the id of the user.
+     * @param bookId the id of the book.
+     * @param finishedDate the finished date, if any.
+     */
+    public void readingStatusAdded(Long userId, Long bookId, LocalDate finishedDate) {
+        readingStatusReplaced(null, null, null, userId, bookId, finishedDate);
+    }
+
+    /**
+     * Stop counting a deleted reading status.
+     *
+     * @param userId the id of the user.
+     * @param bookId the id of the book.
+     * @param finishedDate the finished date, if any.
+     */
+    public void readingStatusRemoved(Long userId, Long bookId, LocalDate finishedDate) {
+        readingStatusReplaced(userId, bookId, finishedDate, null, null, null);
+    }
+
+    /**
+     * Move an updated reading status from the statistics of its previous values to those of its new values.
+     *
+     * @param previousUserId the previous id of the user.
+     * @param previousBookId the previous id of the book.
+     * @param previousFinishedDate the previous finished date.
+     * @param userId the new id of the user.
+     * @param bookId the new id of the book.
+     * @param finishedDate the new finished date.
+     */
+    public void readingStatusReplaced(
+        Long previousUserId,
+        Long previousBookId,
+        LocalDate previousFinishedDate,
+        Long userId,
+        Long bookId,
+        LocalDate finishedDate
+    ) {
+        if (
+            Objects.equals(previousUserId, userId) &&
+            Objects.equals(previousBookId, bookId) &&
+            Objects.equals(previousFinishedDate, finishedDate)
+        ) {
+            return;
+        }
+        if (previousUserId != null && previousBookId != null && previousFinishedDate != null) {
+            apply(previousUserId, previousFinishedDate.getYear(), -1, -pageCount(previousBookId), 0, 0);
+        }
+        if (userId != null && bookId != null && finishedDate != null) {
+            apply(userId, finishedDate.getYear(), 1, pageCount(bookId), 0, 0);
+        }
+    }
+
+    /**
+     * Count a new rating, if it has a creation date.
+     *
+     * @param userId the id of the user.
+     * @param createdAt the creation date, if any.
+     * @param rating the rating.
+     */
+    public void ratingAdded(Long userId, Instant createdAt, Integer rating) {
+        ratingReplaced(null, null, null, userId, createdAt, rating);
+    }
+
+    /**
+     * Stop counting a deleted rating.
+     *
+     * @param userId the id of the user.
+     * @param createdAt the creation date, if any.
+     * @param rating the rating.
+     */
+    public void ratingRemoved(Long userId, Instant createdAt, Integer rating) {
+        ratingReplaced(userId, createdAt, rating, null, null, null);
+    }
+
+    /**
+     * Move an updated rating from the statistics of its previous values to those of its new values.
+     *
+     * @param previousUserId the previous id of the user.
+     * @param previousCreatedAt the previous creation date.
+     * @param previousRating the previous rating.
+     * @param userId the new id of the user.
+     * @param createdAt the new creation date.
+     * @param rating the new rating.
+     */
+    public void ratingReplaced(
+        Long previousUserId,
+        Instant previousCreatedAt,
+        Integer previousRating,
+        Long userId,
+        Instant createdAt,
+        Integer rating
+    ) {
+        if (
+            Objects.equals(previousUserId, userId) &&
+            Objects.equals(previousCreatedAt, createdAt) &&
+            Objects.equals(previousRating, rating)
+        ) {
+            return;
+        }
+        if (previousUserId != null && previousCreatedAt != null && previousRating != null) {
+            apply(previousUserId, year(previousCreatedAt), 0, 0, -1, -previousRating);
+        }
+        if (userId != null && createdAt != null && rating != null) {
+            apply(userId, year(createdAt), 0, 0, 1, rating);
+        }
+    }
+
+    /**
+     * Rebuild the statistics of all the users from the reading statuses, books and ratings.
+     * <p>
+     * This is scheduled to run at {@code application.reading-stats.backfill-cron}, if set.
+     * A backfill requested while another one runs on this node is skipped, and one running on another node is waited for.
+     */
+    @Scheduled(cron = "${application.reading-stats.backfill-cron:-}")
+    public void backfill() {
+        backfill(false);
+    }
+
+    /**
+     * Backfill the statistics on startup if they are empty, e.g. when they were just added.
+     * <p>
+     * The nodes starting together wait for the backfill of the first one, and then find the statistics filled.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void backfillIfEmpty() {
+        Long count = jdbcTemplate.queryForObject(COUNT_STATS_SQL, Long.class);
+        if (count == null || count == 0) {
+            backfill(true);
+        }
+    }
+
+    private void backfill(boolean onlyIfEmpty) {
+        if (!running.compareAndSet(false, true)) {
+            LOG.info("Skipping the backfill of the reading statistics, as one is already running");
+            return;
+        }
+        try {
+            long start = System.currentTimeMillis();
+            Integer backfilled = transactionTemplate.execute(status -> {
+                lock();
+                if (onlyIfEmpty && jdbcTemplate.queryForObject(COUNT_STATS_SQL, Long.class) > 0) {
+                    return null;
+                }
+                Map<StatsKey, long[]> stats = load();
+                write(stats);
+                return stats.size();
+            });
+            if (backfilled == null) {
+                LOG.info("Skipping the backfill of the reading statistics, as another node filled them");
+            } else {
+                LOG.info("Backfilled {} yearly reading statistics in {} ms", backfilled, System.currentTimeMillis() - start);
+            }
+        } finally {
+            running.set(false);
+        }
+    }
+
+    private void lock() {
+        boolean postgresql = Boolean.TRUE.equals(
+            jdbcTemplate.execute((ConnectionCallback<Boolean>) connection ->
+                "PostgreSQL".equals(connection.getMetaData().getDatabaseProductName())
+            )
+        );
+        if (postgresql) {
+            jdbcTemplate.execute(LOCK_STATS_SQL);
+        } else {
+            jdbcTemplate.query(LOCK_STATS_ROWS_SQL, (RowCallbackHandler) rs -> {});
+        }
+    }
+
+    private Map<StatsKey, long[]> load() {
+        Map<StatsKey, long[]> stats = new HashMap<>();
+        Calendar utc = Calendar.getInstance(TimeZone.getTimeZone("UTC"));
+        fetchingJdbcTemplate.query(SELECT_FINISHED_SQL, (RowCallbackHandler) rs -> {
+            int year = rs.getObject(2, LocalDate.class).getYear();
+            long[] row = stats.computeIfAbsent(new StatsKey(rs.getLong(1), year), k -> new long[4]);
+            row[0]++;
+            row[1] += rs.getInt(3);
+        });
+        fetchingJdbcTemplate.query(SELECT_RATINGS_SQL, (RowCallbackHandler) rs -> {
+            Timestamp createdAt = rs.getTimestamp(2, utc);
+            long[] row = stats.computeIfAbsent(new StatsKey(rs.getLong(1), year(createdAt.toInstant())), k -> new long[4]);
+            row[2]++;
+            row[3] += rs.getInt(3);
+        });
+        return stats;
+    }
+
+    private void write(Map<StatsKey, long[]> stats) {
+        List<Map.Entry<StatsKey, long[]>> rows = new ArrayList<>(stats.entrySet());
+        jdbcTemplate.update(DELETE_ALL_SQL);
+        jdbcTemplate.batchUpdate(INSERT_STATS_SQL, rows, Math.max(1, properties.getBatchSize()), (ps, row) -> {
+            ps.setLong(1, row.getKey().userId());
+            ps.setInt(2, row.getKey().year());
+            ps.setInt(3, (int) row.getValue()[0]);
+            ps.setLong(4, row.getValue()[1]);
+            ps.setInt(5, (int) row.getValue()[2]);
+            ps.setLong(6, row.getValue()[3]);
+        });
+    }
+
+    private void apply(Long userId, int year, int books, long pages, int ratings, long ratingSum) {
+        if (
+            jdbcTemplate.update(UPDATE_STATS_SQL, books, pages, ratings, ratingSum, userId, year) == 0 &&
+            jdbcTemplate.update(INSERT_MISSING_STATS_SQL, books, pages, ratings, ratingSum, userId, year, userId, year) == 0
+        ) {
+            // Inserted by a concurrent transaction in the meantime
+            jdbcTemplate.update(UPDATE_STATS_SQL, books, pages, ratings, ratingSum, userId, year);
+        }
+    }
+
+    private long pageCount(Long bookId) {
+        List<Integer> pageCounts = jdbcTemplate.queryForList(SELECT_PAGE_COUNT_SQL, Integer.class, bookId);
+        return pageCounts.isEmpty() || pageCounts.get(0) == null ? 0 : pageCounts.get(0);
+    }
+
+    private static int year(Instant instant) {
+        return instant.atOffset(ZoneOffset.UTC).getYear();
+    }
+
+    private static ReadingStatsDto toDto(ResultSet rs) throws SQLException {
+        ReadingStatsDto stats = new ReadingStatsDto();
+        stats.setYear(rs.getInt(1));
+        stats.setBooksRead(rs.getInt(2));
+        stats.setPagesRead(rs.getLong(3));
+        stats.setRatingsGiven(rs.getInt(4));
+        if (stats.getRatingsGiven() > 0) {
+            stats.setAverageRating((double) rs.getLong(5) / stats.getRatingsGiven());
+        }
+        return stats;
+    }
+
+    private record StatsKey(long userId, int year) {}
+}
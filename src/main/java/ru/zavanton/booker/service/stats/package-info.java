@@ -0,0 +1,4 @@
+/**
+ * Yearly reading statistics of the users.
+ */
+package ru.zavanton.booker.service.stats;
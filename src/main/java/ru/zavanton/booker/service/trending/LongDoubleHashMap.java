@@ -0,0 +1,170 @@
+package ru.zavanton.booker.service.trending;
+
+/**
+ * Open addressing hash map from {@code long} keys to {@code double} values, without boxing.
+ * <p>
+ * Keys are probed linearly in arrays whose length is a power of two, which are doubled when they are
+ * more than half full. Entries are only removed by {@link #scale(double, double)}, which rebuilds the arrays.
+ * Not thread-safe.
+ */
+final class LongDoubleHashMap {
+
+    /**
+     * Consumer of the entries of the map.
+     */
+    @FunctionalInterface
+    interface EntryConsumer {
+        void accept(long key, double value);
+    }
+
+    private static final int MIN_CAPACITY = 16;
+
+    private long[] keys;
+
+    private double[] values;
+
+    private boolean[] used;
+
+    private int size;
+
+    LongDoubleHashMap() {
+        this(MIN_CAPACITY);
+    }
+
+    LongDoubleHashMap(int expectedSize) {
+        allocate(capacityFor(expectedSize));
+    }
+
+    int size() {
+        return size;
+    }
+
+    /**
+     * @param key the key.
+     * @return the value of the key, or {@code 0} if it is absent.
+     */
+    double get(long key) {
+        int slot = find(key);
+        return used[slot] ? values[slot] : 0;
+    }
+
+    /**
+     * @param key the key.
+     * @return whether the key is present.
+     */
+    boolean containsKey(long key) {
+        return used[find(key)];
+    }
+
+    /**
+     * Add a delta to the value of a key, which is inserted with the delta if it is absent.
+     *
+     * @param key the key.
+     * @param delta the value to add.
+     */
+    void add(long key, double delta) {
+        int slot = find(key);
+        if (used[slot]) {
+            values[slot] += delta;
+            return;
+        }
+        keys[slot] = key;
+        values[slot] = delta;
+        used[slot] = true;
+        if (++size * 2 > keys.length) {
+            rehash(keys.length * 2);
+        }
+    }
+
+    /**
+     * Multiply every value by a factor, and remove the entries whose value is then below a minimum.
+     *
+     * @param factor the factor.
+     * @param minValue the minimum value of the kept entries.
+     */
+    void scale(double factor, double minValue) {
+        long[] oldKeys = keys;
+        double[] oldValues = values;
+        boolean[] oldUsed = used;
+        int kept = 0;
+        for (int i = 0; i < oldKeys.length; i++) {
+            if (oldUsed[i] && oldValues[i] * factor >= minValue) {
+                kept++;
+            }
+        }
+        allocate(capacityFor(kept));
+        for (int i = 0; i < oldKeys.length; i++) {
+            double value = oldValues[i] * factor;
+            if (oldUsed[i] && value >= minValue) {
+                insert(oldKeys[i], value);
+            }
+        }
+    }
+
+    void forEach(EntryConsumer consumer) {
+        for (int i = 0; i < keys.length; i++) {
+            if (used[i]) {
+                consumer.accept(keys[i], values[i]);
+            }
+        }
+    }
+
+    private int find(long key) {
+        int mask = keys.length - 1;
+        int slot = hash(key) & mask;
+        while (used[slot] && keys[slot] != key) {
+            slot = (slot + 1) & mask;
+        }
+        return slot;
+    }
+
+    private void insert(long key, double value) {
+        int slot = find(key);
+        keys[slot] = key;
+        values[slot] = value;
+        used[slot] = true;
+        size++;
+    }
+
+    private void rehash(int capacity) {
+        long[] oldKeys = keys;
+        double[] oldValues = values;
+        boolean[] oldUsed = used;
+        allocate(capacity);
+        for (int i = 0; i < oldKeys.length; i++) {
+            if (oldUsed[i]) {
+                insert(oldKeys[i], oldValues[i]);
+            }
+        }
+    }
+
+    private void allocate(int capacity) {
+        keys = new long[capacity];
+        values = new double[capacity];
+        used = new boolean[capacity];
+        size = 0;
+    }
+
+    private static int capacityFor(int expectedSize) {
+        int capacity = MIN_CAPACITY;
+        while (capacity < expectedSize * 2) {
+            capacity <<= 1;
+        }
+        return capacity;
+    }
+
+    private static int hash(long key) {
+        // Fibonacci hashing, to spread the sequential ids over the table
+        long h = key * 0x9E3779B97F4A7C15L;
+        return (int) (h ^ (h >>> 32));
+    }
+
+    // prettier-ignore
+    @Override
+    public String toString() {
+        return "LongDoubleHashMap{" +
+            "size=" + size +
+            ", capacity=" + keys.length +
+            "}";
+    }
+}
@@ -0,0 +1,9 @@
+package ru.zavanton.booker.service.trending;
+
+/**
+ * The trending score of a book.
+ *
+ * @param bookId the id of the book.
+ * @param score the score, decayed to the time it was read.
+ */
+public record TrendingScore(long bookId, double score) {}
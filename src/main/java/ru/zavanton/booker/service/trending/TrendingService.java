@@ -0,0 +1,382 @@
+package ru.zavanton.booker.service.trending;
+
+import jakarta.annotation.PreDestroy;
+import java.net.InetAddress;
+import java.net.UnknownHostException;
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Calendar;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.TimeZone;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.LongPredicate;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionException;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.util.StringUtils;
+import ru.zavanton.booker.config.ApplicationProperties;
+import ru.zavanton.booker.service.BookService;
+import ru.zavanton.booker.service.dto.ScoredBookDto;
+
+/**
+ * Service keeping an exponentially decayed score per book, raised by its new ratings, reviews and reading statuses,
+ * from which the trending books are read without querying the interactions.
+ * <p>
+ * Scores use forward decay: an interaction at time {@code t} adds {@code weight * exp(λ(t - landmark))}, so that
+ * stored scores never have to be decayed on write and keep their order; the score at time {@code now} is the stored
+ * score times {@code exp(-λ(now - landmark))}, with {@code λ = ln 2 / application.trending.half-life-hours}.
+ * The landmark is moved to the current time by each snapshot, which scales the stored scores back and drops
+ * the ones which decayed below {@code application.trending.min-score}.
+ * <p>
+ * Each node scores the interactions it handled, and snapshots them to the {@code book_trending_score} table under its
+ * {@code application.trending.node-id} every {@code application.trending.snapshot-interval-ms} milliseconds and on
+ * shutdown, replacing only its own rows; it reloads them on startup. The trending books add up the scores of this
+ * node and the last snapshots of the other nodes, which are read back at each snapshot; the rows of the other nodes
+ * which decayed below the minimum score, e.g. of the nodes which left, are then deleted.
+ */
+@Service
+public class TrendingService {
+
+    private static final Logger LOG = LoggerFactory.getLogger(TrendingService.class);
+
+    private static final String SELECT_NODE_SNAPSHOT_SQL =
+        "select s.node_id, s.book_id, s.score, s.computed_at from book_trending_score s join book b on b.id = s.book_id" +
+        " where s.node_id = ?";
+
+    private static final String SELECT_OTHER_NODES_SNAPSHOT_SQL =
+        "select s.node_id, s.book_id, s.score, s.computed_at from book_trending_score s join book b on b.id = s.book_id" +
+        " where s.node_id <> ?";
+
+    private static final String DELETE_NODE_SNAPSHOT_SQL = "delete from book_trending_score where node_id = ?";
+
+    private static final String INSERT_SNAPSHOT_SQL =
+        "insert into book_trending_score (node_id, book_id, score, computed_at) values (?, ?, ?, ?)";
+
+    private static final String DELETE_DECAYED_SQL =
+        "delete from book_trending_score where node_id = ? and book_id = ? and computed_at = ?";
+
+    private static final String SELECT_GENRE_BOOK_IDS_SQL = "select book_id from book_genre where genre_id = ?";
+
+    private static final Comparator<TrendingScore> BY_SCORE = Comparator.comparingDouble(TrendingScore::score).thenComparing(
+        TrendingScore::bookId,
+        Comparator.reverseOrder()
+    );
+
+    private final ReentrantReadWriteLock scoresLock = new ReentrantReadWriteLock();
+
+    private final ReentrantLock snapshotLock = new ReentrantLock();
+
+    private final LongDoubleHashMap scores = new LongDoubleHashMap();
+
+    // The last snapshots of the other nodes, relative to the same landmark
+    private LongDoubleHashMap otherNodeScores = new LongDoubleHashMap();
+
+    private long landmarkMillis = System.currentTimeMillis();
+
+    private final double decayRatePerMs;
+
+    private final JdbcTemplate jdbcTemplate;
+
+    private final TransactionTemplate transactionTemplate;
+
+    private final BookService bookService;
+
+    private final ApplicationProperties.Trending properties;
+
+    private final String nodeId;
+
+    public TrendingService(
+        JdbcTemplate jdbcTemplate,
+        PlatformTransactionManager transactionManager,
+        BookService bookService,
+        ApplicationProperties applicationProperties
+    ) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.bookService = bookService;
+        this.properties = applicationProperties.getTrending();
+        this.decayRatePerMs = Math.log(2) / (properties.getHalfLifeHours() * 3_600_000d);
+        this.nodeId = StringUtils.hasText(properties.getNodeId()) ? properties.getNodeId() : hostName();
+    }
+
+    private static String hostName() {
+        try {
+            return InetAddress.getLocalHost().getHostName();
+        } catch (UnknownHostException e) {
+            LOG.warn("The host name could not be determined, using `localhost` as the trending node id");
+            return "localhost";
+        }
+    }
+
+    /**
+     * Record a new rating of a book, once the current transaction (if any) has committed.
+     *
+     * @param bookId the id of the rated book.
+     */
+    public void bookRated(Long bookId) {
+        record(bookId, properties.getRatingWeight());
+    }
+
+    /**
+     * Record a new review of a book, once the current transaction (if any) has committed.
+     *
+     * @param bookId the id of the reviewed book.
+     */
+    public void bookReviewed(Long bookId) {
+        record(bookId, properties.getReviewWeight());
+    }
+
+    /**
+     * Record a new or changed reading status of a book, once the current transaction (if any) has committed.
+     *
+     * @param bookId the id of the book.
+     */
+    public void bookShelved(Long bookId) {
+        record(bookId, properties.getReadingStatusWeight());
+    }
+
+    private void record(Long bookId, double weight) {
+        if (bookId == null || weight == 0) {
+            return;
+        }
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(
+                new TransactionSynchronization() {
+                    @Override
+                    public void afterCommit() {
+                        add(bookId, weight, System.currentTimeMillis());
+                    }
+                }
+            );
+        } else {
+            add(bookId, weight, System.currentTimeMillis());
+        }
+    }
+
+    void add(long bookId, double score, long timeMillis) {
+        scoresLock.writeLock().lock();
+        try {
+            scores.add(bookId, score * Math.exp(decayRatePerMs * (timeMillis - landmarkMillis)));
+        } finally {
+            scoresLock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Get the books with the highest trending scores.
+     *
+     * @param genreId the id of the genre of the books, or {@code null} for all books.
+     * @param size the number of books, at most {@code application.trending.max-size}.
+     * @return the books with their scores, highest first.
+     */
+    @Transactional(readOnly = true)
+    public List<ScoredBookDto> findTrendingBooks(Long genreId, int size) {
+        LOG.debug("Request to get {} trending Books of genre {}", size, genreId);
+        int limit = Math.max(0, Math.min(size, properties.getMaxSize()));
+        List<TrendingScore> top = genreId == null ? findTop(limit, System.currentTimeMillis()) : findTopByGenre(genreId, limit);
+        Map<Long, Double> scores = new LinkedHashMap<>();
+        top.forEach(trendingScore -> scores.put(trendingScore.bookId(), trendingScore.score()));
+        return bookService.findAllScored(scores);
+    }
+
+    private List<TrendingScore> findTopByGenre(long genreId, int size) {
+        long[] bookIds = jdbcTemplate
+            .queryForList(SELECT_GENRE_BOOK_IDS_SQL, Long.class, genreId)
+            .stream()
+            .mapToLong(Long::longValue)
+            .toArray();
+        Arrays.sort(bookIds);
+        return findTop(size, System.currentTimeMillis(), bookId -> Arrays.binarySearch(bookIds, bookId) >= 0);
+    }
+
+    List<TrendingScore> findTop(int size, long nowMillis) {
+        return findTop(size, nowMillis, bookId -> true);
+    }
+
+    /**
+     * Select the highest scores with a bounded min-heap, in one pass over the scores.
+     */
+    List<TrendingScore> findTop(int size, long nowMillis, LongPredicate filter) {
+        if (size <= 0) {
+            return List.of();
+        }
+        PriorityQueue<TrendingScore> top = new PriorityQueue<>(size + 1, BY_SCORE);
+        scoresLock.readLock().lock();
+        try {
+            double decay = Math.exp(-decayRatePerMs * (nowMillis - landmarkMillis));
+            LongDoubleHashMap.EntryConsumer offer = (bookId, storedScore) -> {
+                double score = storedScore * decay;
+                if (score >= properties.getMinScore() && (top.size() < size || score > top.peek().score()) && filter.test(bookId)) {
+                    top.add(new TrendingScore(bookId, score));
+                    if (top.size() > size) {
+                        top.poll();
+                    }
+                }
+            };
+            scores.forEach((bookId, storedScore) -> offer.accept(bookId, storedScore + otherNodeScores.get(bookId)));
+            otherNodeScores.forEach((bookId, storedScore) -> {
+                if (!scores.containsKey(bookId)) {
+                    offer.accept(bookId, storedScore);
+                }
+            });
+        } finally {
+            scoresLock.readLock().unlock();
+        }
+        List<TrendingScore> result = new ArrayList<>(top);
+        result.sort(BY_SCORE.reversed());
+        return result;
+    }
+
+    /**
+     * Move the landmark to the given time, scaling the stored scores to their current value
+     * and dropping the ones below {@code application.trending.min-score}.
+     *
+     * @return the current scores of this node.
+     */
+    List<TrendingScore> rebase(long nowMillis) {
+        scoresLock.writeLock().lock();
+        try {
+            double decay = Math.exp(-decayRatePerMs * (nowMillis - landmarkMillis));
+            scores.scale(decay, properties.getMinScore());
+            otherNodeScores.scale(decay, properties.getMinScore());
+            landmarkMillis = nowMillis;
+            List<TrendingScore> current = new ArrayList<>(scores.size());
+            scores.forEach((bookId, score) -> current.add(new TrendingScore(bookId, score)));
+            return current;
+        } finally {
+            scoresLock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Replace the scores of the other nodes by their snapshots, relative to the current landmark.
+     *
+     * @param rows the snapshots of the other nodes.
+     * @param nowMillis the current time.
+     * @return the rows which decayed below {@code application.trending.min-score}.
+     */
+    List<SnapshotRow> replaceOtherNodeScores(List<SnapshotRow> rows, long nowMillis) {
+        LongDoubleHashMap replaced = new LongDoubleHashMap(rows.size());
+        List<SnapshotRow> decayed = new ArrayList<>();
+        scoresLock.writeLock().lock();
+        try {
+            for (SnapshotRow row : rows) {
+                if (row.score() * Math.exp(-decayRatePerMs * (nowMillis - row.computedAtMillis())) < properties.getMinScore()) {
+                    decayed.add(row);
+                } else {
+                    replaced.add(row.bookId(), row.score() * Math.exp(decayRatePerMs * (row.computedAtMillis() - landmarkMillis)));
+                }
+            }
+            otherNodeScores = replaced;
+        } finally {
+            scoresLock.writeLock().unlock();
+        }
+        return decayed;
+    }
+
+    /**
+     * Write the current scores of this node to the database, and read back the ones of the other nodes.
+     * <p>
+     * This is scheduled to run every {@code application.trending.snapshot-interval-ms} milliseconds.
+     */
+    @Scheduled(fixedDelayString = "${application.trending.snapshot-interval-ms:300000}")
+    public void snapshot() {
+        snapshotLock.lock();
+        try {
+            long nowMillis = System.currentTimeMillis();
+            List<TrendingScore> current = rebase(nowMillis);
+            Timestamp computedAt = new Timestamp(nowMillis);
+            Calendar utc = Calendar.getInstance(TimeZone.getTimeZone("UTC"));
+            transactionTemplate.executeWithoutResult(status -> {
+                jdbcTemplate.update(DELETE_NODE_SNAPSHOT_SQL, nodeId);
+                jdbcTemplate.batchUpdate(INSERT_SNAPSHOT_SQL, current, 500, (ps, trendingScore) -> {
+                    ps.setString(1, nodeId);
+                    ps.setLong(2, trendingScore.bookId());
+                    ps.setDouble(3, trendingScore.score());
+                    ps.setTimestamp(4, computedAt, utc);
+                });
+            });
+            LOG.debug("Snapshotted the trending scores of {} books", current.size());
+            loadOtherNodes(nowMillis);
+        } catch (DataAccessException | TransactionException e) {
+            LOG.warn("Could not snapshot the trending scores, will retry: {}", e.getMessage());
+        } finally {
+            snapshotLock.unlock();
+        }
+    }
+
+    /**
+     * Load the last snapshot of this node, decayed to the current time, adding to the scores recorded since startup,
+     * and the last snapshots of the other nodes.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void load() {
+        snapshotLock.lock();
+        try {
+            List<SnapshotRow> rows = findSnapshot(SELECT_NODE_SNAPSHOT_SQL);
+            rows.forEach(row -> add(row.bookId(), row.score(), row.computedAtMillis()));
+            LOG.info("Loaded the trending scores of {} books", rows.size());
+            loadOtherNodes(System.currentTimeMillis());
+        } finally {
+            snapshotLock.unlock();
+        }
+    }
+
+    private void loadOtherNodes(long nowMillis) {
+        List<SnapshotRow> decayed = replaceOtherNodeScores(findSnapshot(SELECT_OTHER_NODES_SNAPSHOT_SQL), nowMillis);
+        if (decayed.isEmpty()) {
+            return;
+        }
+        Calendar utc = Calendar.getInstance(TimeZone.getTimeZone("UTC"));
+        // The computed_at condition keeps the rows which their node rewrote in the meantime
+        transactionTemplate.executeWithoutResult(status ->
+            jdbcTemplate.batchUpdate(DELETE_DECAYED_SQL, decayed, 500, (ps, row) -> {
+                ps.setString(1, row.nodeId());
+                ps.setLong(2, row.bookId());
+                ps.setTimestamp(3, new Timestamp(row.computedAtMillis()), utc);
+            })
+        );
+        LOG.debug("Deleted {} decayed trending scores of other nodes", decayed.size());
+    }
+
+    private List<SnapshotRow> findSnapshot(String sql) {
+        Calendar utc = Calendar.getInstance(TimeZone.getTimeZone("UTC"));
+        return transactionTemplate.execute(status ->
+            jdbcTemplate.query(
+                sql,
+                (rs, rowNum) -> new SnapshotRow(rs.getString(1), rs.getLong(2), rs.getDouble(3), rs.getTimestamp(4, utc).getTime()),
+                nodeId
+            )
+        );
+    }
+
+    /**
+     * A row of the snapshot of the trending scores.
+     */
+    record SnapshotRow(String nodeId, long bookId, double score, long computedAtMillis) {}
+
+    /**
+     * Snapshot the scores before the application stops.
+     */
+    @PreDestroy
+    public void destroy() {
+        snapshot();
+    }
+}
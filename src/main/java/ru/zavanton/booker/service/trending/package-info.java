@@ -0,0 +1,4 @@
+/**
+ * In-memory trending scores of the books.
+ */
+package ru.zavanton.booker.service.trending;
@@ -0,0 +1,119 @@
+package ru.zavanton.booker.web.filter;
+
+import jakarta.servlet.AsyncEvent;
+import jakarta.servlet.AsyncListener;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+/**
+ * Bounds the number of requests handled at once.
+ * <p>
+ * With virtual threads, request handling is no longer bounded by a worker pool, so without this filter every
+ * incoming request would end up waiting for a database connection. Requests beyond the limit wait for their turn
+ * at most the acquire timeout, then are rejected with {@code 503 Service Unavailable}.
+ * <p>
+ * An asynchronous request, such as the streamed catalog export, keeps its permit until it completes.
+ */
+public class ConcurrencyLimitFilter extends OncePerRequestFilter {
+
+    private final int limit;
+
+    private final Semaphore permits;
+
+    private final long acquireTimeoutMs;
+
+    private final AtomicLong rejected = new AtomicLong();
+
+    public ConcurrencyLimitFilter(int limit, long acquireTimeoutMs) {
+        this.limit = limit;
+        this.permits = new Semaphore(limit, true);
+        this.acquireTimeoutMs = acquireTimeoutMs;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+        throws ServletException, IOException {
+        boolean acquired;
+        try {
+            acquired = permits.tryAcquire(acquireTimeoutMs, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            acquired = false;
+        }
+        if (!acquired) {
+            rejected.incrementAndGet();
+            response.setHeader(HttpHeaders.RETRY_AFTER, "1");
+            response.sendError(HttpStatus.SERVICE_UNAVAILABLE.value());
+            return;
+        }
+        boolean async = false;
+        try {
+            filterChain.doFilter(request, response);
+            async = request.isAsyncStarted();
+        } finally {
+            if (async) {
+                // Streamed responses go on after this thread returns, still holding their database connection
+                request.getAsyncContext().addListener(new ReleasingListener());
+            } else {
+                permits.release();
+            }
+        }
+    }
+
+    public int getLimit() {
+        return limit;
+    }
+
+    public int getActiveRequests() {
+        return limit - permits.availablePermits();
+    }
+
+    public long getRejectedRequests() {
+        return rejected.get();
+    }
+
+    /**
+     * Releases the permit of an asynchronous request once it completes, including after a timeout or an error.
+     */
+    private class ReleasingListener implements AsyncListener {
+
+        private final AtomicBoolean released = new AtomicBoolean();
+
+        @Override
+        public void onComplete(AsyncEvent event) {
+            release();
+        }
+
+        @Override
+        public void onTimeout(AsyncEvent event) {
+            // The request is then completed or dispatched to its error handling
+        }
+
+        @Override
+        public void onError(AsyncEvent event) {
+            release();
+        }
+
+        @Override
+        public void onStartAsync(AsyncEvent event) {
+            // A new asynchronous cycle of the same request keeps the permit, the listener must be added again
+            event.getAsyncContext().addListener(this);
+        }
+
+        private void release() {
+            if (released.compareAndSet(false, true)) {
+                permits.release();
+            }
+        }
+    }
+}
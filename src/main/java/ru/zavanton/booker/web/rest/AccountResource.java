@@ -7,6 +7,7 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.http.HttpStatus;
 import org.springframework.web.bind.annotation.*;
+import ru.zavanton.booker.aop.logging.SensitiveArguments;
 import ru.zavanton.booker.domain.UserEntity;
 import ru.zavanton.booker.repository.UserRepository;
 import ru.zavanton.booker.security.SecurityUtils;
@@ -14,6 +15,10 @@ import ru.zavanton.booker.service.MailService;
 import ru.zavanton.booker.service.UserService;
 import ru.zavanton.booker.service.dto.AdminUserDto;
 import ru.zavanton.booker.service.dto.PasswordChangeDTO;
+import ru.zavanton.booker.service.dto.ReadingStatsDto;
+import ru.zavanton.booker.service.dto.ScoredBookDto;
+import ru.zavanton.booker.service.recommendation.RecommendationService;
+import ru.zavanton.booker.service.stats.ReadingStatsService;
 import ru.zavanton.booker.web.rest.errors.*;
 import ru.zavanton.booker.web.rest.vm.KeyAndPasswordVM;
 import ru.zavanton.booker.web.rest.vm.ManagedUserVM;
@@ -21,6 +26,7 @@ import ru.zavanton.booker.web.rest.vm.ManagedUserVM;
 /**
  * REST controller for managing the current user's account.
  */
+@SensitiveArguments
 @RestController
 @RequestMapping("/api")
 public class AccountResource {
@@ -40,10 +46,22 @@ public class AccountResource {
 
     private final MailService mailService;
 
-    public AccountResource(UserRepository userRepository, UserService userService, MailService mailService) {
+    private final RecommendationService recommendationService;
+
+    private final ReadingStatsService readingStatsService;
+
+    public AccountResource(
+        UserRepository userRepository,
+        UserService userService,
+        MailService mailService,
+        RecommendationService recommendationService,
+        ReadingStatsService readingStatsService
+    ) {
         this.userRepository = userRepository;
         this.userService = userService;
         this.mailService = mailService;
+        this.recommendationService = recommendationService;
+        this.readingStatsService = readingStatsService;
     }
 
     /**
@@ -92,6 +110,43 @@ public class AccountResource {
             .orElseThrow(() -> new AccountResourceException("User could not be found"));
     }
 
+    /**
+     * {@code GET  /account/recommendations} : get the books recommended to the current user.
+     * <p>
+     * The books are ranked by their similarity to the books the user rated or shelved, which are left out.
+     *
+     * @param size the number of books, at most {@code application.recommendation.max-recommendations}.
+     * @return the recommended books with their scores, highest first.
+     * @throws RuntimeException {@code 500 (Internal Server Error)} if the user couldn't be returned.
+     */
+    @GetMapping("/account/recommendations")
+    public List<ScoredBookDto> getRecommendations(@RequestParam(value = "size", defaultValue = "20") int size) {
+        return recommendationService
+            .findRecommendations(size)
+            .orElseThrow(() -> new AccountResourceException("User could not be found"));
+    }
+
+    /**
+     * {@code GET  /account/stats} : get the reading statistics of the current user.
+     *
+     * @return the books read, pages read and ratings given by the current user each year, latest year first.
+     */
+    @GetMapping("/account/stats")
+    public List<ReadingStatsDto> getReadingStats() {
+        return readingStatsService.findAll();
+    }
+
+    /**
+     * {@code GET  /account/stats/:year} : get the reading statistics of the current user in a year.
+     *
+     * @param year the year.
+     * @return the books read, pages read and ratings given by the current user in the year.
+     */
+    @GetMapping("/account/stats/{year}")
+    public ReadingStatsDto getReadingStats(@PathVariable("year") int year) {
+        return readingStatsService.findOne(year);
+    }
+
     /**
      * {@code POST  /account} : update the current user information.
      *
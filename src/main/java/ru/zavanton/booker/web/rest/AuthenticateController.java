@@ -26,11 +26,13 @@ import org.springframework.security.oauth2.jwt.JwtClaimsSet;
 import org.springframework.security.oauth2.jwt.JwtEncoder;
 import org.springframework.security.oauth2.jwt.JwtEncoderParameters;
 import org.springframework.web.bind.annotation.*;
+import ru.zavanton.booker.aop.logging.SensitiveArguments;
 import ru.zavanton.booker.web.rest.vm.LoginVM;
 
 /**
  * Controller to authenticate users.
  */
+@SensitiveArguments
 @RestController
 @RequestMapping("/api")
 public class AuthenticateController {
@@ -13,13 +13,19 @@ import org.springframework.data.domain.Pageable;
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 import org.springframework.web.servlet.support.ServletUriComponentsBuilder;
 import ru.zavanton.booker.domain.AuthorEntity;
 import ru.zavanton.booker.repository.AuthorRepository;
+import ru.zavanton.booker.repository.VersionProjection;
 import ru.zavanton.booker.service.AuthorQueryService;
 import ru.zavanton.booker.service.AuthorService;
 import ru.zavanton.booker.service.criteria.AuthorCriteria;
+import ru.zavanton.booker.service.dto.AuthorDto;
+import ru.zavanton.booker.service.pagination.CursorPage;
 import ru.zavanton.booker.web.rest.errors.BadRequestAlertException;
+import ru.zavanton.booker.web.rest.util.ConditionalRequestUtil;
+import ru.zavanton.booker.web.rest.util.CursorPaginationUtil;
 import tech.jhipster.web.util.HeaderUtil;
 import tech.jhipster.web.util.PaginationUtil;
 import tech.jhipster.web.util.ResponseUtil;
@@ -73,15 +79,19 @@ public class AuthorResource {
      * {@code PUT  /authors/:id} : Updates an existing author.
      *
      * @param id the id of the authorEntity to save.
+     * @param ifMatch the entity tag of the version of the authorEntity to update, if any.
      * @param authorEntity the authorEntity to update.
      * @return the {@link ResponseEntity} with status {@code 200 (OK)} and with body the updated authorEntity,
      * or with status {@code 400 (Bad Request)} if the authorEntity is not valid,
+     * or with status {@code 412 (Precondition Failed)} if the authorEntity was updated since the version of {@code ifMatch},
+     * or with status {@code 409 (Conflict)} if the authorEntity was updated concurrently,
      * or with status {@code 500 (Internal Server Error)} if the authorEntity couldn't be updated.
      * @throws URISyntaxException if the Location URI syntax is incorrect.
      */
     @PutMapping("/{id}")
     public ResponseEntity<AuthorEntity> updateAuthor(
         @PathVariable(value = "id", required = false) final Long id,
+        @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch,
         @RequestBody AuthorEntity authorEntity
     ) throws URISyntaxException {
         LOG.debug("REST request to update Author : {}, {}", id, authorEntity);
@@ -95,10 +105,12 @@ public class AuthorResource {
         if (!authorRepository.existsById(id)) {
             throw new BadRequestAlertException("Entity not found", ENTITY_NAME, "idnotfound");
         }
+        ConditionalRequestUtil.expectedVersion(ifMatch).ifPresent(authorEntity::setVersion);
 
         authorEntity = authorService.update(authorEntity);
         return ResponseEntity.ok()
             .headers(HeaderUtil.createEntityUpdateAlert(applicationName, true, ENTITY_NAME, authorEntity.getId().toString()))
+            .eTag(ConditionalRequestUtil.eTag(authorEntity.getVersion()))
             .body(authorEntity);
     }
 
@@ -106,9 +118,12 @@ public class AuthorResource {
      * {@code PATCH  /authors/:id} : Partial updates given fields of an existing author, field will ignore if it is null
      *
      * @param id the id of the authorEntity to save.
+     * @param ifMatch the entity tag of the version of the authorEntity to update, if any.
      * @param authorEntity the authorEntity to update.
      * @return the {@link ResponseEntity} with status {@code 200 (OK)} and with body the updated authorEntity,
      * or with status {@code 400 (Bad Request)} if the authorEntity is not valid,
+     * or with status {@code 412 (Precondition Failed)} if the authorEntity was updated since the version of {@code ifMatch},
+     * or with status {@code 409 (Conflict)} if the authorEntity was updated concurrently,
      * or with status {@code 404 (Not Found)} if the authorEntity is not found,
      * or with status {@code 500 (Internal Server Error)} if the authorEntity couldn't be updated.
      * @throws URISyntaxException if the Location URI syntax is incorrect.
@@ -116,6 +131,7 @@ public class AuthorResource {
     @PatchMapping(value = "/{id}", consumes = { "application/json", "application/merge-patch+json" })
     public ResponseEntity<AuthorEntity> partialUpdateAuthor(
         @PathVariable(value = "id", required = false) final Long id,
+        @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch,
         @RequestBody AuthorEntity authorEntity
     ) throws URISyntaxException {
         LOG.debug("REST request to partial update Author partially : {}, {}", id, authorEntity);
@@ -129,32 +145,56 @@ public class AuthorResource {
         if (!authorRepository.existsById(id)) {
             throw new BadRequestAlertException("Entity not found", ENTITY_NAME, "idnotfound");
         }
+        ConditionalRequestUtil.expectedVersion(ifMatch).ifPresent(authorEntity::setVersion);
 
         Optional<AuthorEntity> result = authorService.partialUpdate(authorEntity);
 
-        return ResponseUtil.wrapOrNotFound(
+        return ConditionalRequestUtil.wrapOrNotFound(
             result,
+            AuthorEntity::getVersion,
             HeaderUtil.createEntityUpdateAlert(applicationName, true, ENTITY_NAME, authorEntity.getId().toString())
         );
     }
 
     /**
      * {@code GET  /authors} : get all the authors.
+     * <p>
+     * When a {@code cursor} parameter is given, even empty for the first page, the authors are paginated with keyset pagination:
+     * no total count is computed and the next page is linked by the {@code Link} header. Keyset pages have no validators,
+     * as reading them would cost as much as the count which keyset pagination avoids.
      *
      * @param pageable the pagination information.
+     * @param cursor the cursor of the previous page, for keyset pagination.
      * @param criteria the criteria which the requested entities should match.
-     * @return the {@link ResponseEntity} with status {@code 200 (OK)} and the list of authors in body.
+     * @param request the current request, answered with {@code 304 (Not Modified)} if none of the matching authors changed,
+     * unless paginated with a cursor.
+     * @return the {@link ResponseEntity} with status {@code 200 (OK)} and the list of authors in body,
+     * or with status {@code 304 (Not Modified)}.
      */
     @GetMapping("")
-    public ResponseEntity<List<AuthorEntity>> getAllAuthors(
+    public ResponseEntity<List<AuthorDto>> getAllAuthors(
         AuthorCriteria criteria,
-        @org.springdoc.core.annotations.ParameterObject Pageable pageable
+        @RequestParam(value = "cursor", required = false) String cursor,
+        @org.springdoc.core.annotations.ParameterObject Pageable pageable,
+        WebRequest request
     ) {
         LOG.debug("REST request to get Authors by criteria: {}", criteria);
 
-        Page<AuthorEntity> page = authorQueryService.findByCriteria(criteria, pageable);
-        HttpHeaders headers = PaginationUtil.generatePaginationHttpHeaders(ServletUriComponentsBuilder.fromCurrentRequest(), page);
-        return ResponseEntity.ok().headers(headers).body(page.getContent());
+        if (cursor != null) {
+            CursorPage<AuthorDto> cursorPage = authorQueryService.findByCriteria(criteria, cursor, pageable);
+            HttpHeaders headers = CursorPaginationUtil.generateCursorPaginationHttpHeaders(
+                ServletUriComponentsBuilder.fromCurrentRequest(),
+                cursorPage
+            );
+            return ResponseEntity.ok().headers(headers).body(cursorPage.content());
+        }
+        // The validators are read by the query counting the authors, so that no query is added for them
+        VersionProjection version = authorQueryService.findVersionByCriteria(criteria);
+        return ConditionalRequestUtil.wrapOrNotModified(request, version, () -> {
+            Page<AuthorDto> page = authorQueryService.findByCriteria(criteria, pageable, version);
+            HttpHeaders headers = PaginationUtil.generatePaginationHttpHeaders(ServletUriComponentsBuilder.fromCurrentRequest(), page);
+            return ResponseEntity.ok().headers(headers).body(page.getContent());
+        });
     }
 
     /**
@@ -173,13 +213,18 @@ public class AuthorResource {
      * {@code GET  /authors/:id} : get the "id" author.
      *
      * @param id the id of the authorEntity to retrieve.
-     * @return the {@link ResponseEntity} with status {@code 200 (OK)} and with body the authorEntity, or with status {@code 404 (Not Found)}.
+     * @param request the current request, answered with {@code 304 (Not Modified)} if the author did not change.
+     * @return the {@link ResponseEntity} with status {@code 200 (OK)} and with body the authorDto,
+     * or with status {@code 404 (Not Found)}, or with status {@code 304 (Not Modified)}.
      */
     @GetMapping("/{id}")
-    public ResponseEntity<AuthorEntity> getAuthor(@PathVariable("id") Long id) {
+    public ResponseEntity<AuthorDto> getAuthor(@PathVariable("id") Long id, WebRequest request) {
         LOG.debug("REST request to get Author : {}", id);
-        Optional<AuthorEntity> authorEntity = authorService.findOne(id);
-        return ResponseUtil.wrapOrNotFound(authorEntity);
+        Optional<String> eTag = authorRepository.findVersionById(id).map(ConditionalRequestUtil::eTag);
+        return ConditionalRequestUtil.wrapOrNotModified(request, eTag, () -> {
+            Optional<AuthorDto> authorDto = authorService.findOne(id);
+            return ResponseUtil.wrapOrNotFound(authorDto);
+        });
     }
 
     /**
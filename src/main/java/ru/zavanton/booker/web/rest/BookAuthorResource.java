@@ -21,7 +21,10 @@ import ru.zavanton.booker.repository.BookAuthorRepository;
 import ru.zavanton.booker.service.BookAuthorQueryService;
 import ru.zavanton.booker.service.BookAuthorService;
 import ru.zavanton.booker.service.criteria.BookAuthorCriteria;
+import ru.zavanton.booker.service.pagination.CursorPage;
 import ru.zavanton.booker.web.rest.errors.BadRequestAlertException;
+import ru.zavanton.booker.web.rest.util.ConditionalRequestUtil;
+import ru.zavanton.booker.web.rest.util.CursorPaginationUtil;
 import tech.jhipster.web.util.HeaderUtil;
 import tech.jhipster.web.util.PaginationUtil;
 import tech.jhipster.web.util.ResponseUtil;
@@ -80,15 +83,19 @@ public class BookAuthorResource {
      * {@code PUT  /book-authors/:id} : Updates an existing bookAuthor.
      *
      * @param id the id of the bookAuthorEntity to save.
+     * @param ifMatch the entity tag of the version of the bookAuthorEntity to update, if any.
      * @param bookAuthorEntity the bookAuthorEntity to update.
      * @return the {@link ResponseEntity} with status {@code 200 (OK)} and with body the updated bookAuthorEntity,
      * or with status {@code 400 (Bad Request)} if the bookAuthorEntity is not valid,
+     * or with status {@code 412 (Precondition Failed)} if the bookAuthorEntity was updated since the version of {@code ifMatch},
+     * or with status {@code 409 (Conflict)} if the bookAuthorEntity was updated concurrently,
      * or with status {@code 500 (Internal Server Error)} if the bookAuthorEntity couldn't be updated.
      * @throws URISyntaxException if the Location URI syntax is incorrect.
      */
     @PutMapping("/{id}")
     public ResponseEntity<BookAuthorEntity> updateBookAuthor(
         @PathVariable(value = "id", required = false) final Long id,
+        @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch,
         @Valid @RequestBody BookAuthorEntity bookAuthorEntity
     ) throws URISyntaxException {
         LOG.debug("REST request to update BookAuthor : {}, {}", id, bookAuthorEntity);
@@ -102,10 +109,12 @@ public class BookAuthorResource {
         if (!bookAuthorRepository.existsById(id)) {
             throw new BadRequestAlertException("Entity not found", ENTITY_NAME, "idnotfound");
         }
+        ConditionalRequestUtil.expectedVersion(ifMatch).ifPresent(bookAuthorEntity::setVersion);
 
         bookAuthorEntity = bookAuthorService.update(bookAuthorEntity);
         return ResponseEntity.ok()
             .headers(HeaderUtil.createEntityUpdateAlert(applicationName, true, ENTITY_NAME, bookAuthorEntity.getId().toString()))
+            .eTag(ConditionalRequestUtil.eTag(bookAuthorEntity.getVersion()))
             .body(bookAuthorEntity);
     }
 
@@ -113,9 +122,12 @@ public class BookAuthorResource {
      * {@code PATCH  /book-authors/:id} : Partial updates given fields of an existing bookAuthor, field will ignore if it is null
      *
      * @param id the id of the bookAuthorEntity to save.
+     * @param ifMatch the entity tag of the version of the bookAuthorEntity to update, if any.
      * @param bookAuthorEntity the bookAuthorEntity to update.
      * @return the {@link ResponseEntity} with status {@code 200 (OK)} and with body the updated bookAuthorEntity,
      * or with status {@code 400 (Bad Request)} if the bookAuthorEntity is not valid,
+     * or with status {@code 412 (Precondition Failed)} if the bookAuthorEntity was updated since the version of {@code ifMatch},
+     * or with status {@code 409 (Conflict)} if the bookAuthorEntity was updated concurrently,
      * or with status {@code 404 (Not Found)} if the bookAuthorEntity is not found,
      * or with status {@code 500 (Internal Server Error)} if the bookAuthorEntity couldn't be updated.
      * @throws URISyntaxException if the Location URI syntax is incorrect.
@@ -123,6 +135,7 @@ public class BookAuthorResource {
     @PatchMapping(value = "/{id}", consumes = { "application/json", "application/merge-patch+json" })
     public ResponseEntity<BookAuthorEntity> partialUpdateBookAuthor(
         @PathVariable(value = "id", required = false) final Long id,
+        @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch,
         @NotNull @RequestBody BookAuthorEntity bookAuthorEntity
     ) throws URISyntaxException {
         LOG.debug("REST request to partial update BookAuthor partially : {}, {}", id, bookAuthorEntity);
@@ -136,29 +149,44 @@ public class BookAuthorResource {
         if (!bookAuthorRepository.existsById(id)) {
             throw new BadRequestAlertException("Entity not found", ENTITY_NAME, "idnotfound");
         }
+        ConditionalRequestUtil.expectedVersion(ifMatch).ifPresent(bookAuthorEntity::setVersion);
 
         Optional<BookAuthorEntity> result = bookAuthorService.partialUpdate(bookAuthorEntity);
 
-        return ResponseUtil.wrapOrNotFound(
+        return ConditionalRequestUtil.wrapOrNotFound(
             result,
+            BookAuthorEntity::getVersion,
             HeaderUtil.createEntityUpdateAlert(applicationName, true, ENTITY_NAME, bookAuthorEntity.getId().toString())
         );
     }
 
     /**
      * {@code GET  /book-authors} : get all the bookAuthors.
+     * <p>
+     * When a {@code cursor} parameter is given, even empty for the first page, the bookAuthors are paginated with keyset pagination:
+     * no total count is computed and the next page is linked by the {@code Link} header.
      *
      * @param pageable the pagination information.
+     * @param cursor the cursor of the previous page, for keyset pagination.
      * @param criteria the criteria which the requested entities should match.
      * @return the {@link ResponseEntity} with status {@code 200 (OK)} and the list of bookAuthors in body.
      */
     @GetMapping("")
     public ResponseEntity<List<BookAuthorEntity>> getAllBookAuthors(
         BookAuthorCriteria criteria,
+        @RequestParam(value = "cursor", required = false) String cursor,
         @org.springdoc.core.annotations.ParameterObject Pageable pageable
     ) {
         LOG.debug("REST request to get BookAuthors by criteria: {}", criteria);
 
+        if (cursor != null) {
+            CursorPage<BookAuthorEntity> cursorPage = bookAuthorQueryService.findByCriteria(criteria, cursor, pageable);
+            HttpHeaders headers = CursorPaginationUtil.generateCursorPaginationHttpHeaders(
+                ServletUriComponentsBuilder.fromCurrentRequest(),
+                cursorPage
+            );
+            return ResponseEntity.ok().headers(headers).body(cursorPage.content());
+        }
         Page<BookAuthorEntity> page = bookAuthorQueryService.findByCriteria(criteria, pageable);
         HttpHeaders headers = PaginationUtil.generatePaginationHttpHeaders(ServletUriComponentsBuilder.fromCurrentRequest(), page);
         return ResponseEntity.ok().headers(headers).body(page.getContent());
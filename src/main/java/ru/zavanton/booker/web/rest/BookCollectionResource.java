@@ -21,7 +21,10 @@ import ru.zavanton.booker.repository.BookCollectionRepository;
 import ru.zavanton.booker.service.BookCollectionQueryService;
 import ru.zavanton.booker.service.BookCollectionService;
 import ru.zavanton.booker.service.criteria.BookCollectionCriteria;
+import ru.zavanton.booker.service.pagination.CursorPage;
 import ru.zavanton.booker.web.rest.errors.BadRequestAlertException;
+import ru.zavanton.booker.web.rest.util.ConditionalRequestUtil;
+import ru.zavanton.booker.web.rest.util.CursorPaginationUtil;
 import tech.jhipster.web.util.HeaderUtil;
 import tech.jhipster.web.util.PaginationUtil;
 import tech.jhipster.web.util.ResponseUtil;
@@ -80,15 +83,19 @@ public class BookCollectionResource {
      * {@code PUT  /book-collections/:id} : Updates an existing bookCollection.
      *
      * @param id the id of the bookCollectionEntity to save.
+     * @param ifMatch the entity tag of the version of the bookCollectionEntity to update, if any.
      * @param bookCollectionEntity the bookCollectionEntity to update.
      * @return the {@link ResponseEntity} with status {@code 200 (OK)} and with body the updated bookCollectionEntity,
      * or with status {@code 400 (Bad Request)} if the bookCollectionEntity is not valid,
+     * or with status {@code 412 (Precondition Failed)} if the bookCollectionEntity was updated since the version of {@code ifMatch},
+     * or with status {@code 409 (Conflict)} if the bookCollectionEntity was updated concurrently,
      * or with status {@code 500 (Internal Server Error)} if the bookCollectionEntity couldn't be updated.
      * @throws URISyntaxException if the Location URI syntax is incorrect.
      */
     @PutMapping("/{id}")
     public ResponseEntity<BookCollectionEntity> updateBookCollection(
         @PathVariable(value = "id", required = false) final Long id,
+        @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch,
         @Valid @RequestBody BookCollectionEntity bookCollectionEntity
     ) throws URISyntaxException {
         LOG.debug("REST request to update BookCollection : {}, {}", id, bookCollectionEntity);
@@ -102,10 +109,12 @@ public class BookCollectionResource {
         if (!bookCollectionRepository.existsById(id)) {
             throw new BadRequestAlertException("Entity not found", ENTITY_NAME, "idnotfound");
         }
+        ConditionalRequestUtil.expectedVersion(ifMatch).ifPresent(bookCollectionEntity::setVersion);
 
         bookCollectionEntity = bookCollectionService.update(bookCollectionEntity);
         return ResponseEntity.ok()
             .headers(HeaderUtil.createEntityUpdateAlert(applicationName, true, ENTITY_NAME, bookCollectionEntity.getId().toString()))
+            .eTag(ConditionalRequestUtil.eTag(bookCollectionEntity.getVersion()))
             .body(bookCollectionEntity);
     }
 
@@ -113,9 +122,12 @@ public class BookCollectionResource {
      * {@code PATCH  /book-collections/:id} : Partial updates given fields of an existing bookCollection, field will ignore if it is null
      *
      * @param id the id of the bookCollectionEntity to save.
+     * @param ifMatch the entity tag of the version of the bookCollectionEntity to update, if any.
      * @param bookCollectionEntity the bookCollectionEntity to update.
      * @return the {@link ResponseEntity} with status {@code 200 (OK)} and with body the updated bookCollectionEntity,
      * or with status {@code 400 (Bad Request)} if the bookCollectionEntity is not valid,
+     * or with status {@code 412 (Precondition Failed)} if the bookCollectionEntity was updated since the version of {@code ifMatch},
+     * or with status {@code 409 (Conflict)} if the bookCollectionEntity was updated concurrently,
      * or with status {@code 404 (Not Found)} if the bookCollectionEntity is not found,
      * or with status {@code 500 (Internal Server Error)} if the bookCollectionEntity couldn't be updated.
      * @throws URISyntaxException if the Location URI syntax is incorrect.
@@ -123,6 +135,7 @@ public class BookCollectionResource {
     @PatchMapping(value = "/{id}", consumes = { "application/json", "application/merge-patch+json" })
     public ResponseEntity<BookCollectionEntity> partialUpdateBookCollection(
         @PathVariable(value = "id", required = false) final Long id,
+        @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch,
         @NotNull @RequestBody BookCollectionEntity bookCollectionEntity
     ) throws URISyntaxException {
         LOG.debug("REST request to partial update BookCollection partially : {}, {}", id, bookCollectionEntity);
@@ -136,29 +149,44 @@ public class BookCollectionResource {
         if (!bookCollectionRepository.existsById(id)) {
             throw new BadRequestAlertException("Entity not found", ENTITY_NAME, "idnotfound");
         }
+        ConditionalRequestUtil.expectedVersion(ifMatch).ifPresent(bookCollectionEntity::setVersion);
 
         Optional<BookCollectionEntity> result = bookCollectionService.partialUpdate(bookCollectionEntity);
 
-        return ResponseUtil.wrapOrNotFound(
+        return ConditionalRequestUtil.wrapOrNotFound(
             result,
+            BookCollectionEntity::getVersion,
             HeaderUtil.createEntityUpdateAlert(applicationName, true, ENTITY_NAME, bookCollectionEntity.getId().toString())
         );
     }
 
     /**
      * {@code GET  /book-collections} : get all the bookCollections.
+     * <p>
+     * When a {@code cursor} parameter is given, even empty for the first page, the bookCollections are paginated with keyset pagination:
+     * no total count is computed and the next page is linked by the {@code Link} header.
      *
      * @param pageable the pagination information.
+     * @param cursor the cursor of the previous page, for keyset pagination.
      * @param criteria the criteria which the requested entities should match.
      * @return the {@link ResponseEntity} with status {@code 200 (OK)} and the list of bookCollections in body.
      */
     @GetMapping("")
     public ResponseEntity<List<BookCollectionEntity>> getAllBookCollections(
         BookCollectionCriteria criteria,
+        @RequestParam(value = "cursor", required = false) String cursor,
         @org.springdoc.core.annotations.ParameterObject Pageable pageable
     ) {
         LOG.debug("REST request to get BookCollections by criteria: {}", criteria);
 
+        if (cursor != null) {
+            CursorPage<BookCollectionEntity> cursorPage = bookCollectionQueryService.findByCriteria(criteria, cursor, pageable);
+            HttpHeaders headers = CursorPaginationUtil.generateCursorPaginationHttpHeaders(
+                ServletUriComponentsBuilder.fromCurrentRequest(),
+                cursorPage
+            );
+            return ResponseEntity.ok().headers(headers).body(cursorPage.content());
+        }
         Page<BookCollectionEntity> page = bookCollectionQueryService.findByCriteria(criteria, pageable);
         HttpHeaders headers = PaginationUtil.generatePaginationHttpHeaders(ServletUriComponentsBuilder.fromCurrentRequest(), page);
         return ResponseEntity.ok().headers(headers).body(page.getContent());
@@ -21,7 +21,10 @@ import ru.zavanton.booker.repository.BookGenreRepository;
 import ru.zavanton.booker.service.BookGenreQueryService;
 import ru.zavanton.booker.service.BookGenreService;
 import ru.zavanton.booker.service.criteria.BookGenreCriteria;
+import ru.zavanton.booker.service.pagination.CursorPage;
 import ru.zavanton.booker.web.rest.errors.BadRequestAlertException;
+import ru.zavanton.booker.web.rest.util.ConditionalRequestUtil;
+import ru.zavanton.booker.web.rest.util.CursorPaginationUtil;
 import tech.jhipster.web.util.HeaderUtil;
 import tech.jhipster.web.util.PaginationUtil;
 import tech.jhipster.web.util.ResponseUtil;
@@ -79,15 +82,19 @@ public class BookGenreResource {
      * {@code PUT  /book-genres/:id} : Updates an existing bookGenre.
      *
      * @param id the id of the bookGenreEntity to save.
+     * @param ifMatch the entity tag of the version of the bookGenreEntity to update, if any.
      * @param bookGenreEntity the bookGenreEntity to update.
      * @return the {@link ResponseEntity} with status {@code 200 (OK)} and with body the updated bookGenreEntity,
      * or with status {@code 400 (Bad Request)} if the bookGenreEntity is not valid,
+     * or with status {@code 412 (Precondition Failed)} if the bookGenreEntity was updated since the version of {@code ifMatch},
+     * or with status {@code 409 (Conflict)} if the bookGenreEntity was updated concurrently,
      * or with status {@code 500 (Internal Server Error)} if the bookGenreEntity couldn't be updated.
      * @throws URISyntaxException if the Location URI syntax is incorrect.
      */
     @PutMapping("/{id}")
     public ResponseEntity<BookGenreEntity> updateBookGenre(
         @PathVariable(value = "id", required = false) final Long id,
+        @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch,
         @Valid @RequestBody BookGenreEntity bookGenreEntity
     ) throws URISyntaxException {
         LOG.debug("REST request to update BookGenre : {}, {}", id, bookGenreEntity);
@@ -101,10 +108,12 @@ public class BookGenreResource {
         if (!bookGenreRepository.existsById(id)) {
             throw new BadRequestAlertException("Entity not found", ENTITY_NAME, "idnotfound");
         }
+        ConditionalRequestUtil.expectedVersion(ifMatch).ifPresent(bookGenreEntity::setVersion);
 
         bookGenreEntity = bookGenreService.update(bookGenreEntity);
         return ResponseEntity.ok()
             .headers(HeaderUtil.createEntityUpdateAlert(applicationName, true, ENTITY_NAME, bookGenreEntity.getId().toString()))
+            .eTag(ConditionalRequestUtil.eTag(bookGenreEntity.getVersion()))
             .body(bookGenreEntity);
     }
 
@@ -112,9 +121,12 @@ public class BookGenreResource {
      * {@code PATCH  /book-genres/:id} : Partial updates given fields of an existing bookGenre, field will ignore if it is null
      *
      * @param id the id of the bookGenreEntity to save.
+     * @param ifMatch the entity tag of the version of the bookGenreEntity to update, if any.
      * @param bookGenreEntity the bookGenreEntity to update.
      * @return the {@link ResponseEntity} with status {@code 200 (OK)} and with body the updated bookGenreEntity,
      * or with status {@code 400 (Bad Request)} if the bookGenreEntity is not valid,
+     * or with status {@code 412 (Precondition Failed)} if the bookGenreEntity was updated since the version of {@code ifMatch},
+     * or with status {@code 409 (Conflict)} if the bookGenreEntity was updated concurrently,
      * or with status {@code 404 (Not Found)} if the bookGenreEntity is not found,
      * or with status {@code 500 (Internal Server Error)} if the bookGenreEntity couldn't be updated.
      * @throws URISyntaxException if the Location URI syntax is incorrect.
@@ -122,6 +134,7 @@ public class BookGenreResource {
     @PatchMapping(value = "/{id}", consumes = { "application/json", "application/merge-patch+json" })
     public ResponseEntity<BookGenreEntity> partialUpdateBookGenre(
         @PathVariable(value = "id", required = false) final Long id,
+        @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch,
         @NotNull @RequestBody BookGenreEntity bookGenreEntity
     ) throws URISyntaxException {
         LOG.debug("REST request to partial update BookGenre partially : {}, {}", id, bookGenreEntity);
@@ -135,29 +148,44 @@ public class BookGenreResource {
         if (!bookGenreRepository.existsById(id)) {
             throw new BadRequestAlertException("Entity not found", ENTITY_NAME, "idnotfound");
         }
+        ConditionalRequestUtil.expectedVersion(ifMatch).ifPresent(bookGenreEntity::setVersion);
 
         Optional<BookGenreEntity> result = bookGenreService.partialUpdate(bookGenreEntity);
 
-        return ResponseUtil.wrapOrNotFound(
+        return ConditionalRequestUtil.wrapOrNotFound(
             result,
+            BookGenreEntity::getVersion,
             HeaderUtil.createEntityUpdateAlert(applicationName, true, ENTITY_NAME, bookGenreEntity.getId().toString())
         );
     }
 
     /**
      * {@code GET  /book-genres} : get all the bookGenres.
+     * <p>
+     * When a {@code cursor} parameter is given, even empty for the first page, the bookGenres are paginated with keyset pagination:
+     * no total count is computed and the next page is linked by the {@code Link} header.
      *
      * @param pageable the pagination information.
+     * @param cursor the cursor of the previous page, for keyset pagination.
      * @param criteria the criteria which the requested entities should match.
      * @return the {@link ResponseEntity} with status {@code 200 (OK)} and the list of bookGenres in body.
      */
     @GetMapping("")
     public ResponseEntity<List<BookGenreEntity>> getAllBookGenres(
         BookGenreCriteria criteria,
+        @RequestParam(value = "cursor", required = false) String cursor,
         @org.springdoc.core.annotations.ParameterObject Pageable pageable
     ) {
         LOG.debug("REST request to get BookGenres by criteria: {}", criteria);
 
+        if (cursor != null) {
+            CursorPage<BookGenreEntity> cursorPage = bookGenreQueryService.findByCriteria(criteria, cursor, pageable);
+            HttpHeaders headers = CursorPaginationUtil.generateCursorPaginationHttpHeaders(
+                ServletUriComponentsBuilder.fromCurrentRequest(),
+                cursorPage
+            );
+            return ResponseEntity.ok().headers(headers).body(cursorPage.content());
+        }
         Page<BookGenreEntity> page = bookGenreQueryService.findByCriteria(criteria, pageable);
         HttpHeaders headers = PaginationUtil.generatePaginationHttpHeaders(ServletUriComponentsBuilder.fromCurrentRequest(), page);
         return ResponseEntity.ok().headers(headers).body(page.getContent());
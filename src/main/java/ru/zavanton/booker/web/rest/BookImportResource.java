@@ -0,0 +1,102 @@
+package ru.zavanton.booker.web.rest;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.URISyntaxException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.core.task.TaskRejectedException;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.multipart.MultipartFile;
+import org.springframework.web.server.ResponseStatusException;
+import ru.zavanton.booker.security.AuthoritiesConstants;
+import ru.zavanton.booker.service.bulkimport.BookImportJob;
+import ru.zavanton.booker.service.bulkimport.BookImportService;
+import ru.zavanton.booker.service.bulkimport.ImportFormat;
+import ru.zavanton.booker.web.rest.errors.BadRequestAlertException;
+import tech.jhipster.web.util.ResponseUtil;
+
+/**
+ * REST controller for the bulk import of publisher feeds.
+ */
+@RestController
+@RequestMapping("/api/admin/book-imports")
+public class BookImportResource {
+
+    private static final Logger LOG = LoggerFactory.getLogger(BookImportResource.class);
+
+    private static final String ENTITY_NAME = "bookImport";
+
+    private final BookImportService bookImportService;
+
+    public BookImportResource(BookImportService bookImportService) {
+        this.bookImportService = bookImportService;
+    }
+
+    /**
+     * {@code POST  /admin/book-imports} : import a CSV or NDJSON file of books in the background.
+     * <p>
+     * Books are created, or updated when a book with the same ISBN exists, with their publisher, authors, genres and tags,
+     * which are created when missing. The progress and the rows which could not be imported are reported by
+     * {@code GET /admin/book-imports/:id}.
+     *
+     * @param file the file to import.
+     * @param format the format of the file, {@code csv} or {@code ndjson}, by default read from its extension.
+     * @return the {@link ResponseEntity} with status {@code 202 (Accepted)} and with body the import,
+     * or with status {@code 400 (Bad Request)} if the format is not supported.
+     * @throws IOException if the file could not be stored.
+     * @throws ResponseStatusException with status {@code 503 (Service Unavailable)} if too many imports are running.
+     * @throws URISyntaxException if the Location URI syntax is incorrect.
+     */
+    @PostMapping(value = "", consumes = "multipart/form-data")
+    @PreAuthorize("hasAuthority(\"" + AuthoritiesConstants.ADMIN + "\")")
+    public ResponseEntity<BookImportJob> createBookImport(
+        @RequestParam("file") MultipartFile file,
+        @RequestParam(value = "format", required = false) String format
+    ) throws IOException, URISyntaxException {
+        LOG.debug("REST request to import Books from {}", file.getOriginalFilename());
+        ImportFormat importFormat = (format != null ? ImportFormat.fromName(format) : ImportFormat.fromFilename(file.getOriginalFilename()))
+            .orElseThrow(() -> new BadRequestAlertException("Unsupported import format", ENTITY_NAME, "importformatinvalid"));
+        // The uploaded file is deleted at the end of the request, while the import runs in the background
+        Path copy = Files.createTempFile("book-import-", ".tmp");
+        file.transferTo(copy);
+        BookImportJob job;
+        try {
+            job = bookImportService.start(copy, file.getOriginalFilename(), importFormat);
+        } catch (TaskRejectedException e) {
+            throw new ResponseStatusException(HttpStatus.SERVICE_UNAVAILABLE, "Too many imports are running");
+        }
+        return ResponseEntity.accepted().location(new URI("/api/admin/book-imports/" + job.getId())).body(job);
+    }
+
+    /**
+     * {@code GET  /admin/book-imports} : get the running and the last finished imports.
+     *
+     * @return the {@link ResponseEntity} with status {@code 200 (OK)} and the imports in body.
+     */
+    @GetMapping("")
+    @PreAuthorize("hasAuthority(\"" + AuthoritiesConstants.ADMIN + "\")")
+    public List<BookImportJob> getAllBookImports() {
+        LOG.debug("REST request to get all Book imports");
+        return bookImportService.findJobs();
+    }
+
+    /**
+     * {@code GET  /admin/book-imports/:id} : get the progress and the report of the "id" import.
+     *
+     * @param id the id of the import.
+     * @return the {@link ResponseEntity} with status {@code 200 (OK)} and with body the import, or with status {@code 404 (Not Found)}.
+     */
+    @GetMapping("/{id}")
+    @PreAuthorize("hasAuthority(\"" + AuthoritiesConstants.ADMIN + "\")")
+    public ResponseEntity<BookImportJob> getBookImport(@PathVariable("id") String id) {
+        LOG.debug("REST request to get Book import : {}", id);
+        return ResponseUtil.wrapOrNotFound(bookImportService.findJob(id));
+    }
+}
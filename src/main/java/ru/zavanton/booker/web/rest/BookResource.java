@@ -2,26 +2,53 @@ package ru.zavanton.booker.web.rest;
 
 import jakarta.validation.Valid;
 import jakarta.validation.constraints.NotNull;
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
 import java.net.URI;
 import java.net.URISyntaxException;
+import java.util.Arrays;
 import java.util.List;
+import java.util.Locale;
 import java.util.Objects;
 import java.util.Optional;
+import java.util.zip.GZIPOutputStream;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.task.TaskRejectedException;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.http.ContentDisposition;
 import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.server.ResponseStatusException;
+import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyEmitter;
 import org.springframework.web.servlet.support.ServletUriComponentsBuilder;
+import ru.zavanton.booker.config.ApplicationProperties;
 import ru.zavanton.booker.domain.BookEntity;
 import ru.zavanton.booker.repository.BookRepository;
+import ru.zavanton.booker.repository.VersionProjection;
 import ru.zavanton.booker.service.BookQueryService;
 import ru.zavanton.booker.service.BookService;
 import ru.zavanton.booker.service.criteria.BookCriteria;
+import ru.zavanton.booker.service.dto.BookDto;
+import ru.zavanton.booker.service.dto.BookFacetsDto;
+import ru.zavanton.booker.service.dto.BookFullDto;
+import ru.zavanton.booker.service.dto.ScoredBookDto;
+import ru.zavanton.booker.service.export.BookExportService;
+import ru.zavanton.booker.service.export.ExportFormat;
+import ru.zavanton.booker.service.pagination.CursorPage;
+import ru.zavanton.booker.service.recommendation.BookSimilarityService;
+import ru.zavanton.booker.service.trending.TrendingService;
 import ru.zavanton.booker.web.rest.errors.BadRequestAlertException;
+import ru.zavanton.booker.web.rest.util.ConditionalRequestUtil;
+import ru.zavanton.booker.web.rest.util.CursorPaginationUtil;
+import ru.zavanton.booker.web.rest.util.ResponseBodyEmitterOutputStream;
 import tech.jhipster.web.util.HeaderUtil;
 import tech.jhipster.web.util.PaginationUtil;
 import tech.jhipster.web.util.ResponseUtil;
@@ -37,6 +64,8 @@ public class BookResource {
 
     private static final String ENTITY_NAME = "book";
 
+    private static final int EXPORT_BUFFER_SIZE = 64 * 1024;
+
     @Value("${jhipster.clientApp.name}")
     private String applicationName;
 
@@ -46,10 +75,30 @@ public class BookResource {
 
     private final BookQueryService bookQueryService;
 
-    public BookResource(BookService bookService, BookRepository bookRepository, BookQueryService bookQueryService) {
+    private final BookExportService bookExportService;
+
+    private final TrendingService trendingService;
+
+    private final BookSimilarityService bookSimilarityService;
+
+    private final ApplicationProperties applicationProperties;
+
+    public BookResource(
+        BookService bookService,
+        BookRepository bookRepository,
+        BookQueryService bookQueryService,
+        BookExportService bookExportService,
+        TrendingService trendingService,
+        BookSimilarityService bookSimilarityService,
+        ApplicationProperties applicationProperties
+    ) {
         this.bookService = bookService;
         this.bookRepository = bookRepository;
         this.bookQueryService = bookQueryService;
+        this.bookExportService = bookExportService;
+        this.trendingService = trendingService;
+        this.bookSimilarityService = bookSimilarityService;
+        this.applicationProperties = applicationProperties;
     }
 
     /**
@@ -75,15 +124,19 @@ public class BookResource {
      * {@code PUT  /books/:id} : Updates an existing book.
      *
      * @param id the id of the bookEntity to save.
+     * @param ifMatch the entity tag of the version of the bookEntity to update, if any.
      * @param bookEntity the bookEntity to update.
      * @return the {@link ResponseEntity} with status {@code 200 (OK)} and with body the updated bookEntity,
      * or with status {@code 400 (Bad Request)} if the bookEntity is not valid,
+     * or with status {@code 412 (Precondition Failed)} if the bookEntity was updated since the version of {@code ifMatch},
+     * or with status {@code 409 (Conflict)} if the bookEntity was updated concurrently,
      * or with status {@code 500 (Internal Server Error)} if the bookEntity couldn't be updated.
      * @throws URISyntaxException if the Location URI syntax is incorrect.
      */
     @PutMapping("/{id}")
     public ResponseEntity<BookEntity> updateBook(
         @PathVariable(value = "id", required = false) final Long id,
+        @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch,
         @Valid @RequestBody BookEntity bookEntity
     ) throws URISyntaxException {
         LOG.debug("REST request to update Book : {}, {}", id, bookEntity);
@@ -97,10 +150,12 @@ public class BookResource {
         if (!bookRepository.existsById(id)) {
             throw new BadRequestAlertException("Entity not found", ENTITY_NAME, "idnotfound");
         }
+        ConditionalRequestUtil.expectedVersion(ifMatch).ifPresent(bookEntity::setVersion);
 
         bookEntity = bookService.update(bookEntity);
         return ResponseEntity.ok()
             .headers(HeaderUtil.createEntityUpdateAlert(applicationName, true, ENTITY_NAME, bookEntity.getId().toString()))
+            .eTag(ConditionalRequestUtil.eTag(bookEntity.getVersion()))
             .body(bookEntity);
     }
 
@@ -108,9 +163,12 @@ public class BookResource {
      * {@code PATCH  /books/:id} : Partial updates given fields of an existing book, field will ignore if it is null
      *
      * @param id the id of the bookEntity to save.
+     * @param ifMatch the entity tag of the version of the bookEntity to update, if any.
      * @param bookEntity the bookEntity to update.
      * @return the {@link ResponseEntity} with status {@code 200 (OK)} and with body the updated bookEntity,
      * or with status {@code 400 (Bad Request)} if the bookEntity is not valid,
+     * or with status {@code 412 (Precondition Failed)} if the bookEntity was updated since the version of {@code ifMatch},
+     * or with status {@code 409 (Conflict)} if the bookEntity was updated concurrently,
      * or with status {@code 404 (Not Found)} if the bookEntity is not found,
      * or with status {@code 500 (Internal Server Error)} if the bookEntity couldn't be updated.
      * @throws URISyntaxException if the Location URI syntax is incorrect.
@@ -118,6 +176,7 @@ public class BookResource {
     @PatchMapping(value = "/{id}", consumes = { "application/json", "application/merge-patch+json" })
     public ResponseEntity<BookEntity> partialUpdateBook(
         @PathVariable(value = "id", required = false) final Long id,
+        @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch,
         @NotNull @RequestBody BookEntity bookEntity
     ) throws URISyntaxException {
         LOG.debug("REST request to partial update Book partially : {}, {}", id, bookEntity);
@@ -131,32 +190,56 @@ public class BookResource {
         if (!bookRepository.existsById(id)) {
             throw new BadRequestAlertException("Entity not found", ENTITY_NAME, "idnotfound");
         }
+        ConditionalRequestUtil.expectedVersion(ifMatch).ifPresent(bookEntity::setVersion);
 
         Optional<BookEntity> result = bookService.partialUpdate(bookEntity);
 
-        return ResponseUtil.wrapOrNotFound(
+        return ConditionalRequestUtil.wrapOrNotFound(
             result,
+            BookEntity::getVersion,
             HeaderUtil.createEntityUpdateAlert(applicationName, true, ENTITY_NAME, bookEntity.getId().toString())
         );
     }
 
     /**
      * {@code GET  /books} : get all the books.
+     * <p>
+     * When a {@code cursor} parameter is given, even empty for the first page, the books are paginated with keyset pagination:
+     * no total count is computed and the next page is linked by the {@code Link} header. Keyset pages have no validators,
+     * as reading them would cost as much as the count which keyset pagination avoids.
      *
      * @param pageable the pagination information.
+     * @param cursor the cursor of the previous page, for keyset pagination.
      * @param criteria the criteria which the requested entities should match.
-     * @return the {@link ResponseEntity} with status {@code 200 (OK)} and the list of books in body.
+     * @param request the current request, answered with {@code 304 (Not Modified)} if none of the matching books changed,
+     * unless paginated with a cursor.
+     * @return the {@link ResponseEntity} with status {@code 200 (OK)} and the list of books in body,
+     * or with status {@code 304 (Not Modified)}.
      */
     @GetMapping("")
-    public ResponseEntity<List<BookEntity>> getAllBooks(
+    public ResponseEntity<List<BookDto>> getAllBooks(
         BookCriteria criteria,
-        @org.springdoc.core.annotations.ParameterObject Pageable pageable
+        @RequestParam(value = "cursor", required = false) String cursor,
+        @org.springdoc.core.annotations.ParameterObject Pageable pageable,
+        WebRequest request
     ) {
         LOG.debug("REST request to get Books by criteria: {}", criteria);
 
-        Page<BookEntity> page = bookQueryService.findByCriteria(criteria, pageable);
-        HttpHeaders headers = PaginationUtil.generatePaginationHttpHeaders(ServletUriComponentsBuilder.fromCurrentRequest(), page);
-        return ResponseEntity.ok().headers(headers).body(page.getContent());
+        if (cursor != null) {
+            CursorPage<BookDto> cursorPage = bookQueryService.findByCriteria(criteria, cursor, pageable);
+            HttpHeaders headers = CursorPaginationUtil.generateCursorPaginationHttpHeaders(
+                ServletUriComponentsBuilder.fromCurrentRequest(),
+                cursorPage
+            );
+            return ResponseEntity.ok().headers(headers).body(cursorPage.content());
+        }
+        // The validators are read by the query counting the books, so that no query is added for them
+        VersionProjection version = bookQueryService.findVersionByCriteria(criteria);
+        return ConditionalRequestUtil.wrapOrNotModified(request, version, () -> {
+            Page<BookDto> page = bookQueryService.findByCriteria(criteria, pageable, version);
+            HttpHeaders headers = PaginationUtil.generatePaginationHttpHeaders(ServletUriComponentsBuilder.fromCurrentRequest(), page);
+            return ResponseEntity.ok().headers(headers).body(page.getContent());
+        });
     }
 
     /**
@@ -171,17 +254,153 @@ public class BookResource {
         return ResponseEntity.ok().body(bookQueryService.countByCriteria(criteria));
     }
 
+    /**
+     * {@code GET  /books/facets} : count the books by genre, language, publisher and publication decade.
+     *
+     * @param criteria the criteria which the counted entities should match.
+     * @return the {@link ResponseEntity} with status {@code 200 (OK)} and the facets in body.
+     */
+    @GetMapping("/facets")
+    public ResponseEntity<BookFacetsDto> getBookFacets(BookCriteria criteria) {
+        LOG.debug("REST request to get Book facets by criteria: {}", criteria);
+        return ResponseEntity.ok().body(bookQueryService.findFacets(criteria));
+    }
+
+    /**
+     * {@code GET  /books/export} : export all the books, ordered by id.
+     * <p>
+     * The books are streamed from a database cursor as they are written, so that the whole catalog can be exported
+     * in one request, within {@code application.export.timeout-ms}. The response is compressed with gzip when the client
+     * accepts it.
+     *
+     * @param criteria the criteria which the exported books should match.
+     * @param format the format of the export, {@code ndjson} or {@code csv}.
+     * @param acceptEncoding the encodings accepted by the client.
+     * @return the {@link ResponseEntity} with status {@code 200 (OK)} and the books in body,
+     * or with status {@code 400 (Bad Request)} if the format is not supported.
+     * @throws ResponseStatusException with status {@code 503 (Service Unavailable)} if too many exports are running.
+     */
+    @GetMapping("/export")
+    public ResponseEntity<ResponseBodyEmitter> exportBooks(
+        BookCriteria criteria,
+        @RequestParam(value = "format", defaultValue = "ndjson") String format,
+        @RequestHeader(value = HttpHeaders.ACCEPT_ENCODING, required = false) String acceptEncoding
+    ) {
+        LOG.debug("REST request to export Books as {} by criteria: {}", format, criteria);
+        ExportFormat exportFormat = ExportFormat.fromName(format).orElseThrow(() ->
+            new BadRequestAlertException("Unsupported export format", ENTITY_NAME, "exportformatinvalid")
+        );
+        boolean gzip = acceptEncoding != null && acceptEncoding.toLowerCase(Locale.ROOT).contains("gzip");
+
+        // The export has its own timeout, as it may take much longer than the other asynchronous requests
+        ResponseBodyEmitter emitter = new ResponseBodyEmitter(applicationProperties.getExport().getTimeoutMs());
+        Runnable export = () -> {
+            try (OutputStream outputStream = new BufferedOutputStream(new ResponseBodyEmitterOutputStream(emitter), EXPORT_BUFFER_SIZE)) {
+                if (gzip) {
+                    GZIPOutputStream gzipOutputStream = new GZIPOutputStream(outputStream);
+                    bookExportService.export(criteria, exportFormat, gzipOutputStream);
+                    gzipOutputStream.finish();
+                } else {
+                    bookExportService.export(criteria, exportFormat, outputStream);
+                }
+            } catch (IOException | RuntimeException e) {
+                LOG.warn("Export of Books by criteria {} failed: {}", criteria, e.getMessage());
+                emitter.completeWithError(e);
+                return;
+            }
+            emitter.complete();
+        };
+        try {
+            bookExportService.execute(export);
+        } catch (TaskRejectedException e) {
+            throw new ResponseStatusException(HttpStatus.SERVICE_UNAVAILABLE, "Too many exports are running");
+        }
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok()
+            .contentType(MediaType.parseMediaType(exportFormat.getMediaType()))
+            .header(
+                HttpHeaders.CONTENT_DISPOSITION,
+                ContentDisposition.attachment().filename("books." + exportFormat.getExtension()).build().toString()
+            )
+            .header(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING);
+        if (gzip) {
+            response.header(HttpHeaders.CONTENT_ENCODING, "gzip");
+        }
+        return response.body(emitter);
+    }
+
+    /**
+     * {@code GET  /books/trending} : get the books with the most ratings, reviews and reading statuses lately.
+     * <p>
+     * The books are ranked by a score which decays exponentially with the age of each interaction.
+     *
+     * @param genreId the id of the genre of the books, or all books if absent.
+     * @param size the number of books, at most {@code application.trending.max-size}.
+     * @return the {@link ResponseEntity} with status {@code 200 (OK)} and the books with their scores in body, highest first.
+     */
+    @GetMapping("/trending")
+    public ResponseEntity<List<ScoredBookDto>> getTrendingBooks(
+        @RequestParam(value = "genreId", required = false) Long genreId,
+        @RequestParam(value = "size", defaultValue = "20") int size
+    ) {
+        LOG.debug("REST request to get trending Books of genre {}", genreId);
+        return ResponseEntity.ok().body(trendingService.findTrendingBooks(genreId, size));
+    }
+
     /**
      * {@code GET  /books/:id} : get the "id" book.
      *
      * @param id the id of the bookEntity to retrieve.
-     * @return the {@link ResponseEntity} with status {@code 200 (OK)} and with body the bookEntity, or with status {@code 404 (Not Found)}.
+     * @param request the current request, answered with {@code 304 (Not Modified)} if the book did not change.
+     * @return the {@link ResponseEntity} with status {@code 200 (OK)} and with body the bookDto,
+     * or with status {@code 404 (Not Found)}, or with status {@code 304 (Not Modified)}.
      */
     @GetMapping("/{id}")
-    public ResponseEntity<BookEntity> getBook(@PathVariable("id") Long id) {
+    public ResponseEntity<BookDto> getBook(@PathVariable("id") Long id, WebRequest request) {
         LOG.debug("REST request to get Book : {}", id);
-        Optional<BookEntity> bookEntity = bookService.findOne(id);
-        return ResponseUtil.wrapOrNotFound(bookEntity);
+        Optional<String> eTag = bookRepository
+            .findVersionById(id)
+            .map(version ->
+                ConditionalRequestUtil.eTag(
+                    version.getVersion(),
+                    Arrays.asList(version.getAverageRating(), version.getTotalRatings(), version.getTotalReviews())
+                )
+            );
+        return ConditionalRequestUtil.wrapOrNotModified(request, eTag, () -> {
+            Optional<BookDto> bookDto = bookService.findOne(id);
+            return ResponseUtil.wrapOrNotFound(bookDto);
+        });
+    }
+
+    /**
+     * {@code GET  /books/:id/full} : get the "id" book with its publisher, authors, genres and tags.
+     *
+     * @param id the id of the book to retrieve.
+     * @return the {@link ResponseEntity} with status {@code 200 (OK)} and with body the bookFullDto, or with status {@code 404 (Not Found)}.
+     */
+    @GetMapping("/{id}/full")
+    public ResponseEntity<BookFullDto> getFullBook(@PathVariable("id") Long id) {
+        LOG.debug("REST request to get full Book : {}", id);
+        Optional<BookFullDto> bookFullDto = bookService.findFull(id);
+        return ResponseUtil.wrapOrNotFound(bookFullDto);
+    }
+
+    /**
+     * {@code GET  /books/:id/similar} : get the books most liked by the readers of the "id" book.
+     * <p>
+     * The similarities are recomputed every night from the ratings and reading statuses.
+     *
+     * @param id the id of the book.
+     * @param size the number of books, at most {@code application.recommendation.neighbors}.
+     * @return the {@link ResponseEntity} with status {@code 200 (OK)} and the similar books with their similarity in body,
+     * highest first, or with status {@code 404 (Not Found)}.
+     */
+    @GetMapping("/{id}/similar")
+    public ResponseEntity<List<ScoredBookDto>> getSimilarBooks(
+        @PathVariable("id") Long id,
+        @RequestParam(value = "size", defaultValue = "20") int size
+    ) {
+        LOG.debug("REST request to get Books similar to Book : {}", id);
+        return ResponseUtil.wrapOrNotFound(bookSimilarityService.findSimilarBooks(id, size));
     }
 
     /**
@@ -21,7 +21,10 @@ import ru.zavanton.booker.repository.BookTagRepository;
 import ru.zavanton.booker.service.BookTagQueryService;
 import ru.zavanton.booker.service.BookTagService;
 import ru.zavanton.booker.service.criteria.BookTagCriteria;
+import ru.zavanton.booker.service.pagination.CursorPage;
 import ru.zavanton.booker.web.rest.errors.BadRequestAlertException;
+import ru.zavanton.booker.web.rest.util.ConditionalRequestUtil;
+import ru.zavanton.booker.web.rest.util.CursorPaginationUtil;
 import tech.jhipster.web.util.HeaderUtil;
 import tech.jhipster.web.util.PaginationUtil;
 import tech.jhipster.web.util.ResponseUtil;
@@ -75,15 +78,19 @@ public class BookTagResource {
      * {@code PUT  /book-tags/:id} : Updates an existing bookTag.
      *
      * @param id the id of the bookTagEntity to save.
+     * @param ifMatch the entity tag of the version of the bookTagEntity to update, if any.
      * @param bookTagEntity the bookTagEntity to update.
      * @return the {@link ResponseEntity} with status {@code 200 (OK)} and with body the updated bookTagEntity,
      * or with status {@code 400 (Bad Request)} if the bookTagEntity is not valid,
+     * or with status {@code 412 (Precondition Failed)} if the bookTagEntity was updated since the version of {@code ifMatch},
+     * or with status {@code 409 (Conflict)} if the bookTagEntity was updated concurrently,
      * or with status {@code 500 (Internal Server Error)} if the bookTagEntity couldn't be updated.
      * @throws URISyntaxException if the Location URI syntax is incorrect.
      */
     @PutMapping("/{id}")
     public ResponseEntity<BookTagEntity> updateBookTag(
         @PathVariable(value = "id", required = false) final Long id,
+        @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch,
         @Valid @RequestBody BookTagEntity bookTagEntity
     ) throws URISyntaxException {
         LOG.debug("REST request to update BookTag : {}, {}", id, bookTagEntity);
@@ -97,10 +104,12 @@ public class BookTagResource {
         if (!bookTagRepository.existsById(id)) {
             throw new BadRequestAlertException("Entity not found", ENTITY_NAME, "idnotfound");
         }
+        ConditionalRequestUtil.expectedVersion(ifMatch).ifPresent(bookTagEntity::setVersion);
 
         bookTagEntity = bookTagService.update(bookTagEntity);
         return ResponseEntity.ok()
             .headers(HeaderUtil.createEntityUpdateAlert(applicationName, true, ENTITY_NAME, bookTagEntity.getId().toString()))
+            .eTag(ConditionalRequestUtil.eTag(bookTagEntity.getVersion()))
             .body(bookTagEntity);
     }
 
@@ -108,9 +117,12 @@ public class BookTagResource {
      * {@code PATCH  /book-tags/:id} : Partial updates given fields of an existing bookTag, field will ignore if it is null
      *
      * @param id the id of the bookTagEntity to save.
+     * @param ifMatch the entity tag of the version of the bookTagEntity to update, if any.
      * @param bookTagEntity the bookTagEntity to update.
      * @return the {@link ResponseEntity} with status {@code 200 (OK)} and with body the updated bookTagEntity,
      * or with status {@code 400 (Bad Request)} if the bookTagEntity is not valid,
+     * or with status {@code 412 (Precondition Failed)} if the bookTagEntity was updated since the version of {@code ifMatch},
+     * or with status {@code 409 (Conflict)} if the bookTagEntity was updated concurrently,
      * or with status {@code 404 (Not Found)} if the bookTagEntity is not found,
      * or with status {@code 500 (Internal Server Error)} if the bookTagEntity couldn't be updated.
      * @throws URISyntaxException if the Location URI syntax is incorrect.
@@ -118,6 +130,7 @@ public class BookTagResource {
     @PatchMapping(value = "/{id}", consumes = { "application/json", "application/merge-patch+json" })
     public ResponseEntity<BookTagEntity> partialUpdateBookTag(
         @PathVariable(value = "id", required = false) final Long id,
+        @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch,
         @NotNull @RequestBody BookTagEntity bookTagEntity
     ) throws URISyntaxException {
         LOG.debug("REST request to partial update BookTag partially : {}, {}", id, bookTagEntity);
@@ -131,29 +144,44 @@ public class BookTagResource {
         if (!bookTagRepository.existsById(id)) {
             throw new BadRequestAlertException("Entity not found", ENTITY_NAME, "idnotfound");
         }
+        ConditionalRequestUtil.expectedVersion(ifMatch).ifPresent(bookTagEntity::setVersion);
 
         Optional<BookTagEntity> result = bookTagService.partialUpdate(bookTagEntity);
 
-        return ResponseUtil.wrapOrNotFound(
+        return ConditionalRequestUtil.wrapOrNotFound(
             result,
+            BookTagEntity::getVersion,
             HeaderUtil.createEntityUpdateAlert(applicationName, true, ENTITY_NAME, bookTagEntity.getId().toString())
         );
     }
 
     /**
      * {@code GET  /book-tags} : get all the bookTags.
+     * <p>
+     * When a {@code cursor} parameter is given, even empty for the first page, the bookTags are paginated with keyset pagination:
+     * no total count is computed and the next page is linked by the {@code Link} header.
      *
      * @param pageable the pagination information.
+     * @param cursor the cursor of the previous page, for keyset pagination.
      * @param criteria the criteria which the requested entities should match.
      * @return the {@link ResponseEntity} with status {@code 200 (OK)} and the list of bookTags in body.
      */
     @GetMapping("")
     public ResponseEntity<List<BookTagEntity>> getAllBookTags(
         BookTagCriteria criteria,
+        @RequestParam(value = "cursor", required = false) String cursor,
         @org.springdoc.core.annotations.ParameterObject Pageable pageable
     ) {
         LOG.debug("REST request to get BookTags by criteria: {}", criteria);
 
+        if (cursor != null) {
+            CursorPage<BookTagEntity> cursorPage = bookTagQueryService.findByCriteria(criteria, cursor, pageable);
+            HttpHeaders headers = CursorPaginationUtil.generateCursorPaginationHttpHeaders(
+                ServletUriComponentsBuilder.fromCurrentRequest(),
+                cursorPage
+            );
+            return ResponseEntity.ok().headers(headers).body(cursorPage.content());
+        }
         Page<BookTagEntity> page = bookTagQueryService.findByCriteria(criteria, pageable);
         HttpHeaders headers = PaginationUtil.generatePaginationHttpHeaders(ServletUriComponentsBuilder.fromCurrentRequest(), page);
         return ResponseEntity.ok().headers(headers).body(page.getContent());
@@ -4,6 +4,7 @@ import jakarta.validation.Valid;
 import jakarta.validation.constraints.NotNull;
 import java.net.URI;
 import java.net.URISyntaxException;
+import java.util.Collections;
 import java.util.List;
 import java.util.Objects;
 import java.util.Optional;
@@ -15,13 +16,19 @@ import org.springframework.data.domain.Pageable;
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 import org.springframework.web.servlet.support.ServletUriComponentsBuilder;
 import ru.zavanton.booker.domain.CollectionEntity;
 import ru.zavanton.booker.repository.CollectionRepository;
+import ru.zavanton.booker.repository.VersionProjection;
 import ru.zavanton.booker.service.CollectionQueryService;
 import ru.zavanton.booker.service.CollectionService;
 import ru.zavanton.booker.service.criteria.CollectionCriteria;
+import ru.zavanton.booker.service.dto.CollectionDto;
+import ru.zavanton.booker.service.pagination.CursorPage;
 import ru.zavanton.booker.web.rest.errors.BadRequestAlertException;
+import ru.zavanton.booker.web.rest.util.ConditionalRequestUtil;
+import ru.zavanton.booker.web.rest.util.CursorPaginationUtil;
 import tech.jhipster.web.util.HeaderUtil;
 import tech.jhipster.web.util.PaginationUtil;
 import tech.jhipster.web.util.ResponseUtil;
@@ -80,15 +87,19 @@ public class CollectionResource {
      * {@code PUT  /collections/:id} : Updates an existing collection.
      *
      * @param id the id of the collectionEntity to save.
+     * @param ifMatch the entity tag of the version of the collectionEntity to update, if any.
      * @param collectionEntity the collectionEntity to update.
      * @return the {@link ResponseEntity} with status {@code 200 (OK)} and with body the updated collectionEntity,
      * or with status {@code 400 (Bad Request)} if the collectionEntity is not valid,
+     * or with status {@code 412 (Precondition Failed)} if the collectionEntity was updated since the version of {@code ifMatch},
+     * or with status {@code 409 (Conflict)} if the collectionEntity was updated concurrently,
      * or with status {@code 500 (Internal Server Error)} if the collectionEntity couldn't be updated.
      * @throws URISyntaxException if the Location URI syntax is incorrect.
      */
     @PutMapping("/{id}")
     public ResponseEntity<CollectionEntity> updateCollection(
         @PathVariable(value = "id", required = false) final Long id,
+        @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch,
         @Valid @RequestBody CollectionEntity collectionEntity
     ) throws URISyntaxException {
         LOG.debug("REST request to update Collection : {}, {}", id, collectionEntity);
@@ -102,10 +113,12 @@ public class CollectionResource {
         if (!collectionRepository.existsById(id)) {
             throw new BadRequestAlertException("Entity not found", ENTITY_NAME, "idnotfound");
         }
+        ConditionalRequestUtil.expectedVersion(ifMatch).ifPresent(collectionEntity::setVersion);
 
         collectionEntity = collectionService.update(collectionEntity);
         return ResponseEntity.ok()
             .headers(HeaderUtil.createEntityUpdateAlert(applicationName, true, ENTITY_NAME, collectionEntity.getId().toString()))
+            .eTag(ConditionalRequestUtil.eTag(collectionEntity.getVersion()))
             .body(collectionEntity);
     }
 
@@ -113,9 +126,12 @@ public class CollectionResource {
      * {@code PATCH  /collections/:id} : Partial updates given fields of an existing collection, field will ignore if it is null
      *
      * @param id the id of the collectionEntity to save.
+     * @param ifMatch the entity tag of the version of the collectionEntity to update, if any.
      * @param collectionEntity the collectionEntity to update.
      * @return the {@link ResponseEntity} with status {@code 200 (OK)} and with body the updated collectionEntity,
      * or with status {@code 400 (Bad Request)} if the collectionEntity is not valid,
+     * or with status {@code 412 (Precondition Failed)} if the collectionEntity was updated since the version of {@code ifMatch},
+     * or with status {@code 409 (Conflict)} if the collectionEntity was updated concurrently,
      * or with status {@code 404 (Not Found)} if the collectionEntity is not found,
      * or with status {@code 500 (Internal Server Error)} if the collectionEntity couldn't be updated.
      * @throws URISyntaxException if the Location URI syntax is incorrect.
@@ -123,6 +139,7 @@ public class CollectionResource {
     @PatchMapping(value = "/{id}", consumes = { "application/json", "application/merge-patch+json" })
     public ResponseEntity<CollectionEntity> partialUpdateCollection(
         @PathVariable(value = "id", required = false) final Long id,
+        @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch,
         @NotNull @RequestBody CollectionEntity collectionEntity
     ) throws URISyntaxException {
         LOG.debug("REST request to partial update Collection partially : {}, {}", id, collectionEntity);
@@ -136,32 +153,56 @@ public class CollectionResource {
         if (!collectionRepository.existsById(id)) {
             throw new BadRequestAlertException("Entity not found", ENTITY_NAME, "idnotfound");
         }
+        ConditionalRequestUtil.expectedVersion(ifMatch).ifPresent(collectionEntity::setVersion);
 
         Optional<CollectionEntity> result = collectionService.partialUpdate(collectionEntity);
 
-        return ResponseUtil.wrapOrNotFound(
+        return ConditionalRequestUtil.wrapOrNotFound(
             result,
+            CollectionEntity::getVersion,
             HeaderUtil.createEntityUpdateAlert(applicationName, true, ENTITY_NAME, collectionEntity.getId().toString())
         );
     }
 
     /**
      * {@code GET  /collections} : get all the collections.
+     * <p>
+     * When a {@code cursor} parameter is given, even empty for the first page, the collections are paginated with keyset pagination:
+     * no total count is computed and the next page is linked by the {@code Link} header. Keyset pages have no validators,
+     * as reading them would cost as much as the count which keyset pagination avoids.
      *
      * @param pageable the pagination information.
+     * @param cursor the cursor of the previous page, for keyset pagination.
      * @param criteria the criteria which the requested entities should match.
-     * @return the {@link ResponseEntity} with status {@code 200 (OK)} and the list of collections in body.
+     * @param request the current request, answered with {@code 304 (Not Modified)} if none of the matching collections changed,
+     * unless paginated with a cursor.
+     * @return the {@link ResponseEntity} with status {@code 200 (OK)} and the list of collections in body,
+     * or with status {@code 304 (Not Modified)}.
      */
     @GetMapping("")
-    public ResponseEntity<List<CollectionEntity>> getAllCollections(
+    public ResponseEntity<List<CollectionDto>> getAllCollections(
         CollectionCriteria criteria,
-        @org.springdoc.core.annotations.ParameterObject Pageable pageable
+        @RequestParam(value = "cursor", required = false) String cursor,
+        @org.springdoc.core.annotations.ParameterObject Pageable pageable,
+        WebRequest request
     ) {
         LOG.debug("REST request to get Collections by criteria: {}", criteria);
 
-        Page<CollectionEntity> page = collectionQueryService.findByCriteria(criteria, pageable);
-        HttpHeaders headers = PaginationUtil.generatePaginationHttpHeaders(ServletUriComponentsBuilder.fromCurrentRequest(), page);
-        return ResponseEntity.ok().headers(headers).body(page.getContent());
+        if (cursor != null) {
+            CursorPage<CollectionDto> cursorPage = collectionQueryService.findByCriteria(criteria, cursor, pageable);
+            HttpHeaders headers = CursorPaginationUtil.generateCursorPaginationHttpHeaders(
+                ServletUriComponentsBuilder.fromCurrentRequest(),
+                cursorPage
+            );
+            return ResponseEntity.ok().headers(headers).body(cursorPage.content());
+        }
+        // The validators are read by the query counting the collections, so that no query is added for them
+        VersionProjection version = collectionQueryService.findVersionByCriteria(criteria);
+        return ConditionalRequestUtil.wrapOrNotModified(request, version, () -> {
+            Page<CollectionDto> page = collectionQueryService.findByCriteria(criteria, pageable, version);
+            HttpHeaders headers = PaginationUtil.generatePaginationHttpHeaders(ServletUriComponentsBuilder.fromCurrentRequest(), page);
+            return ResponseEntity.ok().headers(headers).body(page.getContent());
+        });
     }
 
     /**
@@ -180,13 +221,20 @@ public class CollectionResource {
      * {@code GET  /collections/:id} : get the "id" collection.
      *
      * @param id the id of the collectionEntity to retrieve.
-     * @return the {@link ResponseEntity} with status {@code 200 (OK)} and with body the collectionEntity, or with status {@code 404 (Not Found)}.
+     * @param request the current request, answered with {@code 304 (Not Modified)} if the collection did not change.
+     * @return the {@link ResponseEntity} with status {@code 200 (OK)} and with body the collectionDto,
+     * or with status {@code 404 (Not Found)}, or with status {@code 304 (Not Modified)}.
      */
     @GetMapping("/{id}")
-    public ResponseEntity<CollectionEntity> getCollection(@PathVariable("id") Long id) {
+    public ResponseEntity<CollectionDto> getCollection(@PathVariable("id") Long id, WebRequest request) {
         LOG.debug("REST request to get Collection : {}", id);
-        Optional<CollectionEntity> collectionEntity = collectionService.findOne(id);
-        return ResponseUtil.wrapOrNotFound(collectionEntity);
+        Optional<String> eTag = collectionRepository
+            .findVersionById(id)
+            .map(version -> ConditionalRequestUtil.eTag(version.getVersion(), Collections.singletonList(version.getBookCount())));
+        return ConditionalRequestUtil.wrapOrNotModified(request, eTag, () -> {
+            Optional<CollectionDto> collectionDto = collectionService.findOne(id);
+            return ResponseUtil.wrapOrNotFound(collectionDto);
+        });
     }
 
     /**
@@ -21,7 +21,10 @@ import ru.zavanton.booker.repository.CommentRepository;
 import ru.zavanton.booker.service.CommentQueryService;
 import ru.zavanton.booker.service.CommentService;
 import ru.zavanton.booker.service.criteria.CommentCriteria;
+import ru.zavanton.booker.service.pagination.CursorPage;
 import ru.zavanton.booker.web.rest.errors.BadRequestAlertException;
+import ru.zavanton.booker.web.rest.util.ConditionalRequestUtil;
+import ru.zavanton.booker.web.rest.util.CursorPaginationUtil;
 import tech.jhipster.web.util.HeaderUtil;
 import tech.jhipster.web.util.PaginationUtil;
 import tech.jhipster.web.util.ResponseUtil;
@@ -75,15 +78,19 @@ public class CommentResource {
      * {@code PUT  /comments/:id} : Updates an existing comment.
      *
      * @param id the id of the commentEntity to save.
+     * @param ifMatch the entity tag of the version of the commentEntity to update, if any.
      * @param commentEntity the commentEntity to update.
      * @return the {@link ResponseEntity} with status {@code 200 (OK)} and with body the updated commentEntity,
      * or with status {@code 400 (Bad Request)} if the commentEntity is not valid,
+     * or with status {@code 412 (Precondition Failed)} if the commentEntity was updated since the version of {@code ifMatch},
+     * or with status {@code 409 (Conflict)} if the commentEntity was updated concurrently,
      * or with status {@code 500 (Internal Server Error)} if the commentEntity couldn't be updated.
      * @throws URISyntaxException if the Location URI syntax is incorrect.
      */
     @PutMapping("/{id}")
     public ResponseEntity<CommentEntity> updateComment(
         @PathVariable(value = "id", required = false) final Long id,
+        @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch,
         @Valid @RequestBody CommentEntity commentEntity
     ) throws URISyntaxException {
         LOG.debug("REST request to update Comment : {}, {}", id, commentEntity);
@@ -97,10 +104,12 @@ public class CommentResource {
         if (!commentRepository.existsById(id)) {
             throw new BadRequestAlertException("Entity not found", ENTITY_NAME, "idnotfound");
         }
+        ConditionalRequestUtil.expectedVersion(ifMatch).ifPresent(commentEntity::setVersion);
 
         commentEntity = commentService.update(commentEntity);
         return ResponseEntity.ok()
             .headers(HeaderUtil.createEntityUpdateAlert(applicationName, true, ENTITY_NAME, commentEntity.getId().toString()))
+            .eTag(ConditionalRequestUtil.eTag(commentEntity.getVersion()))
             .body(commentEntity);
     }
 
@@ -108,9 +117,12 @@ public class CommentResource {
      * {@code PATCH  /comments/:id} : Partial updates given fields of an existing comment, field will ignore if it is null
      *
      * @param id the id of the commentEntity to save.
+     * @param ifMatch the entity tag of the version of the commentEntity to update, if any.
      * @param commentEntity the commentEntity to update.
      * @return the {@link ResponseEntity} with status {@code 200 (OK)} and with body the updated commentEntity,
      * or with status {@code 400 (Bad Request)} if the commentEntity is not valid,
+     * or with status {@code 412 (Precondition Failed)} if the commentEntity was updated since the version of {@code ifMatch},
+     * or with status {@code 409 (Conflict)} if the commentEntity was updated concurrently,
      * or with status {@code 404 (Not Found)} if the commentEntity is not found,
      * or with status {@code 500 (Internal Server Error)} if the commentEntity couldn't be updated.
      * @throws URISyntaxException if the Location URI syntax is incorrect.
@@ -118,6 +130,7 @@ public class CommentResource {
     @PatchMapping(value = "/{id}", consumes = { "application/json", "application/merge-patch+json" })
     public ResponseEntity<CommentEntity> partialUpdateComment(
         @PathVariable(value = "id", required = false) final Long id,
+        @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch,
         @NotNull @RequestBody CommentEntity commentEntity
     ) throws URISyntaxException {
         LOG.debug("REST request to partial update Comment partially : {}, {}", id, commentEntity);
@@ -131,29 +144,44 @@ public class CommentResource {
         if (!commentRepository.existsById(id)) {
             throw new BadRequestAlertException("Entity not found", ENTITY_NAME, "idnotfound");
         }
+        ConditionalRequestUtil.expectedVersion(ifMatch).ifPresent(commentEntity::setVersion);
 
         Optional<CommentEntity> result = commentService.partialUpdate(commentEntity);
 
-        return ResponseUtil.wrapOrNotFound(
+        return ConditionalRequestUtil.wrapOrNotFound(
             result,
+            CommentEntity::getVersion,
             HeaderUtil.createEntityUpdateAlert(applicationName, true, ENTITY_NAME, commentEntity.getId().toString())
         );
     }
 
     /**
      * {@code GET  /comments} : get all the comments.
+     * <p>
+     * When a {@code cursor} parameter is given, even empty for the first page, the comments are paginated with keyset pagination:
+     * no total count is computed and the next page is linked by the {@code Link} header.
      *
      * @param pageable the pagination information.
+     * @param cursor the cursor of the previous page, for keyset pagination.
      * @param criteria the criteria which the requested entities should match.
      * @return the {@link ResponseEntity} with status {@code 200 (OK)} and the list of comments in body.
      */
     @GetMapping("")
     public ResponseEntity<List<CommentEntity>> getAllComments(
         CommentCriteria criteria,
+        @RequestParam(value = "cursor", required = false) String cursor,
         @org.springdoc.core.annotations.ParameterObject Pageable pageable
     ) {
         LOG.debug("REST request to get Comments by criteria: {}", criteria);
 
+        if (cursor != null) {
+            CursorPage<CommentEntity> cursorPage = commentQueryService.findByCriteria(criteria, cursor, pageable);
+            HttpHeaders headers = CursorPaginationUtil.generateCursorPaginationHttpHeaders(
+                ServletUriComponentsBuilder.fromCurrentRequest(),
+                cursorPage
+            );
+            return ResponseEntity.ok().headers(headers).body(cursorPage.content());
+        }
         Page<CommentEntity> page = commentQueryService.findByCriteria(criteria, pageable);
         HttpHeaders headers = PaginationUtil.generatePaginationHttpHeaders(ServletUriComponentsBuilder.fromCurrentRequest(), page);
         return ResponseEntity.ok().headers(headers).body(page.getContent());
@@ -15,13 +15,19 @@ import org.springframework.data.domain.Pageable;
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 import org.springframework.web.servlet.support.ServletUriComponentsBuilder;
 import ru.zavanton.booker.domain.GenreEntity;
 import ru.zavanton.booker.repository.GenreRepository;
+import ru.zavanton.booker.repository.VersionProjection;
 import ru.zavanton.booker.service.GenreQueryService;
 import ru.zavanton.booker.service.GenreService;
 import ru.zavanton.booker.service.criteria.GenreCriteria;
+import ru.zavanton.booker.service.dto.GenreDto;
+import ru.zavanton.booker.service.pagination.CursorPage;
 import ru.zavanton.booker.web.rest.errors.BadRequestAlertException;
+import ru.zavanton.booker.web.rest.util.ConditionalRequestUtil;
+import ru.zavanton.booker.web.rest.util.CursorPaginationUtil;
 import tech.jhipster.web.util.HeaderUtil;
 import tech.jhipster.web.util.PaginationUtil;
 import tech.jhipster.web.util.ResponseUtil;
@@ -75,15 +81,19 @@ public class GenreResource {
      * {@code PUT  /genres/:id} : Updates an existing genre.
      *
      * @param id the id of the genreEntity to save.
+     * @param ifMatch the entity tag of the version of the genreEntity to update, if any.
      * @param genreEntity the genreEntity to update.
      * @return the {@link ResponseEntity} with status {@code 200 (OK)} and with body the updated genreEntity,
      * or with status {@code 400 (Bad Request)} if the genreEntity is not valid,
+     * or with status {@code 412 (Precondition Failed)} if the genreEntity was updated since the version of {@code ifMatch},
+     * or with status {@code 409 (Conflict)} if the genreEntity was updated concurrently,
      * or with status {@code 500 (Internal Server Error)} if the genreEntity couldn't be updated.
      * @throws URISyntaxException if the Location URI syntax is incorrect.
      */
     @PutMapping("/{id}")
     public ResponseEntity<GenreEntity> updateGenre(
         @PathVariable(value = "id", required = false) final Long id,
+        @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch,
         @Valid @RequestBody GenreEntity genreEntity
     ) throws URISyntaxException {
         LOG.debug("REST request to update Genre : {}, {}", id, genreEntity);
@@ -97,10 +107,12 @@ public class GenreResource {
         if (!genreRepository.existsById(id)) {
             throw new BadRequestAlertException("Entity not found", ENTITY_NAME, "idnotfound");
         }
+        ConditionalRequestUtil.expectedVersion(ifMatch).ifPresent(genreEntity::setVersion);
 
         genreEntity = genreService.update(genreEntity);
         return ResponseEntity.ok()
             .headers(HeaderUtil.createEntityUpdateAlert(applicationName, true, ENTITY_NAME, genreEntity.getId().toString()))
+            .eTag(ConditionalRequestUtil.eTag(genreEntity.getVersion()))
             .body(genreEntity);
     }
 
@@ -108,9 +120,12 @@ public class GenreResource {
      * {@code PATCH  /genres/:id} : Partial updates given fields of an existing genre, field will ignore if it is null
      *
      * @param id the id of the genreEntity to save.
+     * @param ifMatch the entity tag of the version of the genreEntity to update, if any.
      * @param genreEntity the genreEntity to update.
      * @return the {@link ResponseEntity} with status {@code 200 (OK)} and with body the updated genreEntity,
      * or with status {@code 400 (Bad Request)} if the genreEntity is not valid,
+     * or with status {@code 412 (Precondition Failed)} if the genreEntity was updated since the version of {@code ifMatch},
+     * or with status {@code 409 (Conflict)} if the genreEntity was updated concurrently,
      * or with status {@code 404 (Not Found)} if the genreEntity is not found,
      * or with status {@code 500 (Internal Server Error)} if the genreEntity couldn't be updated.
      * @throws URISyntaxException if the Location URI syntax is incorrect.
@@ -118,6 +133,7 @@ public class GenreResource {
     @PatchMapping(value = "/{id}", consumes = { "application/json", "application/merge-patch+json" })
     public ResponseEntity<GenreEntity> partialUpdateGenre(
         @PathVariable(value = "id", required = false) final Long id,
+        @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch,
         @NotNull @RequestBody GenreEntity genreEntity
     ) throws URISyntaxException {
         LOG.debug("REST request to partial update Genre partially : {}, {}", id, genreEntity);
@@ -131,32 +147,56 @@ public class GenreResource {
         if (!genreRepository.existsById(id)) {
             throw new BadRequestAlertException("Entity not found", ENTITY_NAME, "idnotfound");
         }
+        ConditionalRequestUtil.expectedVersion(ifMatch).ifPresent(genreEntity::setVersion);
 
         Optional<GenreEntity> result = genreService.partialUpdate(genreEntity);
 
-        return ResponseUtil.wrapOrNotFound(
+        return ConditionalRequestUtil.wrapOrNotFound(
             result,
+            GenreEntity::getVersion,
             HeaderUtil.createEntityUpdateAlert(applicationName, true, ENTITY_NAME, genreEntity.getId().toString())
         );
     }
 
     /**
      * {@code GET  /genres} : get all the genres.
+     * <p>
+     * When a {@code cursor} parameter is given, even empty for the first page, the genres are paginated with keyset pagination:
+     * no total count is computed and the next page is linked by the {@code Link} header. Keyset pages have no validators,
+     * as reading them would cost as much as the count which keyset pagination avoids.
      *
      * @param pageable the pagination information.
+     * @param cursor the cursor of the previous page, for keyset pagination.
      * @param criteria the criteria which the requested entities should match.
-     * @return the {@link ResponseEntity} with status {@code 200 (OK)} and the list of genres in body.
+     * @param request the current request, answered with {@code 304 (Not Modified)} if none of the matching genres changed,
+     * unless paginated with a cursor.
+     * @return the {@link ResponseEntity} with status {@code 200 (OK)} and the list of genres in body,
+     * or with status {@code 304 (Not Modified)}.
      */
     @GetMapping("")
-    public ResponseEntity<List<GenreEntity>> getAllGenres(
+    public ResponseEntity<List<GenreDto>> getAllGenres(
         GenreCriteria criteria,
-        @org.springdoc.core.annotations.ParameterObject Pageable pageable
+        @RequestParam(value = "cursor", required = false) String cursor,
+        @org.springdoc.core.annotations.ParameterObject Pageable pageable,
+        WebRequest request
     ) {
         LOG.debug("REST request to get Genres by criteria: {}", criteria);
 
-        Page<GenreEntity> page = genreQueryService.findByCriteria(criteria, pageable);
-        HttpHeaders headers = PaginationUtil.generatePaginationHttpHeaders(ServletUriComponentsBuilder.fromCurrentRequest(), page);
-        return ResponseEntity.ok().headers(headers).body(page.getContent());
+        if (cursor != null) {
+            CursorPage<GenreDto> cursorPage = genreQueryService.findByCriteria(criteria, cursor, pageable);
+            HttpHeaders headers = CursorPaginationUtil.generateCursorPaginationHttpHeaders(
+                ServletUriComponentsBuilder.fromCurrentRequest(),
+                cursorPage
+            );
+            return ResponseEntity.ok().headers(headers).body(cursorPage.content());
+        }
+        // The validators are read by the query counting the genres, so that no query is added for them
+        VersionProjection version = genreQueryService.findVersionByCriteria(criteria);
+        return ConditionalRequestUtil.wrapOrNotModified(request, version, () -> {
+            Page<GenreDto> page = genreQueryService.findByCriteria(criteria, pageable, version);
+            HttpHeaders headers = PaginationUtil.generatePaginationHttpHeaders(ServletUriComponentsBuilder.fromCurrentRequest(), page);
+            return ResponseEntity.ok().headers(headers).body(page.getContent());
+        });
     }
 
     /**
@@ -175,13 +215,18 @@ public class GenreResource {
      * {@code GET  /genres/:id} : get the "id" genre.
      *
      * @param id the id of the genreEntity to retrieve.
-     * @return the {@link ResponseEntity} with status {@code 200 (OK)} and with body the genreEntity, or with status {@code 404 (Not Found)}.
+     * @param request the current request, answered with {@code 304 (Not Modified)} if the genre did not change.
+     * @return the {@link ResponseEntity} with status {@code 200 (OK)} and with body the genreDto,
+     * or with status {@code 404 (Not Found)}, or with status {@code 304 (Not Modified)}.
      */
     @GetMapping("/{id}")
-    public ResponseEntity<GenreEntity> getGenre(@PathVariable("id") Long id) {
+    public ResponseEntity<GenreDto> getGenre(@PathVariable("id") Long id, WebRequest request) {
         LOG.debug("REST request to get Genre : {}", id);
-        Optional<GenreEntity> genreEntity = genreService.findOne(id);
-        return ResponseUtil.wrapOrNotFound(genreEntity);
+        Optional<String> eTag = genreRepository.findVersionById(id).map(ConditionalRequestUtil::eTag);
+        return ConditionalRequestUtil.wrapOrNotModified(request, eTag, () -> {
+            Optional<GenreDto> genreDto = genreService.findOne(id);
+            return ResponseUtil.wrapOrNotFound(genreDto);
+        });
     }
 
     /**
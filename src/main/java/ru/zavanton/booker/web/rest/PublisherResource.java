@@ -15,13 +15,18 @@ import org.springframework.data.domain.Pageable;
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 import org.springframework.web.servlet.support.ServletUriComponentsBuilder;
 import ru.zavanton.booker.domain.PublisherEntity;
 import ru.zavanton.booker.repository.PublisherRepository;
+import ru.zavanton.booker.repository.VersionProjection;
 import ru.zavanton.booker.service.PublisherQueryService;
 import ru.zavanton.booker.service.PublisherService;
 import ru.zavanton.booker.service.criteria.PublisherCriteria;
+import ru.zavanton.booker.service.pagination.CursorPage;
 import ru.zavanton.booker.web.rest.errors.BadRequestAlertException;
+import ru.zavanton.booker.web.rest.util.ConditionalRequestUtil;
+import ru.zavanton.booker.web.rest.util.CursorPaginationUtil;
 import tech.jhipster.web.util.HeaderUtil;
 import tech.jhipster.web.util.PaginationUtil;
 import tech.jhipster.web.util.ResponseUtil;
@@ -79,15 +84,19 @@ public class PublisherResource {
      * {@code PUT  /publishers/:id} : Updates an existing publisher.
      *
      * @param id the id of the publisherEntity to save.
+     * @param ifMatch the entity tag of the version of the publisherEntity to update, if any.
      * @param publisherEntity the publisherEntity to update.
      * @return the {@link ResponseEntity} with status {@code 200 (OK)} and with body the updated publisherEntity,
      * or with status {@code 400 (Bad Request)} if the publisherEntity is not valid,
+     * or with status {@code 412 (Precondition Failed)} if the publisherEntity was updated since the version of {@code ifMatch},
+     * or with status {@code 409 (Conflict)} if the publisherEntity was updated concurrently,
      * or with status {@code 500 (Internal Server Error)} if the publisherEntity couldn't be updated.
      * @throws URISyntaxException if the Location URI syntax is incorrect.
      */
     @PutMapping("/{id}")
     public ResponseEntity<PublisherEntity> updatePublisher(
         @PathVariable(value = "id", required = false) final Long id,
+        @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch,
         @Valid @RequestBody PublisherEntity publisherEntity
     ) throws URISyntaxException {
         LOG.debug("REST request to update Publisher : {}, {}", id, publisherEntity);
@@ -101,10 +110,12 @@ public class PublisherResource {
         if (!publisherRepository.existsById(id)) {
             throw new BadRequestAlertException("Entity not found", ENTITY_NAME, "idnotfound");
         }
+        ConditionalRequestUtil.expectedVersion(ifMatch).ifPresent(publisherEntity::setVersion);
 
         publisherEntity = publisherService.update(publisherEntity);
         return ResponseEntity.ok()
             .headers(HeaderUtil.createEntityUpdateAlert(applicationName, true, ENTITY_NAME, publisherEntity.getId().toString()))
+            .eTag(ConditionalRequestUtil.eTag(publisherEntity.getVersion()))
             .body(publisherEntity);
     }
 
@@ -112,9 +123,12 @@ public class PublisherResource {
      * {@code PATCH  /publishers/:id} : Partial updates given fields of an existing publisher, field will ignore if it is null
      *
      * @param id the id of the publisherEntity to save.
+     * @param ifMatch the entity tag of the version of the publisherEntity to update, if any.
      * @param publisherEntity the publisherEntity to update.
      * @return the {@link ResponseEntity} with status {@code 200 (OK)} and with body the updated publisherEntity,
      * or with status {@code 400 (Bad Request)} if the publisherEntity is not valid,
+     * or with status {@code 412 (Precondition Failed)} if the publisherEntity was updated since the version of {@code ifMatch},
+     * or with status {@code 409 (Conflict)} if the publisherEntity was updated concurrently,
      * or with status {@code 404 (Not Found)} if the publisherEntity is not found,
      * or with status {@code 500 (Internal Server Error)} if the publisherEntity couldn't be updated.
      * @throws URISyntaxException if the Location URI syntax is incorrect.
@@ -122,6 +136,7 @@ public class PublisherResource {
     @PatchMapping(value = "/{id}", consumes = { "application/json", "application/merge-patch+json" })
     public ResponseEntity<PublisherEntity> partialUpdatePublisher(
         @PathVariable(value = "id", required = false) final Long id,
+        @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch,
         @NotNull @RequestBody PublisherEntity publisherEntity
     ) throws URISyntaxException {
         LOG.debug("REST request to partial update Publisher partially : {}, {}", id, publisherEntity);
@@ -135,32 +150,55 @@ public class PublisherResource {
         if (!publisherRepository.existsById(id)) {
             throw new BadRequestAlertException("Entity not found", ENTITY_NAME, "idnotfound");
         }
+        ConditionalRequestUtil.expectedVersion(ifMatch).ifPresent(publisherEntity::setVersion);
 
         Optional<PublisherEntity> result = publisherService.partialUpdate(publisherEntity);
 
-        return ResponseUtil.wrapOrNotFound(
+        return ConditionalRequestUtil.wrapOrNotFound(
             result,
+            PublisherEntity::getVersion,
             HeaderUtil.createEntityUpdateAlert(applicationName, true, ENTITY_NAME, publisherEntity.getId().toString())
         );
     }
 
     /**
      * {@code GET  /publishers} : get all the publishers.
+     * <p>
+     * When a {@code cursor} parameter is given, even empty for the first page, the publishers are paginated with keyset pagination:
+     * no total count is computed and the next page is linked by the {@code Link} header. Keyset pages have no validators,
+     * as reading them would cost as much as the count which keyset pagination avoids.
      *
      * @param pageable the pagination information.
+     * @param cursor the cursor of the previous page, for keyset pagination.
      * @param criteria the criteria which the requested entities should match.
-     * @return the {@link ResponseEntity} with status {@code 200 (OK)} and the list of publishers in body.
+     * @param request the current request, answered with {@code 304 (Not Modified)} if none of the matching publishers changed,
+     * unless paginated with a cursor.
+     * @return the {@link ResponseEntity} with status {@code 200 (OK)} and the list of publishers in body,
+     * or with status {@code 304 (Not Modified)}.
      */
     @GetMapping("")
     public ResponseEntity<List<PublisherEntity>> getAllPublishers(
         PublisherCriteria criteria,
-        @org.springdoc.core.annotations.ParameterObject Pageable pageable
+        @RequestParam(value = "cursor", required = false) String cursor,
+        @org.springdoc.core.annotations.ParameterObject Pageable pageable,
+        WebRequest request
     ) {
         LOG.debug("REST request to get Publishers by criteria: {}", criteria);
 
-        Page<PublisherEntity> page = publisherQueryService.findByCriteria(criteria, pageable);
-        HttpHeaders headers = PaginationUtil.generatePaginationHttpHeaders(ServletUriComponentsBuilder.fromCurrentRequest(), page);
-        return ResponseEntity.ok().headers(headers).body(page.getContent());
+        if (cursor != null) {
+            CursorPage<PublisherEntity> cursorPage = publisherQueryService.findByCriteria(criteria, cursor, pageable);
+            HttpHeaders headers = CursorPaginationUtil.generateCursorPaginationHttpHeaders(
+                ServletUriComponentsBuilder.fromCurrentRequest(),
+                cursorPage
+            );
+            return ResponseEntity.ok().headers(headers).body(cursorPage.content());
+        }
+        VersionProjection version = publisherQueryService.findVersionByCriteria(criteria);
+        return ConditionalRequestUtil.wrapOrNotModified(request, version, () -> {
+            Page<PublisherEntity> page = publisherQueryService.findByCriteria(criteria, pageable);
+            HttpHeaders headers = PaginationUtil.generatePaginationHttpHeaders(ServletUriComponentsBuilder.fromCurrentRequest(), page);
+            return ResponseEntity.ok().headers(headers).body(page.getContent());
+        });
     }
 
     /**
@@ -179,13 +217,18 @@ public class PublisherResource {
      * {@code GET  /publishers/:id} : get the "id" publisher.
      *
      * @param id the id of the publisherEntity to retrieve.
-     * @return the {@link ResponseEntity} with status {@code 200 (OK)} and with body the publisherEntity, or with status {@code 404 (Not Found)}.
+     * @param request the current request, answered with {@code 304 (Not Modified)} if the publisher did not change.
+     * @return the {@link ResponseEntity} with status {@code 200 (OK)} and with body the publisherEntity,
+     * or with status {@code 404 (Not Found)}, or with status {@code 304 (Not Modified)}.
      */
     @GetMapping("/{id}")
-    public ResponseEntity<PublisherEntity> getPublisher(@PathVariable("id") Long id) {
+    public ResponseEntity<PublisherEntity> getPublisher(@PathVariable("id") Long id, WebRequest request) {
         LOG.debug("REST request to get Publisher : {}", id);
-        Optional<PublisherEntity> publisherEntity = publisherService.findOne(id);
-        return ResponseUtil.wrapOrNotFound(publisherEntity);
+        Optional<String> eTag = publisherRepository.findVersionById(id).map(ConditionalRequestUtil::eTag);
+        return ConditionalRequestUtil.wrapOrNotModified(request, eTag, () -> {
+            Optional<PublisherEntity> publisherEntity = publisherService.findOne(id);
+            return ResponseUtil.wrapOrNotFound(publisherEntity);
+        });
     }
 
     /**
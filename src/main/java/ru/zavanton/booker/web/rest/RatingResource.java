@@ -21,7 +21,10 @@ import ru.zavanton.booker.repository.RatingRepository;
 import ru.zavanton.booker.service.RatingQueryService;
 import ru.zavanton.booker.service.RatingService;
 import ru.zavanton.booker.service.criteria.RatingCriteria;
+import ru.zavanton.booker.service.pagination.CursorPage;
 import ru.zavanton.booker.web.rest.errors.BadRequestAlertException;
+import ru.zavanton.booker.web.rest.util.ConditionalRequestUtil;
+import ru.zavanton.booker.web.rest.util.CursorPaginationUtil;
 import tech.jhipster.web.util.HeaderUtil;
 import tech.jhipster.web.util.PaginationUtil;
 import tech.jhipster.web.util.ResponseUtil;
@@ -75,15 +78,19 @@ public class RatingResource {
      * {@code PUT  /ratings/:id} : Updates an existing rating.
      *
      * @param id the id of the ratingEntity to save.
+     * @param ifMatch the entity tag of the version of the ratingEntity to update, if any.
      * @param ratingEntity the ratingEntity to update.
      * @return the {@link ResponseEntity} with status {@code 200 (OK)} and with body the updated ratingEntity,
      * or with status {@code 400 (Bad Request)} if the ratingEntity is not valid,
+     * or with status {@code 412 (Precondition Failed)} if the ratingEntity was updated since the version of {@code ifMatch},
+     * or with status {@code 409 (Conflict)} if the ratingEntity was updated concurrently,
      * or with status {@code 500 (Internal Server Error)} if the ratingEntity couldn't be updated.
      * @throws URISyntaxException if the Location URI syntax is incorrect.
      */
     @PutMapping("/{id}")
     public ResponseEntity<RatingEntity> updateRating(
         @PathVariable(value = "id", required = false) final Long id,
+        @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch,
         @Valid @RequestBody RatingEntity ratingEntity
     ) throws URISyntaxException {
         LOG.debug("REST request to update Rating : {}, {}", id, ratingEntity);
@@ -97,10 +104,12 @@ public class RatingResource {
         if (!ratingRepository.existsById(id)) {
             throw new BadRequestAlertException("Entity not found", ENTITY_NAME, "idnotfound");
         }
+        ConditionalRequestUtil.expectedVersion(ifMatch).ifPresent(ratingEntity::setVersion);
 
         ratingEntity = ratingService.update(ratingEntity);
         return ResponseEntity.ok()
             .headers(HeaderUtil.createEntityUpdateAlert(applicationName, true, ENTITY_NAME, ratingEntity.getId().toString()))
+            .eTag(ConditionalRequestUtil.eTag(ratingEntity.getVersion()))
             .body(ratingEntity);
     }
 
@@ -108,9 +117,12 @@ public class RatingResource {
      * {@code PATCH  /ratings/:id} : Partial updates given fields of an existing rating, field will ignore if it is null
      *
      * @param id the id of the ratingEntity to save.
+     * @param ifMatch the entity tag of the version of the ratingEntity to update, if any.
      * @param ratingEntity the ratingEntity to update.
      * @return the {@link ResponseEntity} with status {@code 200 (OK)} and with body the updated ratingEntity,
      * or with status {@code 400 (Bad Request)} if the ratingEntity is not valid,
+     * or with status {@code 412 (Precondition Failed)} if the ratingEntity was updated since the version of {@code ifMatch},
+     * or with status {@code 409 (Conflict)} if the ratingEntity was updated concurrently,
      * or with status {@code 404 (Not Found)} if the ratingEntity is not found,
      * or with status {@code 500 (Internal Server Error)} if the ratingEntity couldn't be updated.
      * @throws URISyntaxException if the Location URI syntax is incorrect.
@@ -118,6 +130,7 @@ public class RatingResource {
     @PatchMapping(value = "/{id}", consumes = { "application/json", "application/merge-patch+json" })
     public ResponseEntity<RatingEntity> partialUpdateRating(
         @PathVariable(value = "id", required = false) final Long id,
+        @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch,
         @NotNull @RequestBody RatingEntity ratingEntity
     ) throws URISyntaxException {
         LOG.debug("REST request to partial update Rating partially : {}, {}", id, ratingEntity);
@@ -131,29 +144,44 @@ public class RatingResource {
         if (!ratingRepository.existsById(id)) {
             throw new BadRequestAlertException("Entity not found", ENTITY_NAME, "idnotfound");
         }
+        ConditionalRequestUtil.expectedVersion(ifMatch).ifPresent(ratingEntity::setVersion);
 
         Optional<RatingEntity> result = ratingService.partialUpdate(ratingEntity);
 
-        return ResponseUtil.wrapOrNotFound(
+        return ConditionalRequestUtil.wrapOrNotFound(
             result,
+            RatingEntity::getVersion,
             HeaderUtil.createEntityUpdateAlert(applicationName, true, ENTITY_NAME, ratingEntity.getId().toString())
         );
     }
 
     /**
      * {@code GET  /ratings} : get all the ratings.
+     * <p>
+     * When a {@code cursor} parameter is given, even empty for the first page, the ratings are paginated with keyset pagination:
+     * no total count is computed and the next page is linked by the {@code Link} header.
      *
      * @param pageable the pagination information.
+     * @param cursor the cursor of the previous page, for keyset pagination.
      * @param criteria the criteria which the requested entities should match.
      * @return the {@link ResponseEntity} with status {@code 200 (OK)} and the list of ratings in body.
      */
     @GetMapping("")
     public ResponseEntity<List<RatingEntity>> getAllRatings(
         RatingCriteria criteria,
+        @RequestParam(value = "cursor", required = false) String cursor,
         @org.springdoc.core.annotations.ParameterObject Pageable pageable
     ) {
         LOG.debug("REST request to get Ratings by criteria: {}", criteria);
 
+        if (cursor != null) {
+            CursorPage<RatingEntity> cursorPage = ratingQueryService.findByCriteria(criteria, cursor, pageable);
+            HttpHeaders headers = CursorPaginationUtil.generateCursorPaginationHttpHeaders(
+                ServletUriComponentsBuilder.fromCurrentRequest(),
+                cursorPage
+            );
+            return ResponseEntity.ok().headers(headers).body(cursorPage.content());
+        }
         Page<RatingEntity> page = ratingQueryService.findByCriteria(criteria, pageable);
         HttpHeaders headers = PaginationUtil.generatePaginationHttpHeaders(ServletUriComponentsBuilder.fromCurrentRequest(), page);
         return ResponseEntity.ok().headers(headers).body(page.getContent());
@@ -4,6 +4,7 @@ import jakarta.validation.Valid;
 import jakarta.validation.constraints.NotNull;
 import java.net.URI;
 import java.net.URISyntaxException;
+import java.util.Collections;
 import java.util.List;
 import java.util.Objects;
 import java.util.Optional;
@@ -15,13 +16,19 @@ import org.springframework.data.domain.Pageable;
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 import org.springframework.web.servlet.support.ServletUriComponentsBuilder;
 import ru.zavanton.booker.domain.ReadingStatusEntity;
 import ru.zavanton.booker.repository.ReadingStatusRepository;
 import ru.zavanton.booker.service.ReadingStatusQueryService;
 import ru.zavanton.booker.service.ReadingStatusService;
+import ru.zavanton.booker.service.aggregation.ReadingProgressService;
 import ru.zavanton.booker.service.criteria.ReadingStatusCriteria;
+import ru.zavanton.booker.service.dto.ReadingProgressDto;
+import ru.zavanton.booker.service.pagination.CursorPage;
 import ru.zavanton.booker.web.rest.errors.BadRequestAlertException;
+import ru.zavanton.booker.web.rest.util.ConditionalRequestUtil;
+import ru.zavanton.booker.web.rest.util.CursorPaginationUtil;
 import tech.jhipster.web.util.HeaderUtil;
 import tech.jhipster.web.util.PaginationUtil;
 import tech.jhipster.web.util.ResponseUtil;
@@ -46,14 +53,18 @@ public class ReadingStatusResource {
 
     private final ReadingStatusQueryService readingStatusQueryService;
 
+    private final ReadingProgressService readingProgressService;
+
     public ReadingStatusResource(
         ReadingStatusService readingStatusService,
         ReadingStatusRepository readingStatusRepository,
-        ReadingStatusQueryService readingStatusQueryService
+        ReadingStatusQueryService readingStatusQueryService,
+        ReadingProgressService readingProgressService
     ) {
         this.readingStatusService = readingStatusService;
         this.readingStatusRepository = readingStatusRepository;
         this.readingStatusQueryService = readingStatusQueryService;
+        this.readingProgressService = readingProgressService;
     }
 
     /**
@@ -80,15 +91,19 @@ public class ReadingStatusResource {
      * {@code PUT  /reading-statuses/:id} : Updates an existing readingStatus.
      *
      * @param id the id of the readingStatusEntity to save.
+     * @param ifMatch the entity tag of the version of the readingStatusEntity to update, if any.
      * @param readingStatusEntity the readingStatusEntity to update.
      * @return the {@link ResponseEntity} with status {@code 200 (OK)} and with body the updated readingStatusEntity,
      * or with status {@code 400 (Bad Request)} if the readingStatusEntity is not valid,
+     * or with status {@code 412 (Precondition Failed)} if the readingStatusEntity was updated since the version of {@code ifMatch},
+     * or with status {@code 409 (Conflict)} if the readingStatusEntity was updated concurrently,
      * or with status {@code 500 (Internal Server Error)} if the readingStatusEntity couldn't be updated.
      * @throws URISyntaxException if the Location URI syntax is incorrect.
      */
     @PutMapping("/{id}")
     public ResponseEntity<ReadingStatusEntity> updateReadingStatus(
         @PathVariable(value = "id", required = false) final Long id,
+        @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch,
         @Valid @RequestBody ReadingStatusEntity readingStatusEntity
     ) throws URISyntaxException {
         LOG.debug("REST request to update ReadingStatus : {}, {}", id, readingStatusEntity);
@@ -102,10 +117,12 @@ public class ReadingStatusResource {
         if (!readingStatusRepository.existsById(id)) {
             throw new BadRequestAlertException("Entity not found", ENTITY_NAME, "idnotfound");
         }
+        ConditionalRequestUtil.expectedVersion(ifMatch).ifPresent(readingStatusEntity::setVersion);
 
         readingStatusEntity = readingStatusService.update(readingStatusEntity);
         return ResponseEntity.ok()
             .headers(HeaderUtil.createEntityUpdateAlert(applicationName, true, ENTITY_NAME, readingStatusEntity.getId().toString()))
+            .eTag(ConditionalRequestUtil.eTag(readingStatusEntity.getVersion()))
             .body(readingStatusEntity);
     }
 
@@ -113,9 +130,12 @@ public class ReadingStatusResource {
      * {@code PATCH  /reading-statuses/:id} : Partial updates given fields of an existing readingStatus, field will ignore if it is null
      *
      * @param id the id of the readingStatusEntity to save.
+     * @param ifMatch the entity tag of the version of the readingStatusEntity to update, if any.
      * @param readingStatusEntity the readingStatusEntity to update.
      * @return the {@link ResponseEntity} with status {@code 200 (OK)} and with body the updated readingStatusEntity,
      * or with status {@code 400 (Bad Request)} if the readingStatusEntity is not valid,
+     * or with status {@code 412 (Precondition Failed)} if the readingStatusEntity was updated since the version of {@code ifMatch},
+     * or with status {@code 409 (Conflict)} if the readingStatusEntity was updated concurrently,
      * or with status {@code 404 (Not Found)} if the readingStatusEntity is not found,
      * or with status {@code 500 (Internal Server Error)} if the readingStatusEntity couldn't be updated.
      * @throws URISyntaxException if the Location URI syntax is incorrect.
@@ -123,6 +143,7 @@ public class ReadingStatusResource {
     @PatchMapping(value = "/{id}", consumes = { "application/json", "application/merge-patch+json" })
     public ResponseEntity<ReadingStatusEntity> partialUpdateReadingStatus(
         @PathVariable(value = "id", required = false) final Long id,
+        @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch,
         @NotNull @RequestBody ReadingStatusEntity readingStatusEntity
     ) throws URISyntaxException {
         LOG.debug("REST request to partial update ReadingStatus partially : {}, {}", id, readingStatusEntity);
@@ -136,30 +157,66 @@ public class ReadingStatusResource {
         if (!readingStatusRepository.existsById(id)) {
             throw new BadRequestAlertException("Entity not found", ENTITY_NAME, "idnotfound");
         }
+        ConditionalRequestUtil.expectedVersion(ifMatch).ifPresent(readingStatusEntity::setVersion);
 
         Optional<ReadingStatusEntity> result = readingStatusService.partialUpdate(readingStatusEntity);
 
-        return ResponseUtil.wrapOrNotFound(
+        return ConditionalRequestUtil.wrapOrNotFound(
             result,
+            ReadingStatusEntity::getVersion,
             HeaderUtil.createEntityUpdateAlert(applicationName, true, ENTITY_NAME, readingStatusEntity.getId().toString())
         );
     }
 
+    /**
+     * {@code PUT  /reading-statuses/progress} : record the current page of the current user in a book.
+     * <p>
+     * The page is written to the reading status asynchronously, only the latest page being kept,
+     * but it is returned by the {@code GET} requests right away.
+     *
+     * @param readingProgressDto the book and the current page.
+     * @return the {@link ResponseEntity} with status {@code 202 (Accepted)},
+     * or with status {@code 400 (Bad Request)} if the current user has no reading status for the book.
+     */
+    @PutMapping("/progress")
+    public ResponseEntity<Void> updateReadingProgress(@Valid @RequestBody ReadingProgressDto readingProgressDto) {
+        LOG.debug("REST request to update reading progress : {}", readingProgressDto);
+        if (!readingProgressService.record(readingProgressDto.getBookId(), readingProgressDto.getCurrentPage())) {
+            throw new BadRequestAlertException("Entity not found", ENTITY_NAME, "idnotfound");
+        }
+        return ResponseEntity.accepted().build();
+    }
+
     /**
      * {@code GET  /reading-statuses} : get all the readingStatuses.
+     * <p>
+     * When a {@code cursor} parameter is given, even empty for the first page, the readingStatuses are paginated with keyset pagination:
+     * no total count is computed and the next page is linked by the {@code Link} header.
      *
      * @param pageable the pagination information.
+     * @param cursor the cursor of the previous page, for keyset pagination.
      * @param criteria the criteria which the requested entities should match.
      * @return the {@link ResponseEntity} with status {@code 200 (OK)} and the list of readingStatuses in body.
      */
     @GetMapping("")
     public ResponseEntity<List<ReadingStatusEntity>> getAllReadingStatuses(
         ReadingStatusCriteria criteria,
+        @RequestParam(value = "cursor", required = false) String cursor,
         @org.springdoc.core.annotations.ParameterObject Pageable pageable
     ) {
         LOG.debug("REST request to get ReadingStatuses by criteria: {}", criteria);
 
+        if (cursor != null) {
+            CursorPage<ReadingStatusEntity> cursorPage = readingStatusQueryService.findByCriteria(criteria, cursor, pageable);
+            readingProgressService.applyPending(cursorPage.content());
+            HttpHeaders headers = CursorPaginationUtil.generateCursorPaginationHttpHeaders(
+                ServletUriComponentsBuilder.fromCurrentRequest(),
+                cursorPage
+            );
+            return ResponseEntity.ok().headers(headers).body(cursorPage.content());
+        }
         Page<ReadingStatusEntity> page = readingStatusQueryService.findByCriteria(criteria, pageable);
+        readingProgressService.applyPending(page.getContent());
         HttpHeaders headers = PaginationUtil.generatePaginationHttpHeaders(ServletUriComponentsBuilder.fromCurrentRequest(), page);
         return ResponseEntity.ok().headers(headers).body(page.getContent());
     }
@@ -178,15 +235,22 @@ public class ReadingStatusResource {
 
     /**
      * {@code GET  /reading-statuses/:id} : get the "id" readingStatus.
+     * <p>
+     * Its entity tag holds its current page, which is written without incrementing its version, and may still be pending.
      *
      * @param id the id of the readingStatusEntity to retrieve.
-     * @return the {@link ResponseEntity} with status {@code 200 (OK)} and with body the readingStatusEntity, or with status {@code 404 (Not Found)}.
+     * @param request the current request, answered with {@code 304 (Not Modified)} if the readingStatus did not change.
+     * @return the {@link ResponseEntity} with status {@code 200 (OK)} and with body the readingStatusEntity,
+     * or with status {@code 404 (Not Found)}, or with status {@code 304 (Not Modified)}.
      */
     @GetMapping("/{id}")
-    public ResponseEntity<ReadingStatusEntity> getReadingStatus(@PathVariable("id") Long id) {
+    public ResponseEntity<ReadingStatusEntity> getReadingStatus(@PathVariable("id") Long id, WebRequest request) {
         LOG.debug("REST request to get ReadingStatus : {}", id);
         Optional<ReadingStatusEntity> readingStatusEntity = readingStatusService.findOne(id);
-        return ResponseUtil.wrapOrNotFound(readingStatusEntity);
+        Optional<String> eTag = readingStatusEntity.map(readingStatus ->
+            ConditionalRequestUtil.eTag(readingStatus.getVersion(), Collections.singletonList(readingStatus.getCurrentPage()))
+        );
+        return ConditionalRequestUtil.wrapOrNotModified(request, eTag, () -> ResponseUtil.wrapOrNotFound(readingStatusEntity));
     }
 
     /**
@@ -18,10 +18,14 @@ import org.springframework.web.bind.annotation.*;
 import org.springframework.web.servlet.support.ServletUriComponentsBuilder;
 import ru.zavanton.booker.domain.ReviewEntity;
 import ru.zavanton.booker.repository.ReviewRepository;
+import ru.zavanton.booker.security.SecurityUtils;
 import ru.zavanton.booker.service.ReviewQueryService;
 import ru.zavanton.booker.service.ReviewService;
 import ru.zavanton.booker.service.criteria.ReviewCriteria;
+import ru.zavanton.booker.service.pagination.CursorPage;
 import ru.zavanton.booker.web.rest.errors.BadRequestAlertException;
+import ru.zavanton.booker.web.rest.util.ConditionalRequestUtil;
+import ru.zavanton.booker.web.rest.util.CursorPaginationUtil;
 import tech.jhipster.web.util.HeaderUtil;
 import tech.jhipster.web.util.PaginationUtil;
 import tech.jhipster.web.util.ResponseUtil;
@@ -75,15 +79,19 @@ public class ReviewResource {
      * {@code PUT  /reviews/:id} : Updates an existing review.
      *
      * @param id the id of the reviewEntity to save.
+     * @param ifMatch the entity tag of the version of the reviewEntity to update, if any.
      * @param reviewEntity the reviewEntity to update.
      * @return the {@link ResponseEntity} with status {@code 200 (OK)} and with body the updated reviewEntity,
      * or with status {@code 400 (Bad Request)} if the reviewEntity is not valid,
+     * or with status {@code 412 (Precondition Failed)} if the reviewEntity was updated since the version of {@code ifMatch},
+     * or with status {@code 409 (Conflict)} if the reviewEntity was updated concurrently,
      * or with status {@code 500 (Internal Server Error)} if the reviewEntity couldn't be updated.
      * @throws URISyntaxException if the Location URI syntax is incorrect.
      */
     @PutMapping("/{id}")
     public ResponseEntity<ReviewEntity> updateReview(
         @PathVariable(value = "id", required = false) final Long id,
+        @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch,
         @Valid @RequestBody ReviewEntity reviewEntity
     ) throws URISyntaxException {
         LOG.debug("REST request to update Review : {}, {}", id, reviewEntity);
@@ -97,10 +105,12 @@ public class ReviewResource {
         if (!reviewRepository.existsById(id)) {
             throw new BadRequestAlertException("Entity not found", ENTITY_NAME, "idnotfound");
         }
+        ConditionalRequestUtil.expectedVersion(ifMatch).ifPresent(reviewEntity::setVersion);
 
         reviewEntity = reviewService.update(reviewEntity);
         return ResponseEntity.ok()
             .headers(HeaderUtil.createEntityUpdateAlert(applicationName, true, ENTITY_NAME, reviewEntity.getId().toString()))
+            .eTag(ConditionalRequestUtil.eTag(reviewEntity.getVersion()))
             .body(reviewEntity);
     }
 
@@ -108,9 +118,12 @@ public class ReviewResource {
      * {@code PATCH  /reviews/:id} : Partial updates given fields of an existing review, field will ignore if it is null
      *
      * @param id the id of the reviewEntity to save.
+     * @param ifMatch the entity tag of the version of the reviewEntity to update, if any.
      * @param reviewEntity the reviewEntity to update.
      * @return the {@link ResponseEntity} with status {@code 200 (OK)} and with body the updated reviewEntity,
      * or with status {@code 400 (Bad Request)} if the reviewEntity is not valid,
+     * or with status {@code 412 (Precondition Failed)} if the reviewEntity was updated since the version of {@code ifMatch},
+     * or with status {@code 409 (Conflict)} if the reviewEntity was updated concurrently,
      * or with status {@code 404 (Not Found)} if the reviewEntity is not found,
      * or with status {@code 500 (Internal Server Error)} if the reviewEntity couldn't be updated.
      * @throws URISyntaxException if the Location URI syntax is incorrect.
@@ -118,6 +131,7 @@ public class ReviewResource {
     @PatchMapping(value = "/{id}", consumes = { "application/json", "application/merge-patch+json" })
     public ResponseEntity<ReviewEntity> partialUpdateReview(
         @PathVariable(value = "id", required = false) final Long id,
+        @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch,
         @NotNull @RequestBody ReviewEntity reviewEntity
     ) throws URISyntaxException {
         LOG.debug("REST request to partial update Review partially : {}, {}", id, reviewEntity);
@@ -131,29 +145,44 @@ public class ReviewResource {
         if (!reviewRepository.existsById(id)) {
             throw new BadRequestAlertException("Entity not found", ENTITY_NAME, "idnotfound");
         }
+        ConditionalRequestUtil.expectedVersion(ifMatch).ifPresent(reviewEntity::setVersion);
 
         Optional<ReviewEntity> result = reviewService.partialUpdate(reviewEntity);
 
-        return ResponseUtil.wrapOrNotFound(
+        return ConditionalRequestUtil.wrapOrNotFound(
             result,
+            ReviewEntity::getVersion,
             HeaderUtil.createEntityUpdateAlert(applicationName, true, ENTITY_NAME, reviewEntity.getId().toString())
         );
     }
 
     /**
      * {@code GET  /reviews} : get all the reviews.
+     * <p>
+     * When a {@code cursor} parameter is given, even empty for the first page, the reviews are paginated with keyset pagination:
+     * no total count is computed and the next page is linked by the {@code Link} header.
      *
      * @param pageable the pagination information.
+     * @param cursor the cursor of the previous page, for keyset pagination.
      * @param criteria the criteria which the requested entities should match.
      * @return the {@link ResponseEntity} with status {@code 200 (OK)} and the list of reviews in body.
      */
     @GetMapping("")
     public ResponseEntity<List<ReviewEntity>> getAllReviews(
         ReviewCriteria criteria,
+        @RequestParam(value = "cursor", required = false) String cursor,
         @org.springdoc.core.annotations.ParameterObject Pageable pageable
     ) {
         LOG.debug("REST request to get Reviews by criteria: {}", criteria);
 
+        if (cursor != null) {
+            CursorPage<ReviewEntity> cursorPage = reviewQueryService.findByCriteria(criteria, cursor, pageable);
+            HttpHeaders headers = CursorPaginationUtil.generateCursorPaginationHttpHeaders(
+                ServletUriComponentsBuilder.fromCurrentRequest(),
+                cursorPage
+            );
+            return ResponseEntity.ok().headers(headers).body(cursorPage.content());
+        }
         Page<ReviewEntity> page = reviewQueryService.findByCriteria(criteria, pageable);
         HttpHeaders headers = PaginationUtil.generatePaginationHttpHeaders(ServletUriComponentsBuilder.fromCurrentRequest(), page);
         return ResponseEntity.ok().headers(headers).body(page.getContent());
@@ -184,6 +213,28 @@ public class ReviewResource {
         return ResponseUtil.wrapOrNotFound(reviewEntity);
     }
 
+    /**
+     * {@code POST  /reviews/:id/helpful} : mark the "id" review as helpful for the current user.
+     * <p>
+     * The helpful count of the review is incremented asynchronously, so it may take a few seconds to be visible.
+     * Marking a review again has no effect: each user counts once.
+     *
+     * @param id the id of the reviewEntity to mark.
+     * @return the {@link ResponseEntity} with status {@code 204 (NO_CONTENT)}, or with status {@code 400 (Bad Request)} if the review does not exist.
+     */
+    @PostMapping("/{id}/helpful")
+    public ResponseEntity<Void> markReviewHelpful(@PathVariable("id") Long id) {
+        LOG.debug("REST request to mark Review as helpful : {}", id);
+        if (!reviewRepository.existsById(id)) {
+            throw new BadRequestAlertException("Entity not found", ENTITY_NAME, "idnotfound");
+        }
+        String login = SecurityUtils.getCurrentUserLogin().orElseThrow(() ->
+            new BadRequestAlertException("Current user login not found", ENTITY_NAME, "nologin")
+        );
+        reviewService.markHelpful(id, login);
+        return ResponseEntity.noContent().build();
+    }
+
     /**
      * {@code DELETE  /reviews/:id} : delete the "id" review.
      *
@@ -0,0 +1,50 @@
+package ru.zavanton.booker.web.rest;
+
+import java.util.List;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.support.ServletUriComponentsBuilder;
+import ru.zavanton.booker.domain.BookEntity;
+import ru.zavanton.booker.service.search.BookSearchService;
+import tech.jhipster.web.util.PaginationUtil;
+
+/**
+ * REST controller for the full-text search.
+ */
+@RestController
+@RequestMapping("/api/_search")
+public class SearchResource {
+
+    private static final Logger LOG = LoggerFactory.getLogger(SearchResource.class);
+
+    private final BookSearchService bookSearchService;
+
+    public SearchResource(BookSearchService bookSearchService) {
+        this.bookSearchService = bookSearchService;
+    }
+
+    /**
+     * {@code GET  /_search/books?query=:query} : search the books by their title, ISBN, description, authors, genres, tags and reviews.
+     * <p>
+     * Changes are searchable after {@code application.search.refresh-interval-ms} milliseconds.
+     *
+     * @param query the words to search.
+     * @param pageable the pagination information.
+     * @return the {@link ResponseEntity} with status {@code 200 (OK)} and the matching books in body, the most relevant first.
+     */
+    @GetMapping("/books")
+    public ResponseEntity<List<BookEntity>> searchBooks(
+        @RequestParam("query") String query,
+        @org.springdoc.core.annotations.ParameterObject Pageable pageable
+    ) {
+        LOG.debug("REST request to search Books for query {}", query);
+        Page<BookEntity> page = bookSearchService.search(query, pageable);
+        HttpHeaders headers = PaginationUtil.generatePaginationHttpHeaders(ServletUriComponentsBuilder.fromCurrentRequest(), page);
+        return ResponseEntity.ok().headers(headers).body(page.getContent());
+    }
+}
@@ -15,13 +15,18 @@ import org.springframework.data.domain.Pageable;
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 import org.springframework.web.servlet.support.ServletUriComponentsBuilder;
 import ru.zavanton.booker.domain.TagEntity;
 import ru.zavanton.booker.repository.TagRepository;
+import ru.zavanton.booker.repository.VersionProjection;
 import ru.zavanton.booker.service.TagQueryService;
 import ru.zavanton.booker.service.TagService;
 import ru.zavanton.booker.service.criteria.TagCriteria;
+import ru.zavanton.booker.service.pagination.CursorPage;
 import ru.zavanton.booker.web.rest.errors.BadRequestAlertException;
+import ru.zavanton.booker.web.rest.util.ConditionalRequestUtil;
+import ru.zavanton.booker.web.rest.util.CursorPaginationUtil;
 import tech.jhipster.web.util.HeaderUtil;
 import tech.jhipster.web.util.PaginationUtil;
 import tech.jhipster.web.util.ResponseUtil;
@@ -75,15 +80,19 @@ public class TagResource {
      * {@code PUT  /tags/:id} : Updates an existing tag.
      *
      * @param id the id of the tagEntity to save.
+     * @param ifMatch the entity tag of the version of the tagEntity to update, if any.
      * @param tagEntity the tagEntity to update.
      * @return the {@link ResponseEntity} with status {@code 200 (OK)} and with body the updated tagEntity,
      * or with status {@code 400 (Bad Request)} if the tagEntity is not valid,
+     * or with status {@code 412 (Precondition Failed)} if the tagEntity was updated since the version of {@code ifMatch},
+     * or with status {@code 409 (Conflict)} if the tagEntity was updated concurrently,
      * or with status {@code 500 (Internal Server Error)} if the tagEntity couldn't be updated.
      * @throws URISyntaxException if the Location URI syntax is incorrect.
      */
     @PutMapping("/{id}")
     public ResponseEntity<TagEntity> updateTag(
         @PathVariable(value = "id", required = false) final Long id,
+        @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch,
         @Valid @RequestBody TagEntity tagEntity
     ) throws URISyntaxException {
         LOG.debug("REST request to update Tag : {}, {}", id, tagEntity);
@@ -97,10 +106,12 @@ public class TagResource {
         if (!tagRepository.existsById(id)) {
             throw new BadRequestAlertException("Entity not found", ENTITY_NAME, "idnotfound");
         }
+        ConditionalRequestUtil.expectedVersion(ifMatch).ifPresent(tagEntity::setVersion);
 
         tagEntity = tagService.update(tagEntity);
         return ResponseEntity.ok()
             .headers(HeaderUtil.createEntityUpdateAlert(applicationName, true, ENTITY_NAME, tagEntity.getId().toString()))
+            .eTag(ConditionalRequestUtil.eTag(tagEntity.getVersion()))
             .body(tagEntity);
     }
 
@@ -108,9 +119,12 @@ public class TagResource {
      * {@code PATCH  /tags/:id} : Partial updates given fields of an existing tag, field will ignore if it is null
      *
      * @param id the id of the tagEntity to save.
+     * @param ifMatch the entity tag of the version of the tagEntity to update, if any.
      * @param tagEntity the tagEntity to update.
      * @return the {@link ResponseEntity} with status {@code 200 (OK)} and with body the updated tagEntity,
      * or with status {@code 400 (Bad Request)} if the tagEntity is not valid,
+     * or with status {@code 412 (Precondition Failed)} if the tagEntity was updated since the version of {@code ifMatch},
+     * or with status {@code 409 (Conflict)} if the tagEntity was updated concurrently,
      * or with status {@code 404 (Not Found)} if the tagEntity is not found,
      * or with status {@code 500 (Internal Server Error)} if the tagEntity couldn't be updated.
      * @throws URISyntaxException if the Location URI syntax is incorrect.
@@ -118,6 +132,7 @@ public class TagResource {
     @PatchMapping(value = "/{id}", consumes = { "application/json", "application/merge-patch+json" })
     public ResponseEntity<TagEntity> partialUpdateTag(
         @PathVariable(value = "id", required = false) final Long id,
+        @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch,
         @NotNull @RequestBody TagEntity tagEntity
     ) throws URISyntaxException {
         LOG.debug("REST request to partial update Tag partially : {}, {}", id, tagEntity);
@@ -131,32 +146,55 @@ public class TagResource {
         if (!tagRepository.existsById(id)) {
             throw new BadRequestAlertException("Entity not found", ENTITY_NAME, "idnotfound");
         }
+        ConditionalRequestUtil.expectedVersion(ifMatch).ifPresent(tagEntity::setVersion);
 
         Optional<TagEntity> result = tagService.partialUpdate(tagEntity);
 
-        return ResponseUtil.wrapOrNotFound(
+        return ConditionalRequestUtil.wrapOrNotFound(
             result,
+            TagEntity::getVersion,
             HeaderUtil.createEntityUpdateAlert(applicationName, true, ENTITY_NAME, tagEntity.getId().toString())
         );
     }
 
     /**
      * {@code GET  /tags} : get all the tags.
+     * <p>
+     * When a {@code cursor} parameter is given, even empty for the first page, the tags are paginated with keyset pagination:
+     * no total count is computed and the next page is linked by the {@code Link} header. Keyset pages have no validators,
+     * as reading them would cost as much as the count which keyset pagination avoids.
      *
      * @param pageable the pagination information.
+     * @param cursor the cursor of the previous page, for keyset pagination.
      * @param criteria the criteria which the requested entities should match.
-     * @return the {@link ResponseEntity} with status {@code 200 (OK)} and the list of tags in body.
+     * @param request the current request, answered with {@code 304 (Not Modified)} if none of the matching tags changed,
+     * unless paginated with a cursor.
+     * @return the {@link ResponseEntity} with status {@code 200 (OK)} and the list of tags in body,
+     * or with status {@code 304 (Not Modified)}.
      */
     @GetMapping("")
     public ResponseEntity<List<TagEntity>> getAllTags(
         TagCriteria criteria,
-        @org.springdoc.core.annotations.ParameterObject Pageable pageable
+        @RequestParam(value = "cursor", required = false) String cursor,
+        @org.springdoc.core.annotations.ParameterObject Pageable pageable,
+        WebRequest request
     ) {
         LOG.debug("REST request to get Tags by criteria: {}", criteria);
 
-        Page<TagEntity> page = tagQueryService.findByCriteria(criteria, pageable);
-        HttpHeaders headers = PaginationUtil.generatePaginationHttpHeaders(ServletUriComponentsBuilder.fromCurrentRequest(), page);
-        return ResponseEntity.ok().headers(headers).body(page.getContent());
+        if (cursor != null) {
+            CursorPage<TagEntity> cursorPage = tagQueryService.findByCriteria(criteria, cursor, pageable);
+            HttpHeaders headers = CursorPaginationUtil.generateCursorPaginationHttpHeaders(
+                ServletUriComponentsBuilder.fromCurrentRequest(),
+                cursorPage
+            );
+            return ResponseEntity.ok().headers(headers).body(cursorPage.content());
+        }
+        VersionProjection version = tagQueryService.findVersionByCriteria(criteria);
+        return ConditionalRequestUtil.wrapOrNotModified(request, version, () -> {
+            Page<TagEntity> page = tagQueryService.findByCriteria(criteria, pageable);
+            HttpHeaders headers = PaginationUtil.generatePaginationHttpHeaders(ServletUriComponentsBuilder.fromCurrentRequest(), page);
+            return ResponseEntity.ok().headers(headers).body(page.getContent());
+        });
     }
 
     /**
@@ -175,13 +213,18 @@ public class TagResource {
      * {@code GET  /tags/:id} : get the "id" tag.
      *
      * @param id the id of the tagEntity to retrieve.
-     * @return the {@link ResponseEntity} with status {@code 200 (OK)} and with body the tagEntity, or with status {@code 404 (Not Found)}.
+     * @param request the current request, answered with {@code 304 (Not Modified)} if the tag did not change.
+     * @return the {@link ResponseEntity} with status {@code 200 (OK)} and with body the tagEntity,
+     * or with status {@code 404 (Not Found)}, or with status {@code 304 (Not Modified)}.
      */
     @GetMapping("/{id}")
-    public ResponseEntity<TagEntity> getTag(@PathVariable("id") Long id) {
+    public ResponseEntity<TagEntity> getTag(@PathVariable("id") Long id, WebRequest request) {
         LOG.debug("REST request to get Tag : {}", id);
-        Optional<TagEntity> tagEntity = tagService.findOne(id);
-        return ResponseUtil.wrapOrNotFound(tagEntity);
+        Optional<String> eTag = tagRepository.findVersionById(id).map(ConditionalRequestUtil::eTag);
+        return ConditionalRequestUtil.wrapOrNotModified(request, eTag, () -> {
+            Optional<TagEntity> tagEntity = tagService.findOne(id);
+            return ResponseUtil.wrapOrNotFound(tagEntity);
+        });
     }
 
     /**
@@ -31,6 +31,7 @@ import org.springframework.web.bind.annotation.ResponseStatus;
 import org.springframework.web.context.request.NativeWebRequest;
 import org.springframework.web.context.request.WebRequest;
 import org.springframework.web.servlet.mvc.method.annotation.ResponseEntityExceptionHandler;
+import ru.zavanton.booker.service.pagination.InvalidCursorException;
 import tech.jhipster.config.JHipsterConstants;
 import tech.jhipster.web.rest.errors.ProblemDetailWithCause;
 import tech.jhipster.web.rest.errors.ProblemDetailWithCause.ProblemDetailWithCauseBuilder;
@@ -77,7 +78,12 @@ public class ExceptionTranslator extends ResponseEntityExceptionHandler {
     }
 
     protected ProblemDetailWithCause wrapAndCustomizeProblem(Throwable ex, NativeWebRequest request) {
-        return customizeProblem(getProblemDetailWithCause(ex), ex, request);
+        ProblemDetailWithCause problem = getProblemDetailWithCause(ex);
+        if (isConcurrencyFailure(ex) && request != null && request.getHeader(HttpHeaders.IF_MATCH) != null) {
+            // The entity was updated since the version expected by the client
+            problem.setStatus(HttpStatus.PRECONDITION_FAILED.value());
+        }
+        return customizeProblem(problem, ex, request);
     }
 
     private ProblemDetailWithCause getProblemDetailWithCause(Throwable ex) {
@@ -187,7 +193,7 @@ public class ExceptionTranslator extends ResponseEntityExceptionHandler {
     private String getMappedMessageKey(Throwable err) {
         if (err instanceof MethodArgumentNotValidException) {
             return ErrorConstants.ERR_VALIDATION;
-        } else if (err instanceof ConcurrencyFailureException || err.getCause() instanceof ConcurrencyFailureException) {
+        } else if (isConcurrencyFailure(err)) {
             return ErrorConstants.ERR_CONCURRENCY_FAILURE;
         }
         return null;
@@ -211,11 +217,16 @@ public class ExceptionTranslator extends ResponseEntityExceptionHandler {
     private HttpStatus getMappedStatus(Throwable err) {
         // Where we disagree with Spring defaults
         if (err instanceof AccessDeniedException) return HttpStatus.FORBIDDEN;
-        if (err instanceof ConcurrencyFailureException) return HttpStatus.CONFLICT;
+        if (isConcurrencyFailure(err)) return HttpStatus.CONFLICT;
         if (err instanceof BadCredentialsException) return HttpStatus.UNAUTHORIZED;
+        if (err instanceof InvalidCursorException) return HttpStatus.BAD_REQUEST;
         return null;
     }
 
+    private boolean isConcurrencyFailure(Throwable err) {
+        return err instanceof ConcurrencyFailureException || err.getCause() instanceof ConcurrencyFailureException;
+    }
+
     private URI getPathValue(NativeWebRequest request) {
         if (request == null) return URI.create("about:blank");
         return URI.create(extractURI(request));
@@ -0,0 +1,180 @@
+package ru.zavanton.booker.web.rest.util;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.Optional;
+import java.util.function.Function;
+import java.util.function.Supplier;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.server.ResponseStatusException;
+import ru.zavanton.booker.repository.VersionProjection;
+
+/**
+ * Utility class for handling conditional requests.
+ * <p>
+ * Lists of entities are given a weak {@code ETag} derived from their {@link VersionProjection}.
+ * A single entity is given a strong {@code ETag} holding its optimistic locking version, followed by the values of its
+ * columns which are maintained without incrementing it, such as counters.
+ * The validators are only read from columns maintained by the server: no {@code Last-Modified} header is given, as the
+ * {@code updatedAt} of an entity is set by the client.
+ * A {@code GET} request whose {@code If-None-Match} header matches is answered with {@code 304 (Not Modified)} before
+ * the entities are loaded. Responses must be revalidated before being reused.
+ * <p>
+ * An update whose {@code If-Match} header holds the {@code ETag} of an entity only succeeds if the entity was not
+ * updated since, whatever its counters; otherwise it fails with a {@link org.springframework.dao.ConcurrencyFailureException},
+ * answered with {@code 412 (Precondition Failed)}.
+ */
+public final class ConditionalRequestUtil {
+
+    private static final CacheControl CACHE_CONTROL = CacheControl.noCache().cachePrivate();
+
+    private static final Pattern VERSION_TAG = Pattern.compile("\\s*\"(\\d{1,18})(-[^\"]*)?\"\\s*");
+
+    private ConditionalRequestUtil() {}
+
+    /**
+     * Answer a {@code GET} request with {@code 304 (Not Modified)} if the client has the current version of the entities,
+     * or with the response built by the given supplier, to which the validators are added.
+     *
+     * @param request the current request.
+     * @param version the validators of the returned entities.
+     * @param response the supplier of the full response.
+     * @param <T> the type of the body.
+     * @return the response.
+     */
+    public static <T> ResponseEntity<T> wrapOrNotModified(
+        WebRequest request,
+        VersionProjection version,
+        Supplier<ResponseEntity<T>> response
+    ) {
+        return wrapOrNotModified(request, Optional.of(eTag(version)), response);
+    }
+
+    /**
+     * Answer a {@code GET} request for a single entity with {@code 304 (Not Modified)} if the client has its current version,
+     * or with the response built by the given supplier, to which the entity tag is added.
+     *
+     * @param request the current request.
+     * @param entityTag the entity tag of the entity, built by {@link #eTag(Long)} or {@link #eTag(Long, List)},
+     *                  or empty if it does not exist.
+     * @param response the supplier of the full response.
+     * @param <T> the type of the body.
+     * @return the response.
+     */
+    public static <T> ResponseEntity<T> wrapOrNotModified(
+        WebRequest request,
+        Optional<String> entityTag,
+        Supplier<ResponseEntity<T>> response
+    ) {
+        if (entityTag.isEmpty()) {
+            return response.get();
+        }
+        String eTag = entityTag.orElseThrow();
+        if (request.checkNotModified(eTag)) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(eTag).cacheControl(CACHE_CONTROL).build();
+        }
+        ResponseEntity<T> fullResponse = response.get();
+        if (!fullResponse.getStatusCode().is2xxSuccessful()) {
+            return fullResponse;
+        }
+        return ResponseEntity.status(fullResponse.getStatusCode())
+            .headers(fullResponse.getHeaders())
+            .eTag(eTag)
+            .cacheControl(CACHE_CONTROL)
+            .body(fullResponse.getBody());
+    }
+
+    /**
+     * Wrap an updated entity in a {@link ResponseEntity} with the entity tag of its version,
+     * or with status {@code 404 (Not Found)} if it is absent.
+     *
+     * @param maybeResponse the entity to return.
+     * @param version the function giving the optimistic locking version of the entity.
+     * @param header the headers of the response.
+     * @param <T> the type of the entity.
+     * @return the response.
+     */
+    public static <T> ResponseEntity<T> wrapOrNotFound(Optional<T> maybeResponse, Function<T, Long> version, HttpHeaders header) {
+        return maybeResponse
+            .map(response -> ResponseEntity.ok().headers(header).eTag(eTag(version.apply(response))).body(response))
+            .orElseGet(() -> ResponseEntity.notFound().build());
+    }
+
+    /**
+     * Parse the version expected by an {@code If-Match} header, ignoring the values of the columns maintained without
+     * incrementing it.
+     *
+     * @param ifMatch the {@code If-Match} header, if any.
+     * @return the expected version, or empty if any version is expected.
+     * @throws ResponseStatusException with status {@code 412 (Precondition Failed)} if the header is not the entity tag
+     * of a version, as a weak entity tag never matches.
+     */
+    public static Optional<Long> expectedVersion(String ifMatch) {
+        if (ifMatch == null || ifMatch.isBlank() || "*".equals(ifMatch.trim())) {
+            return Optional.empty();
+        }
+        Matcher matcher = VERSION_TAG.matcher(ifMatch);
+        if (!matcher.matches()) {
+            throw new ResponseStatusException(HttpStatus.PRECONDITION_FAILED, "If-Match must be the entity tag of a version");
+        }
+        return Optional.of(Long.parseLong(matcher.group(1)));
+    }
+
+    /**
+     * Build the strong entity tag of the optimistic locking version of an entity.
+     *
+     * @param version the version of the entity.
+     * @return the entity tag, quoted.
+     */
+    public static String eTag(Long version) {
+        return "\"" + version + "\"";
+    }
+
+    /**
+     * Build the strong entity tag of an entity from its optimistic locking version and the values of its columns which
+     * are maintained without incrementing it.
+     *
+     * @param version the version of the entity.
+     * @param derivedValues the values of the columns maintained without incrementing the version.
+     * @return the entity tag, quoted.
+     */
+    public static String eTag(Long version, List<?> derivedValues) {
+        StringBuilder tag = new StringBuilder("\"").append(version);
+        appendDerivedValues(tag, derivedValues);
+        return tag.append('"').toString();
+    }
+
+    /**
+     * Build the weak entity tag of a version, from its count, sums of identifiers and versions, and derived sums.
+     *
+     * @param version the validators of the entities.
+     * @return the entity tag, quoted.
+     */
+    public static String eTag(VersionProjection version) {
+        StringBuilder tag = new StringBuilder("W/\"")
+            .append(Long.toString(version.count(), 36))
+            .append('-')
+            .append(Long.toString(version.idSum(), 36))
+            .append('-')
+            .append(Long.toString(version.versionSum(), 36));
+        appendDerivedValues(tag, version.derivedSums());
+        return tag.append('"').toString();
+    }
+
+    private static void appendDerivedValues(StringBuilder tag, List<?> values) {
+        for (Object value : values) {
+            tag.append('-');
+            if (value instanceof BigDecimal decimal) {
+                tag.append(decimal.signum() == 0 ? "0" : decimal.stripTrailingZeros().toPlainString());
+            } else {
+                tag.append(value == null ? "0" : value);
+            }
+        }
+    }
+}
@@ -0,0 +1,42 @@
+package ru.zavanton.booker.web.rest.util;
+
+import org.springframework.http.HttpHeaders;
+import org.springframework.web.util.UriComponentsBuilder;
+import ru.zavanton.booker.service.pagination.CursorPage;
+
+/**
+ * Utility class for handling keyset pagination.
+ * <p>
+ * Pagination uses the same principles as the <a href="https://docs.github.com/rest/guides/using-pagination-in-the-rest-api">GitHub API</a>,
+ * except that only the link to the next page is provided and no total count is computed.
+ */
+public final class CursorPaginationUtil {
+
+    private static final String HEADER_NEXT_CURSOR = "X-Next-Cursor";
+
+    private CursorPaginationUtil() {}
+
+    /**
+     * Generate the pagination headers of a {@link CursorPage}: a {@code Link} header with the {@code next} relation
+     * and a {@code X-Next-Cursor} header, both absent on the last page.
+     *
+     * @param uriBuilder the builder of the current request URI.
+     * @param page the page.
+     * @return the headers.
+     */
+    public static HttpHeaders generateCursorPaginationHttpHeaders(UriComponentsBuilder uriBuilder, CursorPage<?> page) {
+        HttpHeaders headers = new HttpHeaders();
+        if (page.hasNext()) {
+            String next = uriBuilder
+                .replaceQueryParam("page")
+                .replaceQueryParam("cursor", page.nextCursor())
+                .replaceQueryParam("size", page.size())
+                .toUriString()
+                .replace(",", "%2C")
+                .replace(";", "%3B");
+            headers.add(HttpHeaders.LINK, "<" + next + ">; rel=\"next\"");
+            headers.add(HEADER_NEXT_CURSOR, page.nextCursor());
+        }
+        return headers;
+    }
+}
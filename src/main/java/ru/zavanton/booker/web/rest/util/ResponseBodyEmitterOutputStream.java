@@ -0,0 +1,35 @@
+package ru.zavanton.booker.web.rest.util;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.Arrays;
+import org.springframework.http.MediaType;
+import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyEmitter;
+
+/**
+ * {@link OutputStream} sending the written bytes through a {@link ResponseBodyEmitter}, each write being sent and
+ * flushed at once: it should be buffered.
+ * <p>
+ * Closing the stream does not complete the emitter.
+ */
+public class ResponseBodyEmitterOutputStream extends OutputStream {
+
+    private final ResponseBodyEmitter emitter;
+
+    public ResponseBodyEmitterOutputStream(ResponseBodyEmitter emitter) {
+        this.emitter = emitter;
+    }
+
+    @Override
+    public void write(int b) throws IOException {
+        write(new byte[] { (byte) b }, 0, 1);
+    }
+
+    @Override
+    public void write(byte[] b, int off, int len) throws IOException {
+        if (len > 0) {
+            // The emitter may hold on to the data until it is written, so the buffer of the caller is copied
+            emitter.send(Arrays.copyOfRange(b, off, off + len), MediaType.APPLICATION_OCTET_STREAM);
+        }
+    }
+}
@@ -0,0 +1,99 @@
+package ru.zavanton.booker.aop.logging;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.reflect.MethodSignature;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import ru.zavanton.booker.config.ApplicationProperties;
+
+/**
+ * Unit tests for the {@link MethodMetricsAspect} class.
+ */
+class MethodMetricsAspectTest {
+
+    private SimpleMeterRegistry meterRegistry;
+
+    private MethodMetricsAspect aspect;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        ApplicationProperties applicationProperties = new ApplicationProperties();
+        applicationProperties.getMethodMetrics().setPercentileHistogram(false);
+        aspect = new MethodMetricsAspect(meterRegistry, applicationProperties);
+    }
+
+    @Test
+    void shouldTimeSuccessfulCalls() throws Throwable {
+        ProceedingJoinPoint joinPoint = joinPoint("name");
+        when(joinPoint.proceed()).thenReturn("result");
+
+        assertThat(aspect.timeAround(joinPoint)).isEqualTo("result");
+        assertThat(aspect.timeAround(joinPoint)).isEqualTo("result");
+
+        assertThat(timer("name", "success").count()).isEqualTo(2);
+        assertThat(timer("name", "error").count()).isZero();
+    }
+
+    @Test
+    void shouldTimeFailedCalls() throws Throwable {
+        ProceedingJoinPoint joinPoint = joinPoint("length");
+        when(joinPoint.proceed()).thenThrow(new IllegalStateException("failure"));
+
+        assertThatThrownBy(() -> aspect.timeAround(joinPoint)).isInstanceOf(IllegalStateException.class);
+
+        assertThat(timer("length", "error").count()).isEqualTo(1);
+        assertThat(timer("length", "success").count()).isZero();
+    }
+
+    @Test
+    void shouldNotLogArgumentsOfSlowCalls() throws Throwable {
+        ApplicationProperties applicationProperties = new ApplicationProperties();
+        applicationProperties.getMethodMetrics().setPercentileHistogram(false);
+        applicationProperties.getMethodMetrics().setSlowCallThresholdMs(-1);
+        applicationProperties.getMethodMetrics().setArgumentSampleRate(0);
+        MethodMetricsAspect slowAspect = new MethodMetricsAspect(meterRegistry, applicationProperties);
+        ProceedingJoinPoint joinPoint = joinPoint("name");
+        when(joinPoint.proceed()).thenReturn("result");
+
+        assertThat(slowAspect.timeAround(joinPoint)).isEqualTo("result");
+
+        verify(joinPoint, never()).getArgs();
+    }
+
+    private Timer timer(String method, String outcome) {
+        return meterRegistry
+            .get(MethodMetricsAspect.TIMER_NAME)
+            .tag("class", "MethodMetricsAspectTest")
+            .tag("method", method)
+            .tag("outcome", outcome)
+            .timer();
+    }
+
+    private ProceedingJoinPoint joinPoint(String method) throws NoSuchMethodException {
+        MethodSignature signature = mock(MethodSignature.class);
+        when(signature.getMethod()).thenReturn(MethodMetricsAspectTest.class.getDeclaredMethod(method));
+        ProceedingJoinPoint joinPoint = mock(ProceedingJoinPoint.class);
+        when(joinPoint.getSignature()).thenReturn(signature);
+        when(joinPoint.getThis()).thenReturn(this);
+        when(joinPoint.getArgs()).thenReturn(new Object[0]);
+        return joinPoint;
+    }
+
+    String name() {
+        return "name";
+    }
+
+    int length() {
+        return 0;
+    }
+}
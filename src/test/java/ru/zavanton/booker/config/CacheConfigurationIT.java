@@ -0,0 +1,68 @@
+package ru.zavanton.booker.config;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import ru.zavanton.booker.IntegrationTest;
+import ru.zavanton.booker.domain.GenreEntity;
+import ru.zavanton.booker.repository.GenreRepository;
+import ru.zavanton.booker.service.GenreService;
+import ru.zavanton.booker.web.rest.GenreResourceIT;
+
+/**
+ * Integration tests for the Hibernate second-level cache set up by {@link CacheConfiguration}.
+ */
+@IntegrationTest
+class CacheConfigurationIT {
+
+    private static final String GENRE_REGION = GenreEntity.class.getName();
+
+    @Autowired
+    private javax.cache.CacheManager cacheManager;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Autowired
+    private GenreRepository genreRepository;
+
+    @Autowired
+    private GenreService genreService;
+
+    private GenreEntity genre;
+
+    @BeforeEach
+    public void init() {
+        genre = genreRepository.saveAndFlush(GenreResourceIT.createEntity());
+    }
+
+    @AfterEach
+    public void cleanup() {
+        genreRepository.deleteById(genre.getId());
+    }
+
+    @Test
+    void shouldCreateCacheRegions() {
+        assertThat(cacheManager.getCache(GENRE_REGION)).isNotNull();
+        assertThat(cacheManager.getCache(ru.zavanton.booker.domain.UserEntity.class.getName() + ".authorities")).isNotNull();
+    }
+
+    @Test
+    void shouldServeReferenceEntitiesFromCacheAndPublishMetrics() {
+        FunctionCounter hits = meterRegistry.find("cache.gets").tags("cache", GENRE_REGION, "result", "hit").functionCounter();
+        assertThat(hits).isNotNull();
+        double hitsBefore = hits.count();
+
+        assertThat(genreService.findOne(genre.getId())).isPresent();
+        assertThat(genreService.findOne(genre.getId())).isPresent();
+
+        assertThat(cacheManager.getCache(GENRE_REGION).iterator().hasNext()).isTrue();
+        assertThat(hits.count()).isGreaterThan(hitsBefore);
+        assertThat(meterRegistry.find("cache.evictions").tags("cache", GENRE_REGION).functionCounter()).isNotNull();
+    }
+}
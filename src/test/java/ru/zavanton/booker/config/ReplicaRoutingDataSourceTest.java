@@ -0,0 +1,112 @@
+package ru.zavanton.booker.config;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import javax.sql.DataSource;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.context.SecurityContext;
+import org.springframework.security.core.context.SecurityContextHolder;
+
+/**
+ * Unit tests for the {@link ReplicaRoutingDataSource} class.
+ */
+class ReplicaRoutingDataSourceTest {
+
+    private Connection primaryConnection;
+
+    private Connection firstConnection;
+
+    private Connection secondConnection;
+
+    private ReplicaRoutingDataSource replicaDataSource;
+
+    private DataSource trackedPrimary;
+
+    @BeforeEach
+    void setUp() throws SQLException {
+        SecurityContextHolder.clearContext();
+        primaryConnection = mock(Connection.class);
+        firstConnection = mock(Connection.class);
+        secondConnection = mock(Connection.class);
+        DataSource primary = mockDataSource(primaryConnection);
+        Map<String, DataSource> replicas = new LinkedHashMap<>();
+        replicas.put("first", mockDataSource(firstConnection));
+        replicas.put("second", mockDataSource(secondConnection));
+        ApplicationProperties.Datasource properties = new ApplicationProperties.Datasource();
+        properties.setReadYourWritesMs(60_000);
+        replicaDataSource = new ReplicaRoutingDataSource(primary, replicas, properties);
+        trackedPrimary = replicaDataSource.trackWrites(primary);
+    }
+
+    @AfterEach
+    void cleanup() {
+        SecurityContextHolder.clearContext();
+    }
+
+    @Test
+    void shouldUsePrimaryBeforeReplicasAreChecked() throws SQLException {
+        assertThat(replicaDataSource.getAvailableReplicas()).isZero();
+        assertThat(replicaDataSource.getConnection()).isSameAs(primaryConnection);
+    }
+
+    @Test
+    void shouldUseReplicasInTurn() throws SQLException {
+        replicaDataSource.checkReplicas();
+
+        assertThat(replicaDataSource.getAvailableReplicas()).isEqualTo(2);
+        assertThat(replicaDataSource.getConnection()).isSameAs(firstConnection);
+        assertThat(replicaDataSource.getConnection()).isSameAs(secondConnection);
+        assertThat(replicaDataSource.getConnection()).isSameAs(firstConnection);
+    }
+
+    @Test
+    void shouldLeaveOutInvalidReplica() throws SQLException {
+        replicaDataSource.checkReplicas();
+        when(secondConnection.isValid(anyInt())).thenReturn(false);
+        replicaDataSource.checkReplicas();
+
+        assertThat(replicaDataSource.getAvailableReplicas()).isEqualTo(1);
+        assertThat(replicaDataSource.getConnection()).isSameAs(firstConnection);
+        assertThat(replicaDataSource.getConnection()).isSameAs(firstConnection);
+
+        when(secondConnection.isValid(anyInt())).thenReturn(true);
+        replicaDataSource.checkReplicas();
+
+        assertThat(replicaDataSource.getAvailableReplicas()).isEqualTo(2);
+    }
+
+    @Test
+    void shouldReadOwnWritesFromPrimary() throws SQLException {
+        replicaDataSource.checkReplicas();
+        authenticate("writer");
+
+        assertThat(trackedPrimary.getConnection()).isSameAs(primaryConnection);
+        assertThat(replicaDataSource.getConnection()).isSameAs(primaryConnection);
+
+        authenticate("reader");
+        assertThat(replicaDataSource.getConnection()).isIn(firstConnection, secondConnection);
+    }
+
+    private static DataSource mockDataSource(Connection connection) throws SQLException {
+        DataSource dataSource = mock(DataSource.class);
+        when(dataSource.getConnection()).thenReturn(connection);
+        when(connection.isValid(anyInt())).thenReturn(true);
+        return dataSource;
+    }
+
+    private static void authenticate(String login) {
+        SecurityContext securityContext = SecurityContextHolder.createEmptyContext();
+        securityContext.setAuthentication(new UsernamePasswordAuthenticationToken(login, login));
+        SecurityContextHolder.setContext(securityContext);
+    }
+}
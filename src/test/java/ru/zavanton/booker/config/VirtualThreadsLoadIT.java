@@ -0,0 +1,180 @@
+package ru.zavanton.booker.config;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.sql.Connection;
+import java.sql.Statement;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import javax.sql.DataSource;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledForJreRange;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.junit.jupiter.api.condition.JRE;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.context.support.GenericApplicationContext;
+import org.springframework.http.HttpHeaders;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.web.servlet.function.RouterFunction;
+import org.springframework.web.servlet.function.RouterFunctions;
+import org.springframework.web.servlet.function.ServerResponse;
+import ru.zavanton.booker.BookerApp;
+import ru.zavanton.booker.security.AuthoritiesConstants;
+import ru.zavanton.booker.web.rest.AuthenticateController;
+
+/**
+ * Load test of request handling on virtual threads against the platform-thread baseline, with a slow database.
+ * <p>
+ * The application is started twice, with and without {@code application.virtual-threads.enabled}, with a small
+ * Hikari pool and an API endpoint holding its connection for {@link #SLOW_QUERY_MS}. Many clients call it while
+ * the liveness probe is polled: on platform threads every worker ends up blocked on the pool and the probe queues
+ * behind them, while on virtual threads the excess API requests are shed and the probe is still answered.
+ * <p>
+ * It takes about half a minute, so it only runs on Java 21 or later with
+ * {@code ./gradlew integrationTest -DloadTest=true --tests '*VirtualThreadsLoadIT'}, on the H2 database.
+ */
+@EnabledForJreRange(min = JRE.JAVA_21)
+@EnabledIfSystemProperty(named = "loadTest", matches = "true")
+class VirtualThreadsLoadIT {
+
+    private static final Logger LOG = LoggerFactory.getLogger(VirtualThreadsLoadIT.class);
+
+    private static final int CLIENTS = 400;
+
+    private static final int POOL_SIZE = 10;
+
+    private static final long SLOW_QUERY_MS = 50;
+
+    private static final Duration DURATION = Duration.ofSeconds(10);
+
+    private static final Duration PROBE_INTERVAL = Duration.ofMillis(50);
+
+    private static final String SLOW_API_PATH = "/api/load-test/slow";
+
+    private static final String PROBE_PATH = "/management/health/liveness";
+
+    @Test
+    void virtualThreadsKeepServingWhenTheDatabaseIsSlow() throws Exception {
+        LoadResult platform = run(false);
+        LoadResult virtual = run(true);
+        LOG.info("Platform threads: {}", platform);
+        LOG.info("Virtual threads: {}", virtual);
+
+        assertThat(virtual.probeP99Ms()).isLessThan(platform.probeP99Ms());
+        // The database bounds the throughput of the slow endpoint in both modes
+        assertThat(virtual.throughput()).isGreaterThan(platform.throughput() * 0.8);
+    }
+
+    private LoadResult run(boolean virtualThreads) throws Exception {
+        try (
+            ConfigurableApplicationContext context = new SpringApplicationBuilder(BookerApp.class)
+                .profiles("test", "testdev")
+                .properties(
+                    "server.port=0",
+                    "spring.datasource.hikari.maximum-pool-size=" + POOL_SIZE,
+                    "application.virtual-threads.enabled=" + virtualThreads
+                )
+                .initializers(applicationContext ->
+                    ((GenericApplicationContext) applicationContext).registerBean(
+                            "loadTestRoute",
+                            RouterFunction.class,
+                            () -> slowRoute(applicationContext.getBean(DataSource.class))
+                        )
+                )
+                .run()
+        ) {
+            String baseUrl = "http://localhost:" + context.getEnvironment().getProperty("local.server.port");
+            String token = context
+                .getBean(AuthenticateController.class)
+                .createToken(
+                    new UsernamePasswordAuthenticationToken("load-test", null, List.of(new SimpleGrantedAuthority(AuthoritiesConstants.USER))),
+                    false
+                );
+            return load(baseUrl, token);
+        }
+    }
+
+    private static RouterFunction<ServerResponse> slowRoute(DataSource dataSource) {
+        return RouterFunctions.route()
+            .GET(SLOW_API_PATH, request -> {
+                try (Connection connection = dataSource.getConnection(); Statement statement = connection.createStatement()) {
+                    Thread.sleep(SLOW_QUERY_MS);
+                    statement.execute("select 1");
+                }
+                return ServerResponse.ok().build();
+            })
+            .build();
+    }
+
+    private static LoadResult load(String baseUrl, String token) throws InterruptedException {
+        HttpClient client = HttpClient.newBuilder().connectTimeout(Duration.ofSeconds(5)).build();
+        HttpRequest slowRequest = HttpRequest.newBuilder(URI.create(baseUrl + SLOW_API_PATH))
+            .header(HttpHeaders.AUTHORIZATION, "Bearer " + token)
+            .timeout(Duration.ofSeconds(30))
+            .build();
+        HttpRequest probeRequest = HttpRequest.newBuilder(URI.create(baseUrl + PROBE_PATH)).timeout(Duration.ofSeconds(30)).build();
+        AtomicLong succeeded = new AtomicLong();
+        AtomicLong rejected = new AtomicLong();
+        AtomicLong failed = new AtomicLong();
+        List<Long> probeLatencies = Collections.synchronizedList(new ArrayList<>());
+        long deadline = System.nanoTime() + DURATION.toNanos();
+
+        ExecutorService executor = Executors.newFixedThreadPool(CLIENTS + 1);
+        for (int i = 0; i < CLIENTS; i++) {
+            executor.execute(() -> {
+                while (System.nanoTime() < deadline) {
+                    try {
+                        int status = client.send(slowRequest, HttpResponse.BodyHandlers.discarding()).statusCode();
+                        (status == 200 ? succeeded : status == 503 ? rejected : failed).incrementAndGet();
+                    } catch (Exception e) {
+                        failed.incrementAndGet();
+                    }
+                }
+            });
+        }
+        executor.execute(() -> {
+            while (System.nanoTime() < deadline) {
+                long start = System.nanoTime();
+                try {
+                    client.send(probeRequest, HttpResponse.BodyHandlers.discarding());
+                    probeLatencies.add(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+                    Thread.sleep(PROBE_INTERVAL.toMillis());
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    return;
+                } catch (Exception e) {
+                    probeLatencies.add(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+                }
+            }
+        });
+        executor.shutdown();
+        assertThat(executor.awaitTermination(DURATION.toSeconds() + 60, TimeUnit.SECONDS)).isTrue();
+
+        List<Long> latencies = new ArrayList<>(probeLatencies);
+        Collections.sort(latencies);
+        long probeP99Ms = latencies.isEmpty() ? Long.MAX_VALUE : latencies.get((int) Math.ceil(latencies.size() * 0.99) - 1);
+        return new LoadResult(succeeded.get() / (double) DURATION.toSeconds(), rejected.get(), failed.get(), probeP99Ms);
+    }
+
+    /**
+     * @param throughput the successful calls to the slow endpoint per second.
+     * @param rejected the calls rejected with {@code 503 Service Unavailable}.
+     * @param failed the calls which failed otherwise.
+     * @param probeP99Ms the 99th percentile of the latency of the liveness probe.
+     */
+    private record LoadResult(double throughput, long rejected, long failed, long probeP99Ms) {}
+}
@@ -0,0 +1,82 @@
+package ru.zavanton.booker.repository;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.entry;
+
+import java.util.List;
+import org.junit.jupiter.api.Test;
+import ru.zavanton.booker.domain.BookEntity;
+import ru.zavanton.booker.domain.BookEntity_;
+import tech.jhipster.service.filter.IntegerFilter;
+import tech.jhipster.service.filter.LongFilter;
+import tech.jhipster.service.filter.StringFilter;
+
+class CriteriaPlanTest {
+
+    @Test
+    void shouldHaveTheSameShapeForOtherValues() {
+        CriteriaPlan<BookEntity> plan = plan("dune", 100, List.of(1L, 2L));
+        CriteriaPlan<BookEntity> otherPlan = plan("foundation", 300, List.of(3L, 4L, 5L));
+
+        assertThat(plan.getShape()).isEqualTo("title.contains;pageCount.greaterThan;pageCount.lessThan;id.in;");
+        assertThat(otherPlan.getShape()).isEqualTo(plan.getShape());
+        assertThat(plan.getParameters()).containsExactly(
+            entry("p0", "%DUNE%"),
+            entry("p1", 100),
+            entry("p2", 200),
+            entry("p3", List.of(1L, 2L))
+        );
+        assertThat(otherPlan.getParameters()).containsEntry("p3", List.of(3L, 4L, 5L));
+    }
+
+    @Test
+    void shouldHaveAnotherShapeForOtherOperators() {
+        StringFilter title = new StringFilter();
+        title.setDoesNotContain("dune");
+        CriteriaPlan<BookEntity> plan = new CriteriaPlan<BookEntity>().stringFilter("title", title, root -> root.get(BookEntity_.title));
+
+        assertThat(plan.getShape()).isEqualTo("title.doesNotContain;");
+        assertThat(plan.getShape()).isNotEqualTo(plan("dune", 100, List.of(1L)).getShape());
+    }
+
+    @Test
+    void shouldApplyEqualsOrInBeforeTheOtherOperators() {
+        LongFilter id = new LongFilter();
+        id.setEquals(1L);
+        id.setIn(List.of(2L));
+        id.setGreaterThan(3L);
+        CriteriaPlan<BookEntity> plan = new CriteriaPlan<BookEntity>().rangeFilter("id", id, root -> root.get(BookEntity_.id));
+
+        assertThat(plan.getShape()).isEqualTo("id.equals;");
+        assertThat(plan.getParameters()).containsOnlyKeys("p0");
+
+        id.setEquals(null);
+        plan = new CriteriaPlan<BookEntity>().rangeFilter("id", id, root -> root.get(BookEntity_.id));
+        assertThat(plan.getShape()).isEqualTo("id.in;");
+    }
+
+    @Test
+    void shouldKeepValuesWhichChangeThePredicateInTheShape() {
+        StringFilter isbn = new StringFilter();
+        isbn.setSpecified(true);
+        CriteriaPlan<BookEntity> plan = new CriteriaPlan<BookEntity>()
+            .distinct(true)
+            .stringFilter("isbn", isbn, root -> root.get(BookEntity_.isbn))
+            .in("id", List.<Long>of(), root -> root.get(BookEntity_.id));
+
+        assertThat(plan.getShape()).isEqualTo("distinct=true;isbn.specified=true;id.in=[];");
+        assertThat(plan.getParameters()).isEmpty();
+    }
+
+    private static CriteriaPlan<BookEntity> plan(String title, int minPageCount, List<Long> ids) {
+        StringFilter titleFilter = new StringFilter();
+        titleFilter.setContains(title);
+        IntegerFilter pageCount = new IntegerFilter();
+        pageCount.setGreaterThan(minPageCount);
+        pageCount.setLessThan(minPageCount * 2);
+        return new CriteriaPlan<BookEntity>()
+            .stringFilter("title", titleFilter, root -> root.get(BookEntity_.title))
+            .rangeFilter("pageCount", pageCount, root -> root.get(BookEntity_.pageCount))
+            .in("id", ids, root -> root.get(BookEntity_.id));
+    }
+}
@@ -0,0 +1,128 @@
+package ru.zavanton.booker.repository;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.stream.Collectors;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import ru.zavanton.booker.IntegrationTest;
+
+/**
+ * Integration tests asserting with {@code EXPLAIN} that the queries issued by the criteria filters use indexes.
+ * <p>
+ * On PostgreSQL, sequential scans are disabled for the explained statement so that the planner picks an index
+ * whenever one exists, even on the small test tables; the plan must then name the expected index.
+ * On H2, which also indexes foreign keys on its own, the plan must not contain any table scan.
+ */
+@IntegrationTest
+class QueryPlanIT {
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    private boolean postgres;
+
+    @BeforeEach
+    public void init() {
+        postgres = "PostgreSQL".equals(
+            jdbcTemplate.execute((ConnectionCallback<String>) connection -> connection.getMetaData().getDatabaseProductName())
+        );
+    }
+
+    @Test
+    void ratingsByBookUseIndex() {
+        assertUsesIndex("select r.id, r.rating from rating r where r.book_id = 1", "idx_rating__book_id");
+    }
+
+    @Test
+    void ratingsByUserUseUniqueIndex() {
+        assertUsesIndex("select r.id, r.rating from rating r where r.user_id = 1", "ux_rating__user_id_book_id");
+    }
+
+    @Test
+    void readingStatusesByUserUseUniqueIndex() {
+        assertUsesIndex("select s.id, s.status from reading_status s where s.user_id = 1", "ux_reading_status__user_id_book_id");
+    }
+
+    @Test
+    void reviewsByBookUseIndex() {
+        assertUsesIndex("select r.id, r.helpful_count from review r where r.book_id = 1", "idx_review__book_id");
+    }
+
+    @Test
+    void commentsByReviewUseIndex() {
+        assertUsesIndex("select c.id from comment c where c.review_id = 1", "idx_comment__review_id");
+    }
+
+    @Test
+    void booksByAuthorUseIndex() {
+        assertUsesIndex(
+            "select b.id, b.title from book b join book_author ba on ba.book_id = b.id where ba.author_id = 1",
+            "idx_book_author__author_id"
+        );
+    }
+
+    @Test
+    void booksByGenreUseIndex() {
+        assertUsesIndex(
+            "select b.id, b.title from book b join book_genre bg on bg.book_id = b.id where bg.genre_id = 1",
+            "idx_book_genre__genre_id"
+        );
+    }
+
+    @Test
+    void booksByTagUseIndex() {
+        assertUsesIndex(
+            "select b.id, b.title from book b join book_tag bt on bt.book_id = b.id where bt.tag_id = 1",
+            "idx_book_tag__tag_id"
+        );
+    }
+
+    @Test
+    void booksByCollectionUseIndex() {
+        assertUsesIndex(
+            "select b.id, b.title from book b join book_collection bc on bc.book_id = b.id where bc.collection_id = 1",
+            "idx_book_collection__collection_id"
+        );
+    }
+
+    @Test
+    void booksByPublicationDateUseIndex() {
+        assertUsesIndex(
+            "select b.id, b.title from book b where b.publication_date >= date '2000-01-01' and b.publication_date < date '2001-01-01'",
+            "idx_book__publication_date"
+        );
+    }
+
+    @Test
+    void booksByLanguageUseIndex() {
+        assertUsesIndex("select b.id, b.title from book b where b.language = 'en'", "idx_book__language");
+    }
+
+    private void assertUsesIndex(String sql, String indexName) {
+        String plan = explain(sql);
+        if (postgres) {
+            assertThat(plan).as(sql).contains(indexName).doesNotContain("Seq Scan");
+        } else {
+            assertThat(plan).as(sql).doesNotContain("tableScan");
+        }
+    }
+
+    private String explain(String sql) {
+        TransactionTemplate transactionTemplate = new TransactionTemplate(transactionManager);
+        return transactionTemplate.execute(status -> {
+            if (postgres) {
+                jdbcTemplate.execute("set local enable_seqscan = off");
+            }
+            return jdbcTemplate.queryForList("explain " + sql, String.class).stream().collect(Collectors.joining("\n"));
+        });
+    }
+}
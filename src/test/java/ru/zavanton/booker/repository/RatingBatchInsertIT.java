@@ -0,0 +1,116 @@
+package ru.zavanton.booker.repository;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import jakarta.persistence.EntityManagerFactory;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import ru.zavanton.booker.IntegrationTest;
+import ru.zavanton.booker.domain.BookEntity;
+import ru.zavanton.booker.domain.RatingEntity;
+import ru.zavanton.booker.domain.UserEntity;
+import ru.zavanton.booker.web.rest.BookResourceIT;
+import ru.zavanton.booker.web.rest.UserResourceIT;
+
+/**
+ * Integration test asserting that ratings saved in bulk are inserted in JDBC batches, with ids allocated from
+ * {@code rating_sequence_generator} in blocks, so that the statements issued grow with the number of batches
+ * and not with the number of ratings.
+ */
+@IntegrationTest
+class RatingBatchInsertIT {
+
+    private static final int USERS = 10;
+
+    private static final int BOOKS = 1_000;
+
+    private static final int RATINGS = USERS * BOOKS;
+
+    private static final int SEQUENCE_BLOCK_SIZE = 500;
+
+    @Value("${spring.jpa.properties.hibernate.jdbc.batch_size}")
+    private int batchSize;
+
+    @Autowired
+    private RatingRepository ratingRepository;
+
+    @Autowired
+    private BookRepository bookRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    private List<UserEntity> users;
+
+    private List<BookEntity> books;
+
+    private Statistics statistics;
+
+    @BeforeEach
+    public void init() {
+        List<UserEntity> newUsers = new ArrayList<>();
+        for (int i = 0; i < USERS; i++) {
+            UserEntity user = UserResourceIT.createEntity();
+            user.setLogin("batch-rater-" + i);
+            user.setEmail("batch-rater-" + i + "@localhost");
+            newUsers.add(user);
+        }
+        users = userRepository.saveAllAndFlush(newUsers);
+        List<BookEntity> newBooks = new ArrayList<>();
+        for (int i = 0; i < BOOKS; i++) {
+            newBooks.add(BookResourceIT.createEntity().isbn("BATCH-" + i));
+        }
+        books = bookRepository.saveAllAndFlush(newBooks);
+
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.setStatisticsEnabled(true);
+        statistics.clear();
+    }
+
+    @AfterEach
+    public void cleanup() {
+        statistics.setStatisticsEnabled(false);
+        jdbcTemplate.update("delete from rating where book_id in (select id from book where isbn like 'BATCH-%')");
+        jdbcTemplate.update("delete from book where isbn like 'BATCH-%'");
+        jdbcTemplate.update("delete from booker_user where login like 'batch-rater-%'");
+    }
+
+    @Test
+    void saveRatingsInBatches() {
+        Instant now = Instant.now();
+        List<RatingEntity> ratings = new ArrayList<>(RATINGS);
+        for (UserEntity user : users) {
+            for (BookEntity book : books) {
+                ratings.add(new RatingEntity().rating(1 + ratings.size() % 5).user(user).book(book).createdAt(now).updatedAt(now));
+            }
+        }
+
+        new TransactionTemplate(transactionManager).executeWithoutResult(status -> ratingRepository.saveAll(ratings));
+
+        assertThat(statistics.getEntityInsertCount()).isEqualTo(RATINGS);
+        // One statement per batch of inserts and one sequence call per block of ids, with a margin for partial ones
+        long expectedStatements = RATINGS / batchSize + RATINGS / SEQUENCE_BLOCK_SIZE;
+        assertThat(statistics.getPrepareStatementCount()).isLessThanOrEqualTo(expectedStatements + 2);
+        assertThat(ratings.stream().map(RatingEntity::getId).distinct()).hasSize(RATINGS);
+    }
+}
@@ -0,0 +1,84 @@
+package ru.zavanton.booker.service.aggregation;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import ru.zavanton.booker.IntegrationTest;
+import ru.zavanton.booker.domain.BookEntity;
+import ru.zavanton.booker.domain.ReviewEntity;
+import ru.zavanton.booker.domain.UserEntity;
+import ru.zavanton.booker.repository.BookRepository;
+import ru.zavanton.booker.repository.ReviewRepository;
+import ru.zavanton.booker.repository.UserRepository;
+import ru.zavanton.booker.service.ReviewService;
+import ru.zavanton.booker.web.rest.BookResourceIT;
+import ru.zavanton.booker.web.rest.UserResourceIT;
+
+/**
+ * Integration tests for {@link CounterService}.
+ */
+@IntegrationTest
+class CounterServiceIT {
+
+    @Autowired
+    private CounterService counterService;
+
+    @Autowired
+    private ReviewService reviewService;
+
+    @Autowired
+    private ReviewRepository reviewRepository;
+
+    @Autowired
+    private BookRepository bookRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    private BookEntity book;
+
+    private UserEntity user;
+
+    private UserEntity otherUser;
+
+    @BeforeEach
+    public void init() {
+        counterService.flush();
+        book = bookRepository.saveAndFlush(BookResourceIT.createEntity().isbn("counter-isbn").totalReviews(null));
+        user = userRepository.saveAndFlush(UserResourceIT.createEntity());
+        otherUser = userRepository.saveAndFlush(UserResourceIT.createEntity());
+    }
+
+    @AfterEach
+    public void cleanup() {
+        reviewRepository.findAll().stream().filter(r -> r.getBook().getId().equals(book.getId())).forEach(reviewRepository::delete);
+        bookRepository.deleteById(book.getId());
+        userRepository.deleteById(user.getId());
+        userRepository.deleteById(otherUser.getId());
+    }
+
+    @Test
+    void shouldMaintainCountersOnFlush() {
+        ReviewEntity review = reviewService.save(new ReviewEntity().content("content").helpfulCount(0).user(user).book(book));
+        assertThat(reviewService.markHelpful(review.getId(), user.getLogin())).isTrue();
+        assertThat(reviewService.markHelpful(review.getId(), user.getLogin())).isFalse();
+        assertThat(reviewService.markHelpful(review.getId(), otherUser.getLogin())).isTrue();
+
+        assertThat(counterService.getPending(Counter.BOOK_TOTAL_REVIEWS, book.getId())).isEqualTo(1);
+        assertThat(counterService.getPending(Counter.REVIEW_HELPFUL_COUNT, review.getId())).isEqualTo(2);
+
+        counterService.flush();
+
+        assertThat(counterService.getPending(Counter.REVIEW_HELPFUL_COUNT, review.getId())).isZero();
+        assertThat(bookRepository.findById(book.getId()).orElseThrow().getTotalReviews()).isEqualTo(1);
+        assertThat(reviewRepository.findById(review.getId()).orElseThrow().getHelpfulCount()).isEqualTo(2);
+
+        reviewService.delete(review.getId());
+        counterService.flush();
+
+        assertThat(bookRepository.findById(book.getId()).orElseThrow().getTotalReviews()).isZero();
+    }
+}
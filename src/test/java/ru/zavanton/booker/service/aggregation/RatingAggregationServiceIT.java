@@ -0,0 +1,126 @@
+package ru.zavanton.booker.service.aggregation;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.math.BigDecimal;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.support.TransactionTemplate;
+import ru.zavanton.booker.IntegrationTest;
+import ru.zavanton.booker.domain.BookEntity;
+import ru.zavanton.booker.domain.RatingEntity;
+import ru.zavanton.booker.domain.UserEntity;
+import ru.zavanton.booker.repository.BookRepository;
+import ru.zavanton.booker.repository.RatingRepository;
+import ru.zavanton.booker.repository.UserRepository;
+import ru.zavanton.booker.service.RatingService;
+import ru.zavanton.booker.web.rest.BookResourceIT;
+import ru.zavanton.booker.web.rest.UserResourceIT;
+
+/**
+ * Integration tests for {@link RatingAggregationService}.
+ */
+@IntegrationTest
+class RatingAggregationServiceIT {
+
+    @Autowired
+    private RatingAggregationService ratingAggregationService;
+
+    @Autowired
+    private RatingService ratingService;
+
+    @Autowired
+    private RatingRepository ratingRepository;
+
+    @Autowired
+    private BookRepository bookRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    private BookEntity book;
+
+    private UserEntity user;
+
+    private UserEntity otherUser;
+
+    @BeforeEach
+    public void init() {
+        ratingAggregationService.flush();
+        book = bookRepository.saveAndFlush(
+            BookResourceIT.createEntity().isbn("rating-aggregation-isbn").averageRating(null).totalRatings(null)
+        );
+        user = userRepository.saveAndFlush(UserResourceIT.createEntity());
+        otherUser = userRepository.saveAndFlush(UserResourceIT.createEntity());
+    }
+
+    @AfterEach
+    public void cleanup() {
+        ratingRepository.findAll().stream().filter(r -> r.getBook().getId().equals(book.getId())).forEach(ratingRepository::delete);
+        bookRepository.deleteById(book.getId());
+        userRepository.deleteById(user.getId());
+        userRepository.deleteById(otherUser.getId());
+    }
+
+    @Test
+    void shouldApplyCommittedRatingsOnFlush() {
+        RatingEntity first = ratingService.save(new RatingEntity().rating(4).user(user).book(book));
+        ratingService.save(new RatingEntity().rating(2).user(otherUser).book(book));
+
+        assertThat(ratingAggregationService.getPendingBookCount()).isEqualTo(1);
+        ratingAggregationService.flush();
+
+        assertThat(ratingAggregationService.getPendingBookCount()).isZero();
+        assertAggregates(2, 6, new BigDecimal("3.00"));
+
+        ratingService.partialUpdate(new RatingEntity().id(first.getId()).rating(5));
+        ratingAggregationService.flush();
+        assertAggregates(2, 7, new BigDecimal("3.50"));
+
+        ratingService.delete(first.getId());
+        ratingAggregationService.flush();
+        assertAggregates(1, 2, new BigDecimal("2.00"));
+    }
+
+    @Test
+    void shouldRecomputeAggregatesFromRatings() {
+        ratingService.save(new RatingEntity().rating(1).user(user).book(book));
+        ratingService.save(new RatingEntity().rating(4).user(otherUser).book(book));
+        ratingAggregationService.flush();
+        transactionTemplate.executeWithoutResult(status ->
+            jdbcTemplate.update("update book set rating_sum = 7, total_ratings = 42, average_rating = 0 where id = ?", book.getId())
+        );
+
+        ratingAggregationService.recomputeAll();
+
+        assertAggregates(2, 5, new BigDecimal("2.50"));
+    }
+
+    @Test
+    void shouldNotCountPendingRatingsTwiceAfterRecompute() {
+        ratingService.save(new RatingEntity().rating(3).user(user).book(book));
+        ratingService.save(new RatingEntity().rating(4).user(otherUser).book(book));
+
+        ratingAggregationService.recomputeAll();
+        assertAggregates(2, 7, new BigDecimal("3.50"));
+        ratingAggregationService.flush();
+
+        assertAggregates(2, 7, new BigDecimal("3.50"));
+    }
+
+    private void assertAggregates(int totalRatings, long ratingSum, BigDecimal averageRating) {
+        BookEntity persistedBook = bookRepository.findById(book.getId()).orElseThrow();
+        assertThat(persistedBook.getTotalRatings()).isEqualTo(totalRatings);
+        assertThat(persistedBook.getAverageRating()).isEqualByComparingTo(averageRating);
+        assertThat(jdbcTemplate.queryForObject("select rating_sum from book where id = ?", Long.class, book.getId())).isEqualTo(ratingSum);
+    }
+}
@@ -0,0 +1,118 @@
+package ru.zavanton.booker.service.aggregation;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.security.test.context.support.WithMockUser;
+import ru.zavanton.booker.IntegrationTest;
+import ru.zavanton.booker.domain.BookEntity;
+import ru.zavanton.booker.domain.ReadingStatusEntity;
+import ru.zavanton.booker.domain.UserEntity;
+import ru.zavanton.booker.repository.BookRepository;
+import ru.zavanton.booker.repository.ReadingStatusRepository;
+import ru.zavanton.booker.repository.UserRepository;
+import ru.zavanton.booker.service.ReadingStatusService;
+import ru.zavanton.booker.web.rest.BookResourceIT;
+import ru.zavanton.booker.web.rest.UserResourceIT;
+
+/**
+ * Integration tests for {@link ReadingProgressService}.
+ */
+@IntegrationTest
+@WithMockUser(ReadingProgressServiceIT.LOGIN)
+class ReadingProgressServiceIT {
+
+    static final String LOGIN = "reading-progress-user";
+
+    @Autowired
+    private ReadingProgressService readingProgressService;
+
+    @Autowired
+    private ReadingStatusService readingStatusService;
+
+    @Autowired
+    private ReadingStatusRepository readingStatusRepository;
+
+    @Autowired
+    private BookRepository bookRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    private BookEntity book;
+
+    private UserEntity user;
+
+    private ReadingStatusEntity readingStatus;
+
+    @BeforeEach
+    public void init() {
+        readingProgressService.flush();
+        UserEntity newUser = UserResourceIT.createEntity();
+        newUser.setLogin(LOGIN);
+        user = userRepository.saveAndFlush(newUser);
+        book = bookRepository.saveAndFlush(BookResourceIT.createEntity().isbn("progress-isbn"));
+        readingStatus = readingStatusRepository.saveAndFlush(
+            new ReadingStatusEntity().status("READING").currentPage(1).user(user).book(book)
+        );
+    }
+
+    @AfterEach
+    public void cleanup() {
+        readingProgressService.flush();
+        readingStatusRepository.deleteById(readingStatus.getId());
+        bookRepository.deleteById(book.getId());
+        userRepository.deleteById(user.getId());
+    }
+
+    @Test
+    void shouldKeepLatestPageUntilFlushed() {
+        assertThat(readingProgressService.record(book.getId(), 10)).isTrue();
+        assertThat(readingProgressService.record(book.getId(), 12)).isTrue();
+
+        // Read from memory, or from the database if a scheduled flush already ran
+        assertThat(readingStatusService.findOne(readingStatus.getId()).orElseThrow().getCurrentPage()).isEqualTo(12);
+
+        readingProgressService.flush();
+
+        assertThat(readingProgressService.getPending(LOGIN, book.getId())).isNull();
+        ReadingStatusEntity written = readingStatusRepository.findById(readingStatus.getId()).orElseThrow();
+        assertThat(written.getCurrentPage()).isEqualTo(12);
+        assertThat(written.getUpdatedAt()).isNotNull();
+        assertThat(written.getVersion()).isEqualTo(readingStatus.getVersion());
+    }
+
+    @Test
+    void shouldRejectBookWithoutReadingStatus() {
+        assertThat(readingProgressService.record(book.getId() + 1, 10)).isFalse();
+        assertThat(readingProgressService.getPending(LOGIN, book.getId() + 1)).isNull();
+    }
+
+    @Test
+    void shouldDiscardPageReplacedByUpdate() {
+        assertThat(readingProgressService.record(book.getId(), 10)).isTrue();
+
+        readingStatusService.partialUpdate(new ReadingStatusEntity().id(readingStatus.getId()).currentPage(5));
+        readingProgressService.flush();
+
+        assertThat(readingStatusRepository.findById(readingStatus.getId()).orElseThrow().getCurrentPage()).isEqualTo(5);
+    }
+
+    @Test
+    void shouldDiscardPageOfDeletedReadingStatus() {
+        assertThat(readingProgressService.record(book.getId(), 10)).isTrue();
+
+        readingStatusService.delete(readingStatus.getId());
+
+        assertThat(readingProgressService.getPending(LOGIN, book.getId())).isNull();
+        // A new reading status of the same book does not get the page of the deleted one
+        readingStatus = readingStatusRepository.saveAndFlush(
+            new ReadingStatusEntity().status("READING").currentPage(1).user(user).book(book)
+        );
+        readingProgressService.flush();
+        assertThat(readingStatusRepository.findById(readingStatus.getId()).orElseThrow().getCurrentPage()).isEqualTo(1);
+    }
+}
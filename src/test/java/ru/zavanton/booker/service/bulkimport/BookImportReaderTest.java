@@ -0,0 +1,88 @@
+package ru.zavanton.booker.service.bulkimport;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import org.junit.jupiter.api.Test;
+
+class BookImportReaderTest {
+
+    private final ObjectMapper objectMapper = new ObjectMapper().registerModule(new JavaTimeModule());
+
+    private List<BookImportReader.Line> read(String content, ImportFormat format) {
+        List<BookImportReader.Line> lines = new ArrayList<>();
+        new BookImportReader(new ByteArrayInputStream(content.getBytes(StandardCharsets.UTF_8)), format, objectMapper).forEachRemaining(
+            lines::add
+        );
+        return lines;
+    }
+
+    @Test
+    void shouldReadCsvColumnsByName() {
+        List<BookImportReader.Line> lines = read(
+            "\uFEFFTitle,ISBN,page_count,publication-date,authors,publisher\r\n" +
+            "Dune,978-0441013593,412,1965-08-01,Frank Herbert,Chilton Books\r\n",
+            ImportFormat.CSV
+        );
+
+        assertThat(lines).hasSize(1);
+        BookImportReader.Line line = lines.get(0);
+        assertThat(line.number()).isEqualTo(2);
+        assertThat(line.error()).isNull();
+        assertThat(line.row().isbn()).isEqualTo("978-0441013593");
+        assertThat(line.row().title()).isEqualTo("Dune");
+        assertThat(line.row().pageCount()).isEqualTo(412);
+        assertThat(line.row().publicationDate()).isEqualTo(LocalDate.of(1965, 8, 1));
+        assertThat(line.row().authors()).containsExactly("Frank Herbert");
+        assertThat(line.row().publisher()).isEqualTo("Chilton Books");
+        assertThat(line.row().genres()).isNull();
+    }
+
+    @Test
+    void shouldReadQuotedCsvFieldsAndLists() {
+        List<BookImportReader.Line> lines = read(
+            "isbn,title,description,genres\n" +
+            "1,\"Good Omens\",\"A \"\"nice\"\" and accurate\nprophecy, of sorts\",\"Fantasy; Comedy ;\"\n" +
+            "2,Second,,\n",
+            ImportFormat.CSV
+        );
+
+        assertThat(lines).extracting(BookImportReader.Line::number).containsExactly(2L, 4L);
+        assertThat(lines.get(0).row().description()).isEqualTo("A \"nice\" and accurate\nprophecy, of sorts");
+        assertThat(lines.get(0).row().genres()).containsExactly("Fantasy", "Comedy");
+        assertThat(lines.get(1).row().description()).isNull();
+    }
+
+    @Test
+    void shouldReportInvalidCsvValuesAndContinue() {
+        List<BookImportReader.Line> lines = read("isbn,title,pageCount\n1,First,many\n2,Second,10\n", ImportFormat.CSV);
+
+        assertThat(lines).hasSize(2);
+        assertThat(lines.get(0).row()).isNull();
+        assertThat(lines.get(0).error()).contains("pagecount");
+        assertThat(lines.get(1).row().pageCount()).isEqualTo(10);
+    }
+
+    @Test
+    void shouldReadNdjsonAndReportInvalidLines() {
+        List<BookImportReader.Line> lines = read(
+            "{\"isbn\":\"1\",\"title\":\"First\",\"publicationDate\":\"2001-02-03\",\"tags\":[\"classic\"],\"unknown\":true}\n" +
+            "\n" +
+            "{\"isbn\":\"2\",\n" +
+            "{\"isbn\":\"3\",\"title\":\"Third\"}\n",
+            ImportFormat.NDJSON
+        );
+
+        assertThat(lines).extracting(BookImportReader.Line::number).containsExactly(1L, 3L, 4L);
+        assertThat(lines.get(0).row().publicationDate()).isEqualTo(LocalDate.of(2001, 2, 3));
+        assertThat(lines.get(0).row().tags()).containsExactly("classic");
+        assertThat(lines.get(1).error()).startsWith("Invalid JSON");
+        assertThat(lines.get(2).row().title()).isEqualTo("Third");
+    }
+}
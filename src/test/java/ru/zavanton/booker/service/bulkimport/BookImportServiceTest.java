@@ -0,0 +1,28 @@
+package ru.zavanton.booker.service.bulkimport;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.List;
+import org.junit.jupiter.api.Test;
+
+class BookImportServiceTest {
+
+    @Test
+    void shouldSlugifyNames() {
+        assertThat(BookImportService.slugify("Science  Fiction & Fantasy")).isEqualTo("science-fiction-fantasy");
+        assertThat(BookImportService.slugify("Littérature française")).isEqualTo("litterature-francaise");
+        assertThat(BookImportService.slugify("Русская классика")).isEqualTo("русская-классика");
+    }
+
+    @Test
+    void shouldValidateRows() {
+        assertThat(BookImportService.validate(new BookImportRow("1", "Title", null, null, null, null, null, null, null, null, null))).isNull();
+        assertThat(BookImportService.validate(new BookImportRow(" ", "Title", null, null, null, null, null, null, null, null, null)))
+            .contains("isbn");
+        assertThat(BookImportService.validate(new BookImportRow("1", null, null, null, null, null, null, null, null, null, null)))
+            .contains("title");
+        assertThat(
+            BookImportService.validate(new BookImportRow("1", "Title", null, null, null, null, null, null, null, List.of("!!!"), null))
+        ).contains("!!!");
+    }
+}
@@ -95,6 +95,9 @@ class BookCriteriaTest {
         bookEntityCriteria.bookTagId();
         bookEntityCriteria.bookCollectionId();
         bookEntityCriteria.publisherId();
+        bookEntityCriteria.authorId();
+        bookEntityCriteria.genreId();
+        bookEntityCriteria.tagId();
         bookEntityCriteria.distinct();
     }
 
@@ -121,6 +124,9 @@ class BookCriteriaTest {
                 condition.apply(criteria.getBookTagId()) &&
                 condition.apply(criteria.getBookCollectionId()) &&
                 condition.apply(criteria.getPublisherId()) &&
+                condition.apply(criteria.getAuthorId()) &&
+                condition.apply(criteria.getGenreId()) &&
+                condition.apply(criteria.getTagId()) &&
                 condition.apply(criteria.getDistinct()),
             "every filter matches"
         );
@@ -149,6 +155,9 @@ class BookCriteriaTest {
                 condition.apply(criteria.getBookTagId(), copy.getBookTagId()) &&
                 condition.apply(criteria.getBookCollectionId(), copy.getBookCollectionId()) &&
                 condition.apply(criteria.getPublisherId(), copy.getPublisherId()) &&
+                condition.apply(criteria.getAuthorId(), copy.getAuthorId()) &&
+                condition.apply(criteria.getGenreId(), copy.getGenreId()) &&
+                condition.apply(criteria.getTagId(), copy.getTagId()) &&
                 condition.apply(criteria.getDistinct(), copy.getDistinct()),
             "every filter matches"
         );
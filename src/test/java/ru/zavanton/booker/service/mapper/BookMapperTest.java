@@ -0,0 +1,72 @@
+package ru.zavanton.booker.service.mapper;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.time.LocalDate;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import ru.zavanton.booker.domain.BookEntity;
+import ru.zavanton.booker.domain.PublisherEntity;
+import ru.zavanton.booker.repository.BookSummaryProjection;
+import ru.zavanton.booker.service.dto.BookDto;
+
+/**
+ * Unit tests for {@link BookMapper}.
+ */
+class BookMapperTest {
+
+    private BookMapper bookMapper;
+
+    @BeforeEach
+    public void init() {
+        bookMapper = new BookMapperImpl();
+    }
+
+    @Test
+    void shouldMapEntityWithDescriptionAndPublisherId() {
+        PublisherEntity publisher = new PublisherEntity();
+        publisher.setId(2L);
+        publisher.setName("Ace");
+        BookEntity book = new BookEntity().isbn("978-0-441-17271-9").title("Dune").description("A desert planet").publisher(publisher);
+        book.setId(1L);
+
+        BookDto bookDto = bookMapper.toDto(book);
+
+        assertThat(bookDto.getId()).isEqualTo(1L);
+        assertThat(bookDto.getTitle()).isEqualTo("Dune");
+        assertThat(bookDto.getDescription()).isEqualTo("A desert planet");
+        assertThat(bookDto.getPublisher().getId()).isEqualTo(2L);
+        assertThat(bookDto.getPublisher().getName()).isNull();
+    }
+
+    @Test
+    void shouldMapSummaryProjection() {
+        Instant now = Instant.now();
+        BookSummaryProjection summary = new BookSummaryProjection(
+            1L,
+            "978-0-441-17271-9",
+            "Dune",
+            null,
+            412,
+            LocalDate.of(1965, 8, 1),
+            "en",
+            BigDecimal.ONE,
+            3,
+            2,
+            now,
+            now,
+            null
+        );
+
+        BookDto bookDto = bookMapper.toDto(summary);
+
+        assertThat(bookDto.getId()).isEqualTo(1L);
+        assertThat(bookDto.getPageCount()).isEqualTo(412);
+        assertThat(bookDto.getPublicationDate()).isEqualTo(LocalDate.of(1965, 8, 1));
+        assertThat(bookDto.getUpdatedAt()).isEqualTo(now);
+        assertThat(bookDto.getDescription()).isNull();
+        assertThat(bookDto.getPublisher()).isNull();
+    }
+}
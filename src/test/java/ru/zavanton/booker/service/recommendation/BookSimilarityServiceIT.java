@@ -0,0 +1,116 @@
+package ru.zavanton.booker.service.recommendation;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.within;
+
+import java.time.Instant;
+import java.util.List;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import ru.zavanton.booker.IntegrationTest;
+import ru.zavanton.booker.domain.BookEntity;
+import ru.zavanton.booker.domain.RatingEntity;
+import ru.zavanton.booker.domain.UserEntity;
+import ru.zavanton.booker.repository.BookRepository;
+import ru.zavanton.booker.repository.RatingRepository;
+import ru.zavanton.booker.repository.UserRepository;
+import ru.zavanton.booker.service.dto.ScoredBookDto;
+import ru.zavanton.booker.web.rest.BookResourceIT;
+import ru.zavanton.booker.web.rest.UserResourceIT;
+
+/**
+ * Integration tests for {@link BookSimilarityService}, which run outside of a test transaction
+ * as the similarities are written in their own transactions.
+ */
+@IntegrationTest
+class BookSimilarityServiceIT {
+
+    @Autowired
+    private BookSimilarityService bookSimilarityService;
+
+    @Autowired
+    private BookRepository bookRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private RatingRepository ratingRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private BookEntity first;
+
+    private BookEntity second;
+
+    private BookEntity third;
+
+    @BeforeEach
+    public void init() {
+        UserEntity firstReader = userRepository.saveAndFlush(reader("similarity-reader-1"));
+        UserEntity secondReader = userRepository.saveAndFlush(reader("similarity-reader-2"));
+        first = bookRepository.saveAndFlush(BookResourceIT.createEntity().isbn("SIMILARITY-1"));
+        second = bookRepository.saveAndFlush(BookResourceIT.createEntity().isbn("SIMILARITY-2"));
+        third = bookRepository.saveAndFlush(BookResourceIT.createEntity().isbn("SIMILARITY-3"));
+        ratingRepository.saveAllAndFlush(
+            List.of(
+                rating(firstReader, first, 5),
+                rating(firstReader, second, 5),
+                rating(secondReader, first, 4),
+                rating(secondReader, second, 4),
+                rating(secondReader, third, 1)
+            )
+        );
+    }
+
+    @AfterEach
+    public void cleanup() {
+        jdbcTemplate.update("delete from book_similarity");
+        jdbcTemplate.update("delete from rating where book_id in (select id from book where isbn like 'SIMILARITY-%')");
+        jdbcTemplate.update("delete from book where isbn like 'SIMILARITY-%'");
+        jdbcTemplate.update("delete from booker_user where login like 'similarity-reader-%'");
+    }
+
+    private static UserEntity reader(String login) {
+        UserEntity user = UserResourceIT.createEntity();
+        user.setLogin(login);
+        user.setEmail(login + "@localhost");
+        return user;
+    }
+
+    private static RatingEntity rating(UserEntity user, BookEntity book, int rating) {
+        Instant now = Instant.now();
+        return new RatingEntity().rating(rating).user(user).book(book).createdAt(now).updatedAt(now);
+    }
+
+    @Test
+    void shouldStoreBooksRatedByTheSameReaders() {
+        bookSimilarityService.recompute();
+
+        // The third book has a single reader in common with the others, below application.recommendation.min-common-users
+        List<ScoredBookDto> similarToFirst = bookSimilarityService.findSimilarBooks(first.getId(), 20).orElseThrow();
+        assertThat(similarToFirst).extracting(ScoredBookDto::getId).containsExactly(second.getId());
+        assertThat(similarToFirst.get(0).getScore()).isCloseTo(1d, within(1e-6));
+        assertThat(bookSimilarityService.findSimilarBooks(third.getId(), 20)).contains(List.of());
+    }
+
+    @Test
+    void shouldReplacePreviousSimilarities() {
+        bookSimilarityService.recompute();
+        jdbcTemplate.update("delete from rating where book_id = ?", second.getId());
+
+        bookSimilarityService.recompute();
+
+        assertThat(bookSimilarityService.findSimilarBooks(first.getId(), 20)).contains(List.of());
+        assertThat(bookSimilarityService.findSimilarBooks(second.getId(), 20)).contains(List.of());
+    }
+
+    @Test
+    void shouldNotFindSimilarBooksOfNonExistingBook() {
+        assertThat(bookSimilarityService.findSimilarBooks(Long.MAX_VALUE, 20)).isEmpty();
+    }
+}
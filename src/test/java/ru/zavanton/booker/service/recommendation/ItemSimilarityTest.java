@@ -0,0 +1,111 @@
+package ru.zavanton.booker.service.recommendation;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatIllegalArgumentException;
+import static org.assertj.core.api.Assertions.within;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+class ItemSimilarityTest {
+
+    private final ForkJoinPool pool = new ForkJoinPool(2);
+
+    @AfterEach
+    void shutdown() {
+        pool.shutdown();
+    }
+
+    /**
+     * Two users: the first rated books 10 and 20 with 5, the second rated books 10 and 20 with 4 and book 30 with 1.
+     */
+    private static RatingMatrix matrix() {
+        return RatingMatrix.builder(5).add(10, 0, 5).add(10, 1, 4).add(20, 0, 5).add(20, 1, 4).add(30, 1, 1).build();
+    }
+
+    private static List<Long> neighborIds(RatingMatrix matrix, ItemSimilarity similarity, int book) {
+        List<Long> ids = new ArrayList<>();
+        for (int rank = 0; rank < similarity.getNeighbors() && similarity.getNeighborBook(book, rank) >= 0; rank++) {
+            ids.add(matrix.getBookId(similarity.getNeighborBook(book, rank)));
+        }
+        return ids;
+    }
+
+    @Test
+    void shouldBuildMatrixByBookAndByUser() {
+        RatingMatrix matrix = matrix();
+
+        assertThat(matrix.getBookCount()).isEqualTo(3);
+        assertThat(matrix.getUserCount()).isEqualTo(2);
+        assertThat(matrix.getEntryCount()).isEqualTo(5);
+        assertThat(matrix.getBookNorm(0)).isCloseTo((float) Math.sqrt(41), within(1e-6f));
+        assertThat(matrix.getUserEnd(1) - matrix.getUserStart(1)).isEqualTo(3);
+        assertThat(matrix.getUserBook(matrix.getUserStart(1) + 2)).isEqualTo(2);
+        assertThat(matrix.getUserValue(matrix.getUserStart(1) + 2)).isEqualTo(1);
+    }
+
+    @Test
+    void shouldRejectRatingsOutOfBookOrder() {
+        RatingMatrix.Builder builder = RatingMatrix.builder(2).add(20, 0, 5);
+        assertThatIllegalArgumentException().isThrownBy(() -> builder.add(10, 0, 5));
+    }
+
+    @Test
+    void shouldRankNeighborsByCosineSimilarity() {
+        RatingMatrix matrix = matrix();
+        ItemSimilarity similarity = new ItemSimilarity(matrix, 5, 1, 1000);
+
+        similarity.compute(pool);
+
+        assertThat(neighborIds(matrix, similarity, 0)).containsExactly(20L, 30L);
+        assertThat(similarity.getNeighborScore(0, 0)).isCloseTo(1f, within(1e-6f));
+        assertThat(similarity.getNeighborScore(0, 1)).isCloseTo((float) (4 / Math.sqrt(41)), within(1e-6f));
+        assertThat(neighborIds(matrix, similarity, 2)).containsExactly(10L, 20L);
+    }
+
+    @Test
+    void shouldKeepBestNeighborsWithEnoughCommonUsers() {
+        RatingMatrix matrix = matrix();
+
+        ItemSimilarity best = new ItemSimilarity(matrix, 1, 1, 1000);
+        best.compute(pool);
+        assertThat(neighborIds(matrix, best, 0)).containsExactly(20L);
+
+        ItemSimilarity common = new ItemSimilarity(matrix, 5, 2, 1000);
+        common.compute(pool);
+        assertThat(neighborIds(matrix, common, 0)).containsExactly(20L);
+        assertThat(neighborIds(matrix, common, 2)).isEmpty();
+    }
+
+    @Test
+    void shouldSkipUsersWithTooManyRatings() {
+        RatingMatrix matrix = matrix();
+        ItemSimilarity similarity = new ItemSimilarity(matrix, 5, 1, 2);
+
+        similarity.compute(pool);
+
+        assertThat(neighborIds(matrix, similarity, 0)).containsExactly(20L);
+        assertThat(neighborIds(matrix, similarity, 2)).isEmpty();
+    }
+
+    @Test
+    void shouldComputeManyBooksInParallel() {
+        // Each user rates a run of consecutive books, so neighbors are the nearest books
+        RatingMatrix.Builder builder = RatingMatrix.builder(10_000);
+        for (int book = 0; book < 1_000; book++) {
+            for (int user = Math.max(0, book - 4); user <= book; user++) {
+                builder.add(book, user, 1);
+            }
+        }
+        RatingMatrix matrix = builder.build();
+        ItemSimilarity similarity = new ItemSimilarity(matrix, 2, 1, 1000);
+
+        similarity.compute(pool);
+
+        assertThat(neighborIds(matrix, similarity, 500)).containsExactlyInAnyOrder(499L, 501L);
+        assertThat(similarity.getNeighborScore(500, 0)).isCloseTo(0.8f, within(1e-6f));
+    }
+}
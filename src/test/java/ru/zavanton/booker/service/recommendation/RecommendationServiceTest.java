@@ -0,0 +1,66 @@
+package ru.zavanton.booker.service.recommendation;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatIllegalArgumentException;
+import static org.assertj.core.api.Assertions.within;
+
+import java.util.List;
+import java.util.Map;
+import org.junit.jupiter.api.Test;
+
+class RecommendationServiceTest {
+
+    private static SimilarityIndex index() {
+        return SimilarityIndex.builder()
+            .add(1, 2, 0.9f)
+            .add(1, 3, 0.5f)
+            .add(1, 4, 0.1f)
+            .add(2, 1, 0.9f)
+            .add(2, 4, 0.8f)
+            .add(5, 4, 0.2f)
+            .build();
+    }
+
+    @Test
+    void shouldKeepHighestPreferenceOfEachBook() {
+        UserProfile profile = UserProfile.builder().add(5, 3).add(1, 2).add(5, 4).add(2, 1).build();
+
+        assertThat(profile.size()).isEqualTo(3);
+        assertThat(profile.getBookId(0)).isEqualTo(1);
+        assertThat(profile.getValue(2)).isEqualTo(4);
+        assertThat(profile.with(5, 1)).isSameAs(profile);
+        UserProfile rated = profile.with(3, 5);
+        assertThat(rated.size()).isEqualTo(4);
+        assertThat(rated.contains(3)).isTrue();
+        assertThat(rated.getValue(2)).isEqualTo(5);
+        assertThat(profile.contains(3)).isFalse();
+    }
+
+    @Test
+    void shouldRejectSimilarBooksOutOfBookOrder() {
+        SimilarityIndex.Builder builder = SimilarityIndex.builder().add(2, 1, 0.5f);
+        assertThatIllegalArgumentException().isThrownBy(() -> builder.add(1, 2, 0.5f));
+    }
+
+    @Test
+    void shouldRecommendBooksSimilarToPreferredOnes() {
+        UserProfile profile = UserProfile.builder().add(1, 5).add(5, 1).build();
+
+        List<Map.Entry<Long, Double>> recommendations = RecommendationService.recommend(profile, index(), 10);
+
+        assertThat(recommendations).extracting(Map.Entry::getKey).containsExactly(2L, 3L, 4L);
+        assertThat(recommendations.get(0).getValue()).isCloseTo(4.5, within(1e-6));
+        // Book 4 is similar to both preferred books
+        assertThat(recommendations.get(2).getValue()).isCloseTo(0.7, within(1e-6));
+    }
+
+    @Test
+    void shouldNotRecommendBooksOfTheUser() {
+        UserProfile profile = UserProfile.builder().add(1, 5).add(2, 5).build();
+
+        List<Map.Entry<Long, Double>> recommendations = RecommendationService.recommend(profile, index(), 1);
+
+        assertThat(recommendations).extracting(Map.Entry::getKey).containsExactly(4L);
+        assertThat(RecommendationService.recommend(UserProfile.EMPTY, index(), 10)).isEmpty();
+    }
+}
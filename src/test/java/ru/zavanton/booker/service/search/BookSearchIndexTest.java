@@ -0,0 +1,114 @@
+package ru.zavanton.booker.service.search;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.nio.file.Path;
+import java.util.List;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+class BookSearchIndexTest {
+
+    @TempDir
+    Path tempDir;
+
+    private static BookDocument document(long bookId, String title, String description) {
+        return BookDocument.builder(bookId)
+            .text(title, BookDocument.TITLE_WEIGHT)
+            .text(description, BookDocument.DESCRIPTION_WEIGHT)
+            .build();
+    }
+
+    private static List<Long> ids(BookSearchIndex.Result result) {
+        return result.hits().stream().map(BookSearchIndex.Hit::bookId).toList();
+    }
+
+    @Test
+    void shouldRankTitleMatchesFirst() {
+        BookSearchIndex index = new BookSearchIndex();
+        index.update(document(1, "A history of the sea", "Ships and dragons"));
+        index.update(document(2, "Dragons of Autumn", "A fantasy novel"));
+        index.update(document(3, "Cooking", "Recipes"));
+
+        BookSearchIndex.Result result = index.search(SearchAnalyzer.analyze("dragons"), 0, 10);
+
+        assertThat(result.totalHits()).isEqualTo(2);
+        assertThat(ids(result)).containsExactly(2L, 1L);
+    }
+
+    @Test
+    void shouldIgnoreCaseAndDiacritics() {
+        BookSearchIndex index = new BookSearchIndex();
+        index.update(document(1, "Les Misérables", null));
+
+        assertThat(ids(index.search(SearchAnalyzer.analyze("MISERABLES"), 0, 10))).containsExactly(1L);
+    }
+
+    @Test
+    void shouldPaginateHits() {
+        BookSearchIndex index = new BookSearchIndex();
+        for (long id = 1; id <= 5; id++) {
+            index.update(document(id, "Dune", null));
+        }
+
+        BookSearchIndex.Result result = index.search(SearchAnalyzer.analyze("dune"), 2, 2);
+
+        assertThat(result.totalHits()).isEqualTo(5);
+        assertThat(ids(result)).containsExactly(3L, 4L);
+    }
+
+    @Test
+    void shouldReplaceAndRemoveDocuments() {
+        BookSearchIndex index = new BookSearchIndex();
+        index.update(document(1, "Dune", null));
+        index.update(document(2, "Dune Messiah", null));
+
+        index.update(document(1, "Foundation", null));
+        index.remove(2);
+
+        assertThat(index.getDocCount()).isEqualTo(1);
+        assertThat(index.search(SearchAnalyzer.analyze("dune"), 0, 10).totalHits()).isZero();
+        assertThat(ids(index.search(SearchAnalyzer.analyze("foundation"), 0, 10))).containsExactly(1L);
+    }
+
+    @Test
+    void shouldMergeSegmentAndDelta() throws Exception {
+        BookSearchIndex index = new BookSearchIndex();
+        index.update(document(1, "Dune", null));
+        index.update(document(2, "Dune Messiah", null));
+        index.update(document(3, "Foundation", null));
+        Path first = tempDir.resolve("first.seg");
+        index.writeSegment(first);
+        index.reset(SearchSegment.open(first));
+
+        assertThat(index.hasChanges()).isFalse();
+        assertThat(ids(index.search(SearchAnalyzer.analyze("dune"), 0, 10))).containsExactly(1L, 2L);
+
+        index.update(document(2, "Children of Dune", null));
+        index.remove(3);
+        index.update(document(4, "Foundation and Empire", null));
+
+        assertThat(index.hasChanges()).isTrue();
+        assertThat(index.getDocIds()).containsExactly(1L, 2L, 4L);
+        assertThat(ids(index.search(SearchAnalyzer.analyze("foundation"), 0, 10))).containsExactly(4L);
+        assertThat(ids(index.search(SearchAnalyzer.analyze("children"), 0, 10))).containsExactly(2L);
+
+        Path second = tempDir.resolve("second.seg");
+        index.writeSegment(second);
+        index.reset(SearchSegment.open(second));
+
+        assertThat(index.getDocCount()).isEqualTo(3);
+        assertThat(ids(index.search(SearchAnalyzer.analyze("foundation"), 0, 10))).containsExactly(4L);
+        assertThat(ids(index.search(SearchAnalyzer.analyze("messiah"), 0, 10))).isEmpty();
+        assertThat(ids(index.search(SearchAnalyzer.analyze("dune"), 0, 10))).containsExactlyInAnyOrder(1L, 2L);
+    }
+
+    @Test
+    void shouldFindBooksByIsbnWithOrWithoutHyphens() {
+        BookSearchIndex index = new BookSearchIndex();
+        index.update(BookDocument.builder(1).isbn("978-3-16-148410-0").text("Some title", BookDocument.TITLE_WEIGHT).build());
+
+        assertThat(ids(index.search(SearchAnalyzer.analyze("9783161484100"), 0, 10))).containsExactly(1L);
+        assertThat(ids(index.search(SearchAnalyzer.analyze("978-3-16-148410-0"), 0, 10))).containsExactly(1L);
+    }
+}
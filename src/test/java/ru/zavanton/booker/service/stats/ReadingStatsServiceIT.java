@@ -0,0 +1,112 @@
+package ru.zavanton.booker.service.stats;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import jakarta.persistence.EntityManager;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.util.List;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.security.test.context.support.WithMockUser;
+import org.springframework.transaction.annotation.Transactional;
+import ru.zavanton.booker.IntegrationTest;
+import ru.zavanton.booker.domain.BookEntity;
+import ru.zavanton.booker.domain.RatingEntity;
+import ru.zavanton.booker.domain.ReadingStatusEntity;
+import ru.zavanton.booker.domain.UserEntity;
+import ru.zavanton.booker.service.RatingService;
+import ru.zavanton.booker.service.ReadingStatusService;
+import ru.zavanton.booker.service.dto.ReadingStatsDto;
+import ru.zavanton.booker.web.rest.BookResourceIT;
+import ru.zavanton.booker.web.rest.UserResourceIT;
+
+/**
+ * Integration tests for {@link ReadingStatsService}.
+ */
+@IntegrationTest
+@Transactional
+@WithMockUser(ReadingStatsServiceIT.LOGIN)
+class ReadingStatsServiceIT {
+
+    static final String LOGIN = "reading-stats-user";
+
+    @Autowired
+    private ReadingStatsService readingStatsService;
+
+    @Autowired
+    private ReadingStatusService readingStatusService;
+
+    @Autowired
+    private RatingService ratingService;
+
+    @Autowired
+    private EntityManager em;
+
+    private UserEntity user;
+
+    private BookEntity book;
+
+    private BookEntity otherBook;
+
+    @BeforeEach
+    public void init() {
+        user = UserResourceIT.createEntity();
+        user.setLogin(LOGIN);
+        em.persist(user);
+        book = BookResourceIT.createEntity().isbn("stats-isbn").pageCount(300);
+        em.persist(book);
+        otherBook = BookResourceIT.createEntity().isbn("stats-other-isbn").pageCount(200);
+        em.persist(otherBook);
+        em.flush();
+    }
+
+    @Test
+    void shouldMaintainStatsOnWrites() {
+        ReadingStatusEntity readingStatus = readingStatusService.save(
+            new ReadingStatusEntity().status("READ").finishedDate(LocalDate.of(2025, 6, 1)).user(user).book(book)
+        );
+        ratingService.save(new RatingEntity().rating(4).createdAt(Instant.parse("2025-03-01T10:00:00Z")).user(user).book(book));
+        RatingEntity rating = ratingService.save(
+            new RatingEntity().rating(2).createdAt(Instant.parse("2025-12-31T23:00:00Z")).user(user).book(otherBook)
+        );
+
+        ReadingStatsDto stats = readingStatsService.findOne(2025);
+        assertThat(stats.getBooksRead()).isEqualTo(1);
+        assertThat(stats.getPagesRead()).isEqualTo(300);
+        assertThat(stats.getRatingsGiven()).isEqualTo(2);
+        assertThat(stats.getAverageRating()).isEqualTo(3.0);
+
+        readingStatusService.partialUpdate(new ReadingStatusEntity().id(readingStatus.getId()).finishedDate(LocalDate.of(2026, 1, 2)));
+        ratingService.delete(rating.getId());
+
+        assertThat(readingStatsService.findOne(2025).getBooksRead()).isZero();
+        assertThat(readingStatsService.findOne(2025).getRatingsGiven()).isEqualTo(1);
+        assertThat(readingStatsService.findOne(2025).getAverageRating()).isEqualTo(4.0);
+        assertThat(readingStatsService.findOne(2026).getBooksRead()).isEqualTo(1);
+        assertThat(readingStatsService.findOne(2026).getPagesRead()).isEqualTo(300);
+        assertThat(readingStatsService.findAll()).extracting(ReadingStatsDto::getYear).containsExactly(2026, 2025);
+    }
+
+    @Test
+    void shouldReturnEmptyStatsForYearWithoutActivity() {
+        ReadingStatsDto stats = readingStatsService.findOne(1999);
+
+        assertThat(stats.getYear()).isEqualTo(1999);
+        assertThat(stats.getBooksRead()).isZero();
+        assertThat(stats.getAverageRating()).isNull();
+    }
+
+    @Test
+    void shouldBackfillSameStats() {
+        readingStatusService.save(new ReadingStatusEntity().status("READ").finishedDate(LocalDate.of(2024, 2, 1)).user(user).book(book));
+        ratingService.save(new RatingEntity().rating(5).createdAt(Instant.parse("2024-05-01T00:00:00Z")).user(user).book(book));
+        em.flush();
+        List<ReadingStatsDto> maintained = readingStatsService.findAll();
+
+        readingStatsService.backfill();
+
+        assertThat(readingStatsService.findAll()).usingRecursiveFieldByFieldElementComparator().containsExactlyElementsOf(maintained);
+    }
+}
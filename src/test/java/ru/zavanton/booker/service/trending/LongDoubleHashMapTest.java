@@ -0,0 +1,41 @@
+package ru.zavanton.booker.service.trending;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.HashMap;
+import java.util.Map;
+import org.junit.jupiter.api.Test;
+
+class LongDoubleHashMapTest {
+
+    @Test
+    void shouldAddToValuesWhileGrowing() {
+        LongDoubleHashMap map = new LongDoubleHashMap();
+        for (long key = 1; key <= 10_000; key++) {
+            map.add(key, key);
+            map.add(key, 1);
+        }
+
+        assertThat(map.size()).isEqualTo(10_000);
+        assertThat(map.get(1)).isEqualTo(2);
+        assertThat(map.get(10_000)).isEqualTo(10_001);
+        assertThat(map.get(10_001)).isZero();
+    }
+
+    @Test
+    void shouldScaleAndDropSmallValues() {
+        LongDoubleHashMap map = new LongDoubleHashMap();
+        map.add(1, 10);
+        map.add(2, 1);
+        map.add(-3, 4);
+
+        map.scale(0.5, 1);
+
+        Map<Long, Double> entries = new HashMap<>();
+        map.forEach(entries::put);
+        assertThat(entries).containsOnly(Map.entry(1L, 5d), Map.entry(-3L, 2d));
+        assertThat(map.size()).isEqualTo(2);
+        map.add(2, 1);
+        assertThat(map.get(2)).isEqualTo(1);
+    }
+}
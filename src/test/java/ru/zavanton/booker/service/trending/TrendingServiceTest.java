@@ -0,0 +1,86 @@
+package ru.zavanton.booker.service.trending;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.within;
+
+import java.util.List;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import ru.zavanton.booker.config.ApplicationProperties;
+
+class TrendingServiceTest {
+
+    private static final long HOUR_MS = 3_600_000;
+
+    private TrendingService trendingService;
+
+    private long now;
+
+    @BeforeEach
+    void setUp() {
+        ApplicationProperties applicationProperties = new ApplicationProperties();
+        applicationProperties.getTrending().setHalfLifeHours(24);
+        trendingService = new TrendingService(null, null, null, applicationProperties);
+        now = System.currentTimeMillis();
+    }
+
+    @Test
+    void shouldHalveScoresEveryHalfLife() {
+        trendingService.add(1, 8, now);
+
+        assertThat(trendingService.findTop(1, now).get(0).score()).isCloseTo(8, within(1e-9));
+        assertThat(trendingService.findTop(1, now + 24 * HOUR_MS).get(0).score()).isCloseTo(4, within(1e-9));
+        assertThat(trendingService.findTop(1, now + 48 * HOUR_MS).get(0).score()).isCloseTo(2, within(1e-9));
+    }
+
+    @Test
+    void shouldRankRecentInteractionsAboveOlderOnes() {
+        trendingService.add(1, 5, now - 72 * HOUR_MS);
+        trendingService.add(2, 3, now - HOUR_MS);
+        trendingService.add(3, 1, now);
+        trendingService.add(3, 1, now);
+
+        assertThat(trendingService.findTop(2, now)).extracting(TrendingScore::bookId).containsExactly(2L, 3L);
+        assertThat(trendingService.findTop(10, now)).extracting(TrendingScore::bookId).containsExactly(2L, 3L, 1L);
+        assertThat(trendingService.findTop(10, now, bookId -> bookId != 2)).extracting(TrendingScore::bookId).containsExactly(3L, 1L);
+        assertThat(trendingService.findTop(0, now)).isEmpty();
+    }
+
+    @Test
+    void shouldKeepScoresWhenRebasing() {
+        trendingService.add(1, 4, now);
+        trendingService.add(2, 0.015, now);
+
+        List<TrendingScore> current = trendingService.rebase(now + 24 * HOUR_MS);
+
+        // The second score decayed below the default minimum of 0.01
+        assertThat(current).singleElement().satisfies(score -> assertThat(score.score()).isCloseTo(2, within(1e-9)));
+        trendingService.add(1, 2, now + 24 * HOUR_MS);
+        assertThat(trendingService.findTop(1, now + 48 * HOUR_MS).get(0).score()).isCloseTo(2, within(1e-9));
+    }
+
+    @Test
+    void shouldAddUpScoresOfOtherNodes() {
+        trendingService.add(1, 2, now);
+
+        List<TrendingService.SnapshotRow> decayed = trendingService.replaceOtherNodeScores(
+            List.of(
+                new TrendingService.SnapshotRow("other", 1, 4, now - 24 * HOUR_MS),
+                new TrendingService.SnapshotRow("other", 2, 3, now),
+                new TrendingService.SnapshotRow("left", 3, 1, now - 240 * HOUR_MS)
+            ),
+            now
+        );
+
+        // The third score decayed below the default minimum of 0.01
+        assertThat(decayed).extracting(TrendingService.SnapshotRow::nodeId).containsExactly("left");
+        assertThat(trendingService.findTop(10, now)).extracting(TrendingScore::bookId).containsExactly(1L, 2L);
+        assertThat(trendingService.findTop(1, now).get(0).score()).isCloseTo(4, within(1e-9));
+
+        // Only the scores of this node are snapshotted
+        assertThat(trendingService.rebase(now + 24 * HOUR_MS)).singleElement().satisfies(score ->
+            assertThat(score.score()).isCloseTo(1, within(1e-9))
+        );
+        assertThat(trendingService.findTop(1, now + 24 * HOUR_MS).get(0).score()).isCloseTo(2, within(1e-9));
+    }
+}
@@ -0,0 +1,40 @@
+package ru.zavanton.booker.web.filter;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.http.HttpServletRequest;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpStatus;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+class ConcurrencyLimitFilterTest {
+
+    private final ConcurrencyLimitFilter filter = new ConcurrencyLimitFilter(1, 0);
+
+    @Test
+    void shouldReleasePermitWhenRequestReturns() throws Exception {
+        filter.doFilter(new MockHttpServletRequest(), new MockHttpServletResponse(), (request, response) -> {});
+
+        assertThat(filter.getActiveRequests()).isZero();
+    }
+
+    @Test
+    void shouldKeepPermitUntilAsyncRequestCompletes() throws Exception {
+        MockHttpServletRequest asyncRequest = new MockHttpServletRequest();
+        asyncRequest.setAsyncSupported(true);
+        FilterChain startAsync = (request, response) -> ((HttpServletRequest) request).startAsync();
+        filter.doFilter(asyncRequest, new MockHttpServletResponse(), startAsync);
+
+        assertThat(filter.getActiveRequests()).isEqualTo(1);
+        MockHttpServletResponse rejectedResponse = new MockHttpServletResponse();
+        filter.doFilter(new MockHttpServletRequest(), rejectedResponse, (request, response) -> {});
+        assertThat(rejectedResponse.getStatus()).isEqualTo(HttpStatus.SERVICE_UNAVAILABLE.value());
+        assertThat(filter.getRejectedRequests()).isEqualTo(1);
+
+        asyncRequest.getAsyncContext().complete();
+
+        assertThat(filter.getActiveRequests()).isZero();
+    }
+}
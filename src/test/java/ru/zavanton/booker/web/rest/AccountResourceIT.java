@@ -127,6 +127,31 @@ class AccountResourceIT {
         restAccountMockMvc.perform(get("/api/account").accept(MediaType.APPLICATION_PROBLEM_JSON)).andExpect(status().isUnauthorized());
     }
 
+    @Test
+    @Transactional
+    @WithMockUser("recommendations-account")
+    void testGetRecommendationsWithoutRatings() throws Exception {
+        UserEntity user = new UserEntity();
+        user.setLogin("recommendations-account");
+        user.setEmail("recommendations-account@example.com");
+        user.setPassword(RandomStringUtils.insecure().nextAlphanumeric(60));
+        user.setActivated(true);
+        userRepository.saveAndFlush(user);
+
+        restAccountMockMvc
+            .perform(get("/api/account/recommendations").accept(MediaType.APPLICATION_JSON))
+            .andExpect(status().isOk())
+            .andExpect(content().json("[]"));
+    }
+
+    @Test
+    @WithMockUser("recommendations-unknown")
+    void testGetRecommendationsOfUnknownAccount() throws Exception {
+        restAccountMockMvc
+            .perform(get("/api/account/recommendations").accept(MediaType.APPLICATION_PROBLEM_JSON))
+            .andExpect(status().isInternalServerError());
+    }
+
     @Test
     @Transactional
     void testRegisterValid() throws Exception {
@@ -1,6 +1,7 @@
 package ru.zavanton.booker.web.rest;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.hamcrest.Matchers.containsString;
 import static org.hamcrest.Matchers.hasItem;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
@@ -20,6 +21,7 @@ import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
 import org.springframework.security.test.context.support.WithMockUser;
 import org.springframework.test.web.servlet.MockMvc;
@@ -197,7 +199,7 @@ class AuthorResourceIT {
             .andExpect(jsonPath("$.[*].firstName").value(hasItem(DEFAULT_FIRST_NAME)))
             .andExpect(jsonPath("$.[*].lastName").value(hasItem(DEFAULT_LAST_NAME)))
             .andExpect(jsonPath("$.[*].fullName").value(hasItem(DEFAULT_FULL_NAME)))
-            .andExpect(jsonPath("$.[*].biography").value(hasItem(DEFAULT_BIOGRAPHY)))
+            .andExpect(jsonPath("$.[*].biography").isEmpty())
             .andExpect(jsonPath("$.[*].photoUrl").value(hasItem(DEFAULT_PHOTO_URL)))
             .andExpect(jsonPath("$.[*].birthDate").value(hasItem(DEFAULT_BIRTH_DATE.toString())))
             .andExpect(jsonPath("$.[*].deathDate").value(hasItem(DEFAULT_DEATH_DATE.toString())))
@@ -230,6 +232,61 @@ class AuthorResourceIT {
             .andExpect(jsonPath("$.updatedAt").value(DEFAULT_UPDATED_AT.toString()));
     }
 
+    @Test
+    @Transactional
+    void getAuthorNotModified() throws Exception {
+        // Initialize the database
+        insertedAuthorEntity = authorRepository.saveAndFlush(authorEntity);
+
+        String eTag = restAuthorMockMvc
+            .perform(get(ENTITY_API_URL_ID, authorEntity.getId()))
+            .andExpect(status().isOk())
+            .andExpect(header().string(HttpHeaders.CACHE_CONTROL, containsString("no-cache")))
+            .andReturn()
+            .getResponse()
+            .getHeader(HttpHeaders.ETAG);
+        assertThat(eTag).isEqualTo("\"" + authorEntity.getVersion() + "\"");
+
+        restAuthorMockMvc
+            .perform(get(ENTITY_API_URL_ID, authorEntity.getId()).header(HttpHeaders.IF_NONE_MATCH, eTag))
+            .andExpect(status().isNotModified())
+            .andExpect(header().string(HttpHeaders.ETAG, eTag))
+            .andExpect(content().string(""));
+
+        // Update the author
+        authorEntity.setUpdatedAt(UPDATED_UPDATED_AT);
+        authorRepository.saveAndFlush(authorEntity);
+
+        restAuthorMockMvc
+            .perform(get(ENTITY_API_URL_ID, authorEntity.getId()).header(HttpHeaders.IF_NONE_MATCH, eTag))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.updatedAt").value(UPDATED_UPDATED_AT.toString()));
+    }
+
+    @Test
+    @Transactional
+    void getAllAuthorsNotModified() throws Exception {
+        // Initialize the database
+        insertedAuthorEntity = authorRepository.saveAndFlush(authorEntity);
+        String url = ENTITY_API_URL + "?id.equals=" + authorEntity.getId();
+        String eTag = restAuthorMockMvc
+            .perform(get(url))
+            .andExpect(status().isOk())
+            .andExpect(header().doesNotExist(HttpHeaders.LAST_MODIFIED))
+            .andReturn()
+            .getResponse()
+            .getHeader(HttpHeaders.ETAG);
+
+        restAuthorMockMvc.perform(get(url).header(HttpHeaders.IF_NONE_MATCH, eTag)).andExpect(status().isNotModified());
+
+        // An update setting an older updatedAt still changes the validators
+        authorRepository.saveAndFlush(authorEntity.updatedAt(authorEntity.getUpdatedAt().minusSeconds(60)));
+        restAuthorMockMvc
+            .perform(get(url).header(HttpHeaders.IF_NONE_MATCH, eTag))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.[*].id").value(hasItem(authorEntity.getId().intValue())));
+    }
+
     @Test
     @Transactional
     void getAuthorsByIdFiltering() throws Exception {
@@ -715,7 +772,7 @@ class AuthorResourceIT {
             .andExpect(jsonPath("$.[*].firstName").value(hasItem(DEFAULT_FIRST_NAME)))
             .andExpect(jsonPath("$.[*].lastName").value(hasItem(DEFAULT_LAST_NAME)))
             .andExpect(jsonPath("$.[*].fullName").value(hasItem(DEFAULT_FULL_NAME)))
-            .andExpect(jsonPath("$.[*].biography").value(hasItem(DEFAULT_BIOGRAPHY)))
+            .andExpect(jsonPath("$.[*].biography").isEmpty())
             .andExpect(jsonPath("$.[*].photoUrl").value(hasItem(DEFAULT_PHOTO_URL)))
             .andExpect(jsonPath("$.[*].birthDate").value(hasItem(DEFAULT_BIRTH_DATE.toString())))
             .andExpect(jsonPath("$.[*].deathDate").value(hasItem(DEFAULT_DEATH_DATE.toString())))
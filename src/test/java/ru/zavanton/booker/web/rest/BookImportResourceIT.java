@@ -0,0 +1,149 @@
+package ru.zavanton.booker.web.rest;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.containsString;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.http.HttpHeaders;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.mock.web.MockMultipartFile;
+import org.springframework.security.test.context.support.WithMockUser;
+import org.springframework.test.web.servlet.MockMvc;
+import ru.zavanton.booker.IntegrationTest;
+import ru.zavanton.booker.repository.BookRepository;
+import ru.zavanton.booker.security.AuthoritiesConstants;
+
+/**
+ * Integration tests for the {@link BookImportResource} REST controller.
+ * <p>
+ * The imports are committed in their own transactions, so the tests do not run in a rolled back transaction
+ * and the imported rows are deleted after each test.
+ */
+@IntegrationTest
+@AutoConfigureMockMvc
+@WithMockUser(authorities = AuthoritiesConstants.ADMIN)
+class BookImportResourceIT {
+
+    private static final String ENTITY_API_URL = "/api/admin/book-imports";
+
+    @Autowired
+    private BookRepository bookRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private MockMvc restBookImportMockMvc;
+
+    @AfterEach
+    public void cleanup() {
+        for (String table : new String[] { "book_author", "book_genre", "book_tag" }) {
+            jdbcTemplate.update("delete from " + table + " where book_id in (select id from book where isbn like 'IMPORT-%')");
+        }
+        jdbcTemplate.update("delete from book where isbn like 'IMPORT-%'");
+        jdbcTemplate.update("delete from author where full_name like '% Import'");
+        jdbcTemplate.update("delete from genre where slug = 'import-fiction'");
+        jdbcTemplate.update("delete from tag where slug = 'import-tag'");
+        jdbcTemplate.update("delete from publisher where name = 'Import Publisher'");
+    }
+
+    @Test
+    void importCsvFile() throws Exception {
+        bookRepository.saveAndFlush(BookResourceIT.createEntity().isbn("IMPORT-EXISTING").description("Kept description"));
+        String csv =
+            "isbn,title,publisher,authors,genres,tags,pageCount,publicationDate\n" +
+            "IMPORT-NEW,\"New, imported\",Import Publisher,Jane Import;John Import,Import Fiction,import-tag,320,2020-05-01\n" +
+            "IMPORT-EXISTING,Updated title,Import Publisher,Jane Import,,,,\n" +
+            "IMPORT-BAD,,Import Publisher,,,,,\n" +
+            "IMPORT-DATE,Bad date,,,,,,not-a-date\n";
+
+        restBookImportMockMvc
+            .perform(multipart(ENTITY_API_URL).file(new MockMultipartFile("file", "feed.csv", "text/csv", csv.getBytes(StandardCharsets.UTF_8))))
+            .andExpect(status().isAccepted())
+            .andExpect(header().string(HttpHeaders.LOCATION, containsString(ENTITY_API_URL + "/")))
+            .andExpect(jsonPath("$.format").value("CSV"))
+            .andExpect(jsonPath("$.state").value("COMPLETED"))
+            .andExpect(jsonPath("$.readRows").value(4))
+            .andExpect(jsonPath("$.createdBooks").value(1))
+            .andExpect(jsonPath("$.updatedBooks").value(1))
+            .andExpect(jsonPath("$.failedRows").value(2))
+            .andExpect(jsonPath("$.errors[*].line").value(contains(4, 5)));
+
+        Map<String, Object> created = findBookByIsbn("IMPORT-NEW");
+        assertThat(created).containsEntry("title", "New, imported").containsEntry("page_count", 320).containsEntry("name", "Import Publisher");
+        assertThat(
+            jdbcTemplate.queryForList(
+                "select a.full_name from book_author ba join author a on a.id = ba.author_id where ba.book_id = ? order by ba.booker_order",
+                String.class,
+                created.get("id")
+            )
+        ).containsExactly("Jane Import", "John Import");
+        assertThat(jdbcTemplate.queryForObject("select count(*) from book_genre where book_id = ?", Long.class, created.get("id"))).isEqualTo(1);
+
+        Map<String, Object> updated = findBookByIsbn("IMPORT-EXISTING");
+        assertThat(updated).containsEntry("title", "Updated title").containsEntry("description", "Kept description");
+        assertThat(jdbcTemplate.queryForObject("select count(*) from book where isbn = 'IMPORT-BAD'", Long.class)).isZero();
+    }
+
+    @Test
+    void importNdjsonFile() throws Exception {
+        String ndjson =
+            "{\"isbn\":\"IMPORT-JSON\",\"title\":\"From JSON\",\"authors\":[\"Jane Import\"],\"unknown\":true}\n" + "{\"isbn\":\n";
+
+        restBookImportMockMvc
+            .perform(
+                multipart(ENTITY_API_URL)
+                    .file(new MockMultipartFile("file", "feed.txt", "application/x-ndjson", ndjson.getBytes(StandardCharsets.UTF_8)))
+                    .param("format", "ndjson")
+            )
+            .andExpect(status().isAccepted())
+            .andExpect(jsonPath("$.state").value("COMPLETED"))
+            .andExpect(jsonPath("$.createdBooks").value(1))
+            .andExpect(jsonPath("$.failedRows").value(1))
+            .andExpect(jsonPath("$.errors[0].line").value(2));
+
+        assertThat(findBookByIsbn("IMPORT-JSON")).containsEntry("title", "From JSON");
+    }
+
+    @Test
+    void importUnsupportedFormat() throws Exception {
+        restBookImportMockMvc
+            .perform(multipart(ENTITY_API_URL).file(new MockMultipartFile("file", "feed.xml", "application/xml", new byte[0])))
+            .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    @WithMockUser
+    void importRequiresAdmin() throws Exception {
+        restBookImportMockMvc
+            .perform(multipart(ENTITY_API_URL).file(new MockMultipartFile("file", "feed.csv", "text/csv", new byte[0])))
+            .andExpect(status().isForbidden());
+    }
+
+    @Test
+    void getNonExistingBookImport() throws Exception {
+        restBookImportMockMvc.perform(get(ENTITY_API_URL + "/{id}", "unknown")).andExpect(status().isNotFound());
+    }
+
+    private Map<String, Object> findBookByIsbn(String isbn) {
+        Map<String, Object> book = new HashMap<>();
+        // Column labels are upper case on H2
+        jdbcTemplate
+            .queryForMap(
+                "select b.id, b.title, b.description, b.page_count, p.name from book b left join publisher p on p.id = b.publisher_id where b.isbn = ?",
+                isbn
+            )
+            .forEach((column, value) -> book.put(column.toLowerCase(Locale.ROOT), value));
+        return book;
+    }
+}
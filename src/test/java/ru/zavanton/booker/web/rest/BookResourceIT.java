@@ -1,35 +1,53 @@
 package ru.zavanton.booker.web.rest;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.containsString;
 import static org.hamcrest.Matchers.hasItem;
+import static org.hamcrest.Matchers.startsWith;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
 import static ru.zavanton.booker.domain.BookEntityAsserts.*;
 import static ru.zavanton.booker.web.rest.TestUtil.createUpdateProxyForBean;
 import static ru.zavanton.booker.web.rest.TestUtil.sameNumber;
 
+import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import jakarta.persistence.EntityManager;
+import java.io.ByteArrayInputStream;
 import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
 import java.time.Instant;
 import java.time.LocalDate;
 import java.time.ZoneId;
 import java.time.temporal.ChronoUnit;
 import java.util.Random;
 import java.util.concurrent.atomic.AtomicLong;
+import java.util.zip.GZIPInputStream;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
 import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
 import org.springframework.security.test.context.support.WithMockUser;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
 import org.springframework.transaction.annotation.Transactional;
 import ru.zavanton.booker.IntegrationTest;
+import ru.zavanton.booker.domain.AuthorEntity;
+import ru.zavanton.booker.domain.BookAuthorEntity;
 import ru.zavanton.booker.domain.BookEntity;
+import ru.zavanton.booker.domain.BookGenreEntity;
+import ru.zavanton.booker.domain.BookTagEntity;
+import ru.zavanton.booker.domain.GenreEntity;
 import ru.zavanton.booker.domain.PublisherEntity;
+import ru.zavanton.booker.domain.TagEntity;
 import ru.zavanton.booker.repository.BookRepository;
+import ru.zavanton.booker.service.trending.TrendingService;
 
 /**
  * Integration tests for the {@link BookResource} REST controller.
@@ -83,6 +101,11 @@ class BookResourceIT {
     private static final String ENTITY_API_URL = "/api/books";
     private static final String ENTITY_API_URL_ID = ENTITY_API_URL + "/{id}";
 
+    /**
+     * The book with its publisher, then its authors, genres and tags, each with one query.
+     */
+    private static final int FULL_BOOK_QUERY_BUDGET = 4;
+
     private static Random random = new Random();
     private static AtomicLong longCount = new AtomicLong(random.nextInt() + (2 * Integer.MAX_VALUE));
 
@@ -98,6 +121,9 @@ class BookResourceIT {
     @Autowired
     private MockMvc restBookMockMvc;
 
+    @Autowired
+    private TrendingService trendingService;
+
     private BookEntity bookEntity;
 
     private BookEntity insertedBookEntity;
@@ -244,7 +270,7 @@ class BookResourceIT {
             .andExpect(jsonPath("$.[*].id").value(hasItem(bookEntity.getId().intValue())))
             .andExpect(jsonPath("$.[*].isbn").value(hasItem(DEFAULT_ISBN)))
             .andExpect(jsonPath("$.[*].title").value(hasItem(DEFAULT_TITLE)))
-            .andExpect(jsonPath("$.[*].description").value(hasItem(DEFAULT_DESCRIPTION)))
+            .andExpect(jsonPath("$.[*].description").isEmpty())
             .andExpect(jsonPath("$.[*].coverImageUrl").value(hasItem(DEFAULT_COVER_IMAGE_URL)))
             .andExpect(jsonPath("$.[*].pageCount").value(hasItem(DEFAULT_PAGE_COUNT)))
             .andExpect(jsonPath("$.[*].publicationDate").value(hasItem(DEFAULT_PUBLICATION_DATE.toString())))
@@ -282,6 +308,50 @@ class BookResourceIT {
             .andExpect(jsonPath("$.updatedAt").value(DEFAULT_UPDATED_AT.toString()));
     }
 
+    @Test
+    @Transactional
+    void getBookNotModified() throws Exception {
+        // Initialize the database
+        insertedBookEntity = bookRepository.saveAndFlush(bookEntity);
+
+        String eTag = restBookMockMvc
+            .perform(get(ENTITY_API_URL_ID, bookEntity.getId()))
+            .andExpect(status().isOk())
+            .andReturn()
+            .getResponse()
+            .getHeader(HttpHeaders.ETAG);
+        assertThat(eTag).startsWith("\"" + bookEntity.getVersion() + "-");
+
+        restBookMockMvc
+            .perform(get(ENTITY_API_URL_ID, bookEntity.getId()).header(HttpHeaders.IF_NONE_MATCH, eTag))
+            .andExpect(status().isNotModified())
+            .andExpect(content().string(""));
+
+        // The rating counters are maintained without updating updatedAt nor incrementing the version
+        em.createNativeQuery("update book set total_ratings = ? where id = ?")
+            .setParameter(1, UPDATED_TOTAL_RATINGS)
+            .setParameter(2, bookEntity.getId())
+            .executeUpdate();
+        em.clear();
+
+        restBookMockMvc
+            .perform(get(ENTITY_API_URL_ID, bookEntity.getId()).header(HttpHeaders.IF_NONE_MATCH, eTag))
+            .andExpect(status().isOk())
+            .andExpect(header().doesNotExist(HttpHeaders.LAST_MODIFIED))
+            .andExpect(header().string(HttpHeaders.ETAG, startsWith("\"" + bookEntity.getVersion() + "-")))
+            .andExpect(jsonPath("$.totalRatings").value(UPDATED_TOTAL_RATINGS));
+
+        // The counters do not fail an update expecting the version
+        restBookMockMvc
+            .perform(
+                patch(ENTITY_API_URL_ID, bookEntity.getId())
+                    .header(HttpHeaders.IF_MATCH, eTag)
+                    .contentType("application/merge-patch+json")
+                    .content(om.writeValueAsBytes(new BookEntity().id(bookEntity.getId()).title(UPDATED_TITLE)))
+            )
+            .andExpect(status().isOk());
+    }
+
     @Test
     @Transactional
     void getBooksByIdFiltering() throws Exception {
@@ -977,6 +1047,40 @@ class BookResourceIT {
         defaultBookShouldNotBeFound("publisherId.equals=" + (publisherId + 1));
     }
 
+    @Test
+    @Transactional
+    void getAllBooksByGenreIsEqualToSomething() throws Exception {
+        GenreEntity genre = GenreResourceIT.createEntity();
+        em.persist(genre);
+        bookRepository.saveAndFlush(bookEntity);
+        em.persist(new BookGenreEntity().book(bookEntity).genre(genre));
+        em.flush();
+        Long genreId = genre.getId();
+        // Get all the bookList where genre equals to genreId
+        defaultBookShouldBeFound("genreId.equals=" + genreId);
+
+        // Get all the bookList where genre equals to (genreId + 1)
+        defaultBookShouldNotBeFound("genreId.equals=" + (genreId + 1));
+    }
+
+    @Test
+    @Transactional
+    void getAllBooksByGenreIsInSeveralGenresOfTheBook() throws Exception {
+        GenreEntity genre = GenreResourceIT.createEntity();
+        GenreEntity otherGenre = GenreResourceIT.createEntity().name("other-genre").slug("other-genre");
+        em.persist(genre);
+        em.persist(otherGenre);
+        bookRepository.saveAndFlush(bookEntity);
+        em.persist(new BookGenreEntity().book(bookEntity).genre(genre));
+        em.persist(new BookGenreEntity().book(bookEntity).genre(otherGenre));
+        em.flush();
+        // The book matches both genres, and is still listed and counted once without distinct
+        defaultBookShouldBeFound("genreId.in=" + genre.getId() + "," + otherGenre.getId());
+        defaultBookShouldBeFound("genreId.specified=true");
+
+        defaultBookShouldNotBeFound("genreId.specified=false");
+    }
+
     private void defaultBookFiltering(String shouldBeFound, String shouldNotBeFound) throws Exception {
         defaultBookShouldBeFound(shouldBeFound);
         defaultBookShouldNotBeFound(shouldNotBeFound);
@@ -993,7 +1097,7 @@ class BookResourceIT {
             .andExpect(jsonPath("$.[*].id").value(hasItem(bookEntity.getId().intValue())))
             .andExpect(jsonPath("$.[*].isbn").value(hasItem(DEFAULT_ISBN)))
             .andExpect(jsonPath("$.[*].title").value(hasItem(DEFAULT_TITLE)))
-            .andExpect(jsonPath("$.[*].description").value(hasItem(DEFAULT_DESCRIPTION)))
+            .andExpect(jsonPath("$.[*].description").isEmpty())
             .andExpect(jsonPath("$.[*].coverImageUrl").value(hasItem(DEFAULT_COVER_IMAGE_URL)))
             .andExpect(jsonPath("$.[*].pageCount").value(hasItem(DEFAULT_PAGE_COUNT)))
             .andExpect(jsonPath("$.[*].publicationDate").value(hasItem(DEFAULT_PUBLICATION_DATE.toString())))
@@ -1031,6 +1135,95 @@ class BookResourceIT {
             .andExpect(content().string("0"));
     }
 
+    @Test
+    @Transactional
+    void getAllBooksWithCursor() throws Exception {
+        // Initialize the database
+        BookEntity first = bookRepository.saveAndFlush(createEntity().isbn("cursor-1").title("B").language("cursor"));
+        BookEntity second = bookRepository.saveAndFlush(createEntity().isbn("cursor-2").title("A").language("cursor"));
+        BookEntity third = bookRepository.saveAndFlush(createEntity().isbn("cursor-3").title("B").language("cursor"));
+
+        // Get the first page, without total count
+        String nextCursor = restBookMockMvc
+            .perform(get(ENTITY_API_URL + "?cursor=&size=2&sort=title,asc&language.equals=cursor"))
+            .andExpect(status().isOk())
+            .andExpect(content().contentType(MediaType.APPLICATION_JSON_VALUE))
+            .andExpect(header().doesNotExist("X-Total-Count"))
+            .andExpect(header().string("Link", containsString("rel=\"next\"")))
+            .andExpect(jsonPath("$.[*].id").value(contains(second.getId().intValue(), first.getId().intValue())))
+            .andReturn()
+            .getResponse()
+            .getHeader("X-Next-Cursor");
+
+        // Get the last page
+        restBookMockMvc
+            .perform(get(ENTITY_API_URL + "?cursor=" + nextCursor + "&size=2&sort=title,asc&language.equals=cursor"))
+            .andExpect(status().isOk())
+            .andExpect(header().doesNotExist("Link"))
+            .andExpect(jsonPath("$.[*].id").value(contains(third.getId().intValue())));
+    }
+
+    @Test
+    @Transactional
+    void getAllBooksWithCursorSortsNullValuesLast() throws Exception {
+        // Initialize the database
+        BookEntity withoutCover = bookRepository.saveAndFlush(createEntity().isbn("cursor-1").coverImageUrl(null).language("cursor"));
+        BookEntity first = bookRepository.saveAndFlush(createEntity().isbn("cursor-2").coverImageUrl("b").language("cursor"));
+        BookEntity second = bookRepository.saveAndFlush(createEntity().isbn("cursor-3").coverImageUrl("a").language("cursor"));
+
+        String nextCursor = restBookMockMvc
+            .perform(get(ENTITY_API_URL + "?cursor=&size=2&sort=coverImageUrl,desc&language.equals=cursor"))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.[*].id").value(contains(first.getId().intValue(), second.getId().intValue())))
+            .andReturn()
+            .getResponse()
+            .getHeader("X-Next-Cursor");
+
+        restBookMockMvc
+            .perform(get(ENTITY_API_URL + "?cursor=" + nextCursor + "&size=2&sort=coverImageUrl,desc&language.equals=cursor"))
+            .andExpect(status().isOk())
+            .andExpect(header().doesNotExist("Link"))
+            .andExpect(jsonPath("$.[*].id").value(contains(withoutCover.getId().intValue())));
+    }
+
+    @Test
+    @Transactional
+    void getAllBooksWithInvalidCursor() throws Exception {
+        restBookMockMvc.perform(get(ENTITY_API_URL + "?cursor=not-a-cursor&sort=id,asc")).andExpect(status().isBadRequest());
+        restBookMockMvc.perform(get(ENTITY_API_URL + "?cursor=&sort=title,asc&sort=isbn,asc")).andExpect(status().isBadRequest());
+        restBookMockMvc.perform(get(ENTITY_API_URL + "?cursor=&sort=description,asc")).andExpect(status().isBadRequest());
+    }
+
+    @Test
+    @Transactional
+    void getBookFacets() throws Exception {
+        // Initialize the database
+        PublisherEntity publisher = PublisherResourceIT.createEntity();
+        em.persist(publisher);
+        GenreEntity genre = GenreResourceIT.createEntity();
+        em.persist(genre);
+        bookRepository.saveAndFlush(bookEntity.language("FACETS").publicationDate(LocalDate.of(1975, 5, 1)).publisher(publisher));
+        em.persist(new BookGenreEntity().book(bookEntity).genre(genre));
+        bookRepository.saveAndFlush(createEntity().isbn("FACETS-2").language("FACETS").publicationDate(LocalDate.of(1979, 1, 1)));
+        bookRepository.saveAndFlush(createEntity().isbn("FACETS-3").language("OTHER").publisher(publisher));
+        em.flush();
+
+        // Get the facets of the books matching the criteria
+        restBookMockMvc
+            .perform(get(ENTITY_API_URL + "/facets?language.equals=FACETS"))
+            .andExpect(status().isOk())
+            .andExpect(content().contentType(MediaType.APPLICATION_JSON_VALUE))
+            .andExpect(jsonPath("$.languages[*].value").value(contains("FACETS")))
+            .andExpect(jsonPath("$.languages[0].count").value(2))
+            .andExpect(jsonPath("$.decades[*].value").value(contains("1970")))
+            .andExpect(jsonPath("$.decades[0].count").value(2))
+            .andExpect(jsonPath("$.publishers[*].id").value(contains(publisher.getId().intValue())))
+            .andExpect(jsonPath("$.publishers[0].value").value(publisher.getName()))
+            .andExpect(jsonPath("$.publishers[0].count").value(1))
+            .andExpect(jsonPath("$.genres[*].id").value(contains(genre.getId().intValue())))
+            .andExpect(jsonPath("$.genres[0].count").value(1));
+    }
+
     @Test
     @Transactional
     void getNonExistingBook() throws Exception {
@@ -1038,6 +1231,150 @@ class BookResourceIT {
         restBookMockMvc.perform(get(ENTITY_API_URL_ID, Long.MAX_VALUE)).andExpect(status().isNotFound());
     }
 
+    @Test
+    @Transactional
+    void getFullBook() throws Exception {
+        // Initialize the database
+        PublisherEntity publisher = PublisherResourceIT.createEntity();
+        em.persist(publisher);
+        insertedBookEntity = bookRepository.saveAndFlush(bookEntity.publisher(publisher));
+        AuthorEntity secondAuthor = AuthorResourceIT.createEntity().fullName("Second Author");
+        em.persist(secondAuthor);
+        AuthorEntity primaryAuthor = AuthorResourceIT.createEntity().fullName("Primary Author");
+        em.persist(primaryAuthor);
+        em.persist(new BookAuthorEntity().book(bookEntity).author(secondAuthor).isPrimary(false).order(1));
+        em.persist(new BookAuthorEntity().book(bookEntity).author(primaryAuthor).isPrimary(true).order(2));
+        GenreEntity genre = GenreResourceIT.createEntity();
+        em.persist(genre);
+        em.persist(new BookGenreEntity().book(bookEntity).genre(genre));
+        TagEntity tag = TagResourceIT.createEntity();
+        em.persist(tag);
+        em.persist(new BookTagEntity().book(bookEntity).tag(tag));
+        em.flush();
+        em.clear();
+
+        Statistics statistics = em.getEntityManagerFactory().unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+        statistics.setStatisticsEnabled(true);
+        try {
+            // Get the book with its relationships
+            restBookMockMvc
+                .perform(get(ENTITY_API_URL_ID + "/full", bookEntity.getId()))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType(MediaType.APPLICATION_JSON_VALUE))
+                .andExpect(jsonPath("$.id").value(bookEntity.getId().intValue()))
+                .andExpect(jsonPath("$.title").value(DEFAULT_TITLE))
+                .andExpect(jsonPath("$.description").value(DEFAULT_DESCRIPTION))
+                .andExpect(jsonPath("$.publisher.id").value(publisher.getId().intValue()))
+                .andExpect(jsonPath("$.publisher.name").value(publisher.getName()))
+                .andExpect(jsonPath("$.authors[*].author.fullName").value(contains("Primary Author", "Second Author")))
+                .andExpect(jsonPath("$.authors[0].isPrimary").value(true))
+                .andExpect(jsonPath("$.authors[*].author.biography").isEmpty())
+                .andExpect(jsonPath("$.genres[*].id").value(contains(genre.getId().intValue())))
+                .andExpect(jsonPath("$.tags[*].name").value(contains(tag.getName())));
+
+            assertThat(statistics.getPrepareStatementCount()).isLessThanOrEqualTo(FULL_BOOK_QUERY_BUDGET);
+        } finally {
+            statistics.setStatisticsEnabled(false);
+        }
+    }
+
+    @Test
+    @Transactional
+    void getNonExistingFullBook() throws Exception {
+        // Get the book
+        restBookMockMvc.perform(get(ENTITY_API_URL_ID + "/full", Long.MAX_VALUE)).andExpect(status().isNotFound());
+    }
+
+    @Test
+    void exportBooksAsNdjson() throws Exception {
+        // Initialize the database, outside of a test transaction as the export is streamed from another thread
+        insertedBookEntity = bookRepository.saveAndFlush(bookEntity);
+
+        MvcResult mvcResult = restBookMockMvc
+            .perform(get(ENTITY_API_URL + "/export?id.equals=" + bookEntity.getId()))
+            .andExpect(request().asyncStarted())
+            .andReturn();
+        restBookMockMvc
+            .perform(asyncDispatch(mvcResult))
+            .andExpect(status().isOk())
+            .andExpect(content().contentType("application/x-ndjson"))
+            .andExpect(header().string(HttpHeaders.CONTENT_DISPOSITION, containsString("books.ndjson")));
+
+        String[] lines = mvcResult.getResponse().getContentAsString(StandardCharsets.UTF_8).split("\n");
+        assertThat(lines).hasSize(1);
+        JsonNode book = om.readTree(lines[0]);
+        assertThat(book.get("id").asLong()).isEqualTo(bookEntity.getId());
+        assertThat(book.get("isbn").asText()).isEqualTo(DEFAULT_ISBN);
+        assertThat(book.get("description").asText()).isEqualTo(DEFAULT_DESCRIPTION);
+        assertThat(book.get("publicationDate").asText()).isEqualTo(DEFAULT_PUBLICATION_DATE.toString());
+        assertThat(book.get("createdAt").asText()).isEqualTo(DEFAULT_CREATED_AT.toString());
+    }
+
+    @Test
+    void exportBooksAsGzippedCsv() throws Exception {
+        // Initialize the database, outside of a test transaction as the export is streamed from another thread
+        insertedBookEntity = bookRepository.saveAndFlush(bookEntity);
+
+        MvcResult mvcResult = restBookMockMvc
+            .perform(
+                get(ENTITY_API_URL + "/export?format=csv&id.equals=" + bookEntity.getId()).header(HttpHeaders.ACCEPT_ENCODING, "gzip")
+            )
+            .andExpect(request().asyncStarted())
+            .andReturn();
+        restBookMockMvc
+            .perform(asyncDispatch(mvcResult))
+            .andExpect(status().isOk())
+            .andExpect(content().contentType("text/csv"))
+            .andExpect(header().string(HttpHeaders.CONTENT_ENCODING, "gzip"));
+
+        String csv;
+        try (
+            GZIPInputStream gzipInputStream = new GZIPInputStream(new ByteArrayInputStream(mvcResult.getResponse().getContentAsByteArray()))
+        ) {
+            csv = new String(gzipInputStream.readAllBytes(), StandardCharsets.UTF_8);
+        }
+        String[] lines = csv.split("\r\n");
+        assertThat(lines).hasSize(2);
+        assertThat(lines[0]).startsWith("id,isbn,title,description,").endsWith(",publisherId");
+        assertThat(lines[1]).startsWith(bookEntity.getId() + "," + DEFAULT_ISBN + "," + DEFAULT_TITLE + "," + DEFAULT_DESCRIPTION + ",");
+    }
+
+    @Test
+    void exportBooksWithUnsupportedFormat() throws Exception {
+        restBookMockMvc.perform(get(ENTITY_API_URL + "/export?format=xml")).andExpect(status().isBadRequest());
+    }
+
+    @Test
+    void getTrendingBooks() throws Exception {
+        // Initialize the database, outside of a test transaction as the scores are recorded once it has committed
+        insertedBookEntity = bookRepository.saveAndFlush(bookEntity);
+        trendingService.bookReviewed(bookEntity.getId());
+        trendingService.bookRated(bookEntity.getId());
+
+        restBookMockMvc
+            .perform(get(ENTITY_API_URL + "/trending?size=100"))
+            .andExpect(status().isOk())
+            .andExpect(content().contentType(MediaType.APPLICATION_JSON_VALUE))
+            .andExpect(jsonPath("$.[*].id").value(hasItem(bookEntity.getId().intValue())))
+            .andExpect(jsonPath("$.[*].score").isNotEmpty())
+            .andExpect(jsonPath("$.[*].description").doesNotExist());
+    }
+
+    @Test
+    void getTrendingBooksOfGenreWithoutBooks() throws Exception {
+        restBookMockMvc
+            .perform(get(ENTITY_API_URL + "/trending?genreId=" + Long.MAX_VALUE))
+            .andExpect(status().isOk())
+            .andExpect(content().json("[]"));
+    }
+
+    @Test
+    @Transactional
+    void getSimilarBooksOfNonExistingBook() throws Exception {
+        restBookMockMvc.perform(get(ENTITY_API_URL_ID + "/similar", Long.MAX_VALUE)).andExpect(status().isNotFound());
+    }
+
     @Test
     @Transactional
     void putExistingBook() throws Exception {
@@ -1074,6 +1411,11 @@ class BookResourceIT {
 
         // Validate the Book in the database
         assertSameRepositoryCount(databaseSizeBeforeUpdate);
+        // The counters are not editable
+        updatedBookEntity
+            .averageRating(DEFAULT_AVERAGE_RATING)
+            .totalRatings(DEFAULT_TOTAL_RATINGS)
+            .totalReviews(DEFAULT_TOTAL_REVIEWS);
         assertPersistedBookEntityToMatchAllProperties(updatedBookEntity);
     }
 
@@ -1128,6 +1470,75 @@ class BookResourceIT {
         assertSameRepositoryCount(databaseSizeBeforeUpdate);
     }
 
+    @Test
+    @Transactional
+    void putOutdatedBook() throws Exception {
+        // Initialize the database
+        insertedBookEntity = bookRepository.saveAndFlush(bookEntity);
+        byte[] outdatedBookEntity = om.writeValueAsBytes(bookEntity);
+
+        // Update the book concurrently
+        bookRepository.saveAndFlush(bookEntity.title(UPDATED_TITLE));
+
+        // The version of the body is outdated
+        restBookMockMvc
+            .perform(put(ENTITY_API_URL_ID, bookEntity.getId()).contentType(MediaType.APPLICATION_JSON).content(outdatedBookEntity))
+            .andExpect(status().isConflict());
+
+        // The version of the If-Match header is outdated
+        restBookMockMvc
+            .perform(
+                put(ENTITY_API_URL_ID, bookEntity.getId())
+                    .header(HttpHeaders.IF_MATCH, "\"" + (bookEntity.getVersion() - 1) + "\"")
+                    .contentType(MediaType.APPLICATION_JSON)
+                    .content(om.writeValueAsBytes(bookEntity))
+            )
+            .andExpect(status().isPreconditionFailed());
+    }
+
+    @Test
+    @Transactional
+    void partialUpdateBookWithIfMatch() throws Exception {
+        // Initialize the database
+        insertedBookEntity = bookRepository.saveAndFlush(bookEntity);
+        String eTag = "\"" + bookEntity.getVersion() + "\"";
+
+        BookEntity partialUpdatedBookEntity = new BookEntity();
+        partialUpdatedBookEntity.setId(bookEntity.getId());
+        partialUpdatedBookEntity.title(UPDATED_TITLE);
+
+        restBookMockMvc
+            .perform(
+                patch(ENTITY_API_URL_ID, partialUpdatedBookEntity.getId())
+                    .header(HttpHeaders.IF_MATCH, eTag)
+                    .contentType("application/merge-patch+json")
+                    .content(om.writeValueAsBytes(partialUpdatedBookEntity))
+            )
+            .andExpect(status().isOk())
+            .andExpect(header().exists(HttpHeaders.ETAG));
+        em.flush();
+
+        // The book was updated since
+        restBookMockMvc
+            .perform(
+                patch(ENTITY_API_URL_ID, partialUpdatedBookEntity.getId())
+                    .header(HttpHeaders.IF_MATCH, eTag)
+                    .contentType("application/merge-patch+json")
+                    .content(om.writeValueAsBytes(partialUpdatedBookEntity.description(UPDATED_DESCRIPTION)))
+            )
+            .andExpect(status().isPreconditionFailed());
+
+        // A weak entity tag never matches
+        restBookMockMvc
+            .perform(
+                patch(ENTITY_API_URL_ID, partialUpdatedBookEntity.getId())
+                    .header(HttpHeaders.IF_MATCH, "W/" + eTag)
+                    .contentType("application/merge-patch+json")
+                    .content(om.writeValueAsBytes(partialUpdatedBookEntity))
+            )
+            .andExpect(status().isPreconditionFailed());
+    }
+
     @Test
     @Transactional
     void partialUpdateBookWithPatch() throws Exception {
@@ -1145,8 +1556,6 @@ class BookResourceIT {
             .coverImageUrl(UPDATED_COVER_IMAGE_URL)
             .pageCount(UPDATED_PAGE_COUNT)
             .publicationDate(UPDATED_PUBLICATION_DATE)
-            .totalRatings(UPDATED_TOTAL_RATINGS)
-            .totalReviews(UPDATED_TOTAL_REVIEWS)
             .createdAt(UPDATED_CREATED_AT)
             .updatedAt(UPDATED_UPDATED_AT);
 
@@ -1204,6 +1613,11 @@ class BookResourceIT {
         // Validate the Book in the database
 
         assertSameRepositoryCount(databaseSizeBeforeUpdate);
+        // The counters are not editable
+        partialUpdatedBookEntity
+            .averageRating(DEFAULT_AVERAGE_RATING)
+            .totalRatings(DEFAULT_TOTAL_RATINGS)
+            .totalReviews(DEFAULT_TOTAL_REVIEWS);
         assertBookEntityUpdatableFieldsEquals(partialUpdatedBookEntity, getPersistedBookEntity(partialUpdatedBookEntity));
     }
 
@@ -18,6 +18,7 @@ import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
 import org.springframework.security.test.context.support.WithMockUser;
 import org.springframework.test.web.servlet.MockMvc;
@@ -205,7 +206,7 @@ class CollectionResourceIT {
             .andExpect(content().contentType(MediaType.APPLICATION_JSON_VALUE))
             .andExpect(jsonPath("$.[*].id").value(hasItem(collectionEntity.getId().intValue())))
             .andExpect(jsonPath("$.[*].name").value(hasItem(DEFAULT_NAME)))
-            .andExpect(jsonPath("$.[*].description").value(hasItem(DEFAULT_DESCRIPTION)))
+            .andExpect(jsonPath("$.[*].description").isEmpty())
             .andExpect(jsonPath("$.[*].isPublic").value(hasItem(DEFAULT_IS_PUBLIC)))
             .andExpect(jsonPath("$.[*].bookCount").value(hasItem(DEFAULT_BOOK_COUNT)))
             .andExpect(jsonPath("$.[*].createdAt").value(hasItem(DEFAULT_CREATED_AT.toString())))
@@ -232,6 +233,36 @@ class CollectionResourceIT {
             .andExpect(jsonPath("$.updatedAt").value(DEFAULT_UPDATED_AT.toString()));
     }
 
+    @Test
+    @Transactional
+    void getCollectionNotModified() throws Exception {
+        // Initialize the database
+        insertedCollectionEntity = collectionRepository.saveAndFlush(collectionEntity);
+
+        // The number of books is maintained without incrementing the version
+        String eTag = restCollectionMockMvc
+            .perform(get(ENTITY_API_URL_ID, collectionEntity.getId()))
+            .andExpect(status().isOk())
+            .andReturn()
+            .getResponse()
+            .getHeader(HttpHeaders.ETAG);
+        assertThat(eTag).isEqualTo("\"" + collectionEntity.getVersion() + "-" + DEFAULT_BOOK_COUNT + "\"");
+
+        restCollectionMockMvc
+            .perform(get(ENTITY_API_URL_ID, collectionEntity.getId()).header(HttpHeaders.IF_NONE_MATCH, eTag))
+            .andExpect(status().isNotModified())
+            .andExpect(content().string(""));
+
+        String url = ENTITY_API_URL + "?id.equals=" + collectionEntity.getId();
+        String listETag = restCollectionMockMvc
+            .perform(get(url))
+            .andExpect(status().isOk())
+            .andReturn()
+            .getResponse()
+            .getHeader(HttpHeaders.ETAG);
+        restCollectionMockMvc.perform(get(url).header(HttpHeaders.IF_NONE_MATCH, listETag)).andExpect(status().isNotModified());
+    }
+
     @Test
     @Transactional
     void getCollectionsByIdFiltering() throws Exception {
@@ -497,7 +528,7 @@ class CollectionResourceIT {
             .andExpect(content().contentType(MediaType.APPLICATION_JSON_VALUE))
             .andExpect(jsonPath("$.[*].id").value(hasItem(collectionEntity.getId().intValue())))
             .andExpect(jsonPath("$.[*].name").value(hasItem(DEFAULT_NAME)))
-            .andExpect(jsonPath("$.[*].description").value(hasItem(DEFAULT_DESCRIPTION)))
+            .andExpect(jsonPath("$.[*].description").isEmpty())
             .andExpect(jsonPath("$.[*].isPublic").value(hasItem(DEFAULT_IS_PUBLIC)))
             .andExpect(jsonPath("$.[*].bookCount").value(hasItem(DEFAULT_BOOK_COUNT)))
             .andExpect(jsonPath("$.[*].createdAt").value(hasItem(DEFAULT_CREATED_AT.toString())))
@@ -567,6 +598,8 @@ class CollectionResourceIT {
 
         // Validate the Collection in the database
         assertSameRepositoryCount(databaseSizeBeforeUpdate);
+        // The counter is not editable
+        updatedCollectionEntity.bookCount(DEFAULT_BOOK_COUNT);
         assertPersistedCollectionEntityToMatchAllProperties(updatedCollectionEntity);
     }
 
@@ -685,6 +718,8 @@ class CollectionResourceIT {
         // Validate the Collection in the database
 
         assertSameRepositoryCount(databaseSizeBeforeUpdate);
+        // The counter is not editable
+        partialUpdatedCollectionEntity.bookCount(DEFAULT_BOOK_COUNT);
         assertCollectionEntityUpdatableFieldsEquals(
             partialUpdatedCollectionEntity,
             getPersistedCollectionEntity(partialUpdatedCollectionEntity)
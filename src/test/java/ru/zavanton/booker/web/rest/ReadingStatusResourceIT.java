@@ -20,6 +20,7 @@ import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
 import org.springframework.security.test.context.support.WithMockUser;
 import org.springframework.test.web.servlet.MockMvc;
@@ -260,6 +261,37 @@ class ReadingStatusResourceIT {
             .andExpect(jsonPath("$.updatedAt").value(DEFAULT_UPDATED_AT.toString()));
     }
 
+    @Test
+    @Transactional
+    void getReadingStatusNotModified() throws Exception {
+        // Initialize the database
+        insertedReadingStatusEntity = readingStatusRepository.saveAndFlush(readingStatusEntity);
+
+        String eTag = restReadingStatusMockMvc
+            .perform(get(ENTITY_API_URL_ID, readingStatusEntity.getId()))
+            .andExpect(status().isOk())
+            .andReturn()
+            .getResponse()
+            .getHeader(HttpHeaders.ETAG);
+        assertThat(eTag).isEqualTo("\"" + readingStatusEntity.getVersion() + "-" + DEFAULT_CURRENT_PAGE + "\"");
+
+        restReadingStatusMockMvc
+            .perform(get(ENTITY_API_URL_ID, readingStatusEntity.getId()).header(HttpHeaders.IF_NONE_MATCH, eTag))
+            .andExpect(status().isNotModified());
+
+        // The reading progress is written without incrementing the version
+        em.createNativeQuery("update reading_status set current_page = ? where id = ?")
+            .setParameter(1, UPDATED_CURRENT_PAGE)
+            .setParameter(2, readingStatusEntity.getId())
+            .executeUpdate();
+        em.clear();
+
+        restReadingStatusMockMvc
+            .perform(get(ENTITY_API_URL_ID, readingStatusEntity.getId()).header(HttpHeaders.IF_NONE_MATCH, eTag))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.currentPage").value(UPDATED_CURRENT_PAGE));
+    }
+
     @Test
     @Transactional
     void getReadingStatusesByIdFiltering() throws Exception {
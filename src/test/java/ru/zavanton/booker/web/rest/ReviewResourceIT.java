@@ -19,6 +19,7 @@ import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
 import org.springframework.http.MediaType;
+import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.security.test.context.support.WithMockUser;
 import org.springframework.test.web.servlet.MockMvc;
 import org.springframework.transaction.annotation.Transactional;
@@ -72,6 +73,9 @@ class ReviewResourceIT {
     @Autowired
     private UserRepository userRepository;
 
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
     @Autowired
     private EntityManager em;
 
@@ -597,6 +601,27 @@ class ReviewResourceIT {
         restReviewMockMvc.perform(get(ENTITY_API_URL_ID, Long.MAX_VALUE)).andExpect(status().isNotFound());
     }
 
+    @Test
+    @Transactional
+    void markReviewHelpful() throws Exception {
+        // Initialize the database
+        insertedReviewEntity = reviewRepository.saveAndFlush(reviewEntity);
+
+        restReviewMockMvc.perform(post(ENTITY_API_URL_ID + "/helpful", reviewEntity.getId())).andExpect(status().isNoContent());
+        // Marking the review again has no effect
+        restReviewMockMvc.perform(post(ENTITY_API_URL_ID + "/helpful", reviewEntity.getId())).andExpect(status().isNoContent());
+
+        assertThat(
+            jdbcTemplate.queryForObject("select count(*) from review_helpful_vote where review_id = ?", Long.class, reviewEntity.getId())
+        ).isEqualTo(1);
+    }
+
+    @Test
+    @Transactional
+    void markNonExistingReviewHelpful() throws Exception {
+        restReviewMockMvc.perform(post(ENTITY_API_URL_ID + "/helpful", Long.MAX_VALUE)).andExpect(status().isBadRequest());
+    }
+
     @Test
     @Transactional
     void putExistingReview() throws Exception {
@@ -627,6 +652,8 @@ class ReviewResourceIT {
 
         // Validate the Review in the database
         assertSameRepositoryCount(databaseSizeBeforeUpdate);
+        // The counter is not editable
+        updatedReviewEntity.helpfulCount(DEFAULT_HELPFUL_COUNT);
         assertPersistedReviewEntityToMatchAllProperties(updatedReviewEntity);
     }
 
@@ -749,6 +776,8 @@ class ReviewResourceIT {
         // Validate the Review in the database
 
         assertSameRepositoryCount(databaseSizeBeforeUpdate);
+        // The counter is not editable
+        partialUpdatedReviewEntity.helpfulCount(DEFAULT_HELPFUL_COUNT);
         assertReviewEntityUpdatableFieldsEquals(partialUpdatedReviewEntity, getPersistedReviewEntity(partialUpdatedReviewEntity));
     }
 
@@ -0,0 +1,153 @@
+package ru.zavanton.booker.web.rest;
+
+import static org.hamcrest.Matchers.hasSize;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.http.MediaType;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.security.test.context.support.WithMockUser;
+import org.springframework.test.web.servlet.MockMvc;
+import ru.zavanton.booker.IntegrationTest;
+import ru.zavanton.booker.domain.BookEntity;
+import ru.zavanton.booker.domain.ReviewEntity;
+import ru.zavanton.booker.repository.UserRepository;
+import ru.zavanton.booker.service.BookService;
+import ru.zavanton.booker.service.ReviewService;
+import ru.zavanton.booker.service.search.BookSearchService;
+
+/**
+ * Integration tests for the {@link SearchResource} REST controller.
+ */
+@IntegrationTest
+@AutoConfigureMockMvc
+@WithMockUser
+class SearchResourceIT {
+
+    private static final String SEARCH_API_URL = "/api/_search/books";
+
+    @Autowired
+    private BookService bookService;
+
+    @Autowired
+    private ReviewService reviewService;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private BookSearchService bookSearchService;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private MockMvc restSearchMockMvc;
+
+    private BookEntity matchingBook;
+
+    private BookEntity otherBook;
+
+    @BeforeEach
+    public void init() {
+        bookSearchService.rebuild();
+        matchingBook = bookService.save(
+            BookResourceIT.createEntity().isbn("978-0-441-17271-9").title("Dune").description("A desert planet and its sandworms")
+        );
+        otherBook = bookService.save(
+            BookResourceIT.createEntity().isbn("978-0-553-29335-7").title("Foundation").description("Psychohistory and sandworms")
+        );
+        bookSearchService.refresh();
+    }
+
+    @AfterEach
+    public void cleanup() {
+        bookService.delete(matchingBook.getId());
+        bookService.delete(otherBook.getId());
+        bookSearchService.refresh();
+    }
+
+    @Test
+    void searchBooksByTitle() throws Exception {
+        restSearchMockMvc
+            .perform(get(SEARCH_API_URL + "?query=dune"))
+            .andExpect(status().isOk())
+            .andExpect(content().contentType(MediaType.APPLICATION_JSON_VALUE))
+            .andExpect(header().string("X-Total-Count", "1"))
+            .andExpect(jsonPath("$.[0].id").value(matchingBook.getId().intValue()));
+    }
+
+    @Test
+    void searchBooksByIsbn() throws Exception {
+        restSearchMockMvc
+            .perform(get(SEARCH_API_URL + "?query=9780441172719"))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$", hasSize(1)))
+            .andExpect(jsonPath("$.[0].id").value(matchingBook.getId().intValue()));
+    }
+
+    @Test
+    void searchBooksRanksTitleFirst() throws Exception {
+        restSearchMockMvc
+            .perform(get(SEARCH_API_URL + "?query=sandworms foundation"))
+            .andExpect(status().isOk())
+            .andExpect(header().string("X-Total-Count", "2"))
+            .andExpect(jsonPath("$.[0].id").value(otherBook.getId().intValue()))
+            .andExpect(jsonPath("$.[1].id").value(matchingBook.getId().intValue()));
+    }
+
+    @Test
+    void searchBooksIsUpdatedOnChange() throws Exception {
+        bookService.partialUpdate(new BookEntity().id(matchingBook.getId()).title("Children of Dune"));
+        bookSearchService.refresh();
+
+        restSearchMockMvc
+            .perform(get(SEARCH_API_URL + "?query=children"))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$", hasSize(1)))
+            .andExpect(jsonPath("$.[0].id").value(matchingBook.getId().intValue()));
+
+        bookService.delete(otherBook.getId());
+        bookSearchService.refresh();
+        otherBook = bookService.save(BookResourceIT.createEntity().isbn("978-0-553-29335-7").title("Foundation"));
+
+        restSearchMockMvc.perform(get(SEARCH_API_URL + "?query=psychohistory")).andExpect(jsonPath("$", hasSize(0)));
+    }
+
+    @Test
+    void searchBooksByReview() throws Exception {
+        ReviewEntity review = new ReviewEntity().content("The spice must flow").rating(5).book(matchingBook);
+        review = reviewService.save(review.user(userRepository.findOneByLogin("user").orElseThrow()));
+        bookSearchService.refresh();
+
+        try {
+            restSearchMockMvc
+                .perform(get(SEARCH_API_URL + "?query=spice"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$", hasSize(1)))
+                .andExpect(jsonPath("$.[0].id").value(matchingBook.getId().intValue()));
+        } finally {
+            reviewService.delete(review.getId());
+        }
+    }
+
+    @Test
+    void searchBooksCatchesUpWithTheDatabaseOnRebuild() throws Exception {
+        // Changed without marking the book as dirty, as by another node
+        jdbcTemplate.update("update book set title = ? where id = ?", "Dune Messiah", matchingBook.getId());
+        restSearchMockMvc.perform(get(SEARCH_API_URL + "?query=messiah")).andExpect(jsonPath("$", hasSize(0)));
+
+        bookSearchService.rebuild();
+
+        restSearchMockMvc
+            .perform(get(SEARCH_API_URL + "?query=messiah"))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$", hasSize(1)))
+            .andExpect(jsonPath("$.[0].id").value(matchingBook.getId().intValue()));
+    }
+}
@@ -18,6 +18,7 @@ import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
 import org.springframework.security.test.context.support.WithMockUser;
 import org.springframework.test.web.servlet.MockMvc;
@@ -203,6 +204,39 @@ class TagResourceIT {
             .andExpect(jsonPath("$.createdAt").value(DEFAULT_CREATED_AT.toString()));
     }
 
+    @Test
+    @Transactional
+    void getTagNotModified() throws Exception {
+        // Initialize the database
+        insertedTagEntity = tagRepository.saveAndFlush(tagEntity);
+
+        String eTag = restTagMockMvc
+            .perform(get(ENTITY_API_URL_ID, tagEntity.getId()))
+            .andExpect(status().isOk())
+            .andReturn()
+            .getResponse()
+            .getHeader(HttpHeaders.ETAG);
+        assertThat(eTag).isEqualTo("\"" + tagEntity.getVersion() + "\"");
+
+        restTagMockMvc
+            .perform(get(ENTITY_API_URL_ID, tagEntity.getId()).header(HttpHeaders.IF_NONE_MATCH, eTag))
+            .andExpect(status().isNotModified())
+            .andExpect(content().string(""));
+
+        String url = ENTITY_API_URL + "?id.equals=" + tagEntity.getId();
+        String listETag = restTagMockMvc.perform(get(url)).andExpect(status().isOk()).andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+        restTagMockMvc.perform(get(url).header(HttpHeaders.IF_NONE_MATCH, listETag)).andExpect(status().isNotModified());
+
+        // Update the tag
+        tagRepository.saveAndFlush(tagEntity.name(UPDATED_NAME));
+
+        restTagMockMvc
+            .perform(get(ENTITY_API_URL_ID, tagEntity.getId()).header(HttpHeaders.IF_NONE_MATCH, eTag))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.name").value(UPDATED_NAME));
+        restTagMockMvc.perform(get(url).header(HttpHeaders.IF_NONE_MATCH, listETag)).andExpect(status().isOk());
+    }
+
     @Test
     @Transactional
     void getTagsByIdFiltering() throws Exception {